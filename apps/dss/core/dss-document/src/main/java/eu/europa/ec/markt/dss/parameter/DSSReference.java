@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.dss.parameter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import eu.europa.ec.markt.dss.DigestAlgorithm;
@@ -46,6 +47,11 @@ public class DSSReference {
 
 	private List<DSSTransform> transforms;
 
+	/**
+	 * The digest values of the contents computed beforehand, base 64 encoded
+	 */
+	private HashMap<DigestAlgorithm, String> base64EncodeDigestMap;
+
 	/**
 	 * The default constructor
 	 */
@@ -59,6 +65,10 @@ public class DSSReference {
 		type = reference.type;
 		digestMethod = reference.digestMethod;
 		contents = reference.contents;
+		if (reference.base64EncodeDigestMap != null) {
+
+			base64EncodeDigestMap = new HashMap<DigestAlgorithm, String>(reference.base64EncodeDigestMap);
+		}
 		if (reference.transforms != null && reference.transforms.size() > 0) {
 
 			transforms = new ArrayList<DSSTransform>();
@@ -118,6 +128,31 @@ public class DSSReference {
 		this.contents = contents;
 	}
 
+	/**
+	 * This method allows to add a pair: {@code DigestAlgorithm} and the corresponding digest value calculated externally on the contents. When the digest for the digest
+	 * method of the reference is known, the contents are not read when the signature is created. The digest value must be computed on the data after the
+	 * transformations.
+	 *
+	 * @param digestAlgorithm    {@code DigestAlgorithm}
+	 * @param base64EncodeDigest the corresponding base 64 encoded digest value
+	 */
+	public void addDigest(final DigestAlgorithm digestAlgorithm, final String base64EncodeDigest) {
+
+		if (base64EncodeDigestMap == null) {
+
+			base64EncodeDigestMap = new HashMap<DigestAlgorithm, String>();
+		}
+		base64EncodeDigestMap.put(digestAlgorithm, base64EncodeDigest);
+	}
+
+	/**
+	 * @param digestAlgorithm {@code DigestAlgorithm}
+	 * @return the base 64 encoded digest value provided through {@code #addDigest} or null
+	 */
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+
+		return base64EncodeDigestMap == null ? null : base64EncodeDigestMap.get(digestAlgorithm);
+	}
 
 	@Override
 	public String toString() {
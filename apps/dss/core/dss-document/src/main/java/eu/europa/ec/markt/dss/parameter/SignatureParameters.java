@@ -32,6 +32,7 @@ import eu.europa.ec.markt.dss.SignatureAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.ProfileParameters;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.signature.SignaturePackaging;
 import eu.europa.ec.markt.dss.signature.token.DSSPrivateKeyEntry;
@@ -121,6 +122,11 @@ public class SignatureParameters {
 
 	private List<TimestampToken> contentTimestamps;
 
+	/**
+	 * The material shared by all the signatures of a batch, null outside a batch.
+	 */
+	private SharedSignatureArtifacts sharedArtifacts;
+
 	private XPathQueryHolder toCountersignXPathQueryHolder = new XPathQueryHolder();
 	private String toCounterSignSignatureValueId;
 
@@ -144,6 +150,17 @@ public class SignatureParameters {
 	 */
 	public SignatureParameters(final SignatureParameters source) {
 
+		this(source, null, false);
+	}
+
+	/**
+	 * @param source          the parameters to copy
+	 * @param sharedArtifacts the material shared by the signatures of a batch or null to keep the one of the source
+	 * @param newSignature    true when the copy is used to create another signature: the context and the deterministic id of the source are then neither shared nor
+	 *                        computed
+	 */
+	private SignatureParameters(final SignatureParameters source, final SharedSignatureArtifacts sharedArtifacts, final boolean newSignature) {
+
 		if (source == null) {
 
 			throw new DSSNullException(SignatureParameters.class);
@@ -151,12 +168,18 @@ public class SignatureParameters {
 		bLevelParams = new BLevelParameters(source.bLevelParams);
 		aSiCParams = new ASiCParameters(source.aSiCParams);
 
-		if (certificateChain != null) {
+		this.sharedArtifacts = sharedArtifacts == null ? source.sharedArtifacts : sharedArtifacts;
+		if (sharedArtifacts != null) {
+
+			certificateChain = sharedArtifacts.getCertificateChain();
+		} else if (certificateChain != null) {
 
 			certificateChain = new ArrayList<X509Certificate>(source.certificateChain);
 		}
 		contactInfo = source.contactInfo;
-		deterministicId = source.getDeterministicId();
+		if (!newSignature) {
+			deterministicId = source.getDeterministicId();
+		}
 		digestAlgorithm = source.digestAlgorithm;
 		encryptionAlgorithm = source.encryptionAlgorithm;
 		detachedContent = source.detachedContent;
@@ -174,6 +197,8 @@ public class SignatureParameters {
 		signatureTimestampParameters = source.signatureTimestampParameters;
 		archiveTimestampParameters = source.archiveTimestampParameters;
 		toCountersignXPathQueryHolder = source.toCountersignXPathQueryHolder;
+		contentTimestampParameters = source.contentTimestampParameters;
+		xPathLocationString = source.xPathLocationString;
 
 		final List<DSSReference> references = source.getReferences();
 		if (references != null && references.size() > 0) {
@@ -186,7 +211,9 @@ public class SignatureParameters {
 			}
 		}
 		// This is a simple copy of reference and not of the object content!
-		context = source.context;
+		if (!newSignature) {
+			context = source.context;
+		}
 	}
 
 	/**
@@ -299,6 +326,27 @@ public class SignatureParameters {
 		this.deterministicId = deterministicId;
 	}
 
+	/**
+	 * This method returns a copy of these parameters to create a new signature, for example for one document of a batch. Unlike the copy constructor, the signing
+	 * context is not shared and a new deterministic id is allocated, so that the copies can be used concurrently. These parameters are not modified.
+	 *
+	 * @param sharedArtifacts the material shared by all the signatures of the batch or null
+	 * @return a copy of the parameters with its own context
+	 */
+	public SignatureParameters copyForNewSignature(final SharedSignatureArtifacts sharedArtifacts) {
+
+		final SignatureParameters copy = new SignatureParameters(this, sharedArtifacts, true);
+		copy.getDeterministicId();
+		return copy;
+	}
+
+	/**
+	 * @return the material shared by all the signatures of a batch or null
+	 */
+	public SharedSignatureArtifacts getSharedArtifacts() {
+		return sharedArtifacts;
+	}
+
 	public ProfileParameters getContext() {
 		if (context == null) {
 			context = new ProfileParameters();
@@ -22,14 +22,27 @@ package eu.europa.ec.markt.dss.signature;
 
 import java.security.Security;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+import eu.europa.ec.markt.dss.signature.token.SignatureTokenConnection;
+import eu.europa.ec.markt.dss.validation102853.CertificatePool;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
+import eu.europa.ec.markt.dss.validation102853.SignatureValidationContext;
+import eu.europa.ec.markt.dss.validation102853.ValidationContext;
+import eu.europa.ec.markt.dss.validation102853.certificate.CertificateSourceType;
 import eu.europa.ec.markt.dss.validation102853.tsp.TSPSource;
 
 /**
@@ -44,10 +57,22 @@ public abstract class AbstractSignatureService implements DocumentSignatureServi
 		Security.addProvider(new BouncyCastleProvider());
 	}
 
+	/**
+	 * The default number of threads used to sign a batch of documents: the number of available processors
+	 */
+	public static final int DEFAULT_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-signing";
+
 	protected TSPSource tspSource;
 
 	final protected CertificateVerifier certificateVerifier;
 
+	private ExecutorService executorService;
+
 	/**
 	 * To construct a signature service the <code>CertificateVerifier</code> must be set and cannot be null.
 	 *
@@ -68,6 +93,200 @@ public abstract class AbstractSignatureService implements DocumentSignatureServi
 		this.tspSource = tspSource;
 	}
 
+	/**
+	 * This setter allows to define the {@code ExecutorService} used to sign a batch of documents. By default a pool of {@link #DEFAULT_THREAD_POOL_SIZE} daemon threads
+	 * shared by all the services is used.
+	 *
+	 * @param executorService the {@code ExecutorService} to use or null
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	/**
+	 * The material shared by all the signatures (the certificate chain, the digest of the signing certificate and the revocation data of the chain) is computed once,
+	 * see {@link #createSharedArtifacts(SignatureParameters)}. Each document of the batch gets its own copy of the parameters referencing this material, see
+	 * {@code SignatureParameters#copyForNewSignature(SharedSignatureArtifacts)}. The signing is done in three steps:<br>
+	 * - the data to be signed are computed in parallel,<br>
+	 * - the signature values are computed one after the other, a {@code SignatureTokenConnection} is not expected to be thread-safe,<br>
+	 * - the signatures are created and extended in parallel.
+	 */
+	@Override
+	public List<DSSDocument> signDocuments(final List<DSSDocument> toSignDocuments, final SignatureParameters parameters) throws DSSException {
+
+		if (toSignDocuments == null) {
+			throw new DSSNullException(List.class, "toSignDocuments");
+		}
+		final SignatureTokenConnection signingToken = parameters.getSigningToken();
+		if (signingToken == null) {
+			throw new DSSNullException(SignatureTokenConnection.class, "", "The connection through available API to the SSCD must be set.");
+		}
+		final int size = toSignDocuments.size();
+		final SharedSignatureArtifacts sharedArtifacts = createSharedArtifacts(parameters);
+		final List<SignatureParameters> documentParameters = new ArrayList<SignatureParameters>(size);
+		for (int ii = 0; ii < size; ii++) {
+
+			documentParameters.add(parameters.copyForNewSignature(sharedArtifacts));
+		}
+		final List<byte[]> dataToSign = execute(0, size, new BatchTask<byte[]>() {
+
+			@Override
+			public byte[] execute(final int index) throws DSSException {
+
+				return getDataToSign(toSignDocuments.get(index), documentParameters.get(index));
+			}
+		});
+		final List<byte[]> signatureValues = new ArrayList<byte[]>(size);
+		for (int ii = 0; ii < size; ii++) {
+
+			final SignatureParameters signatureParameters = documentParameters.get(ii);
+			signatureValues.add(signingToken.sign(dataToSign.get(ii), signatureParameters.getDigestAlgorithm(), signatureParameters.getPrivateKeyEntry()));
+		}
+		return execute(0, size, new BatchTask<DSSDocument>() {
+
+			@Override
+			public DSSDocument execute(final int index) throws DSSException {
+
+				return signDocument(toSignDocuments.get(index), documentParameters.get(index), signatureValues.get(index));
+			}
+		});
+	}
+
+	/**
+	 * This method computes the material shared by all the signatures of a batch. When the signature level includes revocation data, the certificate chain is validated
+	 * once and its revocation data are reused by the extension of each signature.
+	 *
+	 * @param parameters the parameters of the batch
+	 * @return the shared material
+	 */
+	protected SharedSignatureArtifacts createSharedArtifacts(final SignatureParameters parameters) {
+
+		final List<X509Certificate> certificateChain = new ArrayList<X509Certificate>(parameters.getCertificateChain());
+		final DigestAlgorithm digestAlgorithm = parameters.getDigestAlgorithm();
+		final X509Certificate signingCertificate = parameters.getSigningCertificate();
+		if (signingCertificate == null) {
+			return new SharedSignatureArtifacts(certificateChain, digestAlgorithm, null, null);
+		}
+		final byte[] signingCertificateDigest = DSSUtils.digest(digestAlgorithm, DSSUtils.getEncoded(signingCertificate));
+		ValidationContext chainValidationContext = null;
+		if (isRevocationDataIncluded(parameters.getSignatureLevel())) {
+
+			final CertificatePool validationPool = certificateVerifier.createValidationPool();
+			final SignatureValidationContext validationContext = new SignatureValidationContext(validationPool);
+			validationContext.addCertificateTokenForVerification(validationPool.getInstance(signingCertificate, CertificateSourceType.SIGNATURE));
+			for (final X509Certificate certificate : certificateChain) {
+
+				validationContext.addCertificateTokenForVerification(validationPool.getInstance(certificate, CertificateSourceType.SIGNATURE));
+			}
+			validationContext.initialize(certificateVerifier);
+			validationContext.validate();
+			chainValidationContext = validationContext;
+		}
+		return new SharedSignatureArtifacts(certificateChain, digestAlgorithm, signingCertificateDigest, chainValidationContext);
+	}
+
+	/**
+	 * @param signatureLevel the level of the signature
+	 * @return true if the signature level includes the revocation data of the certificate chain
+	 */
+	private static boolean isRevocationDataIncluded(final SignatureLevel signatureLevel) {
+
+		if (signatureLevel == null) {
+			return false;
+		}
+		switch (signatureLevel) {
+			case XMLDSIG:
+			case XAdES_BASELINE_T:
+			case XAdES_BASELINE_B:
+			case CMS:
+			case CAdES_BASELINE_T:
+			case CAdES_BASELINE_B:
+			case PDF:
+			case PAdES_BASELINE_T:
+			case PAdES_BASELINE_B:
+			case ASiC_S_BASELINE_T:
+			case ASiC_S_BASELINE_B:
+			case ASiC_E_BASELINE_T:
+			case ASiC_E_BASELINE_B:
+				return false;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * One step of the signature of a document of a batch.
+	 *
+	 * @param <T> the type of the result
+	 */
+	private static interface BatchTask<T> {
+
+		T execute(final int index) throws DSSException;
+	}
+
+	/**
+	 * This method executes the given task for each index from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive). When there is more than one index the tasks are
+	 * executed in parallel.
+	 *
+	 * @param fromIndex the first index
+	 * @param toIndex   the index after the last one
+	 * @param task      the task to execute
+	 * @param <T>       the type of the result
+	 * @return the results in the index order
+	 * @throws DSSException the first exception raised by a task
+	 */
+	private <T> List<T> execute(final int fromIndex, final int toIndex, final BatchTask<T> task) throws DSSException {
+
+		final List<T> results = new ArrayList<T>(Math.max(0, toIndex - fromIndex));
+		if (toIndex - fromIndex < 2) {
+
+			for (int ii = fromIndex; ii < toIndex; ii++) {
+
+				results.add(task.execute(ii));
+			}
+			return results;
+		}
+		final ExecutorService executor = executorService == null ? DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, DEFAULT_THREAD_POOL_SIZE) : executorService;
+		final List<Future<T>> futures = new ArrayList<Future<T>>(toIndex - fromIndex);
+		for (int ii = fromIndex; ii < toIndex; ii++) {
+
+			final int index = ii;
+			futures.add(executor.submit(new Callable<T>() {
+
+				@Override
+				public T call() throws Exception {
+
+					return task.execute(index);
+				}
+			}));
+		}
+		try {
+
+			for (final Future<T> future : futures) {
+
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		} finally {
+
+			for (final Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
 	/**
 	 * This method raises an exception if the signing rules forbid the use on an expired certificate.
 	 *
@@ -20,6 +20,8 @@
 
 package eu.europa.ec.markt.dss.signature;
 
+import java.util.List;
+
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.validation102853.tsp.TSPSource;
@@ -71,6 +73,17 @@ public interface DocumentSignatureService {
 	 */
 	public DSSDocument signDocument(final DSSDocument toSignDocument, final SignatureParameters parameters) throws DSSException;
 
+	/**
+	 * Signs a batch of documents with the same set of parameters (signing certificate, level, packaging, policy...). The signing token is used to compute the signature values
+	 * one after the other, the other steps are executed in parallel.
+	 *
+	 * @param toSignDocuments the documents to sign
+	 * @param parameters      set of the driving signing parameters shared by all the signatures, they are not modified
+	 * @return the signed documents in the same order as {@code toSignDocuments}
+	 * @throws DSSException
+	 */
+	public List<DSSDocument> signDocuments(final List<DSSDocument> toSignDocuments, final SignatureParameters parameters) throws DSSException;
+
 	/**
 	 * Extends the level of the signatures in the {@code toExtendDocument}
 	 *
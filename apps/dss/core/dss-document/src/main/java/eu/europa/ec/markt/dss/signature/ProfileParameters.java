@@ -20,8 +20,10 @@
 
 package eu.europa.ec.markt.dss.signature;
 
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.signature.cades.CAdESService;
+import eu.europa.ec.markt.dss.signature.pdf.PdfPreparedSignature;
 import eu.europa.ec.markt.dss.signature.xades.SignatureBuilder;
 import eu.europa.ec.markt.dss.signature.xades.XAdESLevelBaselineB;
 import eu.europa.ec.markt.dss.signature.xades.XAdESService;
@@ -94,6 +96,61 @@ public class ProfileParameters {
 		this.operationKind = operationKind;
 	}
 
+	/*
+	 * The PDF document prepared by PAdESService#getDataToSign, kept to be signed by PAdESService#signDocument without parsing the document again.
+	 */
+	private PdfPreparedSignature preparedSignature;
+
+	/*
+	 * The document from which the prepared PDF document was created.
+	 */
+	private DSSDocument preparedDocument;
+
+	/**
+	 * Returns the prepared PDF signature if it was created from the given document.
+	 *
+	 * @param document the document to be signed
+	 * @return the prepared signature or null
+	 */
+	public PdfPreparedSignature getPreparedSignature(final DSSDocument document) {
+
+		return preparedDocument == document ? preparedSignature : null;
+	}
+
+	public void setPreparedSignature(final DSSDocument document, final PdfPreparedSignature preparedSignature) {
+
+		this.preparedDocument = document;
+		this.preparedSignature = preparedSignature;
+	}
+
+	/*
+	 * The digest of the data to be signed computed by CAdESService#getDataToSign, kept to avoid reading the content again in CAdESService#signDocument.
+	 */
+	private byte[] contentDigest;
+
+	private DSSDocument contentDigestDocument;
+
+	private DigestAlgorithm contentDigestAlgorithm;
+
+	/**
+	 * Returns the digest of the data to be signed if it was computed for the given document and algorithm.
+	 *
+	 * @param document        the data to be signed
+	 * @param digestAlgorithm the digest algorithm
+	 * @return the digest value or null
+	 */
+	public byte[] getContentDigest(final DSSDocument document, final DigestAlgorithm digestAlgorithm) {
+
+		return contentDigestDocument == document && contentDigestAlgorithm == digestAlgorithm ? contentDigest : null;
+	}
+
+	public void setContentDigest(final DSSDocument document, final DigestAlgorithm digestAlgorithm, final byte[] contentDigest) {
+
+		this.contentDigestDocument = document;
+		this.contentDigestAlgorithm = digestAlgorithm;
+		this.contentDigest = contentDigest;
+	}
+
 	/*
 	 * This is the underlying service used within the ASiC signature generation process.
 	 */
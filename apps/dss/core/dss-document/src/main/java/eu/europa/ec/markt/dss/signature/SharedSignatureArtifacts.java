@@ -0,0 +1,111 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature;
+
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+import eu.europa.ec.markt.dss.validation102853.ValidationContext;
+
+/**
+ * This class holds the material which is the same for all the signatures of a batch (see {@code DocumentSignatureService#signDocuments}). It is computed once, before
+ * the signatures are created, and shared by the parameters of all the signatures. An instance is immutable and can be used concurrently.
+ */
+public class SharedSignatureArtifacts {
+
+	/**
+	 * The certificate chain of the signing certificate.
+	 */
+	private final List<X509Certificate> certificateChain;
+
+	/**
+	 * The digest algorithm used to compute the digest of the signing certificate.
+	 */
+	private final DigestAlgorithm digestAlgorithm;
+
+	/**
+	 * The digest of the encoded signing certificate, used by the signing-certificate attribute.
+	 */
+	private final byte[] signingCertificateDigest;
+
+	/**
+	 * The validation context of the certificate chain, containing the revocation data to be included in the LT level. It is null when the level does not need any
+	 * revocation data.
+	 */
+	private final ValidationContext chainValidationContext;
+
+	/**
+	 * @param certificateChain         the certificate chain of the signing certificate
+	 * @param digestAlgorithm          the digest algorithm of the signing certificate digest
+	 * @param signingCertificateDigest the digest of the signing certificate
+	 * @param chainValidationContext   the validated context of the certificate chain or null
+	 */
+	public SharedSignatureArtifacts(final List<X509Certificate> certificateChain, final DigestAlgorithm digestAlgorithm, final byte[] signingCertificateDigest,
+	                                final ValidationContext chainValidationContext) {
+
+		this.certificateChain = Collections.unmodifiableList(certificateChain);
+		this.digestAlgorithm = digestAlgorithm;
+		this.signingCertificateDigest = signingCertificateDigest;
+		this.chainValidationContext = chainValidationContext;
+	}
+
+	/**
+	 * @return the read only certificate chain of the signing certificate
+	 */
+	public List<X509Certificate> getCertificateChain() {
+
+		return certificateChain;
+	}
+
+	/**
+	 * Returns the digest of the signing certificate if it was computed with the given algorithm.
+	 *
+	 * @param digestAlgorithm the requested digest algorithm
+	 * @return the digest of the encoded signing certificate or null
+	 */
+	public byte[] getSigningCertificateDigest(final DigestAlgorithm digestAlgorithm) {
+
+		return this.digestAlgorithm == digestAlgorithm ? signingCertificateDigest : null;
+	}
+
+	/**
+	 * @return the validated context of the certificate chain or null
+	 */
+	public ValidationContext getChainValidationContext() {
+
+		return chainValidationContext;
+	}
+
+	/**
+	 * This method returns the validated context of the certificate chain shared by the batch to which the given parameters belong.
+	 *
+	 * @param parameters the parameters of the signature
+	 * @return the validated context of the certificate chain or null
+	 */
+	public static ValidationContext getChainValidationContext(final SignatureParameters parameters) {
+
+		final SharedSignatureArtifacts sharedArtifacts = parameters.getSharedArtifacts();
+		return sharedArtifacts == null ? null : sharedArtifacts.chainValidationContext;
+	}
+}
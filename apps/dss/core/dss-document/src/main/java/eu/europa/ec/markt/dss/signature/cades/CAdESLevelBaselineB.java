@@ -67,6 +67,7 @@ import eu.europa.ec.markt.dss.parameter.BLevelParameters.Policy;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.MimeType;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.validation102853.TimestampToken;
 
 /**
@@ -456,8 +457,13 @@ public class CAdESLevelBaselineB {
 
 		final DigestAlgorithm digestAlgorithm = parameters.getDigestAlgorithm();
 		final X509Certificate signingCertificate = parameters.getSigningCertificate();
-		final byte[] encoded = DSSUtils.getEncoded(signingCertificate);
-		final byte[] certHash = DSSUtils.digest(digestAlgorithm, encoded);
+		final SharedSignatureArtifacts sharedArtifacts = parameters.getSharedArtifacts();
+		byte[] certHash = sharedArtifacts == null ? null : sharedArtifacts.getSigningCertificateDigest(digestAlgorithm);
+		if (certHash == null) {
+
+			final byte[] encoded = DSSUtils.getEncoded(signingCertificate);
+			certHash = DSSUtils.digest(digestAlgorithm, encoded);
+		}
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("Adding Certificate Hash {} with algorithm {}", DSSUtils.encodeHexString(certHash), digestAlgorithm.getName());
 		}
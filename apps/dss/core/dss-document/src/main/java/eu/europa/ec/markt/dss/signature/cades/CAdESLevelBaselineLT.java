@@ -41,6 +41,7 @@ import eu.europa.ec.markt.dss.DSSASN1Utils;
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
@@ -87,7 +88,7 @@ public class CAdESLevelBaselineLT extends CAdESSignatureExtension {
 	protected CMSSignedData postExtendCMSSignedData(CMSSignedData cmsSignedData, SignerInformation signerInformation, SignatureParameters parameters) {
 		CAdESSignature cadesSignature = new CAdESSignature(cmsSignedData, signerInformation);
 		cadesSignature.setDetachedContents(parameters.getDetachedContent());
-		final ValidationContext validationContext = cadesSignature.getSignatureValidationContext(certificateVerifier);
+		final ValidationContext validationContext = cadesSignature.getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(parameters));
 
 		Store certificatesStore = cmsSignedData.getCertificates();
 		final Store attributeCertificatesStore = cmsSignedData.getAttributeCertificates();
@@ -20,14 +20,18 @@
 
 package eu.europa.ec.markt.dss.signature.cades;
 
+import java.util.concurrent.Future;
+
 import org.bouncycastle.asn1.ASN1Object;
 import org.bouncycastle.asn1.cms.AttributeTable;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.tsp.TimeStampToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
@@ -56,12 +60,22 @@ public class CAdESLevelBaselineT extends CAdESSignatureExtension {
     @Override
     protected SignerInformation extendCMSSignature(CMSSignedData signedData, SignerInformation signerInformation, SignatureParameters parameters)  throws DSSException {
 
-        final CAdESSignature cadesSignature = new CAdESSignature(signedData, signerInformation);
-	    cadesSignature.setDetachedContents(parameters.getDetachedContent());
-        assertExtendSignaturePossible(cadesSignature);
+	    // The timestamp is requested in the background while the signature is checked
+	    final DigestAlgorithm timestampDigestAlgorithm = parameters.getSignatureTimestampParameters().getDigestAlgorithm();
+	    final Future<TimeStampToken> pendingTimeStampToken = requestTimeStamp(signatureTsa, signerInformation.getSignature(), timestampDigestAlgorithm);
+	    try {
+
+		    final CAdESSignature cadesSignature = new CAdESSignature(signedData, signerInformation);
+		    cadesSignature.setDetachedContents(parameters.getDetachedContent());
+		    assertExtendSignaturePossible(cadesSignature);
+	    } catch (RuntimeException e) {
 
+		    pendingTimeStampToken.cancel(true);
+		    throw e;
+	    }
         AttributeTable unsignedAttributes = CAdESSignature.getUnsignedAttributes(signerInformation);
-        unsignedAttributes = addSignatureTimestampAttribute(signerInformation, unsignedAttributes, parameters);
+	    final ASN1Object signatureTimeStamp = getTimeStampAttributeValue(pendingTimeStampToken, timestampDigestAlgorithm);
+	    unsignedAttributes = unsignedAttributes.add(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken, signatureTimeStamp);
 
         return SignerInformation.replaceUnsignedAttributes(signerInformation, unsignedAttributes);
     }
@@ -81,12 +95,6 @@ public class CAdESLevelBaselineT extends CAdESSignatureExtension {
         }
     }
 
-    private AttributeTable addSignatureTimestampAttribute(SignerInformation signerInformation, AttributeTable unsignedAttributes, SignatureParameters parameters) {
-
-	    ASN1Object signatureTimeStamp = getTimeStampAttributeValue(signatureTsa, signerInformation.getSignature(), parameters);
-        return unsignedAttributes.add(PKCSObjectIdentifiers.id_aa_signatureTimeStampToken, signatureTimeStamp);
-    }
-
     public CertificateVerifier getCertificateVerifier() {
         return certificateVerifier;
     }
@@ -20,12 +20,17 @@
 
 package eu.europa.ec.markt.dss.signature.cades;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSSignedDataStreamGenerator;
 import org.bouncycastle.cms.CMSTypedData;
 import org.bouncycastle.cms.SignerId;
 import org.bouncycastle.cms.SignerInfoGeneratorBuilder;
@@ -36,6 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.ec.markt.dss.DSSASN1Utils;
 import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.SignatureAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
@@ -43,6 +49,7 @@ import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.signature.AbstractSignatureService;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.InMemoryDocument;
+import eu.europa.ec.markt.dss.signature.ProfileParameters;
 import eu.europa.ec.markt.dss.signature.SignatureExtension;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.signature.SignaturePackaging;
@@ -59,6 +66,11 @@ public class CAdESService extends AbstractSignatureService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CAdESService.class);
 
+	/**
+	 * The DER encoding of the id-signedData object identifier: 1.2.840.113549.1.7.2
+	 */
+	private static final byte[] SIGNED_DATA_OID = new byte[]{0x06, 0x09, 0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x07, 0x02};
+
 	private final CMSSignedDataBuilder cmsSignedDataBuilder;
 
 	/**
@@ -82,17 +94,16 @@ public class CAdESService extends AbstractSignatureService {
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final byte[] messageDigest = getMessageDigest(toSignData, parameters);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false, messageDigest);
 
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder
 			  .createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder, originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
-		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
-		DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
+		// The message-digest attribute is already known: only the signed attributes are signed and the content is not read
+		DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, new CMSProcessableByteArray(DSSUtils.EMPTY_BYTE_ARRAY), false);
 		final byte[] bytes = customContentSigner.getOutputStream().toByteArray();
 		return bytes;
 	}
@@ -100,27 +111,93 @@ public class CAdESService extends AbstractSignatureService {
 	@Override
 	public DSSDocument signDocument(final DSSDocument toSignDocument, final SignatureParameters parameters, final byte[] signatureValue) throws DSSException {
 
+		final CMSSignedData cmsSignedData = generateCMSSignedData(toSignDocument, parameters, signatureValue, true);
+		final CMSSignedDocument signature = new CMSSignedDocument(cmsSignedData);
+		return extendSignature(signature, parameters);
+	}
+
+	/**
+	 * This method signs the document and writes the signature to the given stream. In the case of a new enveloping signature the content is read only once from {@code
+	 * DSSDocument#openStream()} and streamed directly into the signature: the whole content is never loaded in memory.
+	 *
+	 * @param toSignDocument the document to sign
+	 * @param parameters     set of the driving signing parameters
+	 * @param signatureValue the signature value of the data returned by {@code #getDataToSign}
+	 * @param signedStream   the stream to which the signature is written
+	 * @throws DSSException
+	 */
+	public void signDocument(final DSSDocument toSignDocument, final SignatureParameters parameters, final byte[] signatureValue,
+	                         final OutputStream signedStream) throws DSSException {
+
+		final SignaturePackaging packaging = parameters.getSignaturePackaging();
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+		// The archive timestamp covers the encapsulated content: it cannot be computed on the intermediate detached signature
+		if (packaging != SignaturePackaging.ENVELOPING || signatureLevel == SignatureLevel.CAdES_BASELINE_LTA || isCmsSignedData(toSignDocument)) {
+
+			final DSSDocument signature = signDocument(toSignDocument, parameters, signatureValue);
+			final InputStream inputStream = signature.openStream();
+			try {
+				DSSUtils.copy(inputStream, signedStream);
+			} finally {
+				DSSUtils.closeQuietly(inputStream);
+			}
+			return;
+		}
+		// The signature is created and extended as a detached one, then the content is encapsulated while it is written
+		final CMSSignedData cmsSignedData = generateCMSSignedData(toSignDocument, parameters, signatureValue, false);
+		final DSSDocument detachedContent = parameters.getDetachedContent();
+		parameters.setDetachedContent(toSignDocument);
+		final DSSDocument signature;
+		try {
+			signature = extendSignature(new CMSSignedDocument(cmsSignedData), parameters);
+		} finally {
+			parameters.setDetachedContent(detachedContent);
+		}
+		writeEnvelopingSignature(toCmsSignedData(signature), toSignDocument, signedStream);
+	}
+
+	/**
+	 * This method creates the {@code CMSSignedData} of the signature. The content is never digested again: the message-digest computed by {@code #getDataToSign} is reused.
+	 *
+	 * @param toSignDocument     the document to sign
+	 * @param parameters         set of the driving signing parameters
+	 * @param signatureValue     the signature value
+	 * @param encapsulateContent false if the content must not be encapsulated even in the case of an enveloping signature
+	 * @return the {@code CMSSignedData}
+	 */
+	private CMSSignedData generateCMSSignedData(final DSSDocument toSignDocument, final SignatureParameters parameters, final byte[] signatureValue,
+	                                            final boolean encapsulateContent) {
+
 		assertSigningDateInCertificateValidityRange(parameters);
 		final SignaturePackaging packaging = parameters.getSignaturePackaging();
 		assertSignaturePackaging(packaging);
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue);
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
 		if (originalCmsSignedData == null && SignaturePackaging.DETACHED.equals(packaging) && parameters.getDetachedContent() == null) {
 
 			parameters.setDetachedContent(toSignDocument);
 		}
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final byte[] messageDigest = getMessageDigest(toSignData, parameters);
+		parameters.getContext().setContentDigest(null, null, null);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true, messageDigest);
 
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder
 			  .createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder, originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
-		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
-		final CMSSignedData cmsSignedData = DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
-		final CMSSignedDocument signature = new CMSSignedDocument(cmsSignedData);
+		final boolean encapsulate = encapsulateContent && !SignaturePackaging.DETACHED.equals(packaging);
+		final CMSProcessableByteArray content = new CMSProcessableByteArray(encapsulate ? toSignData.getBytes() : DSSUtils.EMPTY_BYTE_ARRAY);
+		return DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
+	}
+
+	/**
+	 * @param signature  the signature at the level B
+	 * @param parameters set of the driving signing parameters
+	 * @return the signature extended to the requested level
+	 */
+	private DSSDocument extendSignature(final CMSSignedDocument signature, final SignatureParameters parameters) {
 
 		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
 		if (!SignatureLevel.CAdES_BASELINE_B.equals(signatureLevel)) {
@@ -135,6 +212,74 @@ public class CAdESService extends AbstractSignatureService {
 		return signature;
 	}
 
+	/**
+	 * This method returns the digest of the data to be signed. The digest is computed with one read of the document (or taken from a {@code DigestDocument}) and kept
+	 * in the signature context until the signature is created.
+	 *
+	 * @param toSignData the data to be signed
+	 * @param parameters set of the driving signing parameters
+	 * @return the message digest
+	 */
+	private byte[] getMessageDigest(final DSSDocument toSignData, final SignatureParameters parameters) {
+
+		final ProfileParameters context = parameters.getContext();
+		final DigestAlgorithm digestAlgorithm = parameters.getDigestAlgorithm();
+		byte[] messageDigest = context.getContentDigest(toSignData, digestAlgorithm);
+		if (messageDigest == null) {
+
+			messageDigest = DSSUtils.base64Decode(toSignData.getDigest(digestAlgorithm));
+			context.setContentDigest(toSignData, digestAlgorithm, messageDigest);
+		}
+		return messageDigest;
+	}
+
+	/**
+	 * This method writes an enveloping signature: the already computed signers, certificates and revocation data of the detached signature are written after the
+	 * content which is streamed from the document.
+	 *
+	 * @param cmsSignedData  the detached signature
+	 * @param toSignDocument the signed document
+	 * @param signedStream   the stream to which the signature is written
+	 */
+	private void writeEnvelopingSignature(final CMSSignedData cmsSignedData, final DSSDocument toSignDocument, final OutputStream signedStream) {
+
+		InputStream inputStream = null;
+		try {
+
+			final CMSSignedDataStreamGenerator generator = new CMSSignedDataStreamGenerator();
+			generator.addSigners(cmsSignedData.getSignerInfos());
+			generator.addCertificates(cmsSignedData.getCertificates());
+			generator.addAttributeCertificates(cmsSignedData.getAttributeCertificates());
+			generator.addCRLs(cmsSignedData.getCRLs());
+			generator.addOtherRevocationInfo(OCSPObjectIdentifiers.id_pkix_ocsp_basic, cmsSignedData.getOtherRevocationInfo(OCSPObjectIdentifiers.id_pkix_ocsp_basic));
+			generator.addOtherRevocationInfo(CMSObjectIdentifiers.id_ri_ocsp_response, cmsSignedData.getOtherRevocationInfo(CMSObjectIdentifiers.id_ri_ocsp_response));
+
+			final OutputStream contentStream = generator.open(signedStream, true);
+			inputStream = toSignDocument.openStream();
+			DSSUtils.copy(inputStream, contentStream);
+			contentStream.close();
+		} catch (CMSException e) {
+			throw new DSSException(e);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			DSSUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private static CMSSignedData toCmsSignedData(final DSSDocument signature) {
+
+		if (signature instanceof CMSSignedDocument) {
+
+			return ((CMSSignedDocument) signature).getCMSSignedData();
+		}
+		try {
+			return new CMSSignedData(signature.getBytes());
+		} catch (CMSException e) {
+			throw new DSSException("Cannot parse CMS data", e);
+		}
+	}
+
 	@Override
 	public DSSDocument signDocument(final DSSDocument toSignDocument, final SignatureParameters parameters) throws DSSException {
 
@@ -280,6 +425,10 @@ public class CAdESService extends AbstractSignatureService {
 	 */
 	private CMSSignedData getCmsSignedData(final DSSDocument dssDocument, final SignatureParameters parameters) {
 
+		if (!isCmsSignedData(dssDocument)) {
+
+			return null;
+		}
 		CMSSignedData cmsSignedData = null;
 		try {
 			// check if input dssDocument is already signed
@@ -297,6 +446,54 @@ public class CAdESService extends AbstractSignatureService {
 		return cmsSignedData;
 	}
 
+	/**
+	 * This method checks the beginning of the document to know if it can be a CMS signed message: a ContentInfo SEQUENCE whose content type is id-signedData. Only a few
+	 * bytes are read, so the content of a large document to be signed is not loaded in memory.
+	 *
+	 * @param dssDocument {@code DSSDocument} to be checked
+	 * @return true if the document starts as a {@code CMSSignedData}
+	 */
+	private static boolean isCmsSignedData(final DSSDocument dssDocument) {
+
+		final byte[] header = new byte[16];
+		int length = 0;
+		InputStream inputStream = null;
+		try {
+
+			inputStream = dssDocument.openStream();
+			int count;
+			while (length < header.length && (count = inputStream.read(header, length, header.length - length)) > 0) {
+				length += count;
+			}
+		} catch (IOException e) {
+			return false;
+		} catch (DSSException e) {
+			return false;
+		} finally {
+			DSSUtils.closeQuietly(inputStream);
+		}
+		if (length < 2 || header[0] != 0x30) {
+			return false;
+		}
+		// the length of the SEQUENCE: short form, indefinite form (0x80) or long form with up to 4 bytes
+		int offset = 2;
+		final int lengthByte = header[1] & 0xFF;
+		if (lengthByte > 0x80) {
+
+			offset += lengthByte - 0x80;
+		}
+		if (lengthByte > 0x84 || length < offset + SIGNED_DATA_OID.length) {
+			return false;
+		}
+		for (int ii = 0; ii < SIGNED_DATA_OID.length; ii++) {
+
+			if (header[offset + ii] != SIGNED_DATA_OID[ii]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * @param packaging {@code SignaturePackaging} to be checked
 	 * @throws DSSException if the packaging is not supported for this kind of signature
@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Object;
@@ -50,6 +51,7 @@ import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.SignatureExtension;
 import eu.europa.ec.markt.dss.validation102853.bean.SignatureCryptographicVerification;
 import eu.europa.ec.markt.dss.validation102853.cades.CAdESSignature;
+import eu.europa.ec.markt.dss.validation102853.tsp.LoadBalancingTSPSource;
 import eu.europa.ec.markt.dss.validation102853.tsp.TSPSource;
 
 /**
@@ -99,6 +101,13 @@ abstract class CAdESSignatureExtension implements SignatureExtension {
 	public CMSSignedDocument extendSignatures(final DSSDocument signatureToExtend, final SignatureParameters parameters) throws DSSException {
 
 		LOG.info("EXTEND SIGNATURES.");
+		if (signatureToExtend instanceof CMSSignedDocument) {
+
+			// The signature has just been created or extended: the CMS model is reused instead of being encoded and parsed again
+			final CMSSignedData cmsSignedData = ((CMSSignedDocument) signatureToExtend).getCMSSignedData();
+			final CMSSignedData extendCMSSignedData = extendCMSSignatures(cmsSignedData, parameters);
+			return new CMSSignedDocument(extendCMSSignedData);
+		}
 		try {
 			final InputStream inputStream = signatureToExtend.openStream();
 			final CMSSignedData cmsSignedData = new CMSSignedData(inputStream);
@@ -259,17 +268,45 @@ abstract class CAdESSignatureExtension implements SignatureExtension {
 
 	public static ASN1Object getTimeStampAttributeValue(final TSPSource tspSource, final byte[] messageToTimestamp, final DigestAlgorithm timestampDigestAlgorithm,
 	                                                    final Attribute... attributesForTimestampToken) {
-		try {
 
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Message to timestamp is: " + DSSUtils.encodeHexString(messageToTimestamp));
-			}
-			byte[] timestampDigest = DSSUtils.digest(timestampDigestAlgorithm, messageToTimestamp);
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Digested ({}) message to timestamp is {}", new Object[]{timestampDigestAlgorithm, DSSUtils.encodeHexString(timestampDigest)});
-			}
+		final Future<TimeStampToken> pendingTimeStampToken = requestTimeStamp(tspSource, messageToTimestamp, timestampDigestAlgorithm);
+		return getTimeStampAttributeValue(pendingTimeStampToken, timestampDigestAlgorithm, attributesForTimestampToken);
+	}
+
+	/**
+	 * This method digests the message and sends the timestamp request in the background, see
+	 * {@link LoadBalancingTSPSource#getTimeStampResponseAsync(TSPSource, DigestAlgorithm, byte[])}.
+	 *
+	 * @param tspSource                the TSA to use
+	 * @param messageToTimestamp       the message to timestamp
+	 * @param timestampDigestAlgorithm the algorithm used to digest the message
+	 * @return the pending timestamp token
+	 */
+	public static Future<TimeStampToken> requestTimeStamp(final TSPSource tspSource, final byte[] messageToTimestamp, final DigestAlgorithm timestampDigestAlgorithm) {
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Message to timestamp is: " + DSSUtils.encodeHexString(messageToTimestamp));
+		}
+		byte[] timestampDigest = DSSUtils.digest(timestampDigestAlgorithm, messageToTimestamp);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Digested ({}) message to timestamp is {}", new Object[]{timestampDigestAlgorithm, DSSUtils.encodeHexString(timestampDigest)});
+		}
+		return LoadBalancingTSPSource.getTimeStampResponseAsync(tspSource, timestampDigestAlgorithm, timestampDigest);
+	}
+
+	/**
+	 * This method waits for the timestamp token requested with {@link #requestTimeStamp(TSPSource, byte[], DigestAlgorithm)} and returns it as an attribute value.
+	 *
+	 * @param pendingTimeStampToken      the pending timestamp token
+	 * @param timestampDigestAlgorithm   the algorithm used to digest the message
+	 * @param attributesForTimestampToken the unsigned attributes to add to the timestamp token
+	 * @return the timestamp token as an attribute value
+	 */
+	public static ASN1Object getTimeStampAttributeValue(final Future<TimeStampToken> pendingTimeStampToken, final DigestAlgorithm timestampDigestAlgorithm,
+	                                                    final Attribute... attributesForTimestampToken) {
+		try {
 
-			final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, timestampDigest);
+			final TimeStampToken timeStampToken = LoadBalancingTSPSource.getTimeStampToken(pendingTimeStampToken);
 
 			if (timeStampToken == null) {
 				throw new DSSNullReturnedException(TimeStampToken.class);
@@ -20,7 +20,6 @@
 
 package eu.europa.ec.markt.dss.signature.cades;
 
-import java.io.InputStream;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
@@ -31,7 +30,9 @@ import java.util.Set;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
 import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
 import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.cert.X509CertificateHolder;
@@ -144,8 +145,25 @@ public class CMSSignedDataBuilder {
 	 */
 	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final SignatureParameters parameters, final boolean includeUnsignedAttributes) {
 
+		return getSignerInfoGeneratorBuilder(parameters, includeUnsignedAttributes, null);
+	}
+
+	/**
+	 * @param parameters                the parameters of the signature containing values for the attributes
+	 * @param includeUnsignedAttributes true if the unsigned attributes must be included
+	 * @param messageDigest             the digest of the content computed beforehand or null. When present, it is used as message-digest attribute and the content given
+	 *                                  to the generator is not taken into account.
+	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the CAdESLevelBaselineB
+	 */
+	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final SignatureParameters parameters, final boolean includeUnsignedAttributes, final byte[] messageDigest) {
+
 		final CAdESLevelBaselineB cadesProfile = new CAdESLevelBaselineB();
-		final AttributeTable signedAttributes = cadesProfile.getSignedAttributes(parameters);
+		AttributeTable signedAttributes = cadesProfile.getSignedAttributes(parameters);
+		if (messageDigest != null) {
+
+			// DefaultSignedAttributeTableGenerator keeps the message-digest attribute when it is already present
+			signedAttributes = signedAttributes.add(CMSAttributes.messageDigest, new DEROctetString(messageDigest));
+		}
 
 		AttributeTable unsignedAttributes = null;
 		if (includeUnsignedAttributes) {
@@ -242,9 +260,8 @@ public class CMSSignedDataBuilder {
 			cmsSignedDataGenerator.addOtherRevocationInfo(CMSObjectIdentifiers.id_ri_ocsp_response, otherRevocationInfoFormatStoreOcsp);
 			final boolean encapsulate = cmsSignedData.getSignedContent() != null;
 			if (!encapsulate) {
-				final InputStream inputStream = parameters.getDetachedContent().openStream();
-				final CMSProcessableByteArray content = new CMSProcessableByteArray(DSSUtils.toByteArray(inputStream));
-				DSSUtils.closeQuietly(inputStream);
+				// Only already computed signers are added: the detached content is not digested and does not need to be read
+				final CMSProcessableByteArray content = new CMSProcessableByteArray(DSSUtils.EMPTY_BYTE_ARRAY);
 				cmsSignedData = cmsSignedDataGenerator.generate(content, encapsulate);
 			} else {
 				cmsSignedData = cmsSignedDataGenerator.generate(cmsSignedData.getSignedContent(), encapsulate);
@@ -487,9 +487,22 @@ public class CadesLevelBaselineLTATimestampExtractor {
 
 	public byte[] getArchiveTimestampDataV3(CAdESSignature cadesSignature, SignerInformation signerInformation, Attribute atsHashIndexAttribute, byte[] originalDocument,
 	                                        DigestAlgorithm digestAlgorithm) throws DSSException {
+		final byte[] signedDataDigest = DSSUtils.digest(digestAlgorithm, originalDocument);
+		return getArchiveTimestampDataV3(cadesSignature, signerInformation, atsHashIndexAttribute, signedDataDigest);
+	}
+
+	/**
+	 * Same as {@link #getArchiveTimestampDataV3(CAdESSignature, SignerInformation, Attribute, byte[], DigestAlgorithm)} but with the hash of the signed
+	 * data already computed, which allows the caller to stream the original document into the digest instead of loading it in memory.
+	 *
+	 * @param signedDataDigest the hash of the signed data computed with the digest algorithm of the archive timestamp
+	 * @return the data to timestamp
+	 * @throws DSSException
+	 */
+	public byte[] getArchiveTimestampDataV3(CAdESSignature cadesSignature, SignerInformation signerInformation, Attribute atsHashIndexAttribute, byte[] signedDataDigest)
+		  throws DSSException {
 		final CMSSignedData cmsSignedData = cadesSignature.getCmsSignedData();
 		final byte[] encodedContentType = getEncodedContentType(cmsSignedData);
-		final byte[] signedDataDigest = DSSUtils.digest(digestAlgorithm, originalDocument);
 		final byte[] encodedFields = geSignedFields(signerInformation);
 		final byte[] encodedAtsHashIndex = DSSASN1Utils.getDEREncoded(atsHashIndexAttribute.getAttrValues().getObjectAt(0));
 		final byte[] dataToTimestamp = concatenateArrays(encodedContentType, signedDataDigest, encodedFields, encodedAtsHashIndex);
@@ -37,6 +37,7 @@ import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.InMemoryDocument;
 import eu.europa.ec.markt.dss.signature.MimeType;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureExtension;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.signature.pdf.PDFTimestampService;
@@ -92,33 +93,43 @@ class PAdESLevelBaselineLT implements SignatureExtension {
 	 * @throws IOException
 	 */
 	@Override
-	public InMemoryDocument extendSignatures(DSSDocument document, final SignatureParameters parameters) throws DSSException {
+	public InMemoryDocument extendSignatures(final DSSDocument document, final SignatureParameters parameters) throws DSSException {
+
+		final PDFDocumentValidator pdfDocumentValidator = new PDFDocumentValidator(document);
+		pdfDocumentValidator.setCertificateVerifier(certificateVerifier);
+		final List<AdvancedSignature> signatures = pdfDocumentValidator.getSignatures();
+		return extendSignatures(document, signatures, parameters);
+	}
+
+	/**
+	 * This method extends the given signatures of the document, which are already parsed by the caller. The signatures parsed before the -T extension are still used
+	 * after it: the document timestamp is added in a new revision and does not change the CMS signatures.
+	 *
+	 * @param document   the document to extend
+	 * @param signatures the signatures of the document
+	 * @param parameters the extension parameters
+	 * @return the extended document
+	 * @throws DSSException
+	 */
+	InMemoryDocument extendSignatures(DSSDocument document, final List<AdvancedSignature> signatures, final SignatureParameters parameters) throws DSSException {
 
 		try {
 
 			// check if needed to extends with PAdESLevelBaselineT
-			final PDFDocumentValidator pdfDocumentValidator = new PDFDocumentValidator(document);
-			pdfDocumentValidator.setCertificateVerifier(certificateVerifier);
-			List<AdvancedSignature> signatures = pdfDocumentValidator.getSignatures();
 			for (final AdvancedSignature signature : signatures) {
 
 				if (!signature.isDataForSignatureLevelPresent(SignatureLevel.PAdES_BASELINE_T)) {
 
 					final PAdESLevelBaselineT padesLevelBaselineT = new PAdESLevelBaselineT(tspSource, certificateVerifier);
 					document = padesLevelBaselineT.extendSignatures(document, parameters);
-					final PDFDocumentValidator pdfDocumentValidatorOverTimestamp = new PDFDocumentValidator(document);
-					pdfDocumentValidatorOverTimestamp.setCertificateVerifier(certificateVerifier);
-					signatures = pdfDocumentValidator.getSignatures();
 					break;
 				}
 			}
 
-			assertExtendSignaturePossible(pdfDocumentValidator);
-
 			for (final AdvancedSignature signature : signatures) {
 				if (signature instanceof PAdESSignature) {
 					PAdESSignature pAdESSignature = (PAdESSignature) signature;
-					validate(pAdESSignature);
+					validate(pAdESSignature, parameters);
 				}
 			}
 
@@ -189,14 +200,11 @@ class PAdESLevelBaselineLT implements SignatureExtension {
 		return dssDictionary;
 	}
 
-	private void assertExtendSignaturePossible(PDFDocumentValidator pdfDocumentValidator) {
-
-	}
-
-	private void validate(final PAdESSignature pAdESSignature) {
+	private void validate(final PAdESSignature pAdESSignature, final SignatureParameters parameters) {
 
 		final CAdESSignature cadesSignature = pAdESSignature.getCAdESSignature();
-		final ValidationContext validationContext = cadesSignature.getSignatureValidationContext(certificateVerifier);
+		final ValidationContext validationContext = cadesSignature
+			  .getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(parameters));
 		final DefaultAdvancedSignature.RevocationDataForInclusion revocationsForInclusionInProfileLT = cadesSignature.getRevocationDataForInclusion(validationContext);
 
 		for (final CRLToken crlToken : revocationsForInclusionInProfileLT.crlTokens) {
@@ -64,7 +64,8 @@ class PAdESLevelBaselineLTA implements SignatureExtension {
 
             if (!signature.isDataForSignatureLevelPresent(SignatureLevel.PAdES_BASELINE_LT)) {
 
-                document = padesLevelBaselineLT.extendSignatures(document, params);
+                // The signatures already parsed are handed over to the -LT extension
+                document = padesLevelBaselineLT.extendSignatures(document, signatures, params);
                 // PAdES LT already add a timestamp on top of the LT data. No need to timestamp again.
                 return document;
             }
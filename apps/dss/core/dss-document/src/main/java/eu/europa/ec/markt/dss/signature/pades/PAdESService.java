@@ -21,7 +21,6 @@
 package eu.europa.ec.markt.dss.signature.pades;
 
 import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
@@ -41,12 +40,14 @@ import eu.europa.ec.markt.dss.signature.AbstractSignatureService;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.InMemoryDocument;
 import eu.europa.ec.markt.dss.signature.MimeType;
+import eu.europa.ec.markt.dss.signature.ProfileParameters;
 import eu.europa.ec.markt.dss.signature.SignatureExtension;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.signature.cades.CAdESLevelBaselineT;
 import eu.europa.ec.markt.dss.signature.cades.CustomContentSigner;
 import eu.europa.ec.markt.dss.signature.pdf.PDFSignatureService;
 import eu.europa.ec.markt.dss.signature.pdf.PdfObjFactory;
+import eu.europa.ec.markt.dss.signature.pdf.PdfPreparedSignature;
 import eu.europa.ec.markt.dss.signature.token.SignatureTokenConnection;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
 
@@ -98,10 +99,10 @@ public class PAdESService extends AbstractSignatureService {
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
 
-		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-		final InputStream inputStream = toSignDocument.openStream();
-		final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
-		DSSUtils.closeQuietly(inputStream);
+		final PdfPreparedSignature preparedSignature = prepare(toSignDocument, parameters);
+		// The prepared document is kept until signDocument: the PDF is parsed only once for both steps
+		parameters.getContext().setPreparedSignature(toSignDocument, preparedSignature);
+		final byte[] messageDigest = preparedSignature.getDigest();
 
 		SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
@@ -123,10 +124,14 @@ public class PAdESService extends AbstractSignatureService {
 			final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 			final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue);
 
-			final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-			InputStream inputStream = toSignDocument.openStream();
-			final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
-			DSSUtils.closeQuietly(inputStream);
+			final ProfileParameters context = parameters.getContext();
+			PdfPreparedSignature preparedSignature = context.getPreparedSignature(toSignDocument);
+			if (preparedSignature == null || !preparedSignature.isPreparedFor(parameters, parameters.getDigestAlgorithm())) {
+
+				preparedSignature = prepare(toSignDocument, parameters);
+			}
+			context.setPreparedSignature(null, null);
+			final byte[] messageDigest = preparedSignature.getDigest();
 
 			final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
@@ -145,9 +150,8 @@ public class PAdESService extends AbstractSignatureService {
 
 			final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 			final byte[] encodedData = DSSASN1Utils.getEncoded(data);
-			inputStream = toSignDocument.openStream();
-			pdfSignatureService.sign(inputStream, encodedData, byteArrayOutputStream, parameters, parameters.getDigestAlgorithm());
-			DSSUtils.closeQuietly(inputStream);
+			final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
+			pdfSignatureService.sign(preparedSignature, encodedData, byteArrayOutputStream);
 			final DSSDocument signature;
 			if (DSSUtils.isEmpty(toSignDocument.getName())) {
 				signature = new InMemoryDocument(byteArrayOutputStream.toByteArray(), null, MimeType.PDF);
@@ -169,6 +173,20 @@ public class PAdESService extends AbstractSignatureService {
 		}
 	}
 
+	/**
+	 * This method saves incrementally the document with an empty signature dictionary and computes the digest of the signed byte ranges.
+	 *
+	 * @param toSignDocument the document to be signed
+	 * @param parameters     the signature parameters
+	 * @return the prepared signature
+	 * @throws DSSException
+	 */
+	private PdfPreparedSignature prepare(final DSSDocument toSignDocument, final SignatureParameters parameters) throws DSSException {
+
+		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
+		return pdfSignatureService.prepare(toSignDocument, parameters, parameters.getDigestAlgorithm());
+	}
+
 	@Override
 	public DSSDocument extendDocument(DSSDocument toExtendDocument, SignatureParameters parameters) throws DSSException {
 
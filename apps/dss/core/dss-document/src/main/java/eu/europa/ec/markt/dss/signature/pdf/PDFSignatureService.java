@@ -28,6 +28,7 @@ import java.util.Map;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.validation102853.CertificatePool;
 
 /**
@@ -64,6 +65,44 @@ public interface PDFSignatureService {
 	void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm,
 	          final Map.Entry<String, PdfDict>... extraDictionariesToAddBeforeSign) throws DSSException;
 
+	/**
+	 * Saves incrementally the PDF document with an empty signature dictionary and returns it together with the digest of the signed byte ranges. The result can be
+	 * signed with {@code #sign(PdfPreparedSignature, byte[], OutputStream)} without parsing the document again.
+	 *
+	 * @param toSignDocument
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @param extraDictionariesToAddBeforeSign only in the case of timestamp
+	 * @return
+	 * @throws DSSException
+	 */
+	PdfPreparedSignature prepare(final InputStream toSignDocument, final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm,
+	                             final Map.Entry<String, PdfDict>... extraDictionariesToAddBeforeSign) throws DSSException;
+
+	/**
+	 * Same as {@code #prepare(InputStream, SignatureParameters, DigestAlgorithm, Map.Entry[])}. A {@code MappedFileDocument} is parsed and copied through its mapped
+	 * memory instead of a temporary copy of the document.
+	 *
+	 * @param toSignDocument
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @param extraDictionariesToAddBeforeSign only in the case of timestamp
+	 * @return
+	 * @throws DSSException
+	 */
+	PdfPreparedSignature prepare(final DSSDocument toSignDocument, final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm,
+	                             final Map.Entry<String, PdfDict>... extraDictionariesToAddBeforeSign) throws DSSException;
+
+	/**
+	 * Signs a prepared PDF document: the signature value is written in the space reserved for the /Contents entry.
+	 *
+	 * @param preparedSignature
+	 * @param signatureValue
+	 * @param signedStream
+	 * @throws DSSException
+	 */
+	void sign(final PdfPreparedSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException;
+
 	/**
 	 * Retrieves and triggers validation of the signatures from a PDF document
 	 *
@@ -75,4 +114,15 @@ public interface PDFSignatureService {
 	 */
 	void validateSignatures(final CertificatePool validationCertPool, final InputStream input, final SignatureValidationCallback callback) throws DSSException;
 
+	/**
+	 * Retrieves and triggers validation of the signatures from a PDF document. The signed content of the signatures of a {@code MappedFileDocument} is streamed and
+	 * digested from the byte ranges of the mapped file: the document is never copied in memory.
+	 *
+	 * @param validationCertPool
+	 * @param document
+	 * @param callback
+	 * @throws DSSException
+	 */
+	void validateSignatures(final CertificatePool validationCertPool, final DSSDocument document, final SignatureValidationCallback callback) throws DSSException;
+
 }
\ No newline at end of file
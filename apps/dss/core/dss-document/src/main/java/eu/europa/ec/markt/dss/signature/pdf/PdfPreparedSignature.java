@@ -0,0 +1,201 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+
+/**
+ * This class represents a PDF document which was saved incrementally with an empty signature dictionary: the /ByteRange is already fixed and the /Contents entry is a
+ * placeholder of zeros. It keeps the digest of the signed byte ranges so that the CMS signature can be injected in the reserved space without parsing the document
+ * again.
+ *
+ * @version $Revision$ - $Date$
+ */
+public class PdfPreparedSignature {
+
+	/**
+	 * The incrementally saved document containing the placeholder
+	 */
+	private final byte[] preparedDocument;
+
+	/**
+	 * The position of the first hexadecimal digit of the /Contents placeholder (just after '&lt;')
+	 */
+	private final int contentsOffset;
+
+	/**
+	 * The number of hexadecimal digits reserved for the /Contents placeholder
+	 */
+	private final int contentsLength;
+
+	private final byte[] digest;
+
+	private final DigestAlgorithm digestAlgorithm;
+
+	private final String deterministicId;
+
+	private final Date signingDate;
+
+	/**
+	 * The default constructor for PdfPreparedSignature.
+	 *
+	 * @param preparedDocument the incrementally saved document containing the /Contents placeholder
+	 * @param contentsOffset   the position of the first hexadecimal digit of the placeholder
+	 * @param contentsLength   the number of hexadecimal digits reserved for the signature
+	 * @param digest           the digest of the signed byte ranges
+	 * @param digestAlgorithm  the algorithm used to compute the digest
+	 * @param parameters       the parameters used to create the signature dictionary
+	 */
+	public PdfPreparedSignature(final byte[] preparedDocument, final int contentsOffset, final int contentsLength, final byte[] digest, final DigestAlgorithm digestAlgorithm,
+	                            final SignatureParameters parameters) {
+
+		if (contentsOffset < 0 || contentsLength < 0 || contentsOffset + contentsLength > preparedDocument.length) {
+
+			throw new DSSException("The /Contents placeholder is outside of the prepared document!");
+		}
+		this.preparedDocument = preparedDocument;
+		this.contentsOffset = contentsOffset;
+		this.contentsLength = contentsLength;
+		this.digest = digest;
+		this.digestAlgorithm = digestAlgorithm;
+		this.deterministicId = parameters.getDeterministicId();
+		this.signingDate = parameters.bLevel().getSigningDate();
+	}
+
+	/**
+	 * @return the digest of the signed byte ranges of the prepared document
+	 */
+	public byte[] getDigest() {
+
+		return digest.clone();
+	}
+
+	public DigestAlgorithm getDigestAlgorithm() {
+
+		return digestAlgorithm;
+	}
+
+	/**
+	 * @return the number of bytes which can be stored in the /Contents placeholder
+	 */
+	public int getReservedSize() {
+
+		return contentsLength / 2;
+	}
+
+	/**
+	 * Indicates if this prepared signature was created with the same signature dictionary as the one which would be created with the given parameters.
+	 *
+	 * @param parameters      the parameters of the signature
+	 * @param digestAlgorithm the digest algorithm of the signature
+	 * @return true if the prepared document can be reused
+	 */
+	public boolean isPreparedFor(final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm) {
+
+		if (this.digestAlgorithm != digestAlgorithm) {
+
+			return false;
+		}
+		if (!deterministicId.equals(parameters.getDeterministicId())) {
+
+			return false;
+		}
+		final Date parametersSigningDate = parameters.bLevel().getSigningDate();
+		return signingDate == null ? parametersSigningDate == null : signingDate.equals(parametersSigningDate);
+	}
+
+	/**
+	 * Writes the prepared document to the given stream with the hexadecimal encoded signature value in place of the /Contents placeholder. The prepared document itself is
+	 * left untouched and can be written again.
+	 *
+	 * @param signatureValue the encoded CMS signature or timestamp token
+	 * @param signedStream   the stream to which the signed document is written
+	 * @throws DSSException if the signature value does not fit in the reserved space
+	 */
+	public void writeSignature(final byte[] signatureValue, final OutputStream signedStream) throws DSSException {
+
+		final byte[] hexBytes = getHexBytes(signatureValue);
+		writeBeforeSignature(signedStream);
+		writeHexSignature(hexBytes, signedStream);
+	}
+
+	/**
+	 * Writes the part of the prepared document which precedes the signature value. It allows to write most of the document while the signature value (typically a
+	 * timestamp token) is still being obtained. The document must then be completed with {@link #writeAfterSignature(byte[], OutputStream)}.
+	 *
+	 * @param signedStream the stream to which the signed document is written
+	 * @throws DSSException in case of an I/O error
+	 */
+	public void writeBeforeSignature(final OutputStream signedStream) throws DSSException {
+
+		try {
+			signedStream.write(preparedDocument, 0, contentsOffset);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * Writes the hexadecimal encoded signature value and the rest of the prepared document, see {@link #writeBeforeSignature(OutputStream)}.
+	 *
+	 * @param signatureValue the encoded CMS signature or timestamp token
+	 * @param signedStream   the stream to which the signed document is written
+	 * @throws DSSException if the signature value does not fit in the reserved space
+	 */
+	public void writeAfterSignature(final byte[] signatureValue, final OutputStream signedStream) throws DSSException {
+
+		writeHexSignature(getHexBytes(signatureValue), signedStream);
+	}
+
+	private byte[] getHexBytes(final byte[] signatureValue) throws DSSException {
+
+		final char[] hexChars = DSSUtils.encodeHex(signatureValue, false);
+		if (hexChars.length > contentsLength) {
+
+			throw new DSSException("The signature is too big for the reserved /Contents space: " + signatureValue.length + " > " + getReservedSize() + " bytes!");
+		}
+		final byte[] hexBytes = new byte[hexChars.length];
+		for (int ii = 0; ii < hexChars.length; ii++) {
+
+			hexBytes[ii] = (byte) hexChars[ii];
+		}
+		return hexBytes;
+	}
+
+	private void writeHexSignature(final byte[] hexBytes, final OutputStream signedStream) throws DSSException {
+
+		try {
+
+			signedStream.write(hexBytes);
+			final int paddingOffset = contentsOffset + hexBytes.length;
+			signedStream.write(preparedDocument, paddingOffset, preparedDocument.length - paddingOffset);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+}
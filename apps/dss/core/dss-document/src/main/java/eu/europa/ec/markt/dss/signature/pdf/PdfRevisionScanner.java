@@ -0,0 +1,239 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature.pdf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+
+/**
+ * This class finds the revisions of a PDF document without parsing it. Each incremental update ends with a {@code startxref} keyword, the offset of its
+ * cross-reference section and a {@code %%EOF} marker: the document is scanned once for these trailers. A marker which is not preceded by a {@code startxref} is
+ * part of the data of a stream and is ignored.
+ * <p/>
+ * The scanner also tells whether the catalog of a revision may contain a /DSS dictionary: a revision only needs to be parsed to read its document security store
+ * when one of the sections up to it contains the /DSS key or compressed objects (in which the key cannot be seen).
+ *
+ * @version $Revision$ - $Date$
+ */
+public final class PdfRevisionScanner {
+
+	private static final byte[] EOF = DSSUtils.getUtf8Bytes("%%EOF");
+
+	private static final byte[] STARTXREF = DSSUtils.getUtf8Bytes("startxref");
+
+	private static final byte[] DSS = DSSUtils.getUtf8Bytes("/DSS");
+
+	private static final byte[] OBJECT_STREAM = DSSUtils.getUtf8Bytes("/ObjStm");
+
+	private PdfRevisionScanner() {
+	}
+
+	/**
+	 * A revision of the document: the revision starts at the beginning of the document and ends after the end of line following its {@code %%EOF} marker.
+	 */
+	public static final class Revision {
+
+		private final int start;
+
+		private final int end;
+
+		private final long startXref;
+
+		private final boolean dssPossible;
+
+		Revision(final int start, final int end, final long startXref, final boolean dssPossible) {
+
+			this.start = start;
+			this.end = end;
+			this.startXref = startXref;
+			this.dssPossible = dssPossible;
+		}
+
+		/**
+		 * @return the offset of the incremental update which created the revision
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * @return the length of the revision, i.e. the offset following its {@code %%EOF} marker and end of line
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		/**
+		 * @return the offset of the cross-reference section of the revision
+		 */
+		public long getStartXref() {
+			return startXref;
+		}
+
+		/**
+		 * @return true if the catalog of the revision may contain a /DSS dictionary
+		 */
+		public boolean isDssPossible() {
+			return dssPossible;
+		}
+
+		@Override
+		public String toString() {
+			return "Revision[" + start + ", " + end + ", startxref=" + startXref + ", dss=" + dssPossible + "]";
+		}
+	}
+
+	/**
+	 * This method scans the document once and returns its revisions in the order of the incremental updates.
+	 *
+	 * @param buffer the contents of the document, the position and the limit of the buffer are not used
+	 * @return the revisions of the document, empty if no valid trailer is found
+	 */
+	public static List<Revision> scan(final ByteBuffer buffer) {
+
+		final List<Revision> revisions = new ArrayList<Revision>();
+		final int length = buffer.capacity();
+		int start = 0;
+		boolean dssPossible = false;
+		for (int ii = 0; ii <= length - EOF.length; ii++) {
+
+			if (!matches(buffer, ii, EOF)) {
+				continue;
+			}
+			final long startXref = readStartXref(buffer, ii);
+			if (startXref < 0) {
+				continue;
+			}
+			int end = ii + EOF.length;
+			// The end of line after the marker belongs to the revision: it is covered by the byte range of a signature
+			if (end < length && buffer.get(end) == '\r') {
+				end++;
+			}
+			if (end < length && buffer.get(end) == '\n') {
+				end++;
+			}
+			dssPossible = dssPossible || contains(buffer, start, end, DSS) || contains(buffer, start, end, OBJECT_STREAM);
+			revisions.add(new Revision(start, end, startXref, dssPossible));
+			start = end;
+			ii = end - 1;
+		}
+		return Collections.unmodifiableList(revisions);
+	}
+
+	/**
+	 * This method returns the last revision ending at or before the given offset, e.g. the revision covered by a signature when the offset is the one of its
+	 * /Contents.
+	 *
+	 * @param revisions the revisions of the document
+	 * @param offset    the offset
+	 * @return the revision or null if no revision ends before the offset
+	 */
+	public static Revision getLastRevisionBefore(final List<Revision> revisions, final int offset) {
+
+		Revision result = null;
+		for (final Revision revision : revisions) {
+
+			if (revision.getEnd() > offset) {
+				break;
+			}
+			result = revision;
+		}
+		return result;
+	}
+
+	/**
+	 * This method reads backwards the {@code startxref} keyword and offset preceding a {@code %%EOF} marker.
+	 *
+	 * @return the offset of the cross-reference section or -1 if the marker is not preceded by a {@code startxref}
+	 */
+	private static long readStartXref(final ByteBuffer buffer, final int eofOffset) {
+
+		int position = skipWhitespacesBackwards(buffer, eofOffset - 1);
+		long startXref = 0;
+		long factor = 1;
+		int digits = 0;
+		while (position >= 0 && buffer.get(position) >= '0' && buffer.get(position) <= '9' && digits < 18) {
+
+			startXref += (buffer.get(position) - '0') * factor;
+			factor *= 10;
+			digits++;
+			position--;
+		}
+		if (digits == 0) {
+			return -1;
+		}
+		position = skipWhitespacesBackwards(buffer, position);
+		final int keywordOffset = position - STARTXREF.length + 1;
+		if (keywordOffset < 0 || !matches(buffer, keywordOffset, STARTXREF)) {
+			return -1;
+		}
+		return startXref;
+	}
+
+	private static int skipWhitespacesBackwards(final ByteBuffer buffer, int position) {
+
+		while (position >= 0 && isWhitespace(buffer.get(position))) {
+			position--;
+		}
+		return position;
+	}
+
+	private static boolean isWhitespace(final byte value) {
+		return value == ' ' || value == '\r' || value == '\n' || value == '\t' || value == '\f' || value == 0;
+	}
+
+	/**
+	 * This method checks if the section contains the given name: the name must not be followed by a regular character (/DSS must not match /DSSx).
+	 */
+	private static boolean contains(final ByteBuffer buffer, final int start, final int end, final byte[] name) {
+
+		for (int ii = start; ii <= end - name.length; ii++) {
+
+			if (matches(buffer, ii, name)) {
+
+				final int next = ii + name.length;
+				if (next >= end || !isRegular(buffer.get(next))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isRegular(final byte value) {
+		return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z') || (value >= '0' && value <= '9');
+	}
+
+	private static boolean matches(final ByteBuffer buffer, final int offset, final byte[] pattern) {
+
+		for (int ii = 0; ii < pattern.length; ii++) {
+
+			if (buffer.get(offset + ii) != pattern[ii]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
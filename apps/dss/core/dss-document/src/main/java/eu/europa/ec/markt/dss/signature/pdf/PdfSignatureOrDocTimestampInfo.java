@@ -25,6 +25,7 @@ import java.util.Date;
 import java.util.Set;
 
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.pdfbox.PdfDssDict;
 import eu.europa.ec.markt.dss.validation102853.bean.SignatureCryptographicVerification;
 
@@ -57,6 +58,11 @@ public interface PdfSignatureOrDocTimestampInfo {
 	 */
 	byte[] getSignedDocumentBytes();
 
+	/**
+	 * @return what is signed (without signature, but with the placeholder), the content is read from the signed document only when it is streamed or digested
+	 */
+	DSSDocument getSignedContent();
+
 	/**
 	 * This method return a few extra bytes (the header of the signature) but it's correctly ignored by PDF Box
 	 *
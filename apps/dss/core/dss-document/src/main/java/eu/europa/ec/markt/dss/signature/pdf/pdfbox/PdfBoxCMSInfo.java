@@ -21,17 +21,15 @@
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.mina.util.ConcurrentHashSet;
-import org.apache.pdfbox.cos.COSDictionary;
-import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
 import eu.europa.ec.markt.dss.signature.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.ec.markt.dss.validation102853.CertificatePool;
@@ -60,9 +59,8 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	/**
 	 * The original signed pdf document
 	 */
-	final byte[] signedBytes;
+	final DSSDocument signedContent;
 
-	protected InputStream inputStream;
 	private boolean verified;
 	private SignatureCryptographicVerification verifyResult;
 
@@ -71,31 +69,25 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	/**
 	 * @param validationCertPool
 	 * @param outerCatalog       the PDF Dict of the outer document, if the PDFDocument in a enclosed revision. Can be null.
-	 * @param document           the signed PDFDocument
+	 * @param documentCatalog    the PDF Dict of the revision describing the signature, null if the revision has no document security store
 	 * @param cms                the CMS bytes (CAdES signature)
-	 * @param inputStream        the stream of the whole signed document
+	 * @param signedContent      the content covered by the byte range of the signature
 	 * @throws IOException
 	 */
-	PdfBoxCMSInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PDDocument document, PDSignature signature, byte[] cms,
-	              InputStream inputStream) throws DSSException, IOException {
+	PdfBoxCMSInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PdfDict documentCatalog, PDSignature signature, byte[] cms,
+	              DSSDocument signedContent) throws DSSException, IOException {
 		this.validationCertPool = validationCertPool;
 		this.outerCatalog = PdfDssDict.build(outerCatalog);
 		this.cms = cms;
 		this.location = signature.getLocation();
 		this.signingDate = signature.getSignDate() != null ? signature.getSignDate().getTime() : null;
 		this.signatureByteRange = signature.getByteRange();
-		final COSDictionary cosDictionary = document.getDocumentCatalog().getCOSDictionary();
-		final PdfBoxDict documentDict = new PdfBoxDict(cosDictionary, document);
-		documentDictionary = PdfDssDict.build(documentDict);
-		try {
-			if (cms == null) {
-				// due to not very good revision extracting
-				throw new DSSPadesNoSignatureFound();
-			}
-			signedBytes = signature.getSignedContent(inputStream);
-		} catch (IOException e) {
-			throw new DSSException(e);
+		documentDictionary = PdfDssDict.build(documentCatalog);
+		if (cms == null) {
+			// due to not very good revision extracting
+			throw new DSSPadesNoSignatureFound();
 		}
+		this.signedContent = signedContent;
 	}
 
 	@Override
@@ -104,7 +96,7 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 		if (!verified) {
 
 			verifyResult = checkIntegrityOnce();
-			LOG.debug("Verify embedded CAdES Signature on signedBytes size {}. Signature intact: {}", signedBytes.length, verifyResult);
+			LOG.debug("Verify embedded CAdES Signature on byte range {}. Signature intact: {}", Arrays.toString(signatureByteRange), verifyResult);
 			verified = true;
 		}
 		return verifyResult;
@@ -126,14 +118,19 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	 * @return the byte of the originally signed document
 	 */
 	public byte[] getSignedDocumentBytes() {
-		return signedBytes;
+		return signedContent.getBytes();
+	}
+
+	@Override
+	public DSSDocument getSignedContent() {
+		return signedContent;
 	}
 
 	@Override
 	public byte[] getOriginalBytes() {
 		final int length = signatureByteRange[1];
 		final byte[] result = new byte[length];
-		System.arraycopy(signedBytes, 0, result, 0, length);
+		System.arraycopy(getSignedDocumentBytes(), 0, result, 0, length);
 		return result;
 	}
 
@@ -20,15 +20,14 @@
 
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.pdfbox.cos.COSName;
 import org.bouncycastle.tsp.TimeStampToken;
 
 import eu.europa.ec.markt.dss.DSSASN1Utils;
-import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
@@ -36,6 +35,8 @@ import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PDFSignatureService;
 import eu.europa.ec.markt.dss.signature.pdf.PDFTimestampService;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
+import eu.europa.ec.markt.dss.signature.pdf.PdfPreparedSignature;
+import eu.europa.ec.markt.dss.validation102853.tsp.LoadBalancingTSPSource;
 import eu.europa.ec.markt.dss.validation102853.tsp.TSPSource;
 
 class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSignatureService, PDFTimestampService {
@@ -54,13 +55,18 @@ class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSig
 	                      final Map.Entry<String, PdfDict>... dictToAdd) throws DSSException {
 
 		final DigestAlgorithm timestampDigestAlgorithm = parameters.getSignatureTimestampParameters().getDigestAlgorithm();
-		InputStream inputStream = document.openStream();
-		final byte[] digest = digest(inputStream, parameters, timestampDigestAlgorithm, dictToAdd);
-		DSSUtils.closeQuietly(inputStream);
-		final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, digest);
+		final PdfPreparedSignature preparedSignature = prepare(document, parameters, timestampDigestAlgorithm, dictToAdd);
+		// The document preceding the /Contents placeholder is written while the timestamp is requested in the background
+		final Future<TimeStampToken> pendingTimeStampToken = LoadBalancingTSPSource.getTimeStampResponseAsync(tspSource, timestampDigestAlgorithm, preparedSignature.getDigest());
+		try {
+			preparedSignature.writeBeforeSignature(signedStream);
+		} catch (DSSException e) {
+
+			pendingTimeStampToken.cancel(true);
+			throw e;
+		}
+		final TimeStampToken timeStampToken = LoadBalancingTSPSource.getTimeStampToken(pendingTimeStampToken);
 		final byte[] encoded = DSSASN1Utils.getEncoded(timeStampToken);
-		inputStream = document.openStream();
-		sign(inputStream, encoded, signedStream, parameters, timestampDigestAlgorithm, dictToAdd);
-		DSSUtils.closeQuietly(inputStream);
+		preparedSignature.writeAfterSignature(encoded, signedStream);
 	}
 }
@@ -21,11 +21,9 @@
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.security.cert.X509Certificate;
 import java.util.List;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSSignedData;
@@ -34,7 +32,10 @@ import org.bouncycastle.tsp.TimeStampToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDocTimestampInfo;
 import eu.europa.ec.markt.dss.validation102853.CertificatePool;
@@ -61,18 +62,18 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
     /**
      * @param validationCertPool
      * @param outerCatalog       the PDF Dict of the outer document, if the PDFDocument in a enclosed revision. Can be null.
-     * @param document           the signed PDFDocument
+     * @param documentCatalog    the PDF Dict of the revision describing the timestamp, null if the revision has no document security store
      * @param cms                the CMS (CAdES) bytes
-     * @param inputStream        the stream of the whole signed document
+     * @param signedContent      the content covered by the byte range of the timestamp
      * @throws IOException
      */
-    PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PDDocument document, PDSignature signature, byte[] cms, InputStream inputStream) throws DSSException, IOException {
-        super(validationCertPool, outerCatalog, document, signature, cms, inputStream);
+    PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PdfDict documentCatalog, PDSignature signature, byte[] cms, DSSDocument signedContent) throws DSSException, IOException {
+        super(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
         try {
             TimeStampToken timeStampToken = new TimeStampToken(new CMSSignedData(cms));
 
             TimestampType timestampType = TimestampType.SIGNATURE_TIMESTAMP;
-            if (document.getDocumentCatalog().getCOSDictionary().containsKey("DSS")) {
+            if (documentCatalog != null && documentCatalog.hasAName("DSS")) {
                 timestampType = TimestampType.ARCHIVE_TIMESTAMP;
             }
             timestampToken = new TimestampToken(timeStampToken, timestampType, validationCertPool);
@@ -95,14 +96,35 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
         signatureCryptographicVerification.setReferenceDataFound(false);
         signatureCryptographicVerification.setReferenceDataIntact(false);
         signatureCryptographicVerification.setSignatureIntact(false);
-        if (signedBytes != null) {
+        if (signedContent != null) {
             signatureCryptographicVerification.setReferenceDataFound(true);
         }
-        signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchData(signedBytes));
+        signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchDigest(digestSignedContent()));
         signatureCryptographicVerification.setSignatureIntact(timestampToken.isSignatureValid());
         return signatureCryptographicVerification;
     }
 
+    /**
+     * The signed content is digested without being copied when it is read from a mapped file.
+     *
+     * @return the digest of the signed content with the algorithm of the message imprint or null if it cannot be computed
+     */
+    private byte[] digestSignedContent() {
+
+        if (signedContent == null) {
+            return null;
+        }
+        try {
+
+            final DigestAlgorithm digestAlgorithm = timestampToken.getSignedDataDigestAlgo();
+            return DSSUtils.base64Decode(signedContent.getDigest(digestAlgorithm));
+        } catch (DSSException e) {
+
+            LOG.warn("The digest of the timestamped content cannot be computed: {}", e.getMessage());
+            return null;
+        }
+    }
+
     public X509Certificate getSigningCertificate() {
 
         final CertificateToken signingCertificate = timestampToken.getIssuerToken();
@@ -21,17 +21,15 @@
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.security.cert.X509Certificate;
 import java.util.List;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.bouncycastle.cms.CMSException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import eu.europa.ec.markt.dss.signature.InMemoryDocument;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
 import eu.europa.ec.markt.dss.signature.pdf.PdfSignatureInfo;
 import eu.europa.ec.markt.dss.validation102853.CertificatePool;
@@ -47,18 +45,18 @@ class PdfBoxSignatureInfo extends PdfBoxCMSInfo implements PdfSignatureInfo {
 	/**
 	 * @param validationCertPool
 	 * @param outerCatalog       the PDF Dict of the outer document, if the PDFDocument in a enclosed revision. Can be null.
-	 * @param document           the signed PDFDocument
+	 * @param documentCatalog    the PDF Dict of the revision describing the signature, null if the revision has no document security store
 	 * @param cms                the CMS (CAdES) bytes
-	 * @param inputStream        the stream of the whole signed document
+	 * @param signedContent      the content covered by the byte range of the signature
 	 * @throws IOException
 	 */
-	PdfBoxSignatureInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PDDocument document, PDSignature signature, byte[] cms,
-	                    InputStream inputStream) throws IOException {
-		super(validationCertPool, outerCatalog, document, signature, cms, inputStream);
+	PdfBoxSignatureInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PdfDict documentCatalog, PDSignature signature, byte[] cms,
+	                    DSSDocument signedContent) throws IOException {
+		super(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
 		try {
 			cades = new CAdESSignature(cms, validationCertPool);
-			final InMemoryDocument detachedContent = new InMemoryDocument(signedBytes);
-			cades.setDetachedContents(detachedContent);
+			// The signed content is streamed when the signature is verified
+			cades.setDetachedContents(signedContent);
 		} catch (CMSException e) {
 			throw new IOException(e);
 		}
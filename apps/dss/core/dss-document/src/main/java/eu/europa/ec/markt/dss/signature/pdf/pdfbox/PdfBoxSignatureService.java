@@ -21,16 +21,15 @@
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -55,9 +54,15 @@ import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
+import eu.europa.ec.markt.dss.signature.ByteRangeDocument;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
+import eu.europa.ec.markt.dss.signature.InMemoryDocument;
+import eu.europa.ec.markt.dss.signature.MappedFileDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PDFSignatureService;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDocTimestampInfo;
+import eu.europa.ec.markt.dss.signature.pdf.PdfPreparedSignature;
+import eu.europa.ec.markt.dss.signature.pdf.PdfRevisionScanner;
 import eu.europa.ec.markt.dss.signature.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.ec.markt.dss.signature.pdf.SignatureValidationCallback;
 import eu.europa.ec.markt.dss.validation102853.CertificatePool;
@@ -132,6 +137,155 @@ class PdfBoxSignatureService implements PDFSignatureService {
 		}
 	}
 
+	@Override
+	public PdfPreparedSignature prepare(final InputStream toSignDocument, final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm,
+	                                    final Map.Entry<String, PdfDict>... extraDictionariesToAddBeforeSign) throws DSSException {
+
+		File toSignFile = null;
+		File signedFile = null;
+		PDDocument pdDocument = null;
+		try {
+
+			toSignFile = DSSPDFUtils.getFileFromPdfData(toSignDocument);
+
+			pdDocument = PDDocument.load(toSignFile);
+			addExtraDictionaries(pdDocument, extraDictionariesToAddBeforeSign);
+			final PDSignature pdSignature = createSignatureDictionary(parameters);
+
+			signedFile = File.createTempFile("sd-dss-", "-signed.pdf");
+			final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
+
+			return prepare(parameters, signedFile, fileOutputStream, pdDocument, pdSignature, digestAlgorithm, (int) toSignFile.length());
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			DSSUtils.delete(toSignFile);
+			DSSUtils.delete(signedFile);
+			DSSPDFUtils.close(pdDocument);
+		}
+	}
+
+	@Override
+	public PdfPreparedSignature prepare(final DSSDocument toSignDocument, final SignatureParameters parameters, final DigestAlgorithm digestAlgorithm,
+	                                    final Map.Entry<String, PdfDict>... extraDictionariesToAddBeforeSign) throws DSSException {
+
+		if (!(toSignDocument instanceof MappedFileDocument)) {
+
+			final InputStream inputStream = toSignDocument.openStream();
+			try {
+				return prepare(inputStream, parameters, digestAlgorithm, extraDictionariesToAddBeforeSign);
+			} finally {
+				DSSUtils.closeQuietly(inputStream);
+			}
+		}
+		// The document is parsed and copied in front of the incremental update through the mapped memory: no temporary copy is needed
+		final MappedFileDocument mappedDocument = (MappedFileDocument) toSignDocument;
+		File signedFile = null;
+		FileOutputStream fileOutputStream = null;
+		PDDocument pdDocument = null;
+		try {
+
+			pdDocument = PDDocument.load(mappedDocument.openStream());
+			addExtraDictionaries(pdDocument, extraDictionariesToAddBeforeSign);
+			final PDSignature pdSignature = createSignatureDictionary(parameters);
+
+			signedFile = File.createTempFile("sd-dss-", "-signed.pdf");
+			fileOutputStream = new FileOutputStream(signedFile);
+			DSSUtils.copy(mappedDocument.openStream(), fileOutputStream);
+
+			return prepare(parameters, signedFile, fileOutputStream, pdDocument, pdSignature, digestAlgorithm, mappedDocument.getLength());
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			DSSUtils.closeQuietly(fileOutputStream);
+			DSSUtils.delete(signedFile);
+			DSSPDFUtils.close(pdDocument);
+		}
+	}
+
+	private PdfPreparedSignature prepare(final SignatureParameters parameters, final File signedFile, final FileOutputStream fileOutputStream, final PDDocument pdDocument,
+	                                     final PDSignature pdSignature, final DigestAlgorithm digestAlgorithm, final int originalLength) throws DSSException {
+
+		final byte[] signatureValue = DSSUtils.EMPTY_BYTE_ARRAY;
+		final byte[] digestValue = signDocumentAndReturnDigest(parameters, signatureValue, signedFile, fileOutputStream, pdDocument, pdSignature, digestAlgorithm);
+		final byte[] preparedDocument = DSSUtils.toByteArray(signedFile);
+		final int[] byteRange = getLastByteRange(preparedDocument, originalLength);
+		// byteRange[1] points to '<' and byteRange[2] - 1 to '>'
+		final int contentsOffset = byteRange[1] + 1;
+		final int contentsLength = byteRange[2] - byteRange[1] - 2;
+		return new PdfPreparedSignature(preparedDocument, contentsOffset, contentsLength, digestValue, digestAlgorithm, parameters);
+	}
+
+	@Override
+	public void sign(final PdfPreparedSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException {
+
+		preparedSignature.writeSignature(signatureValue, signedStream);
+	}
+
+	/**
+	 * This method reads the /ByteRange of the signature dictionary appended by the incremental update. The update does not use object streams, so the last occurrence
+	 * of the key after the end of the original document is the one of the new signature.
+	 *
+	 * @param document       the incrementally saved document
+	 * @param originalLength the length of the document before the update
+	 * @return the four values of the byte range
+	 * @throws DSSException if the byte range cannot be found or does not match the placeholder
+	 */
+	private static int[] getLastByteRange(final byte[] document, final int originalLength) throws DSSException {
+
+		final byte[] key = DSSUtils.getUtf8Bytes("/ByteRange");
+		int position = -1;
+		for (int ii = document.length - key.length; ii >= originalLength; ii--) {
+
+			if (startsWith(document, ii, key)) {
+
+				position = ii + key.length;
+				break;
+			}
+		}
+		if (position == -1) {
+
+			throw new DSSException("The /ByteRange of the new signature cannot be found!");
+		}
+		while (position < document.length && document[position] != '[') {
+
+			position++;
+		}
+		final int[] byteRange = new int[4];
+		int index = 0;
+		int value = -1;
+		for (position++; position < document.length && index < 4; position++) {
+
+			final byte current = document[position];
+			if (current >= '0' && current <= '9') {
+
+				value = (value == -1 ? 0 : value * 10) + (current - '0');
+			} else if (value != -1) {
+
+				byteRange[index++] = value;
+				value = -1;
+			}
+		}
+		final int end = byteRange[2] + byteRange[3];
+		if (index != 4 || byteRange[0] != 0 || end != document.length || byteRange[1] + 2 > byteRange[2] || document[byteRange[1]] != '<' || document[byteRange[2] - 1] != '>') {
+
+			throw new DSSException("The /ByteRange of the new signature does not match the /Contents placeholder!");
+		}
+		return byteRange;
+	}
+
+	private static boolean startsWith(final byte[] document, final int offset, final byte[] prefix) {
+
+		for (int ii = 0; ii < prefix.length; ii++) {
+
+			if (document[offset + ii] != prefix[ii]) {
+
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private byte[] signDocumentAndReturnDigest(final SignatureParameters parameters, final byte[] signatureBytes, final File signedFile, final FileOutputStream fileOutputStream,
 	                                           final PDDocument pdDocument, final PDSignature pdSignature, final DigestAlgorithm digestAlgorithm) throws DSSException {
 
@@ -227,41 +381,57 @@ class PdfBoxSignatureService implements PDFSignatureService {
 
 	@Override
 	public void validateSignatures(CertificatePool validationCertPool, InputStream input, SignatureValidationCallback callback) throws DSSException {
-		// recursive search of signature
-		Map<String, Set<PdfSignatureOrDocTimestampInfo>> byteRangeMap = new HashMap<String, Set<PdfSignatureOrDocTimestampInfo>>();
-		final Set<PdfSignatureOrDocTimestampInfo> signaturesFound = validateSignatures(validationCertPool, byteRangeMap, null, input);
+
+		final byte[] pdfBytes = DSSUtils.toByteArray(input);
+		validateSignatures(validationCertPool, new InMemoryDocument(pdfBytes), callback);
+	}
+
+	@Override
+	public void validateSignatures(final CertificatePool validationCertPool, final DSSDocument document, final SignatureValidationCallback callback) throws DSSException {
+
+		// A mapped file is read in place, any other document is loaded once in memory
+		final DSSDocument pdfDocument = document instanceof MappedFileDocument ? document : new InMemoryDocument(document.getBytes());
+		final ByteBuffer buffer = getBuffer(pdfDocument);
+		final List<PdfRevisionScanner.Revision> revisions = PdfRevisionScanner.scan(buffer);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Found {} revisions in PDF sized {} bytes", revisions.size(), buffer.capacity());
+		}
+		final Set<PdfSignatureOrDocTimestampInfo> signaturesFound = findSignatures(validationCertPool, pdfDocument, buffer.capacity(), revisions);
 		for (final PdfSignatureOrDocTimestampInfo pdfSignatureOrDocTimestampInfo : signaturesFound) {
 			callback.validate(pdfSignatureOrDocTimestampInfo);
 		}
 	}
 
-    /* This is O(scary), but seems quick enough in practice. */
-
 	/**
+	 * The signature dictionaries are kept by the incremental updates: they are all read from the last revision of the document, which is the only one always parsed.
+	 * The byte ranges tell which signatures cover each signature, it is not needed to parse the previous revisions to link them. A signature is described by the
+	 * revision covered by the first signature covering it (the revision of its document security store). That revision is parsed, at most once, only when the revision
+	 * scanner finds that its catalog may hold a /DSS dictionary; otherwise the revision has no document security store. The signed content of each signature is
+	 * streamed and digested from its byte range: the document is never copied.
+	 *
 	 * @param validationCertPool
-	 * @param byteRangeMap
-	 * @param outerCatalog       the PdfDictionary of the document that enclose the document stored in the input InputStream
-	 * @param input              the Pdf bytes to open as a PDF
+	 * @param pdfDocument        the whole Pdf document: a {@code MappedFileDocument} or an {@code InMemoryDocument}
+	 * @param length             the length of the document
+	 * @param revisions          the revisions found by the {@code PdfRevisionScanner}
 	 * @return
 	 * @throws DSSException
 	 */
-	private Set<PdfSignatureOrDocTimestampInfo> validateSignatures(CertificatePool validationCertPool, Map<String, Set<PdfSignatureOrDocTimestampInfo>> byteRangeMap,
-	                                                               PdfDict outerCatalog, InputStream input) throws DSSException {
-		Set<PdfSignatureOrDocTimestampInfo> signaturesFound = new LinkedHashSet<PdfSignatureOrDocTimestampInfo>();
-		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private Set<PdfSignatureOrDocTimestampInfo> findSignatures(final CertificatePool validationCertPool, final DSSDocument pdfDocument, final int length,
+	                                                           final List<PdfRevisionScanner.Revision> revisions) throws DSSException {
+
+		final Set<PdfSignatureOrDocTimestampInfo> signaturesFound = new LinkedHashSet<PdfSignatureOrDocTimestampInfo>();
+		final Map<Integer, PDDocument> parsedRevisions = new HashMap<Integer, PDDocument>();
 		PDDocument doc = null;
 		try {
-			DSSUtils.copy(input, buffer);
 
-			doc = PDDocument.load(new ByteArrayInputStream(buffer.toByteArray()));
+			doc = PDDocument.load(openRevision(pdfDocument, length));
 			final PdfDict catalog = new PdfBoxDict(doc.getDocumentCatalog().getCOSDictionary(), doc);
 
 			final List<PDSignature> signatureDictionaries = doc.getSignatureDictionaries();
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("Found {} signatures in PDF dictionary of PDF sized {} bytes", signatureDictionaries.size(), buffer.size());
+				LOG.debug("Found {} signatures in PDF dictionary of PDF sized {} bytes", signatureDictionaries.size(), length);
 			}
-			for (int i = 0; i < signatureDictionaries.size(); i++) {
-				final PDSignature signature = signatureDictionaries.get(i);
+			for (final PDSignature signature : signatureDictionaries) {
 				/**
 				 * SubFilter Name (Required) The value of SubFilter identifies the format of the data contained in the stream.
 				 * A conforming reader may use any conforming signature handler that supports the specified format.
@@ -271,12 +441,25 @@ class PdfBoxSignatureService implements PDFSignatureService {
 
 				byte[] cms = new PdfBoxDict(signature.getDictionary(), doc).get("Contents");
 
+				// The outer catalog is the one of the whole document for a signature covered by another one
+				final PDSignature coveringSignature = getFirstCoveringSignature(signatureDictionaries, signature);
+				final PdfDict outerCatalog = coveringSignature == null ? null : catalog;
+				final PdfDict documentCatalog;
+				if (coveringSignature == null) {
+
+					documentCatalog = catalog;
+				} else {
+
+					documentCatalog = getRevisionCatalog(pdfDocument, revisions, coveringSignature.getByteRange()[1], parsedRevisions);
+				}
+
 				PdfSignatureOrDocTimestampInfo signatureInfo;
 				try {
+					final DSSDocument signedContent = cms == null ? null : new ByteRangeDocument(pdfDocument, signature.getByteRange());
 					if (PdfBoxDocTimeStampService.SUB_FILTER_ETSI_RFC3161.getName().equals(subFilter)) {
-						signatureInfo = PdfSignatureFactory.createPdfTimestampInfo(validationCertPool, outerCatalog, doc, signature, cms, buffer);
+						signatureInfo = PdfSignatureFactory.createPdfTimestampInfo(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
 					} else {
-						signatureInfo = PdfSignatureFactory.createPdfSignatureInfo(validationCertPool, outerCatalog, doc, signature, cms, buffer);
+						signatureInfo = PdfSignatureFactory.createPdfSignatureInfo(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
 					}
 				} catch (PdfSignatureOrDocTimestampInfo.DSSPadesNoSignatureFound e) {
 					LOG.debug("No signature found in signature Dictionary:Content", e);
@@ -284,39 +467,125 @@ class PdfBoxSignatureService implements PDFSignatureService {
 				}
 
 				signatureInfo = signatureAlreadyInListOrSelf(signaturesFound, signatureInfo);
+				signaturesFound.add(signatureInfo);
+			}
 
-				// should store in memory this byte range with a list of signature found there
-				final String byteRange = Arrays.toString(signature.getByteRange());
-				Set<PdfSignatureOrDocTimestampInfo> innerSignaturesFound = byteRangeMap.get(byteRange);
-				if (innerSignaturesFound == null) {
-					// Recursive call to find inner signatures in the byte range covered by this signature. Deep first search.
-					final byte[] originalBytes = signatureInfo.getOriginalBytes();
-					if (LOG.isDebugEnabled()) {
-						LOG.debug("Searching signature in the previous revision of the document, size of revision is {} bytes", originalBytes.length);
+			// need to mark a signature as included inside another one. It's needed to link timestamp signature with the signatures covered by the timestamp.
+			for (final PdfSignatureOrDocTimestampInfo innerSignature : signaturesFound) {
+				for (final PdfSignatureOrDocTimestampInfo outerSignature : signaturesFound) {
+					if (outerSignature != innerSignature && isCovering(outerSignature.getSignatureByteRange(), innerSignature.getSignatureByteRange())) {
+						innerSignature.addOuterSignature(outerSignature);
 					}
-					innerSignaturesFound = validateSignatures(validationCertPool, byteRangeMap, catalog, new ByteArrayInputStream(originalBytes));
-					byteRangeMap.put(byteRange, innerSignaturesFound);
-				}
-
-				// need to mark a signature as included inside another one. It's needed to link timestamp signature with the signatures covered by the timestamp.
-				for (PdfSignatureOrDocTimestampInfo innerSignature : innerSignaturesFound) {
-					innerSignature = signatureAlreadyInListOrSelf(signaturesFound, innerSignature);
-					signaturesFound.add(innerSignature);
-					innerSignature.addOuterSignature(signatureInfo);
 				}
-
-				signaturesFound.add(signatureInfo);
 			}
 			return signaturesFound;
 		} catch (IOException up) {
-			LOG.error("Error loading buffer of size {}", buffer.size(), up);
+			LOG.error("Error loading buffer of size {}", length, up);
 			// ignore error when loading signatures
 			return signaturesFound;
 		} finally {
 			DSSPDFUtils.close(doc);
+			for (final PDDocument parsedRevision : parsedRevisions.values()) {
+				DSSPDFUtils.close(parsedRevision);
+			}
 		}
 	}
 
+	/**
+	 * This method returns the catalog of the revision covered by a signature. The revision is only parsed when its catalog may hold a /DSS dictionary.
+	 *
+	 * @param pdfDocument     the whole Pdf document
+	 * @param revisions       the revisions of the document
+	 * @param contentsOffset  the offset of the /Contents of the covering signature
+	 * @param parsedRevisions the revisions already parsed by length, the new parsed revision is added
+	 * @return the catalog of the revision or null if the revision has no document security store
+	 * @throws IOException
+	 */
+	private static PdfDict getRevisionCatalog(final DSSDocument pdfDocument, final List<PdfRevisionScanner.Revision> revisions, final int contentsOffset,
+	                                          final Map<Integer, PDDocument> parsedRevisions) throws IOException {
+
+		final PdfRevisionScanner.Revision revision = PdfRevisionScanner.getLastRevisionBefore(revisions, contentsOffset);
+		if (revision != null && !revision.isDssPossible()) {
+
+			// No incremental update up to this revision adds a document security store: the revision is not parsed
+			return null;
+		}
+		// When the trailer cannot be found the document preceding the /Contents is parsed
+		final int revisionLength = revision == null ? contentsOffset : revision.getEnd();
+		PDDocument revisionDocument = parsedRevisions.get(revisionLength);
+		if (revisionDocument == null) {
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Reading the catalog of the previous revision of the document, size of revision is {} bytes", revisionLength);
+			}
+			revisionDocument = PDDocument.load(openRevision(pdfDocument, revisionLength));
+			parsedRevisions.put(revisionLength, revisionDocument);
+		}
+		return new PdfBoxDict(revisionDocument.getDocumentCatalog().getCOSDictionary(), revisionDocument);
+	}
+
+	private static ByteBuffer getBuffer(final DSSDocument pdfDocument) {
+
+		if (pdfDocument instanceof MappedFileDocument) {
+			return ((MappedFileDocument) pdfDocument).getBuffer();
+		}
+		return ByteBuffer.wrap(pdfDocument.getBytes());
+	}
+
+	/**
+	 * This method opens a revision of the document: the revisions are the beginning of the document.
+	 *
+	 * @param pdfDocument    the whole Pdf document: a {@code MappedFileDocument} or an {@code InMemoryDocument}
+	 * @param revisionLength the length of the revision
+	 * @return the stream of the revision
+	 */
+	private static InputStream openRevision(final DSSDocument pdfDocument, final int revisionLength) {
+
+		if (pdfDocument instanceof MappedFileDocument) {
+			return ((MappedFileDocument) pdfDocument).openStream(0, revisionLength);
+		}
+		return new ByteArrayInputStream(pdfDocument.getBytes(), 0, revisionLength);
+	}
+
+	/**
+	 * This method returns the signature covering the given signature with the smallest byte range, i.e. the signature which covers the revision of the given signature
+	 * first.
+	 *
+	 * @param signatureDictionaries the signatures of the document
+	 * @param signature             the signature
+	 * @return the first covering signature or null if the signature is not covered
+	 */
+	private static PDSignature getFirstCoveringSignature(final List<PDSignature> signatureDictionaries, final PDSignature signature) {
+
+		final int[] signatureByteRange = signature.getByteRange();
+		PDSignature result = null;
+		for (final PDSignature otherSignature : signatureDictionaries) {
+
+			final int[] otherByteRange = otherSignature.getByteRange();
+			if (otherSignature != signature && isCovering(otherByteRange, signatureByteRange)) {
+
+				if (result == null || otherByteRange[1] < result.getByteRange()[1]) {
+					result = otherSignature;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This method checks if the document preceding the /Contents of the outer signature contains the whole inner signature.
+	 *
+	 * @param outerByteRange the byte range of the outer signature
+	 * @param innerByteRange the byte range of the inner signature
+	 * @return true if the outer signature covers the inner signature
+	 */
+	private static boolean isCovering(final int[] outerByteRange, final int[] innerByteRange) {
+
+		if (outerByteRange == null || outerByteRange.length < 4 || innerByteRange == null || innerByteRange.length < 4) {
+			return false;
+		}
+		return innerByteRange[2] + innerByteRange[3] <= outerByteRange[1];
+	}
 
     /*
         This method is needed because we will encounter many times the same signature during our document analysis.
@@ -20,13 +20,11 @@
 
 package eu.europa.ec.markt.dss.signature.pdf.pdfbox;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 
+import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDict;
 import eu.europa.ec.markt.dss.signature.pdf.PdfDocTimestampInfo;
 import eu.europa.ec.markt.dss.signature.pdf.PdfSignatureInfo;
@@ -43,16 +41,16 @@ import eu.europa.ec.markt.dss.validation102853.CertificatePool;
  */
 public class PdfSignatureFactory {
 
-    // dependency to pdfbox/PDDocument is just for building inner object and pdf object can be closed after
-    public static PdfSignatureInfo createPdfSignatureInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PDDocument doc, PDSignature signature, byte[] cms,
-                                                          ByteArrayOutputStream buffer) throws IOException {
-        return new PdfBoxSignatureInfo(validationCertPool, outerCatalog, doc, signature, cms, new ByteArrayInputStream(buffer.toByteArray()));
+    // the catalogs are just read for building inner object and pdf object can be closed after
+    public static PdfSignatureInfo createPdfSignatureInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PdfDict documentCatalog, PDSignature signature, byte[] cms,
+                                                          DSSDocument signedContent) throws IOException {
+        return new PdfBoxSignatureInfo(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
     }
 
-    // dependency to pdfbox/PDDocument is just for building inner object and pdf object can be closed after
-    public static PdfDocTimestampInfo createPdfTimestampInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PDDocument doc, PDSignature signature, byte[] cms,
-                                                             ByteArrayOutputStream buffer) throws IOException {
-        return new PdfBoxDocTimestampInfo(validationCertPool, outerCatalog, doc, signature, cms, new ByteArrayInputStream(buffer.toByteArray()));
+    // the catalogs are just read for building inner object and pdf object can be closed after
+    public static PdfDocTimestampInfo createPdfTimestampInfo(CertificatePool validationCertPool, PdfDict outerCatalog, PdfDict documentCatalog, PDSignature signature,
+                                                             byte[] cms, DSSDocument signedContent) throws IOException {
+        return new PdfBoxDocTimestampInfo(validationCertPool, outerCatalog, documentCatalog, signature, cms, signedContent);
     }
 
 }
@@ -99,6 +99,8 @@ class DetachedSignatureBuilder extends SignatureBuilder {
 	protected void incorporateReference1() throws DSSException {
 
 		final List<DSSReference> references = params.getReferences();
+		// The detached contents are not transformed: they are all digested at once
+		digestReferences(references);
 		for (final DSSReference reference : references) {
 
 			incorporateReference(reference);
@@ -55,6 +55,11 @@ import eu.europa.ec.markt.dss.validation102853.xades.XPathQueryHolder;
  */
 	class EnvelopedSignatureBuilder extends SignatureBuilder {
 
+	/**
+	 * The DOM of the document to sign. It is parsed once and used both to compute the digest of the enveloped reference and to insert the signature.
+	 */
+	private Document toSignDocumentDom;
+
 	/**
 	 * The default constructor for EnvelopedSignatureBuilder. The enveloped signature uses by default the exclusive method of canonicalization.
 	 *
@@ -124,13 +129,52 @@ import eu.europa.ec.markt.dss.validation102853.xades.XPathQueryHolder;
 		return MimeType.XML;
 	}
 
+	/**
+	 * This method returns the DOM of the document to sign, the document is parsed only the first time.
+	 *
+	 * @return the DOM of the document to sign
+	 */
+	protected Document getOriginalDocumentDom() {
+
+		if (toSignDocumentDom == null) {
+
+			toSignDocumentDom = DSSXMLUtils.buildDOM(detachedDocument);
+		}
+		return toSignDocumentDom;
+	}
+
 	@Override
 	protected DSSDocument canonicalizeReference(final DSSReference reference) {
 
-		final Document domDoc = DSSXMLUtils.buildDOM(reference.getContents());
-		if (!(this instanceof CounterSignatureBuilder)) {
-			removeExistingSignatures(domDoc);
+		if (reference.getContents() != detachedDocument) {
+
+			final Document domDoc = DSSXMLUtils.buildDOM(reference.getContents());
+			if (!(this instanceof CounterSignatureBuilder)) {
+				removeExistingSignatures(domDoc);
+			}
+			return canonicalizeReference(reference, domDoc);
 		}
+		final Document domDoc = getOriginalDocumentDom();
+		if (this instanceof CounterSignatureBuilder) {
+
+			return canonicalizeReference(reference, domDoc);
+		}
+		// The existing signatures are only detached during the canonicalization: the same DOM is used to insert the new signature
+		final List<Node[]> detachedSignatures = detachExistingSignatures(domDoc);
+		try {
+
+			return canonicalizeReference(reference, domDoc);
+		} finally {
+
+			for (int ii = detachedSignatures.size() - 1; ii >= 0; ii--) {
+
+				final Node[] detachedSignature = detachedSignatures.get(ii);
+				detachedSignature[1].insertBefore(detachedSignature[0], detachedSignature[2]);
+			}
+		}
+	}
+
+	private DSSDocument canonicalizeReference(final DSSReference reference, final Document domDoc) {
 
 		byte[] canonicalizedBytes;
 		final String uri = reference.getUri();
@@ -162,6 +206,28 @@ import eu.europa.ec.markt.dss.validation102853.xades.XPathQueryHolder;
 		}
 	}
 
+	/**
+	 * This method detaches the existing signatures from the document. Each entry of the returned list contains the signature element, its parent and its next sibling,
+	 * the signatures are put back by inserting them in the reverse order.
+	 *
+	 * @param domDoc {@code Document} containing the signatures to detach
+	 * @return the detached signatures in the detachment order
+	 */
+	private List<Node[]> detachExistingSignatures(final Document domDoc) {
+
+		final List<Node[]> detachedSignatures = new ArrayList<Node[]>();
+		final NodeList signatureNodeList = domDoc.getElementsByTagNameNS(XMLSignature.XMLNS, XPathQueryHolder.XMLE_SIGNATURE);
+		for (int ii = signatureNodeList.getLength() - 1; ii >= 0; ii--) {
+
+			final Element signatureDOM = (Element) signatureNodeList.item(ii);
+			final Node parentNode = signatureDOM.getParentNode();
+			final Node nextSibling = signatureDOM.getNextSibling();
+			parentNode.removeChild(signatureDOM);
+			detachedSignatures.add(new Node[]{signatureDOM, parentNode, nextSibling});
+		}
+		return detachedSignatures;
+	}
+
 	/**
 	 * Adds signature value to the signature and returns XML signature (InMemoryDocument)
 	 *
@@ -182,7 +248,7 @@ import eu.europa.ec.markt.dss.validation102853.xades.XPathQueryHolder;
 		final Text signatureValueNode = documentDom.createTextNode(signatureValueBase64Encoded);
 		signatureValueDom.appendChild(signatureValueNode);
 
-		final Document originalDocumentDom = DSSXMLUtils.buildDOM(detachedDocument);
+		final Document originalDocumentDom = getOriginalDocumentDom();
 		final Node copiedNode = originalDocumentDom.importNode(signatureDom, true);
 
 		if (params.getXPathLocationString() != null) {
@@ -23,7 +23,9 @@ package eu.europa.ec.markt.dss.signature.xades;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -43,8 +45,10 @@ import eu.europa.ec.markt.dss.parameter.DSSReference;
 import eu.europa.ec.markt.dss.parameter.DSSTransform;
 import eu.europa.ec.markt.dss.parameter.SignatureParameters;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
+import eu.europa.ec.markt.dss.signature.DigestDocument;
 import eu.europa.ec.markt.dss.signature.InMemoryDocument;
 import eu.europa.ec.markt.dss.signature.MimeType;
+import eu.europa.ec.markt.dss.signature.ParallelDigester;
 import eu.europa.ec.markt.dss.validation102853.TimestampInclude;
 import eu.europa.ec.markt.dss.validation102853.TimestampToken;
 import eu.europa.ec.markt.dss.validation102853.TimestampType;
@@ -91,6 +95,11 @@ public abstract class SignatureBuilder extends XAdESBuilder {
      */
 	protected TSPSource tspSource;
 
+	/*
+	 * The digests of the references computed beforehand by digestReferences
+	 */
+	private final Map<DSSReference, String> referenceDigests = new IdentityHashMap<DSSReference, String>();
+
 	/**
 	 * Creates the signature according to the packaging
 	 *
@@ -316,14 +325,56 @@ public abstract class SignatureBuilder extends XAdESBuilder {
 		final DigestAlgorithm digestAlgorithm = reference.getDigestMethodAlgorithm();
 		incorporateDigestMethod(referenceDom, digestAlgorithm);
 
+		String knownDigest = reference.getDigest(digestAlgorithm);
+		if (knownDigest == null) {
+			knownDigest = referenceDigests.get(reference);
+		}
+		if (knownDigest != null) {
+
+			// hash-only signature: the contents are not read
+			incorporateDigestValue(referenceDom, knownDigest);
+			return;
+		}
 		final DSSDocument canonicalizedDocument = canonicalizeReference(reference);
-		if (LOG.isTraceEnabled()) {
+		if (LOG.isTraceEnabled() && !(canonicalizedDocument instanceof DigestDocument)) {
 			LOG.trace("Canonicalization method  -->" + signedInfoCanonicalizationMethod);
 			LOG.trace("Canonicalized REF_1      --> " + new String(canonicalizedDocument.getBytes()));
 		}
 		incorporateDigestValue(referenceDom, digestAlgorithm, canonicalizedDocument);
 	}
 
+	/**
+	 * This method computes at once the digests of the given references: the canonicalized contents are digested in parallel, see {@code ParallelDigester}. It must be
+	 * called before {@code #incorporateReference} and only when {@code #canonicalizeReference} does not need to transform the contents.
+	 *
+	 * @param references {@code List} of {@code DSSReference}
+	 * @throws DSSException
+	 */
+	protected void digestReferences(final List<DSSReference> references) throws DSSException {
+
+		final List<DSSReference> referencesToDigest = new ArrayList<DSSReference>();
+		final List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		final List<DigestAlgorithm> digestAlgorithms = new ArrayList<DigestAlgorithm>();
+		for (final DSSReference reference : references) {
+
+			final DigestAlgorithm digestAlgorithm = reference.getDigestMethodAlgorithm();
+			if (reference.getDigest(digestAlgorithm) != null || referenceDigests.containsKey(reference)) {
+				continue;
+			}
+			referencesToDigest.add(reference);
+			documents.add(canonicalizeReference(reference));
+			digestAlgorithms.add(digestAlgorithm);
+		}
+		if (referencesToDigest.size() < 2) {
+			return;
+		}
+		final List<String> digests = ParallelDigester.digest(documents, digestAlgorithms);
+		for (int ii = 0; ii < referencesToDigest.size(); ii++) {
+
+			referenceDigests.put(referencesToDigest.get(ii), digests.get(ii));
+		}
+	}
+
 	/**
 	 * When the user does not want to create its own reference (only when signing one contents) the default one must be created.
 	 *
@@ -159,8 +159,19 @@ public abstract class XAdESBuilder {
 	protected void incorporateDigestValue(final Element parentDom, final DigestAlgorithm digestAlgorithm, final DSSDocument originalDocument) {
 
 		// <ds:DigestValue>b/JEDQH2S1Nfe4Z3GSVtObN34aVB1kMrEbVQZswThfQ=</ds:DigestValue>
-		final Element digestValueDom = documentDom.createElementNS(XMLSignature.XMLNS, DS_DIGEST_VALUE);
 		final String base64EncodedDigestBytes = originalDocument.getDigest(digestAlgorithm);
+		incorporateDigestValue(parentDom, base64EncodedDigestBytes);
+	}
+
+	/**
+	 * Creates the ds:DigestValue DOM object for the given digest value computed beforehand
+	 *
+	 * @param parentDom                the parent element
+	 * @param base64EncodedDigestBytes the base 64 encoded digest value
+	 */
+	protected void incorporateDigestValue(final Element parentDom, final String base64EncodedDigestBytes) {
+
+		final Element digestValueDom = documentDom.createElementNS(XMLSignature.XMLNS, DS_DIGEST_VALUE);
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Digest value {} --> {}", parentDom.getNodeName(), base64EncodedDigestBytes);
 		}
@@ -30,6 +30,7 @@ import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DSSXMLUtils;
 import eu.europa.ec.markt.dss.XAdESNamespaces;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
 import eu.europa.ec.markt.dss.validation102853.DefaultAdvancedSignature;
@@ -81,7 +82,7 @@ public class XAdESLevelBaselineLT extends XAdESLevelBaselineT {
          */
         checkSignatureIntegrity();
 
-        final ValidationContext valContext = xadesSignature.getSignatureValidationContext(certificateVerifier);
+        final ValidationContext valContext = xadesSignature.getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(params));
 
         removeOldCertificateValues();
         removeOldRevocationValues();
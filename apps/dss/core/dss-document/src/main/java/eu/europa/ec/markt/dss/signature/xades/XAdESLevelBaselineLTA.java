@@ -30,6 +30,7 @@ import eu.europa.ec.markt.dss.DSSXMLUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.XAdESNamespaces;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
 import eu.europa.ec.markt.dss.validation102853.TimestampToken;
 import eu.europa.ec.markt.dss.validation102853.TimestampType;
@@ -69,7 +70,7 @@ public class XAdESLevelBaselineLTA extends XAdESLevelBaselineLT {
 
             checkSignatureIntegrity();
 
-            final ValidationContext validationContext = xadesSignature.getSignatureValidationContext(certificateVerifier);
+            final ValidationContext validationContext = xadesSignature.getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(params));
 
             removeLastTimestampValidationData();
             incorporateTimestampValidationData(validationContext);
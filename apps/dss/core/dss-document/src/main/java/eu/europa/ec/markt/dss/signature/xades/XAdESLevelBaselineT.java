@@ -23,6 +23,7 @@ package eu.europa.ec.markt.dss.signature.xades;
 import java.io.IOException;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 import javax.xml.crypto.dsig.XMLSignature;
 
@@ -54,6 +55,7 @@ import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
 import eu.europa.ec.markt.dss.validation102853.TimestampType;
 import eu.europa.ec.markt.dss.validation102853.ValidationContext;
+import eu.europa.ec.markt.dss.validation102853.tsp.LoadBalancingTSPSource;
 import eu.europa.ec.markt.dss.validation102853.tsp.TSPSource;
 import eu.europa.ec.markt.dss.validation102853.xades.XAdESSignature;
 
@@ -221,7 +223,8 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements XAdESSignat
 	}
 
 	/**
-	 * Creates any XAdES TimeStamp object representation. The timestamp token is obtained from TSP source
+	 * Creates any XAdES TimeStamp object representation. The timestamp token is obtained from TSP source: it is requested in the background while the timestamp
+	 * element is built.
 	 *
 	 * @param timestampType       {@code TimestampType}
 	 * @param timestampC14nMethod canonicalization method
@@ -232,9 +235,21 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements XAdESSignat
 
 		try {
 
+			final TimestampParameters timestampParameters;
+			if (TimestampType.ARCHIVE_TIMESTAMP.equals(timestampType)) {
+				timestampParameters = params.getArchiveTimestampParameters();
+			} else {
+				timestampParameters = params.getSignatureTimestampParameters();
+			}
+			final DigestAlgorithm timestampDigestAlgorithm = timestampParameters.getDigestAlgorithm();
+			if (LOG.isDebugEnabled()) {
+
+				final String encodedDigestValue = DSSUtils.base64Encode(digestValue);
+				LOG.debug("Timestamp generation: " + timestampDigestAlgorithm.getName() + " / " + timestampC14nMethod + " / " + encodedDigestValue);
+			}
+			final Future<TimeStampToken> pendingTimeStampToken = LoadBalancingTSPSource.getTimeStampResponseAsync(tspSource, timestampDigestAlgorithm, digestValue);
+
 			Element timeStampDom = null;
-			final TimestampParameters signatureTimestampParameters = params.getSignatureTimestampParameters();
-			DigestAlgorithm timestampDigestAlgorithm = signatureTimestampParameters.getDigestAlgorithm();
 			switch (timestampType) {
 
 				case SIGNATURE_TIMESTAMP:
@@ -251,7 +266,6 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements XAdESSignat
 				case ARCHIVE_TIMESTAMP:
 					// <xades141:ArchiveTimeStamp Id="time-stamp-a762ab0e-e05c-4cc8-a804-cf2c4ffb5516">
 					timeStampDom = DSSXMLUtils.addElement(documentDom, unsignedSignaturePropertiesDom, XAdESNamespaces.XAdES141, XADES141_ARCHIVE_TIME_STAMP);
-					timestampDigestAlgorithm = params.getArchiveTimestampParameters().getDigestAlgorithm();
 					break;
 				case ALL_DATA_OBJECTS_TIMESTAMP:
 					timeStampDom = DSSXMLUtils.addElement(documentDom, signedDataObjectPropertiesDom, XAdESNamespaces.XAdES, XADES_ALL_DATA_OBJECTS_TIME_STAMP);
@@ -261,15 +275,6 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements XAdESSignat
 					break;
 			}
 
-			if (LOG.isDebugEnabled()) {
-
-				final String encodedDigestValue = DSSUtils.base64Encode(digestValue);
-				LOG.debug("Timestamp generation: " + timestampDigestAlgorithm.getName() + " / " + timestampC14nMethod + " / " + encodedDigestValue);
-			}
-			final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, digestValue);
-			final byte[] timeStampTokenBytes = timeStampToken.getEncoded();
-			final String base64EncodedTimeStampToken = DSSUtils.base64Encode(timeStampTokenBytes);
-
 			final String signatureTimestampId = UUID.randomUUID().toString();
 			timeStampDom.setAttribute("Id", "TS-" + signatureTimestampId);
 
@@ -279,6 +284,10 @@ public class XAdESLevelBaselineT extends ExtensionBuilder implements XAdESSignat
 			// <xades:EncapsulatedTimeStamp Id="time-stamp-token-6a150419-caab-4615-9a0b-6e239596643a">MIAGCSqGSIb3DQEH
 			final Element encapsulatedTimeStampDom = DSSXMLUtils.addElement(documentDom, timeStampDom, XAdESNamespaces.XAdES, XADES_ENCAPSULATED_TIME_STAMP);
 			encapsulatedTimeStampDom.setAttribute("Id", "ETS-" + signatureTimestampId);
+
+			final TimeStampToken timeStampToken = LoadBalancingTSPSource.getTimeStampToken(pendingTimeStampToken);
+			final byte[] timeStampTokenBytes = timeStampToken.getEncoded();
+			final String base64EncodedTimeStampToken = DSSUtils.base64Encode(timeStampTokenBytes);
 			DSSXMLUtils.setTextNode(documentDom, encapsulatedTimeStampDom, base64EncodedTimeStampToken);
 		} catch (IOException e) {
 
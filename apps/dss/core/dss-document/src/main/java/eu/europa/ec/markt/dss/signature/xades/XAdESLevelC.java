@@ -44,6 +44,7 @@ import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.XAdESNamespaces;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.signature.InMemoryDocument;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
@@ -214,7 +215,7 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
 		// for XAdES_XL the development is not conform with the standard
 		if (!xadesSignature.hasCProfile() || SignatureLevel.XAdES_C.equals(signatureLevel) || SignatureLevel.XAdES_XL.equals(signatureLevel)) {
 
-			final ValidationContext validationContext = xadesSignature.getSignatureValidationContext(certificateVerifier);
+			final ValidationContext validationContext = xadesSignature.getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(params));
 
 			// XAdES-C: complete certificate references
 			// <xades:CompleteCertificateRefs>
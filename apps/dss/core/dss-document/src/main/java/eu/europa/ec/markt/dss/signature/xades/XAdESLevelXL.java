@@ -28,6 +28,7 @@ import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DSSXMLUtils;
 import eu.europa.ec.markt.dss.XAdESNamespaces;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.signature.SharedSignatureArtifacts;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.validation102853.CertificateVerifier;
 import eu.europa.ec.markt.dss.validation102853.DefaultAdvancedSignature;
@@ -70,7 +71,7 @@ public class XAdESLevelXL extends XAdESLevelX {
 
         if (!xadesSignature.hasXLProfile() || SignatureLevel.XAdES_XL.equals(params.getSignatureLevel())) {
 
-            final ValidationContext valContext = xadesSignature.getSignatureValidationContext(certificateVerifier);
+            final ValidationContext valContext = xadesSignature.getSignatureValidationContext(certificateVerifier, SharedSignatureArtifacts.getChainValidationContext(params));
 
             removeOldCertificateValues();
             removeOldRevocationValues();
@@ -20,12 +20,16 @@
 
 package eu.europa.ec.markt.dss.validation102853;
 
+import java.util.concurrent.ExecutorService;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.ec.markt.dss.validation102853.crl.CRLSource;
 import eu.europa.ec.markt.dss.validation102853.crl.ListCRLSource;
 import eu.europa.ec.markt.dss.validation102853.https.CommonsDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.AsyncDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.CoalescingDataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
 import eu.europa.ec.markt.dss.validation102853.ocsp.ListOCSPSource;
 import eu.europa.ec.markt.dss.validation102853.ocsp.OCSPSource;
@@ -80,6 +84,11 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	 */
 	ListOCSPSource signatureOCSPSource;
 
+	/**
+	 * The executor used to retrieve the validation data in parallel. When null the shared executor of {@code SignatureValidationContext} is used.
+	 */
+	private ExecutorService executorService;
+
 	/**
 	 * This method returns a new instance of the {@code CommonCertificateVerifier} including the {@code OnlineCRLSource}, {@code OnlineOCSPSource} and {@code
 	 * CommonsDataLoader}.
@@ -99,12 +108,13 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	}
 
 	/**
-	 * The default constructor. The {@code DataLoader} is created to allow the retrieval of certificates through AIA.
+	 * The default constructor. The {@code DataLoader} is created to allow the retrieval of certificates through AIA. The concurrent requests for the same certificate are
+	 * coalesced and the requests are executed by an {@code AsyncDataLoader}.
 	 */
 	public CommonCertificateVerifier() {
 
 		LOG.info("+ New CommonCertificateVerifier created.");
-		dataLoader = new CommonsDataLoader();
+		dataLoader = new CoalescingDataLoader(new AsyncDataLoader(new CommonsDataLoader()));
 	}
 
 	/**
@@ -115,7 +125,7 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	public CommonCertificateVerifier(final boolean simpleCreationOnly) {
 
 		if (!simpleCreationOnly) {
-			dataLoader = new CommonsDataLoader();
+			dataLoader = new CoalescingDataLoader(new AsyncDataLoader(new CommonsDataLoader()));
 		}
 	}
 
@@ -249,13 +259,32 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 		this.signatureOCSPSource = signatureOCSPSource;
 	}
 
+	@Override
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	@Override
+	public void setExecutorService(final ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * The validation pool is layered over the pool of the trusted certificate source: the trusted certificates are not copied for each validation but only when they are
+	 * used.
+	 *
+	 * @return the new validation pool
+	 */
 	@Override
 	public CertificatePool createValidationPool() {
 
-		final CertificatePool validationPool = new CertificatePool();
+		final CertificatePool validationPool;
 		if (trustedCertSource != null) {
 
-			validationPool.merge(trustedCertSource.getCertificatePool());
+			validationPool = new CertificatePool(trustedCertSource.getCertificatePool());
+		} else {
+
+			validationPool = new CertificatePool();
 		}
 		if (adjunctCertSource != null) {
 
@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
+import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.validation102853.policy.EtsiValidationPolicy;
 import eu.europa.ec.markt.dss.validation102853.policy.ProcessParameters;
 import eu.europa.ec.markt.dss.validation102853.policy.ValidationPolicy;
@@ -48,7 +49,7 @@ public class CustomProcessExecutor implements ProcessExecutor {
 	protected static final Logger LOG = LoggerFactory.getLogger(CustomProcessExecutor.class);
 
 	/**
-	 * DOM representation of the diagnostic data.
+	 * DOM representation of the diagnostic data, null when the diagnostic data is set directly.
 	 */
 	protected Document diagnosticDataDom;
 
@@ -91,7 +92,16 @@ public class CustomProcessExecutor implements ProcessExecutor {
 
 	@Override
 	public void setDiagnosticDataDom(final Document diagnosticDataDom) {
+
 		this.diagnosticDataDom = diagnosticDataDom;
+		this.diagnosticData = null;
+	}
+
+	@Override
+	public void setDiagnosticData(final DiagnosticData diagnosticData) {
+
+		this.diagnosticData = diagnosticData;
+		this.diagnosticDataDom = null;
 	}
 
 	@Override
@@ -117,7 +127,12 @@ public class CustomProcessExecutor implements ProcessExecutor {
 	public Reports execute() {
 
 		processParams = new ProcessParameters();
-		diagnosticData = new DiagnosticData(diagnosticDataDom);
+		if (diagnosticDataDom != null) {
+			diagnosticData = new DiagnosticData(diagnosticDataDom);
+		}
+		if (diagnosticData == null) {
+			throw new DSSNullException(DiagnosticData.class);
+		}
 		processParams.setDiagnosticData(diagnosticData);
 		processParams.setValidationPolicy(validationPolicy);
 		processParams.setCountersignatureValidationPolicy(countersignatureValidationPolicy);
@@ -23,13 +23,17 @@ package eu.europa.ec.markt.dss.validation102853;
 import java.security.cert.X509CRL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 
 import eu.europa.ec.markt.dss.DSSRevocationUtils;
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
@@ -172,7 +176,23 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 	 */
 	public ValidationContext getSignatureValidationContext(final CertificateVerifier certificateVerifier) {
 
-		final ValidationContext validationContext = new SignatureValidationContext();
+		return getSignatureValidationContext(certificateVerifier, null);
+	}
+
+	/**
+	 * This method validates the certificates and the timestamps of the signature. The revocation data already retrieved by the given context are reused.
+	 *
+	 * @param certificateVerifier    provides the sources used to validate the signature
+	 * @param knownRevocationContext the validated context providing revocation data, for example the one of the certificate chain shared by a batch of signatures, or
+	 *                               null
+	 * @return the validated context
+	 */
+	public ValidationContext getSignatureValidationContext(final CertificateVerifier certificateVerifier, final ValidationContext knownRevocationContext) {
+
+		final SignatureValidationContext validationContext = new SignatureValidationContext();
+		if (knownRevocationContext != null) {
+			validationContext.setKnownRevocations(knownRevocationContext);
+		}
 		final List<CertificateToken> certificates = getCertificates();
 		for (final CertificateToken certificate : certificates) {
 
@@ -393,13 +413,18 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 	@Override
 	public void validateTimestamps() {
 
+		/*
+		 * Signature, SigAndRefs and RefsOnly timestamps covering the same data (see getTimestampDataKey) with the same digest algorithm share the digest: it is
+		 * computed only once. Content and archive timestamps cover data which depends on the timestamp itself.
+		 */
+		final Map<String, byte[]> computedDigests = new HashMap<String, byte[]>();
+
         /*
 	     * This validates the content-timestamp tokensToProcess present in the signature.
          */
 		for (final TimestampToken timestampToken : getContentTimestamps()) {
 
-			final byte[] timestampBytes = getContentTimestampData(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchTimestampDigest(timestampToken, TimestampType.CONTENT_TIMESTAMP, null);
 		}
 
         /*
@@ -407,8 +432,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
          */
 		for (final TimestampToken timestampToken : getSignatureTimestamps()) {
 
-			final byte[] timestampBytes = getSignatureTimestampData(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchTimestampDigest(timestampToken, TimestampType.SIGNATURE_TIMESTAMP, computedDigests);
 		}
 
         /*
@@ -416,8 +440,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
          */
 		for (final TimestampToken timestampToken : getTimestampsX1()) {
 
-			final byte[] timestampBytes = getTimestampX1Data(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchTimestampDigest(timestampToken, TimestampType.VALIDATION_DATA_TIMESTAMP, computedDigests);
 		}
 
         /*
@@ -425,8 +448,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
          */
 		for (final TimestampToken timestampToken : getTimestampsX2()) {
 
-			final byte[] timestampBytes = getTimestampX2Data(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchTimestampDigest(timestampToken, TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP, computedDigests);
 		}
 
         /*
@@ -434,9 +456,87 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
          */
 		for (final TimestampToken timestampToken : getArchiveTimestamps()) {
 
-			final byte[] timestampData = getArchiveTimestampData(timestampToken);
-			timestampToken.matchData(timestampData);
+			matchTimestampDigest(timestampToken, TimestampType.ARCHIVE_TIMESTAMP, null);
 		}
 	}
-}
 
+	/**
+	 * This method checks the message imprint of the given timestamp against the digest of the data it covers.
+	 *
+	 * @param timestampToken  the timestamp to check
+	 * @param timestampType   the kind of data covered by the timestamp
+	 * @param computedDigests the digests already computed for the same kind of timestamp, can be null when the data cannot be shared
+	 */
+	private void matchTimestampDigest(final TimestampToken timestampToken, final TimestampType timestampType, final Map<String, byte[]> computedDigests) {
+
+		final DigestAlgorithm digestAlgorithm;
+		try {
+
+			digestAlgorithm = timestampToken.getSignedDataDigestAlgo();
+		} catch (DSSException e) {
+
+			timestampToken.matchDigest(null);
+			return;
+		}
+		final String dataKey = computedDigests == null ? null : getTimestampDataKey(timestampToken, timestampType);
+		final String key = dataKey == null ? null : dataKey + ":" + digestAlgorithm.getName();
+		byte[] digest = key == null ? null : computedDigests.get(key);
+		if (digest == null) {
+
+			digest = getTimestampDigest(timestampToken, timestampType, digestAlgorithm);
+			if (key != null) {
+
+				computedDigests.put(key, digest);
+			}
+		}
+		timestampToken.matchDigest(digest);
+	}
+
+	/**
+	 * This method identifies the data covered by a signature, SigAndRefs or RefsOnly timestamp: the timestamps with the same key (and digest algorithm) share the digest
+	 * of their data. By default the data only depends on the kind of timestamp and on its canonicalization method. A subclass returns null for a timestamp whose data
+	 * depends on the timestamp itself.
+	 *
+	 * @param timestampToken the timestamp to check
+	 * @param timestampType  the kind of data covered by the timestamp
+	 * @return the key of the covered data or null if the digest cannot be shared
+	 */
+	protected String getTimestampDataKey(final TimestampToken timestampToken, final TimestampType timestampType) {
+
+		return timestampType.name() + ":" + timestampToken.getCanonicalizationMethod();
+	}
+
+	/**
+	 * This method computes the digest of the data covered by the given timestamp. By default the data is built in memory by the corresponding
+	 * {@code get...TimestampData} method; subclasses can stream large components directly into the {@code MessageDigest} instead.
+	 *
+	 * @param timestampToken  the timestamp to check
+	 * @param timestampType   the kind of data covered by the timestamp
+	 * @param digestAlgorithm the digest algorithm of the message imprint
+	 * @return the digest of the timestamped data
+	 */
+	protected byte[] getTimestampDigest(final TimestampToken timestampToken, final TimestampType timestampType, final DigestAlgorithm digestAlgorithm) {
+
+		final byte[] timestampData;
+		switch (timestampType) {
+			case CONTENT_TIMESTAMP:
+				timestampData = getContentTimestampData(timestampToken);
+				break;
+			case SIGNATURE_TIMESTAMP:
+				timestampData = getSignatureTimestampData(timestampToken);
+				break;
+			case VALIDATION_DATA_TIMESTAMP:
+				timestampData = getTimestampX1Data(timestampToken);
+				break;
+			case VALIDATION_DATA_REFSONLY_TIMESTAMP:
+				timestampData = getTimestampX2Data(timestampToken);
+				break;
+			case ARCHIVE_TIMESTAMP:
+				timestampData = getArchiveTimestampData(timestampToken);
+				break;
+			default:
+				throw new DSSException("Unsupported TimestampType " + timestampType);
+		}
+		return DSSUtils.digest(digestAlgorithm, timestampData);
+	}
+}
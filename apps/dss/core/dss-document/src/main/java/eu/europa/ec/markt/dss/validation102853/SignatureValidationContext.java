@@ -21,19 +21,18 @@
 package eu.europa.ec.markt.dss.validation102853;
 
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -53,8 +52,9 @@ import eu.europa.ec.markt.dss.validation102853.ocsp.OCSPSource;
  * During the validation of a signature, the software retrieves different X509 artifacts like Certificate, CRL and OCSP Response. The SignatureValidationContext is a "cache" for
  * one validation request that contains every object retrieved so far.
  * <p/>
- * The validate method is multi-threaded, using an CachedThreadPool from ExecutorService, to parallelize fetching of the certificates from AIA and of the revocation information
- * from online sources.
+ * The validate method is multi-threaded, using the {@code ExecutorService} provided by the {@code CertificateVerifier} (or a shared bounded pool when none is provided), to
+ * parallelize fetching of the certificates from AIA and of the revocation information from online sources. Each processed token schedules directly its follow-up tokens (issuer
+ * certificate, revocation data) and the calling thread waits until no task remains in flight.
  *
  * @version $Revision: 1839 $ - $Date: 2013-04-04 17:40:51 +0200 (Thu, 04 Apr 2013) $
  */
@@ -68,12 +68,22 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	public static int MAX_TIMEOUT = 4;
 
+	/**
+	 * The number of threads of the shared {@code ExecutorService} used when no executor is provided by the {@code CertificateVerifier}.
+	 */
+	public static int DEFAULT_THREAD_POOL_SIZE = 16;
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-validation";
+
 	private final Set<CertificateToken> processedCertificates = new HashSet<CertificateToken>();
 	private final Set<RevocationToken> processedRevocations = new HashSet<RevocationToken>();
 
 	private final Set<TimestampToken> processedTimestamps = new HashSet<TimestampToken>();
 
-	static int threadCount = 0;
+	static final AtomicInteger threadCount = new AtomicInteger();
 
 	/**
 	 * The data loader used to access AIA certificate source.
@@ -85,7 +95,25 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	protected CertificatePool validationCertificatePool;
 
-	private final Map<Token, Boolean> tokensToProcess = new HashMap<Token, Boolean>();
+	/**
+	 * All tokens already added for verification. This set is also used as the lock protecting the state of the token graph.
+	 */
+	private final Set<Token> tokensToProcess = new HashSet<Token>();
+
+	/**
+	 * The tokens added before the beginning of the validation, they are scheduled when the validate method is called.
+	 */
+	private final List<Token> tokensNotYetScheduled = new ArrayList<Token>();
+
+	/**
+	 * The number of tasks submitted and not yet finished. The graph is closed when this number drops to zero.
+	 */
+	private int tasksInFlight = 0;
+
+	/**
+	 * Indicates if the validate method is running: the new tokens are then scheduled directly.
+	 */
+	private boolean validating = false;
 
 	// External OCSP source.
 	private OCSPSource ocspSource;
@@ -108,10 +136,14 @@ public class SignatureValidationContext implements ValidationContext {
 	protected Date currentTime = new Date();
 
 	/**
-	 * A unique thread can be used to disable the parallel fetching:
+	 * The executor used to process the tokens. A unique thread can be used to disable the parallel fetching.
 	 */
-	//	private final ExecutorService executorService = Executors.newFixedThreadPool(1);
-	private final ExecutorService executorService = Executors.newCachedThreadPool();
+	private ExecutorService executorService;
+
+	/**
+	 * The revocation data already retrieved by another validation context, indexed by certificate.
+	 */
+	private Map<CertificateToken, RevocationToken> knownRevocations;
 
 	/**
 	 * This constructor is used during the signature creation process. The certificate pool is created within initialize method.
@@ -151,42 +183,57 @@ public class SignatureValidationContext implements ValidationContext {
 		this.dataLoader = certificateVerifier.getDataLoader();
 		this.signatureCRLSource = certificateVerifier.getSignatureCRLSource();
 		this.signatureOCSPSource = certificateVerifier.getSignatureOCSPSource();
-	}
+		this.executorService = certificateVerifier.getExecutorService();
+		if (executorService == null) {
 
-	public Date getCurrentTime() {
-		return currentTime;
+			executorService = getDefaultExecutorService();
+		}
 	}
 
-	public void setCurrentTime(final Date currentTime) throws DSSException {
+	/**
+	 * This method returns the {@code ExecutorService} shared by all validations for which the {@code CertificateVerifier} does not provide any executor. The pool is bounded
+	 * to {@link #DEFAULT_THREAD_POOL_SIZE} daemon threads.
+	 *
+	 * @return the shared {@code ExecutorService}
+	 */
+	public static ExecutorService getDefaultExecutorService() {
 
-		if (currentTime == null) {
-			throw new DSSNullException(Date.class, "currentTime");
-		}
-		this.currentTime = currentTime;
+		return DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, DEFAULT_THREAD_POOL_SIZE);
 	}
 
 	/**
-	 * This method returns a token to verify. If there is no more tokens to verify null is returned.
+	 * This method provides the revocation data already retrieved by another validation context, for example for a certificate chain shared by several signatures. These
+	 * data are used in place of the online sources for the same certificates. This method must be called before the validation.
 	 *
-	 * @return token to verify or null
+	 * @param validationContext the validated context providing the revocation data
 	 */
-	private Token getNotYetVerifiedToken() {
-		//		LOG.debug("getNotYetVerifiedToken: trying to acquire synchronized block");
-		synchronized (tokensToProcess) {
-			//			LOG.debug("getNotYetVerifiedToken: acquired synchronized block");
-			for (final Entry<Token, Boolean> entry : tokensToProcess.entrySet()) {
+	public void setKnownRevocations(final ValidationContext validationContext) {
 
-				if (entry.getValue() == null) {
+		if (validationContext == null) {
+			throw new DSSNullException(ValidationContext.class);
+		}
+		knownRevocations = new HashMap<CertificateToken, RevocationToken>();
+		for (final CertificateToken certificateToken : validationContext.getProcessedCertificates()) {
 
-					entry.setValue(true);
-					return entry.getKey();
-				}
+			final RevocationToken revocationToken = certificateToken.getRevocationToken();
+			if (revocationToken != null) {
+				knownRevocations.put(certificateToken, revocationToken);
 			}
-			//			LOG.debug("getNotYetVerifiedToken: almost left synchronized block");
-			return null;
 		}
 	}
 
+	public Date getCurrentTime() {
+		return currentTime;
+	}
+
+	public void setCurrentTime(final Date currentTime) throws DSSException {
+
+		if (currentTime == null) {
+			throw new DSSNullException(Date.class, "currentTime");
+		}
+		this.currentTime = currentTime;
+	}
+
 	/**
 	 * This method returns the issuer certificate (the certificate which was used to sign the token) of the given token.
 	 *
@@ -284,40 +331,69 @@ public class SignatureValidationContext implements ValidationContext {
 	}
 
 	/**
-	 * Adds a new token to the list of tokes to verify only if it was not already verified.
+	 * Adds a new token to the list of tokes to verify only if it was not already verified. If the validation is running the token is scheduled immediately, otherwise it is
+	 * scheduled when the validate method is called. The token is added to the given set of processed tokens.
 	 *
-	 * @param token token to verify
+	 * @param token           token to verify
+	 * @param processedTokens the set of processed tokens of the same type
 	 * @return true if the token was not yet verified, false otherwise.
 	 */
-	private boolean addTokenForVerification(final Token token) {
+	private <T extends Token> boolean addTokenForVerification(final T token, final Set<T> processedTokens) {
 
+		if (token == null) {
+			return false;
+		}
 		final boolean traceEnabled = LOG.isTraceEnabled();
 		synchronized (tokensToProcess) {
 
+			if (!tokensToProcess.add(token)) {
+
+				if (traceEnabled) {
+					LOG.trace("Token was already in the list {}:{}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
+				}
+				return false;
+			}
 			if (traceEnabled) {
-				LOG.trace("addTokenForVerification: trying to acquire synchronized block");
+				LOG.trace("+ New {} to check: {}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
 			}
-			try {
+			processedTokens.add(token);
+			if (validating) {
+				schedule(token);
+			} else {
+				tokensNotYetScheduled.add(token);
+			}
+			return true;
+		}
+	}
 
-				if (token == null) {
-					return false;
-				}
-				if (tokensToProcess.containsKey(token)) {
+	/**
+	 * Submits the task processing the given token. This method must be called when holding the lock on {@code tokensToProcess}.
+	 *
+	 * @param token the token to process
+	 */
+	private void schedule(final Token token) {
 
-					if (traceEnabled) {
-						LOG.trace("Token was already in the list {}:{}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
-					}
-					return false;
-				}
-				tokensToProcess.put(token, null);
-				if (traceEnabled) {
-					LOG.trace("+ New {} to check: {}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
-				}
-				return true;
-			} finally {
-				if (traceEnabled) {
-					LOG.trace("addTokenForVerification: almost left synchronized block");
-				}
+		tasksInFlight++;
+		try {
+
+			executorService.execute(new Task(token));
+		} catch (RejectedExecutionException e) {
+			tasksInFlight--;
+			LOG.error(e.getMessage(), e);
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * Called by each task when it ends, even when it failed. The waiting validate method is woken up when the graph is closed.
+	 */
+	private void taskDone() {
+
+		synchronized (tokensToProcess) {
+
+			tasksInFlight--;
+			if (tasksInFlight == 0) {
+				tokensToProcess.notifyAll();
 			}
 		}
 	}
@@ -325,117 +401,62 @@ public class SignatureValidationContext implements ValidationContext {
 	@Override
 	public void addRevocationTokenForVerification(final RevocationToken revocationToken) {
 
-		if (addTokenForVerification(revocationToken)) {
-
-			final boolean added = processedRevocations.add(revocationToken);
-			if (LOG.isTraceEnabled()) {
-				if (added) {
-					LOG.trace("RevocationToken added to processedRevocations: {} ", revocationToken);
-				} else {
-					LOG.trace("RevocationToken already present processedRevocations: {} ", revocationToken);
-				}
-			}
+		if (addTokenForVerification(revocationToken, processedRevocations) && LOG.isTraceEnabled()) {
+			LOG.trace("RevocationToken added to processedRevocations: {} ", revocationToken);
 		}
 	}
 
 	@Override
 	public void addCertificateTokenForVerification(final CertificateToken certificateToken) {
 
-		if (addTokenForVerification(certificateToken)) {
-
-			final boolean added = processedCertificates.add(certificateToken);
-			if (LOG.isTraceEnabled()) {
-				if (added) {
-					LOG.trace("CertificateToken added to processedRevocations: {} ", certificateToken);
-				} else {
-					LOG.trace("CertificateToken already present processedRevocations: {} ", certificateToken);
-				}
-			}
+		if (addTokenForVerification(certificateToken, processedCertificates) && LOG.isTraceEnabled()) {
+			LOG.trace("CertificateToken added to processedCertificates: {} ", certificateToken);
 		}
 	}
 
 	@Override
 	public void addTimestampTokenForVerification(final TimestampToken timestampToken) {
 
-		if (addTokenForVerification(timestampToken)) {
-
-			final boolean added = processedTimestamps.add(timestampToken);
-			if (LOG.isTraceEnabled()) {
-				if (added) {
-					LOG.trace("TimestampToken added to processedRevocations: {} ", processedTimestamps);
-				} else {
-					LOG.trace("TimestampToken already present processedRevocations: {} ", processedTimestamps);
-				}
-			}
+		if (addTokenForVerification(timestampToken, processedTimestamps) && LOG.isTraceEnabled()) {
+			LOG.trace("TimestampToken added to processedTimestamps: {} ", timestampToken);
 		}
 	}
 
 	@Override
 	public void validate() throws DSSException {
 
-		validateLoop();
-		try {
-
-			LOG.debug(">>> MT ***DONE***");
-			executorService.shutdown();
-			executorService.awaitTermination(5, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
+		if (executorService == null) {
+			throw new DSSException("The validation context is not initialised.");
 		}
-	}
+		final long timeout = TimeUnit.SECONDS.toMillis(5) * MAX_TIMEOUT;
+		final long deadline = System.currentTimeMillis() + timeout;
+		synchronized (tokensToProcess) {
 
-	private void validateLoop() {
-
-		int threshold = 0;
-		int max_timeout = 0;
-		final ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executorService;
-		boolean exit = false;
-		boolean checkAgain = true;
-		do {
-
-			final Token token = getNotYetVerifiedToken();
-			if (token != null) {
-
-				checkAgain = true;
-				try {
-
-					//					System.out.println("----------------------------------------------------");
-					//					System.out.println(" DSS_ID: " + token.getDSSId());
-					//					System.out.println("----------------------------------------------------");
-					final Task task = new Task(token);
-					executorService.submit(task);
-				} catch (RejectedExecutionException e) {
-					LOG.error(e.getMessage(), e);
-					throw new DSSException(e);
-				}
-			} else {
+			try {
 
-				try {
+				validating = true;
+				for (final Token token : tokensNotYetScheduled) {
+					schedule(token);
+				}
+				tokensNotYetScheduled.clear();
+				while (tasksInFlight > 0) {
 
-					Thread.sleep(5);
-					threshold++;
-					if (threshold > 1000) {
+					final long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
 
-						LOG.warn("{} active threads", threadPoolExecutor.getActiveCount());
-						LOG.warn("{} completed tasks", threadPoolExecutor.getCompletedTaskCount());
-						LOG.warn("{} waiting tasks", threadPoolExecutor.getQueue());
-						max_timeout++;
-						if (max_timeout == MAX_TIMEOUT) {
-							throw new DSSException("Operation aborted, the retrieval of the validation data takes too long.");
-						}
-						threshold = 0;
+						LOG.warn("{} tasks still in flight", tasksInFlight);
+						throw new DSSException("Operation aborted, the retrieval of the validation data takes too long.");
 					}
-				} catch (InterruptedException e) {
-					throw new DSSException(e);
-				}
-				final boolean threadPoolExecutorEmpty = !(threadPoolExecutor.getActiveCount() > 0 || threadPoolExecutor.getQueue().size() > 0);
-				exit = threadPoolExecutorEmpty && !checkAgain;
-				if (threadPoolExecutorEmpty) {
-					checkAgain = false;
+					tokensToProcess.wait(remaining);
 				}
+				LOG.debug(">>> MT ***DONE***");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DSSException(e);
+			} finally {
+				validating = false;
 			}
-		} while (!exit);
-
+		}
 	}
 
 	class Task implements Runnable {
@@ -450,22 +471,31 @@ public class SignatureValidationContext implements ValidationContext {
 		@Override
 		public void run() {
 
-			final int threadCount_ = threadCount++;
-			LOG.debug(">>> MT IN  [" + threadCount_ + "] DSS_ID: " + token.getDSSId());
-			/**
-			 * Gets the issuer certificate of the Token and checks its signature
-			 */
-			final CertificateToken issuerCertToken = getIssuerCertificate(token);
-			if (issuerCertToken != null) {
+			final int threadCount_ = threadCount.incrementAndGet();
+			try {
 
-				addCertificateTokenForVerification(issuerCertToken);
-			}
-			if (token instanceof CertificateToken) {
+				LOG.debug(">>> MT IN  [" + threadCount_ + "] DSS_ID: " + token.getDSSId());
+				/**
+				 * Gets the issuer certificate of the Token and checks its signature. The issuer certificate is scheduled directly.
+				 */
+				final CertificateToken issuerCertToken = getIssuerCertificate(token);
+				if (issuerCertToken != null) {
+
+					addCertificateTokenForVerification(issuerCertToken);
+				}
+				if (token instanceof CertificateToken) {
 
-				final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
-				addRevocationTokenForVerification(revocationToken);
+					final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
+					addRevocationTokenForVerification(revocationToken);
+				}
+				LOG.debug(">>> MT END [" + threadCount_ + "] DSS_ID: " + token.getDSSId());
+			} catch (RuntimeException e) {
+
+				// The failure of the retrieval of the validation data of one token does not stop the validation of the others.
+				LOG.error("Unable to process the token " + token.getAbbreviation() + ": " + e.getMessage(), e);
+			} finally {
+				taskDone();
 			}
-			LOG.debug(">>> MT END [" + threadCount_ + "] DSS_ID: " + token.getDSSId());
 		}
 	}
 
@@ -494,6 +524,15 @@ public class SignatureValidationContext implements ValidationContext {
 			return null;
 		}
 
+		if (knownRevocations != null) {
+
+			final RevocationToken knownRevocation = knownRevocations.get(certToken);
+			if (knownRevocation != null) {
+
+				certToken.setRevocationToken(knownRevocation);
+				return knownRevocation;
+			}
+		}
 		boolean checkOnLine = shouldCheckOnLine(certToken);
 		if (checkOnLine) {
 
@@ -107,6 +107,7 @@ import eu.europa.ec.markt.dss.validation102853.pades.PAdESSignature;
 import eu.europa.ec.markt.dss.validation102853.pades.PDFDocumentValidator;
 import eu.europa.ec.markt.dss.validation102853.policy.EtsiValidationPolicy;
 import eu.europa.ec.markt.dss.validation102853.policy.ValidationPolicy;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.report.Reports;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeValue;
 import eu.europa.ec.markt.dss.validation102853.scope.SignatureScope;
@@ -365,8 +366,12 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 	@Override
 	public Reports validateDocument(final InputStream policyDataStream) {
 
-		final Document validationPolicyDom = ValidationResourceManager.loadPolicyData(policyDataStream);
-		return validateDocument(validationPolicyDom);
+		final ValidationPolicy validationPolicy = ValidationResourceManager.loadPolicy(policyDataStream);
+		if (validationPolicy == null) {
+
+			return validateDocument((Document) null);
+		}
+		return validateDocument(validationPolicy);
 	}
 
 	/**
@@ -402,7 +407,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		}
 		final eu.europa.ec.markt.dss.validation102853.data.diagnostic.DiagnosticData jaxbDiagnosticData = generateDiagnosticData();
 
-		final Document diagnosticDataDom = ValidationResourceManager.convert(jaxbDiagnosticData);
+		// The validation processes run on the JAXB object model: the DOM of the diagnostic data is only built if the report is requested as XML.
+		final DiagnosticData diagnosticData = new DiagnosticData(jaxbDiagnosticData);
 		Date date2 = null;
 		if (LOG.isInfoEnabled()) {
 
@@ -412,12 +418,11 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		}
 
 		final ProcessExecutor executor = provideProcessExecutorInstance();
-		executor.setDiagnosticDataDom(diagnosticDataDom);
+		executor.setDiagnosticData(diagnosticData);
 		executor.setValidationPolicy(validationPolicy);
 		if (countersignatureValidationPolicy == null) {
 
-			final Document countersignaturePolicyData = ValidationResourceManager.loadCountersignaturePolicyData(null);
-			countersignatureValidationPolicy = new EtsiValidationPolicy(countersignaturePolicyData);
+			countersignatureValidationPolicy = ValidationResourceManager.loadCountersignaturePolicy(null);
 		}
 		executor.setCountersignatureValidationPolicy(countersignatureValidationPolicy);
 
@@ -20,6 +20,8 @@
 package eu.europa.ec.markt.dss.validation102853;
 
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -29,10 +31,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
+import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DSSXMLUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.validation102853.data.diagnostic.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.data.diagnostic.ObjectFactory;
+import eu.europa.ec.markt.dss.validation102853.policy.EtsiValidationPolicy;
+import eu.europa.ec.markt.dss.validation102853.policy.ValidationPolicy;
 
 public class ValidationResourceManager {
 
@@ -42,8 +48,19 @@ public class ValidationResourceManager {
 	public static String defaultCountersignaturePolicyConstraintsLocation = "/102853/policy/countersignature-constraint.xml";
 	public static String defaultPolicyXsdLocation = "/102853/policy/policy.xsd";
 
+	/**
+	 * The maximum number of the validation policies kept in {@code policies}.
+	 */
+	private static final int MAX_CACHED_POLICIES = 64;
+
 	private static JAXBContext jaxbContext;
 
+	/**
+	 * The validation policies already built, identified by the path of the resource or by the digest of the constraint file. The {@code EtsiValidationPolicy} is
+	 * thread-safe and is shared by all the validations.
+	 */
+	private static final ConcurrentMap<String, ValidationPolicy> policies = new ConcurrentHashMap<String, ValidationPolicy>();
+
 	static {
 
 		try {
@@ -93,6 +110,93 @@ public class ValidationResourceManager {
 		return null;
 	}
 
+	/**
+	 * This method returns the validation policy built from the given policy constraint file. If the policy data stream is not specified then the default policy file is
+	 * used. The policy is built only once for a given constraint file and is reused by the next calls.
+	 *
+	 * @param policyDataStream the constraint file, the stream is read and closed
+	 * @return the {@code ValidationPolicy} or null if there is no constraint file
+	 */
+	public static ValidationPolicy loadPolicy(final InputStream policyDataStream) {
+
+		if (policyDataStream != null) {
+
+			try {
+				return loadPolicy(DSSUtils.toByteArray(policyDataStream));
+			} finally {
+				DSSUtils.closeQuietly(policyDataStream);
+			}
+		}
+		return loadPolicy(defaultPolicyConstraintsLocation);
+	}
+
+	/**
+	 * This method returns the validation policy built from the given countersignature policy constraint file. If the policy data stream is not specified then the
+	 * default countersignature policy file is used. The policy is built only once for a given constraint file and is reused by the next calls.
+	 *
+	 * @param policyDataStream the constraint file, the stream is read and closed
+	 * @return the {@code ValidationPolicy} or null if there is no constraint file
+	 */
+	public static ValidationPolicy loadCountersignaturePolicy(final InputStream policyDataStream) {
+
+		if (policyDataStream != null) {
+
+			try {
+				return loadPolicy(DSSUtils.toByteArray(policyDataStream));
+			} finally {
+				DSSUtils.closeQuietly(policyDataStream);
+			}
+		}
+		return loadPolicy(defaultCountersignaturePolicyConstraintsLocation);
+	}
+
+	private static ValidationPolicy loadPolicy(final String path) {
+
+		if (path == null || path.isEmpty()) {
+
+			return null;
+		}
+		final String key = "resource:" + path;
+		ValidationPolicy validationPolicy = policies.get(key);
+		if (validationPolicy == null) {
+
+			validationPolicy = new EtsiValidationPolicy(load(path));
+			validationPolicy = cachePolicy(key, validationPolicy);
+		}
+		return validationPolicy;
+	}
+
+	private static ValidationPolicy loadPolicy(final byte[] policyData) {
+
+		final String key = "digest:" + DSSUtils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, policyData));
+		ValidationPolicy validationPolicy = policies.get(key);
+		if (validationPolicy == null) {
+
+			validationPolicy = new EtsiValidationPolicy(DSSXMLUtils.buildDOM(policyData));
+			validationPolicy = cachePolicy(key, validationPolicy);
+		}
+		return validationPolicy;
+	}
+
+	private static ValidationPolicy cachePolicy(final String key, final ValidationPolicy validationPolicy) {
+
+		if (policies.size() >= MAX_CACHED_POLICIES) {
+
+			return validationPolicy;
+		}
+		final ValidationPolicy cachedValidationPolicy = policies.putIfAbsent(key, validationPolicy);
+		return cachedValidationPolicy == null ? validationPolicy : cachedValidationPolicy;
+	}
+
+	/**
+	 * This method removes all the validation policies kept by {@code loadPolicy} and {@code loadCountersignaturePolicy}. It must be called when the content of a
+	 * policy resource is changed.
+	 */
+	public static void clearPolicies() {
+
+		policies.clear();
+	}
+
 	/**
 	 * This method loads the data from the resource file into an {@link java.io.InputStream}.
 	 *
@@ -149,6 +253,7 @@ public class ValidationResourceManager {
 
 	/**
 	 * This is the utility method that marshals the JAXB object into a {@link org.w3c.dom.Document}.
+	 * The output is not formatted: the document is only queried by the validation processes and is indented when printed.
 	 *
 	 * @param diagnosticDataJB The JAXB object representing the diagnostic data.
 	 * @return
@@ -159,7 +264,6 @@ public class ValidationResourceManager {
 
 			final Document diagnosticData = DSSXMLUtils.buildDOM();
 			Marshaller marshaller = jaxbContext.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
 			marshaller.marshal(diagnosticDataJB, diagnosticData);
 			return diagnosticData;
 		} catch (JAXBException e) {
@@ -23,7 +23,9 @@ package eu.europa.ec.markt.dss.validation102853.cades;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.security.DigestOutputStream;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -1414,33 +1416,49 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		final CadesLevelBaselineLTATimestampExtractor cadesLevelBaselineLTATimestampExtractor = new CadesLevelBaselineLTATimestampExtractor();
 		final Attribute atsHashIndexAttribute = cadesLevelBaselineLTATimestampExtractor.getVerifiedAtsHashIndex(signerInformation, this, timestampToken);
 
-		byte[] originalDocumentBytes = getOriginalDocumentBytes();
-		archiveTimestampData = cadesLevelBaselineLTATimestampExtractor
-			  .getArchiveTimestampDataV3(this, getSignerInformation(), atsHashIndexAttribute, originalDocumentBytes, timestampToken.getSignedDataDigestAlgo());
+		final byte[] originalDocumentDigest = getOriginalDocumentDigest(timestampToken.getSignedDataDigestAlgo());
+		archiveTimestampData = cadesLevelBaselineLTATimestampExtractor.getArchiveTimestampDataV3(this, getSignerInformation(), atsHashIndexAttribute, originalDocumentDigest);
 		return archiveTimestampData;
 	}
 
-	private byte[] getOriginalDocumentBytes() throws DSSException {
+	/**
+	 * This method computes the digest of the signed content (encapsulated or detached) by streaming it into the {@code MessageDigest}: the content is
+	 * never copied in memory.
+	 *
+	 * @param digestAlgorithm the digest algorithm to use
+	 * @return the digest of the signed content
+	 * @throws DSSException
+	 */
+	private byte[] getOriginalDocumentDigest(final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		final DigestOutputStream digestOutputStream = DSSUtils.getDigestOutputStream(digestAlgorithm);
+		writeOriginalDocument(digestOutputStream);
+		return digestOutputStream.getMessageDigest().digest();
+	}
+
+	private void writeOriginalDocument(final OutputStream outputStream) throws DSSException {
 
 		final CMSTypedData signedContent = cmsSignedData.getSignedContent();
-		if (signedContent != null) {
+		try {
 
-			try {
+			if (signedContent != null) {
 
-				final ByteArrayOutputStream originalSignedFileByteArrayOutputStream = new ByteArrayOutputStream();
-				signedContent.write(originalSignedFileByteArrayOutputStream);
-				return originalSignedFileByteArrayOutputStream.toByteArray();
-			} catch (IOException e) {
-				throw new DSSException(e);
-			} catch (CMSException e) {
-				throw new DSSException(e);
-			}
-		} else {
-			if (detachedContents != null && detachedContents.size() > 0) {
+				signedContent.write(outputStream);
+			} else if (detachedContents != null && detachedContents.size() > 0) {
+
+				final InputStream inputStream = detachedContents.get(0).openStream();
+				try {
 
-				return detachedContents.get(0).getBytes();
+					DSSUtils.copy(inputStream, outputStream);
+				} finally {
+
+					DSSUtils.closeQuietly(inputStream);
+				}
 			}
-			return DSSUtils.EMPTY_BYTE_ARRAY;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} catch (CMSException e) {
+			throw new DSSException(e);
 		}
 	}
 
@@ -1479,73 +1497,108 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		try {
 
 			final ByteArrayOutputStream data = new ByteArrayOutputStream();
+			writeArchiveTimestampDataV2(timestampToken, data);
+			return data.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} catch (Exception e) {
+			// When error in computing or in format the algorithm just continues.
+			LOG.warn("When error in computing or in format the algorithm just continue...", e);
+			return DSSUtils.EMPTY_BYTE_ARRAY;
+		}
+	}
 
-			final ContentInfo contentInfo = cmsSignedData.toASN1Structure();
-			final SignedData signedData = SignedData.getInstance(contentInfo.getContent());
-
-			ContentInfo content = signedData.getEncapContentInfo();
-			if (content == null || content.getContent() == null) {
-			    /* Detached signatures have either no encapContentInfo in signedData, or it exists but has no eContent */
-				if (getOriginalDocumentBytes() != null) {
-					data.write(content.toASN1Primitive().getEncoded());
-					data.write(getOriginalDocumentBytes());
-				} else {
-					throw new DSSException("Signature is detached and no original data provided.");
-				}
-			} else {
+	/**
+	 * This method computes the message imprint of an archive-timestamp-v2 without building its data in memory: every component, including the
+	 * detached content, is streamed into the {@code MessageDigest}. See {@link #getArchiveTimestampDataV2(TimestampToken)}.
+	 *
+	 * @param timestampToken  the archive timestamp
+	 * @param digestAlgorithm the digest algorithm of the message imprint
+	 * @return the digest of the archive-timestamp-v2 data
+	 * @throws DSSException
+	 */
+	private byte[] getArchiveTimestampDigestV2(final TimestampToken timestampToken, final DigestAlgorithm digestAlgorithm) throws DSSException {
 
-				ASN1OctetString octet = (ASN1OctetString) content.getContent();
+		final DigestOutputStream digestOutputStream = DSSUtils.getDigestOutputStream(digestAlgorithm);
+		try {
 
-				ContentInfo info2 = new ContentInfo(PKCSObjectIdentifiers.data, octet);
-				final byte[] contentInfoBytes = info2.getEncoded();
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("Content Info: {}", DSSUtils.toHex(contentInfoBytes));
-				}
-				data.write(contentInfoBytes);
-			}
-			final ASN1Set certificates = signedData.getCertificates();
-			if (certificates != null) {
+			writeArchiveTimestampDataV2(timestampToken, digestOutputStream);
+			return digestOutputStream.getMessageDigest().digest();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} catch (Exception e) {
+			// When error in computing or in format the algorithm just continues.
+			LOG.warn("When error in computing or in format the algorithm just continue...", e);
+			return DSSUtils.digest(digestAlgorithm, DSSUtils.EMPTY_BYTE_ARRAY);
+		}
+	}
 
-				final byte[] certificatesBytes = new DERTaggedObject(false, 0, new DERSequence(certificates.toArray())).getEncoded();
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("Certificates: {}", DSSUtils.toHex(certificatesBytes));
-				}
-				data.write(certificatesBytes);
+	private void writeArchiveTimestampDataV2(final TimestampToken timestampToken, final OutputStream data) throws IOException {
+
+		final ContentInfo contentInfo = cmsSignedData.toASN1Structure();
+		final SignedData signedData = SignedData.getInstance(contentInfo.getContent());
+
+		ContentInfo content = signedData.getEncapContentInfo();
+		if (content == null || content.getContent() == null) {
+		    /* Detached signatures have either no encapContentInfo in signedData, or it exists but has no eContent */
+			if (cmsSignedData.getSignedContent() == null && (detachedContents == null || detachedContents.size() == 0)) {
+				throw new DSSException("Signature is detached and no original data provided.");
 			}
-			if (signedData.getCRLs() != null) {
+			data.write(content.toASN1Primitive().getEncoded());
+			writeOriginalDocument(data);
+		} else {
 
-				final byte[] crlBytes = signedData.getCRLs().getEncoded();
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("CRLs: {}", DSSUtils.toHex(crlBytes));
-				}
-				data.write(crlBytes);
+			ASN1OctetString octet = (ASN1OctetString) content.getContent();
+
+			ContentInfo info2 = new ContentInfo(PKCSObjectIdentifiers.data, octet);
+			final byte[] contentInfoBytes = info2.getEncoded();
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Content Info: {}", DSSUtils.toHex(contentInfoBytes));
 			}
-			final SignerInfo signerInfo = signerInformation.toASN1Structure();
-			final ByteArrayOutputStream signerByteArrayOutputStream = new ByteArrayOutputStream();
-			final ASN1Set unauthenticatedAttributes = signerInfo.getUnauthenticatedAttributes();
-			final ASN1Sequence filteredUnauthenticatedAttributes = filterUnauthenticatedAttributes(unauthenticatedAttributes, timestampToken);
-			final ASN1Sequence asn1Object = getSignerInfoEncoded(signerInfo, filteredUnauthenticatedAttributes);
-			for (int ii = 0; ii < asn1Object.size(); ii++) {
-
-				final byte[] signerInfoBytes = DSSASN1Utils.getDEREncoded(asn1Object.getObjectAt(ii).toASN1Primitive());
-				signerByteArrayOutputStream.write(signerInfoBytes);
+			data.write(contentInfoBytes);
+		}
+		final ASN1Set certificates = signedData.getCertificates();
+		if (certificates != null) {
+
+			final byte[] certificatesBytes = new DERTaggedObject(false, 0, new DERSequence(certificates.toArray())).getEncoded();
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Certificates: {}", DSSUtils.toHex(certificatesBytes));
 			}
-			final byte[] signerInfoBytes = signerByteArrayOutputStream.toByteArray();
+			data.write(certificatesBytes);
+		}
+		if (signedData.getCRLs() != null) {
+
+			final byte[] crlBytes = signedData.getCRLs().getEncoded();
 			if (LOG.isTraceEnabled()) {
-				LOG.trace("SignerInfoBytes: {}", DSSUtils.toHex(signerInfoBytes));
+				LOG.trace("CRLs: {}", DSSUtils.toHex(crlBytes));
 			}
-			data.write(signerInfoBytes);
+			data.write(crlBytes);
+		}
+		final SignerInfo signerInfo = signerInformation.toASN1Structure();
+		final ByteArrayOutputStream signerByteArrayOutputStream = new ByteArrayOutputStream();
+		final ASN1Set unauthenticatedAttributes = signerInfo.getUnauthenticatedAttributes();
+		final ASN1Sequence filteredUnauthenticatedAttributes = filterUnauthenticatedAttributes(unauthenticatedAttributes, timestampToken);
+		final ASN1Sequence asn1Object = getSignerInfoEncoded(signerInfo, filteredUnauthenticatedAttributes);
+		for (int ii = 0; ii < asn1Object.size(); ii++) {
+
+			final byte[] signerInfoBytes = DSSASN1Utils.getDEREncoded(asn1Object.getObjectAt(ii).toASN1Primitive());
+			signerByteArrayOutputStream.write(signerInfoBytes);
+		}
+		final byte[] signerInfoBytes = signerByteArrayOutputStream.toByteArray();
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("SignerInfoBytes: {}", DSSUtils.toHex(signerInfoBytes));
+		}
+		data.write(signerInfoBytes);
+	}
 
-			final byte[] result = data.toByteArray();
-			return result;
+	@Override
+	protected byte[] getTimestampDigest(final TimestampToken timestampToken, final TimestampType timestampType, final DigestAlgorithm digestAlgorithm) {
 
-		} catch (IOException e) {
-			throw new DSSException(e);
-		} catch (Exception e) {
-			// When error in computing or in format the algorithm just continues.
-			LOG.warn("When error in computing or in format the algorithm just continue...", e);
-			return DSSUtils.EMPTY_BYTE_ARRAY;
+		if (TimestampType.ARCHIVE_TIMESTAMP.equals(timestampType) && ArchiveTimestampType.CAdES_V2.equals(timestampToken.getArchiveTimestampType())) {
+
+			return getArchiveTimestampDigestV2(timestampToken, digestAlgorithm);
 		}
+		return super.getTimestampDigest(timestampToken, timestampType, digestAlgorithm);
 	}
 
 	/**
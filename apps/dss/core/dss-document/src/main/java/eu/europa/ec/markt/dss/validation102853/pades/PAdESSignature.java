@@ -338,22 +338,27 @@ public class PAdESSignature extends DefaultAdvancedSignature {
 		return cadesSignature.getOCSPRefs();
 	}
 
+	/**
+	 * The document timestamps cover each a different revision of the PDF: their digest cannot be shared.
+	 */
+	@Override
+	protected String getTimestampDataKey(final TimestampToken timestampToken, final TimestampType timestampType) {
+
+		if (TimestampType.SIGNATURE_TIMESTAMP.equals(timestampType) && !cadesTimestamps.contains(timestampToken)) {
+			return null;
+		}
+		return super.getTimestampDataKey(timestampToken, timestampType);
+	}
+
 	@Override
 	public byte[] getSignatureTimestampData(final TimestampToken timestampToken) {
 		if (cadesTimestamps.contains(timestampToken)) {
 			return cadesSignature.getSignatureTimestampData(timestampToken);
 		} else {
-			for (final PdfSignatureOrDocTimestampInfo signatureInfo : pdfSignatureInfo.getOuterSignatures()) {
-				if (signatureInfo instanceof PdfDocTimestampInfo) {
-					PdfDocTimestampInfo pdfTimestampInfo = (PdfDocTimestampInfo) signatureInfo;
-					if (pdfTimestampInfo.getTimestampToken().equals(timestampToken)) {
-						final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
-						return signedDocumentBytes;
-					}
-				}
-			}
+			final PdfDocTimestampInfo pdfTimestampInfo = getPdfDocTimestampInfo(timestampToken);
+			final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
+			return signedDocumentBytes;
 		}
-		throw new DSSException("Timestamp Data not found");
 	}
 
 	@Override
@@ -383,13 +388,33 @@ public class PAdESSignature extends DefaultAdvancedSignature {
 		if (cadesArchiveTimestamps.contains(timestampToken)) {
 			return cadesSignature.getArchiveTimestampData(timestampToken);
 		} else {
-			for (final PdfSignatureOrDocTimestampInfo signatureInfo : pdfSignatureInfo.getOuterSignatures()) {
-				if (signatureInfo instanceof PdfDocTimestampInfo) {
-					PdfDocTimestampInfo pdfTimestampInfo = (PdfDocTimestampInfo) signatureInfo;
-					if (pdfTimestampInfo.getTimestampToken().equals(timestampToken)) {
-						final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
-						return signedDocumentBytes;
-					}
+			final PdfDocTimestampInfo pdfTimestampInfo = getPdfDocTimestampInfo(timestampToken);
+			final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
+			return signedDocumentBytes;
+		}
+	}
+
+	@Override
+	protected byte[] getTimestampDigest(final TimestampToken timestampToken, final TimestampType timestampType, final DigestAlgorithm digestAlgorithm) {
+
+		final boolean signatureDocTimestamp = TimestampType.SIGNATURE_TIMESTAMP.equals(timestampType) && !cadesTimestamps.contains(timestampToken);
+		final boolean archiveDocTimestamp = TimestampType.ARCHIVE_TIMESTAMP.equals(timestampType) && !cadesArchiveTimestamps.contains(timestampToken);
+		if (signatureDocTimestamp || archiveDocTimestamp) {
+
+			// The byte range covered by the document timestamp is digested without being copied when the document is mapped
+			final PdfDocTimestampInfo pdfTimestampInfo = getPdfDocTimestampInfo(timestampToken);
+			return DSSUtils.base64Decode(pdfTimestampInfo.getSignedContent().getDigest(digestAlgorithm));
+		}
+		return super.getTimestampDigest(timestampToken, timestampType, digestAlgorithm);
+	}
+
+	private PdfDocTimestampInfo getPdfDocTimestampInfo(final TimestampToken timestampToken) throws DSSException {
+
+		for (final PdfSignatureOrDocTimestampInfo signatureInfo : pdfSignatureInfo.getOuterSignatures()) {
+			if (signatureInfo instanceof PdfDocTimestampInfo) {
+				PdfDocTimestampInfo pdfTimestampInfo = (PdfDocTimestampInfo) signatureInfo;
+				if (pdfTimestampInfo.getTimestampToken().equals(timestampToken)) {
+					return pdfTimestampInfo;
 				}
 			}
 		}
@@ -20,10 +20,14 @@
 
 package eu.europa.ec.markt.dss.validation102853.policy;
 
+import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.w3c.dom.Document;
 
@@ -43,82 +47,203 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	protected static final String TRUE = "true";
 	protected static final String FALSE = "false";
 
-	private long maxRevocationFreshnessString;
+	private static final String DEFAULT_EXPIRATION_DATE_FORMAT = "yyyy-MM-dd";
 
-	private String maxRevocationFreshnessUnit;
+	private final boolean revocationFreshnessToBeChecked;
 
-	private Long maxRevocationFreshness;
+	private final long maxRevocationFreshnessString;
 
-	private Long timestampDelayTime;
-	private Map<String, Date> algorithmExpirationDate = new HashMap<String, Date>();
+	private final String maxRevocationFreshnessUnit;
+
+	private final Long maxRevocationFreshness;
+
+	private final Long timestampDelayTime;
+
+	/**
+	 * The expiration dates of the algorithms used by the timestamps, {@code null} if the constraint file does not define them.
+	 */
+	private final Map<String, Date> algorithmExpirationDate;
+
+	/**
+	 * The same instance of the policy is shared by all the validations (see {@code ValidationResourceManager#loadPolicy}). The DOM is not thread-safe, even for reading, so
+	 * each XPath query is evaluated only once, under the lock of the policy, and its immutable result is kept in the following maps.
+	 */
+	private final ConcurrentMap<String, String> values = new ConcurrentHashMap<String, String>();
+
+	private final ConcurrentMap<String, List<String>> lists = new ConcurrentHashMap<String, List<String>>();
+
+	private final ConcurrentMap<String, Map<String, String>> maps = new ConcurrentHashMap<String, Map<String, String>>();
+
+	private final ConcurrentMap<String, Map<String, Date>> dateMaps = new ConcurrentHashMap<String, Map<String, Date>>();
 
 	public EtsiValidationPolicy(Document document) {
 
 		super(document);
-	}
+		synchronized (this) {
 
-	@Override
-	public boolean isRevocationFreshnessToBeChecked() {
+			final XmlDom revocationFreshness = getElement("/ConstraintsParameters/Revocation/RevocationFreshness");
+			revocationFreshnessToBeChecked = revocationFreshness != null;
+			if (revocationFreshness != null) {
 
-		return null != getElement("/ConstraintsParameters/Revocation/RevocationFreshness/");
-	}
+				maxRevocationFreshnessString = getLongValue("/ConstraintsParameters/Revocation/RevocationFreshness/text()");
+				maxRevocationFreshnessUnit = getValue("/ConstraintsParameters/Revocation/RevocationFreshness/@Unit");
+				final long maxRevocationFreshness = RuleUtils.convertDuration(maxRevocationFreshnessUnit, "MILLISECONDS", maxRevocationFreshnessString);
+				this.maxRevocationFreshness = maxRevocationFreshness == 0 ? Long.MAX_VALUE : maxRevocationFreshness;
+			} else {
 
-	@Override
-	public String getFormatedMaxRevocationFreshness() {
+				maxRevocationFreshnessString = 0;
+				maxRevocationFreshnessUnit = null;
+				maxRevocationFreshness = Long.MAX_VALUE;
+			}
+
+			final XmlDom timestampDelay = getElement("/ConstraintsParameters/Timestamp/TimestampDelay");
+			if (timestampDelay != null) {
 
-		if (maxRevocationFreshness == null) {
+				final long timestampDelayValue = getLongValue("/ConstraintsParameters/Timestamp/TimestampDelay/text()");
+				final String timestampUnit = getValue("/ConstraintsParameters/Timestamp/TimestampDelay/@Unit");
+				timestampDelayTime = RuleUtils.convertDuration(timestampUnit, "MILLISECONDS", timestampDelayValue);
+			} else {
+
+				timestampDelayTime = null;
+			}
 
-			getMaxRevocationFreshness();
+			algorithmExpirationDate = compileAlgorithmExpirationDates();
 		}
-		return maxRevocationFreshnessString + " " + maxRevocationFreshnessUnit;
 	}
 
-	@Override
-	public Long getMaxRevocationFreshness() {
+	private Map<String, Date> compileAlgorithmExpirationDates() {
 
-		if (maxRevocationFreshness == null) {
+		final XmlDom algoExpirationDateDom = getElement("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate");
+		if (algoExpirationDateDom == null) {
 
-			maxRevocationFreshness = Long.MAX_VALUE;
+			return null;
+		}
+		String expirationDateFormat = algoExpirationDateDom.getValue("./@Format");
+		if (expirationDateFormat.isEmpty()) {
 
-			final XmlDom revocationFreshness = getElement("/ConstraintsParameters/Revocation/RevocationFreshness");
-			if (revocationFreshness != null) {
+			expirationDateFormat = DEFAULT_EXPIRATION_DATE_FORMAT;
+		}
+		final SimpleDateFormat format = new SimpleDateFormat(expirationDateFormat);
+		final Map<String, Date> algorithmExpirationDate = new HashMap<String, Date>();
+		for (final XmlDom algo : algoExpirationDateDom.getElements("./Algo")) {
 
-				maxRevocationFreshnessString = getLongValue("/ConstraintsParameters/Revocation/RevocationFreshness/text()");
-				maxRevocationFreshnessUnit = getValue("/ConstraintsParameters/Revocation/RevocationFreshness/@Unit");
-				maxRevocationFreshness = RuleUtils.convertDuration(maxRevocationFreshnessUnit, "MILLISECONDS", maxRevocationFreshnessString);
-				if (maxRevocationFreshness == 0) {
+			final String expirationDateString = algo.getText();
+			if (expirationDateString == null || expirationDateString.trim().isEmpty()) {
 
-					maxRevocationFreshness = Long.MAX_VALUE;
-				}
+				continue;
 			}
+			final Date date = RuleUtils.parseDate(format, expirationDateString.trim());
+			algorithmExpirationDate.put(algo.getAttribute("Name"), date);
 		}
-		return maxRevocationFreshness;
+		return Collections.unmodifiableMap(algorithmExpirationDate);
 	}
 
-	@Override
-	public Date getAlgorithmExpirationDate(final String algorithm) {
+	/**
+	 * @param xPath the XPath query
+	 * @return the value returned by the query, evaluated only once per policy
+	 */
+	private String getCachedValue(final String xPath) {
 
-		Date date = algorithmExpirationDate.get(algorithm);
-		if (date == null) {
+		String value = values.get(xPath);
+		if (value == null) {
 
-			final XmlDom algoExpirationDateDom = getElement("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate");
-			if (algoExpirationDateDom == null) {
+			synchronized (this) {
 
-				return null;
+				value = getValue(xPath);
 			}
-			String expirationDateFormat = algoExpirationDateDom.getValue("./@Format");
-			if (expirationDateFormat.isEmpty()) {
+			values.putIfAbsent(xPath, value);
+		}
+		return value;
+	}
 
-				expirationDateFormat = "yyyy-MM-dd";
+	/**
+	 * @param xPath the XPath query
+	 * @return the unmodifiable list of the texts of the elements returned by the query, evaluated only once per policy
+	 */
+	private List<String> getCachedList(final String xPath) {
+
+		List<String> list = lists.get(xPath);
+		if (list == null) {
+
+			synchronized (this) {
+
+				final List<XmlDom> elements = getElements(xPath);
+				list = Collections.unmodifiableList(XmlDom.convertToStringList(elements));
 			}
+			lists.putIfAbsent(xPath, list);
+		}
+		return list;
+	}
 
-			final String expirationDateString = algoExpirationDateDom.getValue("./Algo[@Name='%s']/text()", algorithm);
-			if (expirationDateString.isEmpty()) {
+	/**
+	 * @param xPath         the XPath query
+	 * @param attributeName the attribute holding the value associated to the text of each element
+	 * @return the unmodifiable map built from the elements returned by the query, evaluated only once per policy
+	 */
+	private Map<String, String> getCachedMap(final String xPath, final String attributeName) {
 
-				throw new DSSException(String.format("The the expiration date is not defined for '%s' algorithm!", algorithm));
+		Map<String, String> map = maps.get(xPath);
+		if (map == null) {
+
+			synchronized (this) {
+
+				final List<XmlDom> elements = getElements(xPath);
+				map = Collections.unmodifiableMap(XmlDom.convertToStringMap(elements, attributeName));
+			}
+			maps.putIfAbsent(xPath, map);
+		}
+		return map;
+	}
+
+	/**
+	 * @param xPath         the XPath query
+	 * @param attributeName the attribute holding the date associated to the text of each element
+	 * @return the unmodifiable map built from the elements returned by the query, evaluated only once per policy
+	 */
+	private Map<String, Date> getCachedDateMap(final String xPath, final String attributeName) {
+
+		Map<String, Date> map = dateMaps.get(xPath);
+		if (map == null) {
+
+			synchronized (this) {
+
+				final List<XmlDom> elements = getElements(xPath);
+				map = Collections.unmodifiableMap(XmlDom.convertToStringDateMap(elements, attributeName));
 			}
-			date = RuleUtils.parseDate(expirationDateFormat, expirationDateString);
-			algorithmExpirationDate.put(algorithm, date);
+			dateMaps.putIfAbsent(xPath, map);
+		}
+		return map;
+	}
+
+	@Override
+	public boolean isRevocationFreshnessToBeChecked() {
+
+		return revocationFreshnessToBeChecked;
+	}
+
+	@Override
+	public String getFormatedMaxRevocationFreshness() {
+
+		return maxRevocationFreshnessString + " " + maxRevocationFreshnessUnit;
+	}
+
+	@Override
+	public Long getMaxRevocationFreshness() {
+
+		return maxRevocationFreshness;
+	}
+
+	@Override
+	public Date getAlgorithmExpirationDate(final String algorithm) {
+
+		if (algorithmExpirationDate == null) {
+
+			return null;
+		}
+		final Date date = algorithmExpirationDate.get(algorithm);
+		if (date == null) {
+
+			throw new DSSException(String.format("The the expiration date is not defined for '%s' algorithm!", algorithm));
 		}
 		return date;
 	}
@@ -126,13 +251,12 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public SignaturePolicyConstraint getSignaturePolicyConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/AcceptablePolicies/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/AcceptablePolicies/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final SignaturePolicyConstraint constraint = new SignaturePolicyConstraint(level);
 
-			final List<XmlDom> policyList = getElements("/ConstraintsParameters/MainSignature/AcceptablePolicies/Id");
-			final List<String> identifierList = XmlDom.convertToStringList(policyList);
+			final List<String> identifierList = getCachedList("/ConstraintsParameters/MainSignature/AcceptablePolicies/Id");
 			constraint.setIdentifiers(identifierList);
 			constraint.setExpectedValue(identifierList.toString());
 			return constraint;
@@ -172,12 +296,11 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public Constraint getCommitmentTypeIndicationConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			final List<XmlDom> commitmentTypeIndications = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/Identifier");
-			final List<String> identifierList = XmlDom.convertToStringList(commitmentTypeIndications);
+			final List<String> identifierList = getCachedList("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/Identifier");
 			constraint.setExpectedValue(identifierList.toString());
 			constraint.setIdentifiers(identifierList);
 			return constraint;
@@ -188,7 +311,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public Constraint getSignerLocationConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/SignerLocation/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/SignerLocation/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
@@ -200,7 +323,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public Constraint getContentTimestampPresenceConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ContentTimestamp/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ContentTimestamp/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
@@ -212,12 +335,11 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public Constraint getClaimedRoleConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			final List<XmlDom> claimedRoles = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
-			final List<String> claimedRoleList = XmlDom.convertToStringList(claimedRoles);
+			final List<String> claimedRoleList = getCachedList("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
 			constraint.setExpectedValue(claimedRoleList.toString());
 			constraint.setIdentifiers(claimedRoleList);
 			return constraint;
@@ -228,61 +350,48 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public List<String> getClaimedRoles() {
 
-		final List<XmlDom> list = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
-		final List<String> claimedRoles = XmlDom.convertToStringList(list);
+		final List<String> claimedRoles = getCachedList("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
 		return claimedRoles;
 	}
 
 	@Override
 	public boolean shouldCheckIfCertifiedRoleIsPresent() {
 
-		final long count = getCountValue("count(/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role)");
-		return count > 0;
+		final List<String> certifiedRoles = getCachedList("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role");
+		return !certifiedRoles.isEmpty();
 	}
 
 	@Override
 	public List<String> getCertifiedRoles() {
 
-		final List<XmlDom> list = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role");
-		final List<String> claimedRoles = XmlDom.convertToStringList(list);
+		final List<String> claimedRoles = getCachedList("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role");
 		return claimedRoles;
 	}
 
 	@Override
 	public String getPolicyName() {
 
-		final String policy = getValue("/ConstraintsParameters/@Name");
+		final String policy = getCachedValue("/ConstraintsParameters/@Name");
 		return policy;
 	}
 
 	@Override
 	public String getPolicyDescription() {
 
-		final String description = getValue("/ConstraintsParameters/Description/text()");
+		final String description = getCachedValue("/ConstraintsParameters/Description/text()");
 		return description;
 	}
 
 	@Override
 	public Long getTimestampDelayTime() {
 
-		if (timestampDelayTime == null) {
-
-			final XmlDom timestampDelayPresent = getElement("/ConstraintsParameters/Timestamp/TimestampDelay");
-			if (timestampDelayPresent == null) {
-
-				return null;
-			}
-			final long timestampDelay = getLongValue("/ConstraintsParameters/Timestamp/TimestampDelay/text()");
-			final String timestampUnit = getValue("/ConstraintsParameters/Timestamp/TimestampDelay/@Unit");
-			timestampDelayTime = RuleUtils.convertDuration(timestampUnit, "MILLISECONDS", timestampDelay);
-		}
 		return timestampDelayTime;
 	}
 
 	@Override
 	public String getCertifiedRolesAttendance() {
 
-		String attendance = getValue("ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/@Attendance");
+		String attendance = getCachedValue("ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/@Attendance");
 		return attendance;
 	}
 
@@ -303,25 +412,21 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	protected SignatureCryptographicConstraint getSignatureCryptographicConstraint_(final String rootXPathQuery, final String context, final String subContext) {
 
-		final String level = getValue(rootXPathQuery + "/@Level");
+		final String level = getCachedValue(rootXPathQuery + "/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final SignatureCryptographicConstraint constraint = new SignatureCryptographicConstraint(level, context, subContext);
 
-			final List<XmlDom> encryptionAlgoList = getElements(rootXPathQuery + "/AcceptableEncryptionAlgo/Algo");
-			final List<String> encryptionAlgoStringList = XmlDom.convertToStringList(encryptionAlgoList);
+			final List<String> encryptionAlgoStringList = getCachedList(rootXPathQuery + "/AcceptableEncryptionAlgo/Algo");
 			constraint.setEncryptionAlgorithms(encryptionAlgoStringList);
 
-			final List<XmlDom> digestAlgoList = getElements(rootXPathQuery + "/AcceptableDigestAlgo/Algo");
-			final List<String> digestAlgoStringList = XmlDom.convertToStringList(digestAlgoList);
+			final List<String> digestAlgoStringList = getCachedList(rootXPathQuery + "/AcceptableDigestAlgo/Algo");
 			constraint.setDigestAlgorithms(digestAlgoStringList);
 
-			final List<XmlDom> miniPublicKeySizeList = getElements(rootXPathQuery + "/MiniPublicKeySize/Algo");
-			final Map<String, String> miniPublicKeySizeStringMap = XmlDom.convertToStringMap(miniPublicKeySizeList, SIZE);
+			final Map<String, String> miniPublicKeySizeStringMap = getCachedMap(rootXPathQuery + "/MiniPublicKeySize/Algo", SIZE);
 			constraint.setMinimumPublicKeySizes(miniPublicKeySizeStringMap);
 
-			final List<XmlDom> algoExpirationDateList = getElements("/ConstraintsParameters/Cryptographic/AlgoExpirationDate/Algo");
-			final Map<String, Date> algoExpirationDateStringMap = XmlDom.convertToStringDateMap(algoExpirationDateList, DATE);
+			final Map<String, Date> algoExpirationDateStringMap = getCachedDateMap("/ConstraintsParameters/Cryptographic/AlgoExpirationDate/Algo", DATE);
 			constraint.setAlgorithmExpirationDates(algoExpirationDateStringMap);
 
 			return constraint;
@@ -339,7 +444,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public CertificateExpirationConstraint getSigningCertificateExpirationConstraint(final String context, final String subContext) {
 
-		final String level = getValue(String.format("/ConstraintsParameters/%s/%s/Expiration/@Level", context, subContext));
+		final String level = getCachedValue(String.format("/ConstraintsParameters/%s/%s/Expiration/@Level", context, subContext));
 		if (DSSUtils.isNotBlank(level)) {
 
 			final CertificateExpirationConstraint constraint = new CertificateExpirationConstraint(level);
@@ -428,7 +533,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public Constraint getChainConstraint() {
 
-		final String level = getValue("/ConstraintsParameters/MainSignature/CertificateChain/@Level");
+		final String level = getCachedValue("/ConstraintsParameters/MainSignature/CertificateChain/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
@@ -524,11 +629,11 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	protected Constraint getBasicConstraint(final String XP_ROOT, final boolean defaultExpectedValue) {
 
-		final String level = getValue(XP_ROOT + "/@Level");
+		final String level = getCachedValue(XP_ROOT + "/@Level");
 		if (DSSUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			String expectedValue = getValue(XP_ROOT + "/text()");
+			String expectedValue = getCachedValue(XP_ROOT + "/text()");
 			if (DSSUtils.isBlank(expectedValue)) {
 				expectedValue = defaultExpectedValue ? TRUE : FALSE;
 			}
@@ -37,6 +37,7 @@ import eu.europa.ec.markt.dss.validation102853.policy.ProcessParameters;
 import eu.europa.ec.markt.dss.validation102853.policy.TimestampValidationProcessValidConstraint;
 import eu.europa.ec.markt.dss.validation102853.policy.ValidationPolicy;
 import eu.europa.ec.markt.dss.validation102853.report.Conclusion;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeName;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeValue;
 import eu.europa.ec.markt.dss.validation102853.rules.ExceptionMessage;
@@ -103,7 +104,7 @@ public class AdESTValidation implements Indication, SubIndication, NodeName, Nod
 	 *
 	 * @return
 	 */
-	private XmlDom diagnosticData;
+	private DiagnosticData diagnosticData;
 
 	/**
 	 * See {@link eu.europa.ec.markt.dss.validation102853.policy.ProcessParameters#getValidationPolicy()}
@@ -244,7 +245,7 @@ public class AdESTValidation implements Indication, SubIndication, NodeName, Nod
 		 * NOTE 1: Best-signature-time is an internal variable for the algorithm denoting the earliest time when it can be
 		 * proven that a signature has existed.
 		 */
-		final List<XmlDom> signatures = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatures = diagnosticData.getSignatures();
 		for (final XmlDom signature : signatures) {
 
 			signatureXmlDom = signature;
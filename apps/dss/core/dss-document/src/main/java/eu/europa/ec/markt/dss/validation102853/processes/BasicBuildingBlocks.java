@@ -33,6 +33,7 @@ import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.SignatureA
 import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.ValidationContextInitialisation;
 import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.X509CertificateValidation;
 import eu.europa.ec.markt.dss.validation102853.report.Conclusion;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeName;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeValue;
 import eu.europa.ec.markt.dss.validation102853.rules.ExceptionMessage;
@@ -55,7 +56,7 @@ public class BasicBuildingBlocks implements NodeName, NodeValue, AttributeName,
 
 	private static final Logger LOG = LoggerFactory.getLogger(BasicBuildingBlocks.class);
 
-	private XmlDom diagnosticData;
+	private DiagnosticData diagnosticData;
 
 	private void prepareParameters(final ProcessParameters params) {
 
@@ -86,7 +87,7 @@ public class BasicBuildingBlocks implements NodeName, NodeValue, AttributeName,
 
 		final XmlNode basicBuildingBlocksNode = mainNode.addChild(BASIC_BUILDING_BLOCKS);
 
-		final List<XmlDom> signatures = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatures = diagnosticData.getSignatures();
 
 		for (final XmlDom signature : signatures) {
 
@@ -34,6 +34,7 @@ import eu.europa.ec.markt.dss.validation102853.policy.ProcessParameters;
 import eu.europa.ec.markt.dss.validation102853.processes.ltv.PastSignatureValidation;
 import eu.europa.ec.markt.dss.validation102853.processes.ltv.PastSignatureValidationConclusion;
 import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.EtsiPOEExtraction;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeName;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeValue;
 import eu.europa.ec.markt.dss.validation102853.rules.ExceptionMessage;
@@ -95,7 +96,7 @@ public class LongTermValidation implements Indication, SubIndication, NodeName,
 	 *
 	 * @return
 	 */
-	private XmlDom diagnosticData;
+	private DiagnosticData diagnosticData;
 
 	private XmlDom timestampValidationData; // Basic Building Blocks for timestamps
 
@@ -170,7 +171,7 @@ public class LongTermValidation implements Indication, SubIndication, NodeName,
 
 		XmlNode longTermValidationData = mainNode.addChild(LONG_TERM_VALIDATION_DATA);
 
-		final List<XmlDom> signatures = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatures = diagnosticData.getSignatures();
 
 		for (final XmlDom signature : signatures) {
 
@@ -36,6 +36,7 @@ import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.Cryptograp
 import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.IdentificationOfTheSignersCertificate;
 import eu.europa.ec.markt.dss.validation102853.processes.subprocesses.X509CertificateValidation;
 import eu.europa.ec.markt.dss.validation102853.report.Conclusion;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeName;
 import eu.europa.ec.markt.dss.validation102853.rules.AttributeValue;
 import eu.europa.ec.markt.dss.validation102853.rules.ExceptionMessage;
@@ -64,7 +65,7 @@ public class TimestampValidation implements Indication, SubIndication, NodeName,
 
 	private static final Logger LOG = LoggerFactory.getLogger(TimestampValidation.class);
 
-	private XmlDom diagnosticData;
+	private DiagnosticData diagnosticData;
 	private ValidationPolicy constraintData;
 
 	/**
@@ -114,7 +115,7 @@ public class TimestampValidation implements Indication, SubIndication, NodeName,
 		prepareParameters(params);
 		LOG.debug(this.getClass().getSimpleName() + ": start.");
 
-		final List<XmlDom> signatures = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatures = diagnosticData.getSignatures();
 
 		final XmlNode timestampValidationDataNode = mainNode.addChild(TIMESTAMP_VALIDATION_DATA);
 
@@ -133,7 +133,7 @@ public class SimpleReportBuilder {
 
 	private void addSignatures(final ProcessParameters params, final XmlNode simpleReport) throws DSSException {
 
-		final List<XmlDom> signatures = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatures = diagnosticData.getSignatures();
 		validSignatureCount = 0;
 		totalSignatureCount = 0;
 		for (final XmlDom signature : signatures) {
@@ -22,6 +22,7 @@ package eu.europa.ec.markt.dss.validation102853.tsl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +34,7 @@ import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 /**
  * This CertificateSource keep a list of trusted certificates extracted from the trusted list. To populate this list {@link
  * TrustedListsCertificateSource} class is used. This list is refreshed when the method refresh
- * is called.
+ * is called: the new list replaces the current one only when it is completely loaded, the trusted lists which did not change are not validated again.
  *
  * @version $Revision$ - $Date$
  */
@@ -42,7 +43,12 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
 
     private static final Logger LOG = LoggerFactory.getLogger(ReloadableTrustedListCertificateSource.class);
 
-    private TrustedListsCertificateSource currentSource = new TrustedListsCertificateSource();
+    private volatile TrustedListsCertificateSource currentSource = new TrustedListsCertificateSource();
+
+    /**
+     * The number of the refreshes requested: only the source loaded by the last refresh replaces the current source.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
 
     public ReloadableTrustedListCertificateSource() {
 
@@ -51,11 +57,17 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
 
     static class Reloader implements Runnable {
 
-        private TrustedListsCertificateSource underlyingSource;
+        private final ReloadableTrustedListCertificateSource reloadableSource;
+
+        private final TrustedListsCertificateSource underlyingSource;
 
-        Reloader(final TrustedListsCertificateSource underlyingSource) {
+        private final int generation;
 
+        Reloader(final ReloadableTrustedListCertificateSource reloadableSource, final TrustedListsCertificateSource underlyingSource, final int generation) {
+
+            this.reloadableSource = reloadableSource;
             this.underlyingSource = underlyingSource;
+            this.generation = generation;
         }
 
         @Override
@@ -68,9 +80,11 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
                 LOG.info("--> run(): START LOADING");
                 underlyingSource.init();
                 LOG.info("--> run(): END LOADING");
-
+                reloadableSource.swap(underlyingSource, generation);
             } catch (DSSEncodingException e) {
                 makeATrace(e);
+            } catch (RuntimeException e) {
+                makeATrace(e);
             }
         }
 
@@ -83,12 +97,26 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
     public synchronized void refresh() {
 
         final TrustedListsCertificateSource newSource = new TrustedListsCertificateSource(this);
-        final Thread reloader = new Thread(new Reloader(newSource));
+        newSource.setPreviousSource(currentSource);
+        final Thread reloader = new Thread(new Reloader(this, newSource, generation.incrementAndGet()));
         LOG.info("--> refresh(): START");
         reloader.start();
         LOG.info("--> refresh(): END");
+    }
 
-        currentSource = newSource;
+    /**
+     * This method replaces the current source with the completely loaded one, unless a newer refresh was requested in between.
+     *
+     * @param newSource     the loaded {@code TrustedListsCertificateSource}
+     * @param newGeneration the number of the refresh which loaded the source
+     */
+    private synchronized void swap(final TrustedListsCertificateSource newSource, final int newGeneration) {
+
+        if (newGeneration == generation.get()) {
+
+            currentSource = newSource;
+            LOG.info("--> swap(): the new trusted lists are used");
+        }
     }
 
     public Map<String, String> getDiagnosticInfo() {
@@ -30,9 +30,13 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -43,6 +47,7 @@ import org.w3c.dom.Document;
 
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DSSXMLUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNotApplicableMethodException;
 import eu.europa.ec.markt.dss.exception.DSSNotETSICompliantException;
@@ -81,7 +86,46 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	protected transient DataLoader dataLoader;
 
-	private Map<String, String> diagnosticInfo = new HashMap<String, String>();
+	private Map<String, String> diagnosticInfo = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * The default number of the trusted lists downloaded and validated in parallel.
+	 */
+	public static final int DEFAULT_THREAD_POOL_SIZE = 8;
+
+	/**
+	 * The name of the shared pool of threads used to load the trusted lists, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-tsl-loader";
+
+	protected int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+
+	/**
+	 * The trusted lists loaded by this source, identified by their URL.
+	 */
+	private final Map<String, LoadedTrustStatusList> loadedTrustStatusLists = new ConcurrentHashMap<String, LoadedTrustStatusList>();
+
+	/**
+	 * The trusted lists loaded by the previous source (see {@code #setPreviousSource}). A trusted list which did not change since the previous load is neither parsed nor
+	 * validated again.
+	 */
+	private Map<String, LoadedTrustStatusList> previousTrustStatusLists = Collections.emptyMap();
+
+	/**
+	 * A validated trusted list and the digest of its content and of the signing certificates used to validate it.
+	 */
+	private static class LoadedTrustStatusList {
+
+		final String digest;
+
+		final TrustStatusList trustStatusList;
+
+		LoadedTrustStatusList(final String digest, final TrustStatusList trustStatusList) {
+
+			this.digest = digest;
+			this.trustStatusList = trustStatusList;
+		}
+	}
 
 	/**
 	 * Defines if the TL signature must be checked. The default value is true.
@@ -113,7 +157,18 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		this.setCheckSignature(trustedListsCertificateSource.checkSignature);
 		this.setLotlCertificate(trustedListsCertificateSource.lotlCertificate);
 		this.setLotlUrl(trustedListsCertificateSource.lotlUrl);
+		this.setThreadPoolSize(trustedListsCertificateSource.threadPoolSize);
+		this.setPreviousSource(trustedListsCertificateSource);
+	}
+
+	/**
+	 * This method indicates the source which was loaded before this one. The trusted lists which did not change since are reused without being parsed and validated again.
+	 *
+	 * @param previousSource the previously loaded {@code TrustedListsCertificateSource}
+	 */
+	void setPreviousSource(final TrustedListsCertificateSource previousSource) {
 
+		previousTrustStatusLists = previousSource.loadedTrustStatusLists;
 	}
 
 	@Override
@@ -255,6 +310,14 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 			throw new DSSNullReturnedException(url);
 		}
+		final String digest = getDigest(bytes, signingCertList);
+		final LoadedTrustStatusList previousTrustStatusList = previousTrustStatusLists.get(url);
+		if (previousTrustStatusList != null && previousTrustStatusList.digest.equals(digest) && !isExpired(previousTrustStatusList.trustStatusList)) {
+
+			LOG.info("The trusted list did not change since the previous load: {}", url);
+			loadedTrustStatusLists.put(url, previousTrustStatusList);
+			return previousTrustStatusList.trustStatusList;
+		}
 		final Document doc = DSSXMLUtils.buildDOM(bytes);
 
 		boolean coreValidity = true;
@@ -303,11 +366,38 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		}
 		final TrustStatusList tsl = TrustServiceListFactory.newInstance(doc);
 		tsl.setWellSigned(coreValidity);
+		loadedTrustStatusLists.put(url, new LoadedTrustStatusList(digest, tsl));
 		return tsl;
 	}
 
+	private String getDigest(final byte[] bytes, final List<X509Certificate> signingCertList) {
+
+		final List<byte[]> data = new ArrayList<byte[]>();
+		data.add(new byte[]{(byte) (checkSignature ? 1 : 0)});
+		data.add(bytes);
+		if (signingCertList != null) {
+
+			for (final X509Certificate x509Certificate : signingCertList) {
+
+				if (x509Certificate != null) {
+
+					data.add(DSSUtils.getEncoded(x509Certificate));
+				}
+			}
+		}
+		final byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, data.toArray(new byte[data.size()][]));
+		return DSSUtils.toHex(digest);
+	}
+
+	private static boolean isExpired(final TrustStatusList trustStatusList) {
+
+		final Date nextUpdate = trustStatusList.getNextUpdate();
+		return nextUpdate != null && nextUpdate.before(new Date());
+	}
+
 	/**
-	 * Load the certificates contained in all the TSL referenced by the LOTL
+	 * Load the certificates contained in all the TSL referenced by the LOTL. The TSLs are downloaded and validated in parallel, their certificates are then added in the
+	 * order of the LOTL.
 	 */
 	public void init() {
 
@@ -331,44 +421,62 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			throw e;
 		}
 		diagnosticInfo.put(lotlUrl, "Loaded " + new Date().toString());
-		final int size = lotl.getOtherTSLPointers().size();
-		//        final ExecutorService executorService = Executors.newFixedThreadPool(size);
-		//        List<Future> futures = new ArrayList<Future>(size);
-		for (final PointerToOtherTSL pointerToTSL : lotl.getOtherTSLPointers()) {
-			//            Runnable runnable = new Runnable() {
-			//                public void run() {
-
-			final String url = pointerToTSL.getTslLocation();
-			final String territory = pointerToTSL.getTerritory();
-			final List<X509Certificate> signingCertList = pointerToTSL.getDigitalIdentity();
-			try {
-
-				loadTSL(url, territory, signingCertList);
-			} catch (DSSException e) {
-				LOG.error("Error loading trusted list for {} at {}", new Object[]{territory, url, e});
-				// do nothing continue with the next trusted list.
+		final List<PointerToOtherTSL> pointersToTSL = lotl.getOtherTSLPointers();
+		final int size = pointersToTSL.size();
+		final ExecutorService executorService = DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, threadPoolSize);
+		final List<Future<TrustStatusList>> futures = new ArrayList<Future<TrustStatusList>>(size);
+		try {
+
+			for (final PointerToOtherTSL pointerToTSL : pointersToTSL) {
+
+				final String url = pointerToTSL.getTslLocation();
+				final String territory = pointerToTSL.getTerritory();
+				final List<X509Certificate> signingCertList = pointerToTSL.getDigitalIdentity();
+				futures.add(executorService.submit(new Callable<TrustStatusList>() {
+
+					@Override
+					public TrustStatusList call() throws Exception {
+
+						return fetchTSL(url, territory, signingCertList);
+					}
+				}));
 			}
+			for (int ii = 0; ii < size; ii++) {
 
-			//                }
-			//            };
-			//            final Future submit = executorService.submit(runnable);
-			//            futures.add(submit);
-		}
+				final PointerToOtherTSL pointerToTSL = pointersToTSL.get(ii);
+				final TrustStatusList countryTSL = getResult(futures.get(ii));
+				if (countryTSL != null) {
 
-		//        executorService.shutdown();
-		//        while (!executorService.isTerminated()){
-		//            try {
-		//                Thread.sleep(100);
-		//            } catch (InterruptedException e) {
-		//                throw new RuntimeException(e);
-		//            }
-		//        }
-		//        LOG.info("Parallel download of Trusted list done");
+					loadTSL(pointerToTSL.getTslLocation().trim(), pointerToTSL.getTerritory(), countryTSL);
+				}
+			}
+		} finally {
+
+			for (final Future<TrustStatusList> future : futures) {
+				future.cancel(true);
+			}
+		}
+		LOG.info("Parallel download of Trusted list done");
 		loadAdditionalLists();
 		LOG.info("Loading completed: {} trusted lists", size);
 		LOG.info("                 : {} certificates", certPool.getNumberOfCertificates());
 	}
 
+	private static TrustStatusList getResult(final Future<TrustStatusList> future) {
+
+		try {
+
+			return future.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			throw new DSSException(e.getCause());
+		}
+	}
+
 	private X509Certificate readLOTLCertificate() throws DSSException {
 
 		X509Certificate lotlCert;
@@ -423,26 +531,54 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 	 */
 	protected void loadTSL(final String url, final String territory, final List<X509Certificate> signingCertList) {
 
+		final TrustStatusList countryTSL = fetchTSL(url, territory, signingCertList);
+		if (countryTSL != null) {
+
+			loadTSL(url.trim(), territory, countryTSL);
+		}
+	}
+
+	/**
+	 * This method downloads and validates the TSL. It can be called concurrently.
+	 *
+	 * @param url             of the TSL to load
+	 * @param territory       of the TSL
+	 * @param signingCertList the {@code List} of the possible signing certificates
+	 * @return the {@code TrustStatusList} or null if it cannot be loaded
+	 */
+	private TrustStatusList fetchTSL(final String url, final String territory, final List<X509Certificate> signingCertList) {
+
 		if (DSSUtils.isBlank(url)) {
 
 			LOG.error("The URL is blank!");
-			return;
+			return null;
 		}
 		final String trimmedUrl = url.trim();
 		try {
 
 			diagnosticInfo.put(trimmedUrl, "Loading");
 			LOG.info("Downloading TrustStatusList for '{}' from url= {}", territory, trimmedUrl);
-			final TrustStatusList countryTSL = getTrustStatusList(trimmedUrl, signingCertList);
-			loadAllCertificatesFromOneTSL(countryTSL);
-			LOG.info(".... done for '{}'", territory);
-			diagnosticInfo.put(trimmedUrl, "Loaded " + new Date().toString());
+			return getTrustStatusList(trimmedUrl, signingCertList);
 		} catch (final DSSNullReturnedException e) {
 
 			LOG.info("Download skipped.");
 			// do nothing: it can happened when a mock data loader is used.
 		} catch (final RuntimeException e) {
 
+			makeATrace(trimmedUrl, "Other problem: " + e.toString(), e);
+		}
+		return null;
+	}
+
+	private void loadTSL(final String trimmedUrl, final String territory, final TrustStatusList countryTSL) {
+
+		try {
+
+			loadAllCertificatesFromOneTSL(countryTSL);
+			LOG.info(".... done for '{}'", territory);
+			diagnosticInfo.put(trimmedUrl, "Loaded " + new Date().toString());
+		} catch (final RuntimeException e) {
+
 			makeATrace(trimmedUrl, "Other problem: " + e.toString(), e);
 		}
 	}
@@ -534,6 +670,16 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		this.lotlUrl = lotlUrl;
 	}
 
+	/**
+	 * The pool of threads is shared by all the sources: this value is taken into account only when the pool is created.
+	 *
+	 * @param threadPoolSize the number of the trusted lists downloaded and validated in parallel
+	 */
+	public void setThreadPoolSize(final int threadPoolSize) {
+
+		this.threadPoolSize = threadPoolSize;
+	}
+
 	/**
 	 * @param dataLoader the dataLoader to set
 	 */
@@ -177,6 +177,24 @@ public class OfflineResolver extends ResourceResolverSpi {
 		return false;
 	}
 
+	/**
+	 * Returns the detached document which is used to resolve the given URI.
+	 *
+	 * @param uri the (URL encoded) value of the URI attribute
+	 * @return the {@code DSSDocument} or null
+	 */
+	DSSDocument getDetachedDocument(final String uri) {
+
+		if (documents == null || uri == null) {
+			return null;
+		}
+		final String documentUri = decodeUrl(uri);
+		if (documentUri.equals("") || documentUri.startsWith("#")) {
+			return null;
+		}
+		return getDocument(documentUri);
+	}
+
 	private DSSDocument getDocument(final String documentUri) {
 
 		final DSSDocument document = isKnown(documentUri);
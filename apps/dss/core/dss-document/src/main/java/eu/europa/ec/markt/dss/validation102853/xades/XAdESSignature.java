@@ -22,6 +22,7 @@ package eu.europa.ec.markt.dss.validation102853.xades;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.security.PublicKey;
 import java.security.cert.X509Certificate;
@@ -30,6 +31,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +41,7 @@ import javax.xml.crypto.dsig.CanonicalizationMethod;
 
 import org.apache.xml.security.Init;
 import org.apache.xml.security.algorithms.JCEMapper;
+import org.apache.xml.security.exceptions.XMLSecurityException;
 import org.apache.xml.security.keys.KeyInfo;
 import org.apache.xml.security.keys.keyresolver.KeyResolverException;
 import org.apache.xml.security.signature.Reference;
@@ -46,6 +49,11 @@ import org.apache.xml.security.signature.ReferenceNotInitializedException;
 import org.apache.xml.security.signature.SignedInfo;
 import org.apache.xml.security.signature.XMLSignature;
 import org.apache.xml.security.signature.XMLSignatureException;
+import org.apache.xml.security.transforms.Transforms;
+import org.apache.xml.security.utils.Constants;
+import org.apache.xml.security.utils.SignerOutputStream;
+import org.apache.xml.security.utils.UnsyncBufferedOutputStream;
+import org.apache.xml.security.utils.XMLUtils;
 import org.bouncycastle.tsp.TimeStampToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +73,8 @@ import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNotETSICompliantException;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.exception.DSSNullReturnedException;
+import eu.europa.ec.markt.dss.signature.DSSDocument;
+import eu.europa.ec.markt.dss.signature.ParallelDigester;
 import eu.europa.ec.markt.dss.signature.SignatureLevel;
 import eu.europa.ec.markt.dss.validation102853.AdvancedSignature;
 import eu.europa.ec.markt.dss.validation102853.ArchiveTimestampType;
@@ -1226,7 +1236,11 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 
 			final XMLSignature santuarioSignature = new XMLSignature(signatureElement, "");
 			santuarioSignature.addResourceResolver(new XPointerResourceResolver(signatureElement));
-			santuarioSignature.addResourceResolver(new OfflineResolver(detachedContents));
+			final OfflineResolver offlineResolver = new OfflineResolver(detachedContents);
+			santuarioSignature.addResourceResolver(offlineResolver);
+			// The detached references are verified at once, in parallel, before the signature value
+			final Map<Reference, Boolean> detachedReferenceValidity = verifyDetachedReferences(santuarioSignature.getSignedInfo(), offlineResolver);
+			final boolean knownDigests = !detachedReferenceValidity.isEmpty();
 
 			boolean coreValidity = false;
 			final List<SigningCertificateValidity> signingCertificateValidityList = getSigningCertificateValidityList(santuarioSignature, signatureCryptographicVerification,
@@ -1236,7 +1250,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				try {
 
 					final PublicKey publicKey = signingCertificateValidity.getPublicKey();
-					coreValidity = santuarioSignature.checkSignatureValue(publicKey);
+					coreValidity = knownDigests ? checkSignatureValue(santuarioSignature, publicKey, detachedReferenceValidity) : santuarioSignature.checkSignatureValue(publicKey);
 					if (coreValidity) {
 
 						candidatesForSigningCertificate.setTheSigningCertificateValidity(signingCertificateValidity);
@@ -1256,7 +1270,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				final Reference reference = signedInfo.item(ii);
 				if (!coreValidity) {
 
-					referenceDataHashValid = referenceDataHashValid && reference.verify();
+					referenceDataHashValid = referenceDataHashValid && verifyReference(reference, detachedReferenceValidity);
 				}
 				references.add(reference);
 			}
@@ -1283,6 +1297,98 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		return signatureCryptographicVerification;
 	}
 
+	/**
+	 * This method verifies the references which point, without any transformation, to a detached content. The digests of the detached contents are computed in
+	 * parallel, see {@code ParallelDigester}. In the case of a {@code DigestDocument} the provided digest is used and the content is not read.
+	 *
+	 * @param signedInfo      the santuario SignedInfo
+	 * @param offlineResolver the resolver of the detached contents
+	 * @return the validity of each detached reference, empty if there is no such reference
+	 * @throws XMLSecurityException
+	 */
+	private Map<Reference, Boolean> verifyDetachedReferences(final SignedInfo signedInfo, final OfflineResolver offlineResolver) throws XMLSecurityException {
+
+		final Map<Reference, Boolean> detachedReferenceValidity = new IdentityHashMap<Reference, Boolean>();
+		if (detachedContents == null || detachedContents.isEmpty()) {
+			return detachedReferenceValidity;
+		}
+		final List<Reference> detachedReferences = new ArrayList<Reference>();
+		final List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		final List<DigestAlgorithm> digestAlgorithms = new ArrayList<DigestAlgorithm>();
+		for (int ii = 0; ii < signedInfo.getLength(); ii++) {
+
+			final Reference reference = signedInfo.item(ii);
+			final Transforms transforms = reference.getTransforms();
+			if (transforms != null && transforms.getLength() > 0) {
+				continue;
+			}
+			final DSSDocument detachedDocument = offlineResolver.getDetachedDocument(reference.getURI());
+			if (detachedDocument == null) {
+				continue;
+			}
+			final String digestAlgorithmUri = reference.getMessageDigestAlgorithm().getAlgorithmURI();
+			detachedReferences.add(reference);
+			documents.add(detachedDocument);
+			digestAlgorithms.add(DigestAlgorithm.forXML(digestAlgorithmUri));
+		}
+		final List<String> digests = ParallelDigester.digest(documents, digestAlgorithms);
+		for (int ii = 0; ii < detachedReferences.size(); ii++) {
+
+			final Reference reference = detachedReferences.get(ii);
+			final byte[] digest = DSSUtils.base64Decode(digests.get(ii));
+			detachedReferenceValidity.put(reference, Arrays.equals(digest, reference.getDigestValue()));
+		}
+		return detachedReferenceValidity;
+	}
+
+	/**
+	 * This method does the same as {@code XMLSignature#checkSignatureValue(Key)} but the references are verified with {@code #verifyReference}.
+	 *
+	 * @param santuarioSignature        the santuario signature
+	 * @param publicKey                 the public key of the signer
+	 * @param detachedReferenceValidity the validity of the detached references
+	 * @return true if all references and the signature value are valid
+	 * @throws XMLSecurityException
+	 * @throws IOException
+	 */
+	private boolean checkSignatureValue(final XMLSignature santuarioSignature, final PublicKey publicKey,
+	                                    final Map<Reference, Boolean> detachedReferenceValidity) throws XMLSecurityException, IOException {
+
+		final SignedInfo signedInfo = santuarioSignature.getSignedInfo();
+		for (int ii = 0; ii < signedInfo.getLength(); ii++) {
+
+			if (!verifyReference(signedInfo.item(ii), detachedReferenceValidity)) {
+				return false;
+			}
+		}
+		final Element signatureMethodDom = XMLUtils.selectDsNode(signedInfo.getElement().getFirstChild(), Constants._TAG_SIGNATUREMETHOD, 0);
+		// The secure validation rejects the weak signature algorithms (e.g. MD5), as XMLSignature#checkSignatureValue does
+		final org.apache.xml.security.algorithms.SignatureAlgorithm signatureAlgorithm = new org.apache.xml.security.algorithms.SignatureAlgorithm(signatureMethodDom,
+			  santuarioSignature.getBaseURI(), true);
+		signatureAlgorithm.initVerify(publicKey);
+		final OutputStream outputStream = new UnsyncBufferedOutputStream(new SignerOutputStream(signatureAlgorithm));
+		signedInfo.signInOctetStream(outputStream);
+		outputStream.close();
+		return signatureAlgorithm.verify(santuarioSignature.getSignatureValue());
+	}
+
+	/**
+	 * This method verifies the digest of a reference. The result computed by {@code #verifyDetachedReferences} is used for the detached references.
+	 *
+	 * @param reference                 the santuario reference
+	 * @param detachedReferenceValidity the validity of the detached references
+	 * @return true if the digest of the reference is valid
+	 * @throws XMLSecurityException
+	 */
+	private boolean verifyReference(final Reference reference, final Map<Reference, Boolean> detachedReferenceValidity) throws XMLSecurityException {
+
+		final Boolean valid = detachedReferenceValidity.get(reference);
+		if (valid != null) {
+			return valid;
+		}
+		return reference.verify();
+	}
+
 	/**
 	 * This method returns a {@code List} of {@code SigningCertificateValidity} base on the certificates extracted from the signature or on the {@code
 	 * providedSigningCertificateToken}.
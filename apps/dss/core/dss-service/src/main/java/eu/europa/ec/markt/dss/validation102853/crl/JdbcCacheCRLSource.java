@@ -20,6 +20,7 @@
 
 package eu.europa.ec.markt.dss.validation102853.crl;
 
+import java.security.cert.CRLException;
 import java.security.cert.X509CRL;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -81,6 +82,20 @@ public class JdbcCacheCRLSource extends CommonCRLSource {
 
 	private OnlineCRLSource cachedSource;
 
+	/**
+	 * The in-memory cache of the parsed and verified CRLs placed in front of the data store, null if the data store is queried each time.
+	 */
+	private CRLCache crlCache = CRLCache.getDefault();
+
+	private final CRLCache.Loader crlLoader = new CRLCache.Loader() {
+
+		@Override
+		public CRLValidity load(final String crlUrl, final CertificateToken issuerToken) {
+
+			return loadCrl(crlUrl, issuerToken);
+		}
+	};
+
 	private DataSource dataSource;
 
 	private String sqlInitCheckExistence = SQL_INIT_CHECK_EXISTENCE;
@@ -122,6 +137,25 @@ public class JdbcCacheCRLSource extends CommonCRLSource {
 			return null;
 		}
 		LOG.info("CRL's URL for " + certificateToken.getAbbreviation() + " : " + crlUrl);
+		final CRLValidity crlValidity = crlCache == null ? loadCrl(crlUrl, issuerToken) : crlCache.get(crlUrl, issuerToken, crlLoader);
+		if (crlValidity == null) {
+
+			return null;
+		}
+		final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
+		crlToken.setSourceURL(crlUrl);
+		return crlToken;
+	}
+
+	/**
+	 * This method retrieves the CRL from the data store, or from the cached source if it is not in the data store or if it is expired. The data store is then updated.
+	 *
+	 * @param crlUrl      the URL of the CRL
+	 * @param issuerToken the {@code CertificateToken} of the CRL issuer
+	 * @return the {@code CRLValidity} or {@code null} if the CRL cannot be retrieved
+	 */
+	private CRLValidity loadCrl(final String crlUrl, final CertificateToken issuerToken) {
+
 		try {
 
 			final String key = DSSUtils.getSHA1Digest(crlUrl);
@@ -133,30 +167,33 @@ public class JdbcCacheCRLSource extends CommonCRLSource {
 
 					LOG.debug("CRL in cache");
 					final CRLValidity crlValidity = isValidCRL(x509Crl, issuerToken);
-					final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
-					if (crlToken.isValid()) {
+					if (crlValidity.isValid()) {
 
-						return crlToken;
+						return crlValidity;
 					}
 				}
 			}
-			final CRLToken crlToken = cachedSource.findCrl(certificateToken);
-			if (crlToken != null && crlToken.isValid()) {
+			final CRLValidity crlValidity = cachedSource.loadCrl(crlUrl, issuerToken);
+			if (crlValidity != null && crlValidity.isValid()) {
 
+				final byte[] encoded = crlValidity.x509CRL.getEncoded();
 				if (dbCrl == null) {
 
 					LOG.info("CRL not in cache");
-					insertCrlInDb(key, crlToken.getEncoded());
+					insertCrlInDb(key, encoded);
 				} else {
 
 					LOG.debug("CRL expired");
-					updateCrlInDb(key, crlToken.getEncoded());
+					updateCrlInDb(key, encoded);
 				}
 			}
-			return crlToken;
+			return crlValidity;
 		} catch (SQLException e) {
 
 			LOG.info("Error with the cache data store");
+		} catch (CRLException e) {
+
+			throw new DSSException("CRL encoding error: " + e.getMessage(), e);
 		}
 		return null;
 	}
@@ -169,6 +206,14 @@ public class JdbcCacheCRLSource extends CommonCRLSource {
 		this.cachedSource = cachedSource;
 	}
 
+	/**
+	 * @param crlCache the in-memory {@code CRLCache} to use or null to query the data store each time
+	 */
+	public void setCrlCache(final CRLCache crlCache) {
+
+		this.crlCache = crlCache;
+	}
+
 	/**
 	 * Initialise the DAO by creating the table if it does not exist.
 	 *
@@ -43,6 +43,8 @@ import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 import eu.europa.ec.markt.dss.validation102853.https.CommonsDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.AsyncDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.CoalescingDataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.Protocol;
 
@@ -69,11 +71,26 @@ public class OnlineCRLSource extends CommonCRLSource {
 	private DataLoader dataLoader;
 
 	/**
-	 * The default constructor. A {@code CommonsDataLoader is created}.
+	 * The cache of the parsed and verified CRLs, null if the CRLs are downloaded each time.
+	 */
+	private CRLCache crlCache = CRLCache.getDefault();
+
+	private final CRLCache.Loader crlLoader = new CRLCache.Loader() {
+
+		@Override
+		public CRLValidity load(final String crlUrl, final CertificateToken issuerToken) {
+
+			return loadCrl(crlUrl, issuerToken);
+		}
+	};
+
+	/**
+	 * The default constructor. A {@code CommonsDataLoader is created}. The concurrent requests for the same CRL are coalesced and the downloads are executed by an
+	 * {@code AsyncDataLoader}.
 	 */
 	public OnlineCRLSource() {
 
-		dataLoader = new CommonsDataLoader();
+		dataLoader = new CoalescingDataLoader(new AsyncDataLoader(new CommonsDataLoader()));
 		LOG.debug("+OnlineCRLSource with the default data loader.");
 	}
 
@@ -109,6 +126,16 @@ public class OnlineCRLSource extends CommonCRLSource {
 		this.dataLoader = dataLoader;
 	}
 
+	/**
+	 * Set the cache of the parsed and verified CRLs. By default the cache shared by all the CRL sources is used.
+	 *
+	 * @param crlCache the {@code CRLCache} to use or null to download the CRL each time
+	 */
+	public void setCrlCache(final CRLCache crlCache) {
+
+		this.crlCache = crlCache;
+	}
+
 	@Override
 	public CRLToken findCrl(final CertificateToken certificateToken) throws DSSException {
 
@@ -127,16 +154,31 @@ public class OnlineCRLSource extends CommonCRLSource {
 
 			return null;
 		}
-		final X509CRL x509CRL = downloadCrl(crlUrl);
-		if (x509CRL == null) {
+		final CRLValidity crlValidity = crlCache == null ? loadCrl(crlUrl, issuerToken) : crlCache.get(crlUrl, issuerToken, crlLoader);
+		if (crlValidity == null) {
 			return null;
 		}
-		final CRLValidity crlValidity = isValidCRL(x509CRL, issuerToken);
 		final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
 		crlToken.setSourceURL(crlUrl);
 		return crlToken;
 	}
 
+	/**
+	 * This method downloads the CRL and verifies it against the issuer token. The cache is not used.
+	 *
+	 * @param crlUrl      the URL of the CRL
+	 * @param issuerToken the {@code CertificateToken} of the CRL issuer
+	 * @return the {@code CRLValidity} or {@code null} if the CRL cannot be downloaded
+	 */
+	CRLValidity loadCrl(final String crlUrl, final CertificateToken issuerToken) {
+
+		final X509CRL x509CRL = downloadCrl(crlUrl);
+		if (x509CRL == null) {
+			return null;
+		}
+		return isValidCRL(x509CRL, issuerToken);
+	}
+
 	/**
 	 * Download a CRL from any location with any protocol.
 	 *
@@ -68,6 +68,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSCannotFetchDataException;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSHttpStatusException;
 import eu.europa.ec.markt.dss.manager.ProxyPreferenceManager;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.Protocol;
@@ -87,6 +88,16 @@ public class CommonsDataLoader implements DataLoader {
 
 	public static final int TIMEOUT_SOCKET = 6000;
 
+	/**
+	 * The default maximum number of pooled connections to the same host (route)
+	 */
+	public static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+	/**
+	 * The default maximum number of pooled connections
+	 */
+	public static final int MAX_CONNECTIONS_TOTAL = 100;
+
 	public static final String CONTENT_TYPE = "Content-Type";
 
 	protected String contentType;
@@ -100,6 +111,9 @@ public class CommonsDataLoader implements DataLoader {
 	private int timeoutConnection = TIMEOUT_CONNECTION;
 	private int timeoutSocket = TIMEOUT_SOCKET;
 
+	private int maxConnectionsPerRoute = MAX_CONNECTIONS_PER_ROUTE;
+	private int maxConnectionsTotal = MAX_CONNECTIONS_TOTAL;
+
 	private final Map<HttpHost, UsernamePasswordCredentials> authenticationMap = new HashMap<HttpHost, UsernamePasswordCredentials>();
 
 	private HttpClient httpClient;
@@ -127,7 +141,10 @@ public class CommonsDataLoader implements DataLoader {
 		socketFactoryRegistryBuilder = setConnectionManagerSchemeHttp(socketFactoryRegistryBuilder);
 		socketFactoryRegistryBuilder = setConnectionManagerSchemeHttps(socketFactoryRegistryBuilder);
 
-		final HttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistryBuilder.build());
+		final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistryBuilder.build());
+		// The default limits of HttpClient (2 connections per host) serialize the concurrent OCSP, CRL and AIA requests sent to the same CA
+		connectionManager.setMaxTotal(maxConnectionsTotal);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
 		return connectionManager;
 	}
 
@@ -157,7 +174,8 @@ public class CommonsDataLoader implements DataLoader {
 
 			httpClientBuilder = configCredentials(httpClientBuilder, url);
 
-			final RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeoutSocket).setConnectionRequestTimeout(timeoutConnection).build();
+			final RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeoutSocket).setConnectTimeout(timeoutConnection).setConnectionRequestTimeout(timeoutConnection)
+				  .build();
 			httpClientBuilder = httpClientBuilder.setDefaultRequestConfig(requestConfig);
 			httpClientBuilder.setConnectionManager(getConnectionManager());
 
@@ -467,6 +485,11 @@ public class CommonsDataLoader implements DataLoader {
 		final int statusCode = httpResponse.getStatusLine().getStatusCode();
 		final boolean statusOk = statusCode == HttpStatus.SC_OK;
 		LOG.debug("status code is " + statusCode + " - " + (statusOk ? "OK" : "NOK"));
+		if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+
+			// A server error is transient: it is reported to allow the request to be retried (see AsyncDataLoader)
+			throw new DSSHttpStatusException(url, statusCode);
+		}
 		if (!statusOk) {
 
 			LOG.warn("No content available via url: " + url + " - will use nothing: " + url);
@@ -534,6 +557,44 @@ public class CommonsDataLoader implements DataLoader {
 		this.timeoutSocket = timeoutSocket;
 	}
 
+	/**
+	 * Used when the {@code HttpClient} is created.
+	 *
+	 * @return the maximum number of pooled connections to the same host
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * Used when the {@code HttpClient} is created. The default value is {@link #MAX_CONNECTIONS_PER_ROUTE}.
+	 *
+	 * @param maxConnectionsPerRoute the maximum number of pooled connections to the same host
+	 */
+	public void setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+		httpClient = null;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	/**
+	 * Used when the {@code HttpClient} is created.
+	 *
+	 * @return the maximum number of pooled connections
+	 */
+	public int getMaxConnectionsTotal() {
+		return maxConnectionsTotal;
+	}
+
+	/**
+	 * Used when the {@code HttpClient} is created. The default value is {@link #MAX_CONNECTIONS_TOTAL}.
+	 *
+	 * @param maxConnectionsTotal the maximum number of pooled connections
+	 */
+	public void setMaxConnectionsTotal(final int maxConnectionsTotal) {
+		httpClient = null;
+		this.maxConnectionsTotal = maxConnectionsTotal;
+	}
+
 	/**
 	 * @return the contentType
 	 */
@@ -19,15 +19,33 @@
  */
 package eu.europa.ec.markt.dss.validation102853.https;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -43,11 +61,56 @@ import eu.europa.ec.markt.dss.validation102853.loader.Protocol;
 /**
  * This class provides some caching features to handle the resources. The default cache folder is set to {@code java.io.tmpdir}. The urls of the resources is transformed to the
  * file name by replacing the special characters by {@code _}
+ * <p/>
+ * Each cache entry has an expiration time taken from the {@code nextUpdate} of a CRL, or from the HTTP {@code Cache-Control: max-age} or {@code Expires} headers, or
+ * else {@link #setDefaultTimeToLive(long)}. An expired entry is fetched again; it is still returned when the resource cannot be fetched. The total size of the cache
+ * files is bounded by {@link #setMaxCacheSize(long)}: the least recently used entries are evicted first. The responses to POST requests (OCSP) are cached only when the
+ * HTTP headers announce their freshness: a response to a request with a nonce cannot be reused.
+ * <p/>
+ * The files are written to a temporary file which is then renamed, so a concurrent reader never sees a partially written file. The entries, with their last access
+ * time, are kept in an index file ({@link #INDEX_FILE_NAME}) read once at the first use of the cache. The changes are appended to the index by batches, see
+ * {@link #flushIndex()}; the index is compacted when it contains too many outdated records.
  */
 public class FileCacheDataLoader extends CommonsDataLoader {
 
 	private static final Logger LOG = LoggerFactory.getLogger(FileCacheDataLoader.class);
 
+	/**
+	 * The name of the index file in the cache folder
+	 */
+	public static final String INDEX_FILE_NAME = "dss-cache.idx";
+
+	private static final String INDEX_HEADER = "#dss-cache-index 2";
+
+	private static final String INDEX_HEADER_V1 = "#dss-cache-index 1";
+
+	private static final String REMOVED_ENTRY = "-";
+
+	/**
+	 * The number of pending changes triggering the writing of the index
+	 */
+	private static final int INDEX_FLUSH_THRESHOLD = 64;
+
+	/**
+	 * The maximum time in milliseconds during which a change is kept pending
+	 */
+	private static final long INDEX_FLUSH_INTERVAL = 60L * 1000;
+
+	/**
+	 * The default maximum size of the cache files in bytes: 256 MB
+	 */
+	public static final long DEFAULT_MAX_CACHE_SIZE = 256L * 1024 * 1024;
+
+	/**
+	 * The default time to live in milliseconds of an entry without expiration information: one day
+	 */
+	public static final long DEFAULT_TIME_TO_LIVE = 24L * 60 * 60 * 1000;
+
+	/**
+	 * The expiration time announced by the HTTP headers of the last response read by the current thread, see {@link #readHttpResponse(String, HttpResponse)}
+	 */
+	private static final ThreadLocal<Long> HTTP_EXPIRATION_TIME = new ThreadLocal<Long>();
+
 	private File fileCacheDirectory = new File(System.getProperty("java.io.tmpdir"));
 
 	private ResourceLoader resourceLoader = new ResourceLoader();
@@ -56,21 +119,107 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 	private List<String> toIgnored;
 
+	private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+	private long defaultTimeToLive = DEFAULT_TIME_TO_LIVE;
+
+	/**
+	 * The entries of the cache in the least recently used first order, loaded from the index file at the first use
+	 */
+	private transient LinkedHashMap<String, CacheEntry> cacheEntries;
+
+	private transient long cacheSize;
+
+	/**
+	 * The names of the entries added, accessed or removed since the last writing of the index
+	 */
+	private transient Map<String, CacheEntry> pendingEntries = new LinkedHashMap<String, CacheEntry>();
+
+	private transient long lastIndexFlushTime = System.currentTimeMillis();
+
+	/**
+	 * The number of records of the index file, used to decide its compaction
+	 */
+	private transient int indexRecords;
+
+	/**
+	 * One file of the cache.
+	 */
+	private static class CacheEntry {
+
+		final String fileName;
+
+		final long size;
+
+		final long expirationTime;
+
+		long accessTime;
+
+		CacheEntry(final String fileName, final long size, final long expirationTime, final long accessTime) {
+
+			this.fileName = fileName;
+			this.size = size;
+			this.expirationTime = expirationTime;
+			this.accessTime = accessTime;
+		}
+
+		boolean isExpired() {
+
+			return expirationTime <= System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * After deserialization the transient state is recreated: the index is loaded again at the first use of the cache.
+	 */
+	private void readObject(final ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+
+		objectInputStream.defaultReadObject();
+		pendingEntries = new LinkedHashMap<String, CacheEntry>();
+		lastIndexFlushTime = System.currentTimeMillis();
+		cacheEntries = null;
+		cacheSize = 0;
+		indexRecords = 0;
+	}
+
 	/**
 	 * This method allows to set the file cache directory. If the cache folder does not exists then it's created.
 	 *
 	 * @param fileCacheDirectory {@code File} pointing the cache folder to be used.
 	 */
-	public void setFileCacheDirectory(final File fileCacheDirectory) {
+	public synchronized void setFileCacheDirectory(final File fileCacheDirectory) {
 
+		if (cacheEntries != null) {
+			flushIndex();
+		}
 		this.fileCacheDirectory = fileCacheDirectory;
 		this.fileCacheDirectory.mkdirs();
+		cacheEntries = null;
 	}
 
 	public void setResourceLoader(final ResourceLoader resourceLoader) {
 		this.resourceLoader = resourceLoader;
 	}
 
+	/**
+	 * This method allows to set the maximum size in bytes of the cache files. The default value is {@link #DEFAULT_MAX_CACHE_SIZE}.
+	 *
+	 * @param maxCacheSize the maximum size in bytes
+	 */
+	public void setMaxCacheSize(final long maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * This method allows to set the time to live in milliseconds of the entries for which no expiration information is available. The default value is
+	 * {@link #DEFAULT_TIME_TO_LIVE}.
+	 *
+	 * @param defaultTimeToLive the time to live in milliseconds
+	 */
+	public void setDefaultTimeToLive(final long defaultTimeToLive) {
+		this.defaultTimeToLive = defaultTimeToLive;
+	}
+
 	/**
 	 * This methods allows to indicate if the resource must be obtained. If this method has been invoked then only the provided URL will be processed.
 	 *
@@ -119,29 +268,52 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		}
 		final String fileName = ResourceLoader.getNormalizedFileName(urlString);
 		final File file = getCacheFile(fileName);
-		if (file.exists()) {
+		final CacheEntry cacheEntry = getCacheEntry(fileName, file);
+		if (cacheEntry != null && !cacheEntry.isExpired()) {
+
+			final byte[] bytes = readCacheFile(fileName, file);
+			if (bytes != null) {
 
-			LOG.debug("Cached file was used");
-			final byte[] bytes = DSSUtils.toByteArray(file);
-			return bytes;
+				LOG.debug("Cached file was used");
+				return bytes;
+			}
 		} else {
 
-			LOG.debug("There is no cached file!");
+			LOG.debug(cacheEntry == null ? "There is no cached file!" : "The cached file is expired!");
 		}
 		final byte[] bytes;
-		if (!isNetworkProtocol(urlString)) {
+		try {
 
-			final String resourcePath = resourceLoader.getAbsoluteResourceFolder(urlString.trim());
-			final File fileResource = new File(resourcePath);
-			bytes = DSSUtils.toByteArray(fileResource);
-		} else {
+			HTTP_EXPIRATION_TIME.remove();
+			if (!isNetworkProtocol(urlString)) {
+
+				final String resourcePath = resourceLoader.getAbsoluteResourceFolder(urlString.trim());
+				final File fileResource = new File(resourcePath);
+				bytes = DSSUtils.toByteArray(fileResource);
+			} else {
+
+				bytes = super.get(urlString);
+			}
+		} catch (RuntimeException e) {
 
-			bytes = super.get(urlString);
+			final byte[] staleBytes = cacheEntry == null ? null : readCacheFile(fileName, file);
+			if (staleBytes == null) {
+				throw e;
+			}
+			LOG.warn("The resource cannot be fetched (" + e.getMessage() + "), the expired cached file is used: " + urlString);
+			return staleBytes;
 		}
 		if (bytes != null && bytes.length != 0) {
 
-			final File out = getCacheFile(fileName);
-			DSSUtils.saveToFile(bytes, out);
+			saveInCache(fileName, file, bytes, getExpirationTime(bytes, true));
+		} else if (cacheEntry != null) {
+
+			final byte[] staleBytes = readCacheFile(fileName, file);
+			if (staleBytes != null) {
+
+				LOG.warn("No content was fetched, the expired cached file is used: " + urlString);
+				return staleBytes;
+			}
 		}
 		return bytes;
 	}
@@ -173,10 +345,9 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 		final String fileName = ResourceLoader.getNormalizedFileName(urlString);
 		final File file = getCacheFile(fileName);
-		if (file.exists()) {
+		if (getCacheEntry(fileName, file) != null) {
 
-			final byte[] bytes = DSSUtils.toByteArray(file);
-			return bytes;
+			return readCacheFile(fileName, file);
 		}
 		return null;
 	}
@@ -191,7 +362,8 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 		final String fileName = ResourceLoader.getNormalizedFileName(urlString);
 		final File out = getCacheFile(fileName);
-		DSSUtils.saveToFile(bytes, out);
+		HTTP_EXPIRATION_TIME.remove();
+		saveInCache(fileName, out, bytes, getExpirationTime(bytes, true));
 	}
 
 	@Override
@@ -209,14 +381,18 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		final String digestHexEncoded = DSSUtils.toHex(digest);
 		final String cacheFileName = fileName + "." + digestHexEncoded;
 		final File file = getCacheFile(cacheFileName);
-		if (file.exists()) {
+		final CacheEntry cacheEntry = getCacheEntry(cacheFileName, file);
+		if (cacheEntry != null && !cacheEntry.isExpired()) {
+
+			final byte[] byteArray = readCacheFile(cacheFileName, file);
+			if (byteArray != null) {
 
-			LOG.debug("Cached file was used");
-			final byte[] byteArray = DSSUtils.toByteArray(file);
-			return byteArray;
+				LOG.debug("Cached file was used");
+				return byteArray;
+			}
 		} else {
 
-			LOG.debug("There is no cached file!");
+			LOG.debug(cacheEntry == null ? "There is no cached file!" : "The cached file is expired!");
 		}
 
 		final byte[] returnedBytes;
@@ -243,13 +419,14 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 				httpRequest.setHeader(CONTENT_TYPE, contentType);
 			}
 
+			HTTP_EXPIRATION_TIME.remove();
 			httpResponse = super.getHttpResponse(httpRequest, urlString);
 
 			returnedBytes = readHttpResponse(urlString, httpResponse);
-			if (returnedBytes.length != 0) {
+			final Long httpExpirationTime = HTTP_EXPIRATION_TIME.get();
+			if (returnedBytes.length != 0 && httpExpirationTime != null && httpExpirationTime > System.currentTimeMillis()) {
 
-				final File cacheFile = getCacheFile(cacheFileName);
-				DSSUtils.saveToFile(returnedBytes, cacheFile);
+				saveInCache(cacheFileName, file, returnedBytes, getExpirationTime(returnedBytes, false));
 			}
 		} finally {
 			if (httpRequest != null) {
@@ -261,4 +438,365 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		}
 		return returnedBytes;
 	}
+
+	/**
+	 * The expiration time announced by the HTTP headers is kept for the entry which is going to be added to the cache.
+	 */
+	@Override
+	protected byte[] readHttpResponse(final String url, final HttpResponse httpResponse) throws DSSException {
+
+		HTTP_EXPIRATION_TIME.set(getHttpExpirationTime(httpResponse));
+		return super.readHttpResponse(url, httpResponse);
+	}
+
+	/**
+	 * @param httpResponse the HTTP response
+	 * @return the expiration time defined by the {@code Cache-Control} or {@code Expires} headers, or null
+	 */
+	private static Long getHttpExpirationTime(final HttpResponse httpResponse) {
+
+		final Header cacheControl = httpResponse.getFirstHeader("Cache-Control");
+		if (cacheControl != null) {
+
+			for (final HeaderElement headerElement : cacheControl.getElements()) {
+
+				final String name = headerElement.getName();
+				if ("no-cache".equalsIgnoreCase(name) || "no-store".equalsIgnoreCase(name)) {
+
+					// The entry is only used when the resource cannot be fetched again
+					return System.currentTimeMillis();
+				}
+				if ("max-age".equalsIgnoreCase(name) && headerElement.getValue() != null) {
+
+					try {
+						return System.currentTimeMillis() + Long.parseLong(headerElement.getValue().trim()) * 1000;
+					} catch (NumberFormatException e) {
+						LOG.debug("Invalid max-age: " + headerElement.getValue());
+					}
+				}
+			}
+		}
+		final Header expires = httpResponse.getFirstHeader("Expires");
+		if (expires != null) {
+
+			final Date expirationDate = DateUtils.parseDate(expires.getValue());
+			if (expirationDate != null) {
+				return expirationDate.getTime();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The {@code nextUpdate} of a CRL takes precedence over the HTTP headers; without any of them the default time to live is used.
+	 *
+	 * @param bytes      the content of the entry
+	 * @param crlAllowed true if the content can be a CRL
+	 * @return the expiration time of the entry
+	 */
+	private long getExpirationTime(final byte[] bytes, final boolean crlAllowed) {
+
+		final long now = System.currentTimeMillis();
+		if (crlAllowed) {
+
+			final Date nextUpdate = getCrlNextUpdate(bytes);
+			if (nextUpdate != null && nextUpdate.getTime() > now) {
+				return nextUpdate.getTime();
+			}
+		}
+		final Long httpExpirationTime = HTTP_EXPIRATION_TIME.get();
+		HTTP_EXPIRATION_TIME.remove();
+		if (httpExpirationTime != null) {
+			return httpExpirationTime;
+		}
+		return now + defaultTimeToLive;
+	}
+
+	private static Date getCrlNextUpdate(final byte[] bytes) {
+
+		// A DER encoded CRL starts with a SEQUENCE
+		if (bytes.length == 0 || bytes[0] != 0x30) {
+			return null;
+		}
+		try {
+			return DSSUtils.loadCRL(bytes).getNextUpdate();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the content of the cache file or null if it does not exist anymore, in which case the entry is removed
+	 */
+	private byte[] readCacheFile(final String fileName, final File file) {
+
+		try {
+			return DSSUtils.toByteArray(file);
+		} catch (DSSException e) {
+
+			LOG.warn("The cached file cannot be read: " + file);
+			synchronized (this) {
+
+				final CacheEntry cacheEntry = getCacheEntries().remove(fileName);
+				if (cacheEntry != null) {
+
+					cacheSize -= cacheEntry.size;
+					indexChanged(fileName, null);
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * This method returns the entry of the given cache file and records its access. A file existing without entry (written before the index was introduced) is adopted
+	 * with the default time to live counted from its last modification.
+	 */
+	private synchronized CacheEntry getCacheEntry(final String fileName, final File file) {
+
+		CacheEntry cacheEntry = getCacheEntries().get(fileName);
+		if (cacheEntry != null) {
+
+			cacheEntry.accessTime = System.currentTimeMillis();
+			indexChanged(fileName, cacheEntry);
+		} else if (file.exists()) {
+
+			cacheEntry = new CacheEntry(fileName, file.length(), file.lastModified() + defaultTimeToLive, System.currentTimeMillis());
+			addCacheEntry(cacheEntry);
+		}
+		return cacheEntry;
+	}
+
+	private void saveInCache(final String fileName, final File file, final byte[] bytes, final long expirationTime) {
+
+		writeAtomically(bytes, file);
+		synchronized (this) {
+
+			addCacheEntry(new CacheEntry(fileName, bytes.length, expirationTime, System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * Adds the entry and evicts the least recently used entries exceeding the maximum size of the cache. The caller holds the lock.
+	 */
+	private void addCacheEntry(final CacheEntry cacheEntry) {
+
+		final LinkedHashMap<String, CacheEntry> entries = getCacheEntries();
+		final CacheEntry previousEntry = entries.put(cacheEntry.fileName, cacheEntry);
+		if (previousEntry != null) {
+			cacheSize -= previousEntry.size;
+		}
+		cacheSize += cacheEntry.size;
+		final Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (cacheSize > maxCacheSize && iterator.hasNext()) {
+
+			final CacheEntry evictedEntry = iterator.next();
+			if (evictedEntry == cacheEntry) {
+				// The new entry is kept even if it exceeds alone the maximum size
+				continue;
+			}
+			iterator.remove();
+			cacheSize -= evictedEntry.size;
+			indexChanged(evictedEntry.fileName, null);
+			final File evictedFile = new File(fileCacheDirectory, evictedEntry.fileName);
+			if (!evictedFile.delete() && evictedFile.exists()) {
+				LOG.warn("The evicted cache file cannot be deleted: " + evictedFile);
+			}
+			LOG.debug("Cache file evicted: " + evictedFile);
+		}
+		indexChanged(cacheEntry.fileName, cacheEntry);
+	}
+
+	/**
+	 * The caller holds the lock.
+	 */
+	private LinkedHashMap<String, CacheEntry> getCacheEntries() {
+
+		if (cacheEntries == null) {
+
+			cacheEntries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+			cacheSize = 0;
+			indexRecords = 0;
+			pendingEntries.clear();
+			loadIndex();
+		}
+		return cacheEntries;
+	}
+
+	/**
+	 * Records the change of the given entry, null when it is removed. The pending changes are written when they are numerous or old enough. The caller holds the lock.
+	 */
+	private void indexChanged(final String fileName, final CacheEntry cacheEntry) {
+
+		pendingEntries.put(fileName, cacheEntry);
+		if (pendingEntries.size() >= INDEX_FLUSH_THRESHOLD || System.currentTimeMillis() - lastIndexFlushTime >= INDEX_FLUSH_INTERVAL) {
+			flushIndex();
+		}
+	}
+
+	/**
+	 * Each line of the index records the expiration time, the size, the last access time and the name of one cache file, separated by tabulations, or the removal of
+	 * an entry ({@code -} followed by the name). The last record of a name wins. The entries are ordered by access time.
+	 */
+	private void loadIndex() {
+
+		final File indexFile = new File(fileCacheDirectory, INDEX_FILE_NAME);
+		if (!indexFile.exists()) {
+			return;
+		}
+		BufferedReader reader = null;
+		try {
+
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), "UTF-8"));
+			String line = reader.readLine();
+			final boolean version1 = INDEX_HEADER_V1.equals(line);
+			if (!version1 && !INDEX_HEADER.equals(line)) {
+
+				LOG.warn("Unknown format of the cache index, it is ignored: " + indexFile);
+				return;
+			}
+			final Map<String, CacheEntry> loadedEntries = new HashMap<String, CacheEntry>();
+			while ((line = reader.readLine()) != null) {
+
+				indexRecords++;
+				if (line.startsWith(REMOVED_ENTRY + "\t")) {
+
+					loadedEntries.remove(line.substring(REMOVED_ENTRY.length() + 1));
+					continue;
+				}
+				final String[] fields = line.split("\t", version1 ? 3 : 4);
+				if (version1 && fields.length == 3) {
+
+					// The version 1 lists the entries from the least to the most recently used
+					loadedEntries.put(fields[2], new CacheEntry(fields[2], Long.parseLong(fields[1]), Long.parseLong(fields[0]), indexRecords));
+				} else if (!version1 && fields.length == 4) {
+
+					loadedEntries.put(fields[3], new CacheEntry(fields[3], Long.parseLong(fields[1]), Long.parseLong(fields[0]), Long.parseLong(fields[2])));
+				}
+			}
+			final List<CacheEntry> sortedEntries = new ArrayList<CacheEntry>(loadedEntries.values());
+			Collections.sort(sortedEntries, new Comparator<CacheEntry>() {
+
+				@Override
+				public int compare(final CacheEntry entry1, final CacheEntry entry2) {
+
+					return entry1.accessTime < entry2.accessTime ? -1 : (entry1.accessTime == entry2.accessTime ? 0 : 1);
+				}
+			});
+			for (final CacheEntry cacheEntry : sortedEntries) {
+
+				cacheEntries.put(cacheEntry.fileName, cacheEntry);
+				cacheSize += cacheEntry.size;
+			}
+			if (version1) {
+				// The index is rewritten in the current format
+				indexRecords = Integer.MAX_VALUE;
+			}
+		} catch (IOException e) {
+
+			LOG.warn("The cache index cannot be read, it is ignored: " + e.getMessage());
+			cacheEntries.clear();
+			cacheSize = 0;
+		} catch (NumberFormatException e) {
+
+			LOG.warn("The cache index is corrupted, it is ignored: " + e.getMessage());
+			cacheEntries.clear();
+			cacheSize = 0;
+		} finally {
+			DSSUtils.closeQuietly(reader);
+		}
+	}
+
+	/**
+	 * This method writes the pending changes of the cache entries to the index file. It is called automatically by batches; it should also be called before the
+	 * application stops so that the last accesses are not lost. When the index contains more than twice as many records as entries it is rewritten entirely.
+	 */
+	public synchronized void flushIndex() {
+
+		lastIndexFlushTime = System.currentTimeMillis();
+		if (cacheEntries == null || pendingEntries.isEmpty()) {
+			return;
+		}
+		final File indexFile = new File(fileCacheDirectory, INDEX_FILE_NAME);
+		try {
+
+			if (!indexFile.exists() || indexRecords > 2 * cacheEntries.size() + INDEX_FLUSH_THRESHOLD) {
+
+				final StringBuilder index = new StringBuilder(INDEX_HEADER).append('\n');
+				for (final CacheEntry cacheEntry : cacheEntries.values()) {
+					appendEntry(index, cacheEntry);
+				}
+				writeAtomically(index.toString().getBytes("UTF-8"), indexFile);
+				indexRecords = cacheEntries.size();
+			} else {
+
+				final StringBuilder records = new StringBuilder();
+				for (final Map.Entry<String, CacheEntry> pendingEntry : pendingEntries.entrySet()) {
+
+					final CacheEntry cacheEntry = pendingEntry.getValue();
+					if (cacheEntry == null) {
+						records.append(REMOVED_ENTRY).append('\t').append(pendingEntry.getKey()).append('\n');
+					} else {
+						appendEntry(records, cacheEntry);
+					}
+				}
+				appendToIndex(records.toString().getBytes("UTF-8"), indexFile);
+				indexRecords += pendingEntries.size();
+			}
+			pendingEntries.clear();
+		} catch (UnsupportedEncodingException e) {
+			throw new DSSException(e);
+		} catch (DSSException e) {
+			LOG.warn("The cache index cannot be saved: " + e.getMessage());
+		}
+	}
+
+	private static void appendEntry(final StringBuilder index, final CacheEntry cacheEntry) {
+
+		index.append(cacheEntry.expirationTime).append('\t').append(cacheEntry.size).append('\t').append(cacheEntry.accessTime).append('\t').append(cacheEntry.fileName)
+			  .append('\n');
+	}
+
+	private static void appendToIndex(final byte[] bytes, final File indexFile) throws DSSException {
+
+		OutputStream outputStream = null;
+		try {
+
+			outputStream = new FileOutputStream(indexFile, true);
+			outputStream.write(bytes);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			DSSUtils.closeQuietly(outputStream);
+		}
+	}
+
+	/**
+	 * The content is written to a temporary file of the cache folder which is then renamed: the file is either absent or complete.
+	 */
+	private void writeAtomically(final byte[] bytes, final File file) throws DSSException {
+
+		File temporaryFile = null;
+		try {
+
+			fileCacheDirectory.mkdirs();
+			temporaryFile = File.createTempFile(".dss-", ".tmp", fileCacheDirectory);
+			DSSUtils.saveToFile(bytes, temporaryFile);
+			if (!temporaryFile.renameTo(file)) {
+
+				// On some platforms renameTo does not replace an existing file
+				file.delete();
+				if (!temporaryFile.renameTo(file)) {
+					throw new DSSException("The cache file cannot be written: " + file);
+				}
+			}
+			temporaryFile = null;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			if (temporaryFile != null) {
+				temporaryFile.delete();
+			}
+		}
+	}
 }
@@ -53,6 +53,8 @@ import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.validation102853.https.OCSPDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.AsyncDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.CoalescingDataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
 
 /**
@@ -88,11 +90,11 @@ public class OnlineOCSPSource implements OCSPSource {
 
 	/**
 	 * Create an OCSP source The default constructor for OnlineOCSPSource. The default {@code OCSPDataLoader} is set. It is possible to change it with {@code
-	 * #setDataLoader}.
+	 * #setDataLoader}. The concurrent identical requests are coalesced and the requests are executed by an {@code AsyncDataLoader}.
 	 */
 	public OnlineOCSPSource() {
 
-		dataLoader = new OCSPDataLoader();
+		dataLoader = new CoalescingDataLoader(new AsyncDataLoader(new OCSPDataLoader()));
 	}
 
 	/**
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URLConnection;
+import java.security.SecureRandom;
 
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.tsp.TSPException;
@@ -37,6 +38,8 @@ import org.slf4j.LoggerFactory;
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.validation102853.https.CommonsDataLoader;
+import eu.europa.ec.markt.dss.validation102853.loader.AsyncDataLoader;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
 
 /**
@@ -49,6 +52,10 @@ public class OnlineTSPSource implements TSPSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(OnlineTSPSource.class);
 
+    private static final SecureRandom NONCE_GENERATOR = new SecureRandom();
+
+    public static final String TSP_CONTENT_TYPE = "application/timestamp-query";
+
     private String tspServer;
 
     private ASN1ObjectIdentifier policyOid;
@@ -64,13 +71,15 @@ public class OnlineTSPSource implements TSPSource {
     }
 
     /**
-     * Build a OnlineTSPSource that will query the specified URL
+     * Build a OnlineTSPSource that will query the specified URL. The requests are executed by an {@code AsyncDataLoader}, it is possible to change it with {@code
+     * #setDataLoader}.
      *
      * @param tspServer
      */
     public OnlineTSPSource(final String tspServer) {
 
         this.tspServer = tspServer;
+        this.dataLoader = new AsyncDataLoader(new CommonsDataLoader(TSP_CONTENT_TYPE));
     }
 
     /**
@@ -119,8 +128,8 @@ public class OnlineTSPSource implements TSPSource {
             if (policyOid != null) {
                 tsqGenerator.setReqPolicy(policyOid);
             }
-            final long val = System.currentTimeMillis();
-            final BigInteger nonce = BigInteger.valueOf(val);
+            // The nonce must be unique even when several requests are sent at the same time
+            final BigInteger nonce = new BigInteger(64, NONCE_GENERATOR);
             final ASN1ObjectIdentifier asn1ObjectIdentifier = digestAlgorithm.getOid();
             final TimeStampRequest request = tsqGenerator.generate(asn1ObjectIdentifier, digest, nonce);
             final byte[] requestBytes = request.getEncoded();
@@ -166,7 +175,7 @@ public class OnlineTSPSource implements TSPSource {
         tsaConnection.setDoInput(true);
         tsaConnection.setDoOutput(true);
         tsaConnection.setUseCaches(false);
-        tsaConnection.setRequestProperty("Content-Type", "application/timestamp-query");
+        tsaConnection.setRequestProperty("Content-Type", TSP_CONTENT_TYPE);
         tsaConnection.setRequestProperty("Content-Transfer-Encoding", "binary");
 
         DSSUtils.writeToURLConnection(tsaConnection, requestBytes);
@@ -183,11 +192,15 @@ public class OnlineTSPSource implements TSPSource {
 
     private byte[] getReadFromURLConnection(final URLConnection tsaConnection) throws DSSException {
 
+        InputStream inputStream = null;
         try {
-            final InputStream inputStream = tsaConnection.getInputStream();
+            inputStream = tsaConnection.getInputStream();
             return DSSUtils.toByteArray(inputStream);
         } catch (IOException e) {
             throw new DSSException(e);
+        } finally {
+            // The stream must be read to the end and closed to give the persistent connection back to the JDK keep-alive cache
+            DSSUtils.closeQuietly(inputStream);
         }
     }
 }
@@ -21,8 +21,8 @@
 package eu.europa.ec.markt.dss;
 
 import java.security.cert.X509Certificate;
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -31,6 +31,11 @@ import eu.europa.ec.markt.dss.exception.DSSException;
 /**
  * This class is used to obtain a unique DSS certificate's id. It is very helpful to follow the relationships between
  * certificates, CRLs, OCSPs and signatures. This DSS unique id is a simple integer number.
+ * <p/>
+ * The id is computed from the content of the certificate: it is made of the first 31 bits of the SHA-256 digest of the
+ * certificate's unique identifier (issuer distinguished name + "|" + serial number). The same certificate gets then
+ * the same id in every validation. When two different keys give the same id, the next free id is taken: the keys
+ * already seen are kept in a concurrent map, so the computation stays thread-safe and lock-free.
  *
  * <p>
  * DISCLAIMER: Project owner DG-MARKT.
@@ -41,21 +46,15 @@ import eu.europa.ec.markt.dss.exception.DSSException;
 public final class CertificateIdentifier {
 
     /**
-     * This is the id which is given to a new certificate.
+     * This boolean is used in testing context, to keep consistent file names between various test launches
      */
-    private static int nextCertificateIdentifier = 1;
-
-
-    /**
-     * This boolean is used in testing context, to keep consistent ids for certificates between various test launches
-     */
-    private static boolean UNIQUE_IDENTIFIER = false;
+    private static volatile boolean UNIQUE_IDENTIFIER = false;
 
     /**
-     * This {@link LinkedHashMap} represents the association between the certificate unique identifier (certificate's
-     * issuer distinguished name + "|" + certificate's serial number) and the DSS certificate's id.
+     * This map associates each attributed id with the certificate key which owns it. It is used to detect the
+     * collisions of the digest-based ids.
      */
-    private static LinkedHashMap<String, Integer> ids = new LinkedHashMap<String, Integer>();
+    private static final ConcurrentMap<Integer, String> keys = new ConcurrentHashMap<Integer, String>();
 
     private CertificateIdentifier() {
     }
@@ -65,15 +64,15 @@ public final class CertificateIdentifier {
     }
 
     /**
-     * This method is used to keep consistent ids for certificates between various test launches
+     * This method is used to keep consistent reports between various test launches
      * @param uniqueIdentifier
      */
     public static void setUniqueIdentifier(boolean uniqueIdentifier) {
         UNIQUE_IDENTIFIER = uniqueIdentifier;
     }
     /**
-     * Return the DSS certificate's unique id for a given {@link X509Certificate}. If the {@code cert} parameter is
-     * null 0 is returned.
+     * Return the DSS certificate's unique id for a given {@link X509Certificate}. The returned id is always strictly
+     * positive.
      *
      * @param cert
      * @return
@@ -83,35 +82,33 @@ public final class CertificateIdentifier {
             throw new DSSException("The certificate cannot be null!");
         }
         final String certKey = getKey(cert);
-        Integer id = ids.get(certKey);
-        if (id == null) {
-
-            id = add(certKey);
-        }
-        return id;
+        return getId(certKey);
     }
 
     /**
      * This method returns the DSS certificate's id based on the certificate's key: ( issuer distinguished name + "|" +
-     * serial number). If the certificate is not yet stored it is added to the {@code ids}.
+     * serial number). If the id computed from the digest is already owned by another key, the following ids are probed
+     * until a free one (or the one already owned by this key) is found.
      *
      * @param key the key is composed of issuer distinguished name + "|" + serial number
      * @return DSS certificate's id
      */
-    private static int add(final String key) {
+    private static int getId(final String key) {
 
-        Integer id = ids.get(key);
-        if (id == null) {
-            if (UNIQUE_IDENTIFIER) {
-                id = key.hashCode();
-                ids.put(key, id);
-            } else {
-                id = nextCertificateIdentifier;
-                ids.put(key, id);
-                nextCertificateIdentifier++;
+        final byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, DSSUtils.getUtf8Bytes(key));
+        int id = ((digest[0] & 0x7F) << 24) | ((digest[1] & 0xFF) << 16) | ((digest[2] & 0xFF) << 8) | (digest[3] & 0xFF);
+        while (true) {
+
+            // 0 means that there is no certificate (ex: unknown issuer)
+            if (id == 0) {
+                id = 1;
+            }
+            final String owner = keys.putIfAbsent(id, key);
+            if (owner == null || owner.equals(key)) {
+                return id;
             }
+            id = id == Integer.MAX_VALUE ? 1 : id + 1;
         }
-        return id;
     }
 
     /**
@@ -121,39 +118,10 @@ public final class CertificateIdentifier {
      * @param cert
      * @return
      */
-    private static String getKey(final X509Certificate cert) {
+    public static String getKey(final X509Certificate cert) {
 
         final String canonicalIssuerX500Principal = cert.getIssuerX500Principal().getName(X500Principal.CANONICAL);
         final String serialNumber = cert.getSerialNumber().toString();
         return canonicalIssuerX500Principal + "|" + serialNumber;
     }
-
-    /**
-     * This method resets the list of certificates.
-     */
-    public static void clear() {
-        ids.clear();
-        nextCertificateIdentifier = 1;
-    }
-
-    /**
-     * Returns the text representation of all certificates and their internal DSS number. The text is indented with the
-     * given {@code indentStr} string.
-     *
-     * @param indentStr
-     * @return
-     */
-    public static String toString(String indentStr) {
-
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(indentStr).append("List of certificates:\n");
-        for (Entry<String, Integer> entry : ids.entrySet()) {
-
-            Integer id = entry.getValue();
-            String key = entry.getKey();
-            sb.append(indentStr).append(String.format("[%s] : %s\n", id, key));
-        }
-        return sb.toString();
-    }
 }
@@ -40,6 +40,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.security.DigestOutputStream;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -65,10 +66,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -121,6 +127,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.signature.DSSDocument;
+import eu.europa.ec.markt.dss.signature.MappedFileDocument;
 import eu.europa.ec.markt.dss.utils.Base64;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
@@ -210,6 +217,11 @@ public final class DSSUtils {
 	 */
 	private static final int DEFAULT_BUFFER_SIZE = 1024 * 4;
 
+	/**
+	 * The shared pools of threads indexed by name, see {@link #getSharedExecutorService(String, int)}.
+	 */
+	private static final Map<String, ExecutorService> SHARED_EXECUTOR_SERVICES = new HashMap<String, ExecutorService>();
+
 	/**
 	 * This class is an utility class and cannot be instantiated.
 	 */
@@ -1171,6 +1183,35 @@ public final class DSSUtils {
 		}
 	}
 
+	/**
+	 * This method returns an {@code OutputStream} which only feeds the written bytes to a {@code MessageDigest} of the given algorithm: nothing is
+	 * kept in memory. The digest value is obtained with {@code getMessageDigest().digest()}.
+	 *
+	 * @param digestAlgorithm the algorithm to use
+	 * @return {@code DigestOutputStream}
+	 */
+	public static DigestOutputStream getDigestOutputStream(final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		try {
+
+			final MessageDigest messageDigest = getMessageDigest(digestAlgorithm);
+			final OutputStream nullOutputStream = new OutputStream() {
+
+				@Override
+				public void write(final int b) {
+				}
+
+				@Override
+				public void write(final byte[] b, final int off, final int len) {
+				}
+			};
+			return new DigestOutputStream(nullOutputStream, messageDigest);
+		} catch (NoSuchAlgorithmException e) {
+
+			throw new DSSException("Digest algorithm error: " + e.getMessage(), e);
+		}
+	}
+
 	/**
 	 * This method digest and encrypt the given {@code InputStream} with indicated private key and signature algorithm. To find the signature object
 	 * the list of registered security Providers, starting with the most preferred Provider is traversed.
@@ -3040,6 +3081,14 @@ public final class DSSUtils {
 	 */
 	public static int readToArray(final DSSDocument dssDocument, final int headerLength, final byte[] destinationByteArray) {
 
+		if (dssDocument instanceof MappedFileDocument) {
+
+			// No stream needs to be opened: the header is read from the mapped memory
+			final ByteBuffer buffer = ((MappedFileDocument) dssDocument).getBuffer();
+			final int read = Math.min(headerLength, buffer.remaining());
+			buffer.get(destinationByteArray, 0, read);
+			return read;
+		}
 		final InputStream inputStream = dssDocument.openStream();
 		try {
 			int read = inputStream.read(destinationByteArray, 0, headerLength);
@@ -3064,4 +3113,67 @@ public final class DSSUtils {
 		long diff = date2.getTime() - date1.getTime();
 		return timeUnit.convert(diff, TimeUnit.MILLISECONDS);
 	}
+
+	/**
+	 * This method returns the pool of threads shared by all the users of the given name. Unless another {@code ExecutorService} was set with
+	 * {@link #setSharedExecutorService(String, ExecutorService)}, a pool of {@code poolSize} daemon threads is created at the first call; its threads are named after the
+	 * pool.
+	 *
+	 * @param name     the name of the pool, for example "dss-digest"
+	 * @param poolSize the number of threads of the pool when it is created
+	 * @return the shared {@code ExecutorService}
+	 */
+	public static ExecutorService getSharedExecutorService(final String name, final int poolSize) {
+
+		synchronized (SHARED_EXECUTOR_SERVICES) {
+
+			ExecutorService executorService = SHARED_EXECUTOR_SERVICES.get(name);
+			if (executorService == null) {
+
+				executorService = Executors.newFixedThreadPool(Math.max(1, poolSize), newDaemonThreadFactory(name));
+				SHARED_EXECUTOR_SERVICES.put(name, executorService);
+			}
+			return executorService;
+		}
+	}
+
+	/**
+	 * This method replaces the pool of threads shared under the given name, for example by a pool managed by the application server. The previous pool is not shut
+	 * down. A null value restores the default pool at the next use.
+	 *
+	 * @param name            the name of the pool
+	 * @param executorService the {@code ExecutorService} to share or null
+	 */
+	public static void setSharedExecutorService(final String name, final ExecutorService executorService) {
+
+		synchronized (SHARED_EXECUTOR_SERVICES) {
+
+			if (executorService == null) {
+				SHARED_EXECUTOR_SERVICES.remove(name);
+			} else {
+				SHARED_EXECUTOR_SERVICES.put(name, executorService);
+			}
+		}
+	}
+
+	/**
+	 * This method returns a {@code ThreadFactory} creating daemon threads named "{@code name}-N": they do not prevent the JVM from stopping.
+	 *
+	 * @param name the prefix of the names of the threads
+	 * @return the {@code ThreadFactory}
+	 */
+	public static ThreadFactory newDaemonThreadFactory(final String name) {
+
+		final AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadFactory() {
+
+			@Override
+			public Thread newThread(final Runnable runnable) {
+
+				final Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
 }
\ No newline at end of file
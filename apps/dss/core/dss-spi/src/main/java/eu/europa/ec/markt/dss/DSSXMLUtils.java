@@ -43,6 +43,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -90,6 +91,22 @@ public final class DSSXMLUtils {
 
 	private static final XPathFactory factory = XPathFactory.newInstance();
 
+	/**
+	 * The creation of a {@code Transformer} is costly and an instance cannot be shared between threads: one instance is kept per thread.
+	 */
+	private static final ThreadLocal<Transformer> transformers = new ThreadLocal<Transformer>() {
+
+		@Override
+		protected Transformer initialValue() {
+
+			try {
+				return TransformerFactory.newInstance().newTransformer();
+			} catch (TransformerConfigurationException e) {
+				throw new DSSException(e);
+			}
+		}
+	};
+
 	private static NamespaceContext namespacePrefixMapper;
 
 	private static final Map<String, String> namespaces;
@@ -676,8 +693,8 @@ public final class DSSXMLUtils {
 
 		try {
 
-			final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-			final Transformer transformer = transformerFactory.newTransformer();
+			final Transformer transformer = transformers.get();
+			transformer.reset();
 			final String xmlEncoding = documentDom.getXmlEncoding();
 			if (DSSUtils.isNotBlank(xmlEncoding)) {
 				transformer.setOutputProperty(OutputKeys.ENCODING, xmlEncoding);
@@ -70,6 +70,8 @@ public class DSSCannotFetchDataException extends RuntimeException {
     public DSSCannotFetchDataException(IOException ex, String serviceName) {
         this(ex instanceof UnknownHostException ? MSG.UNKNOWN_HOST_EXCEPTION : MSG.IO_EXCEPTION, serviceName);
         cause = ex;
+        // The I/O error is also exposed as the cause to allow the retry of the transient errors (see AsyncDataLoader)
+        initCause(ex);
         this.serviceName = serviceName;
     }
 
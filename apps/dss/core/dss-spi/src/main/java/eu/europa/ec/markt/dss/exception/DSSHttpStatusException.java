@@ -0,0 +1,43 @@
+package eu.europa.ec.markt.dss.exception;
+
+/**
+ * This exception is raised when a server answers a request with an error status code (HTTP 5xx). Such a failure is transient: the request can be retried.
+ *
+ * <p>
+ * DISCLAIMER: Project owner DG-MARKT.
+ *
+ * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
+ * @version $Revision$ - $Date$
+ */
+public class DSSHttpStatusException extends DSSException {
+
+    private final int statusCode;
+
+    /**
+     * This constructor creates an exception with the URL of the request and the returned status code.
+     *
+     * @param url        the URL of the request
+     * @param statusCode the HTTP status code returned by the server
+     */
+    public DSSHttpStatusException(final String url, final int statusCode) {
+
+        super("HTTP status " + statusCode + " returned by: " + url);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return the HTTP status code returned by the server
+     */
+    public int getStatusCode() {
+
+        return statusCode;
+    }
+
+    /**
+     * @return true if the status code is a server error (5xx)
+     */
+    public boolean isServerError() {
+
+        return statusCode >= 500 && statusCode < 600;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature;
+
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * Document made of the parts of another document described by a PDF like byte range: pairs of offset and length. It represents for instance the content signed by a
+ * PDF signature. The parts are streamed and digested in place, from the mapped memory of a {@code MappedFileDocument} or from the bytes of any other document; they
+ * are only copied when {@code #getBytes()} is called.
+ *
+ * @version $Revision$ - $Date$
+ */
+
+public class ByteRangeDocument extends CommonDocument {
+
+	private final ByteBuffer buffer;
+
+	private final int[] byteRange;
+
+	private final String name;
+
+	private final String absolutePath;
+
+	/**
+	 * Creates dss document representing the given parts of a document
+	 *
+	 * @param document  the document containing the parts
+	 * @param byteRange the pairs of offset and length of the parts
+	 * @throws DSSException if a range is outside the document
+	 */
+	public ByteRangeDocument(final DSSDocument document, final int... byteRange) throws DSSException {
+
+		if (document == null) {
+
+			throw new DSSNullException(DSSDocument.class);
+		}
+		if (byteRange == null || byteRange.length % 2 != 0) {
+
+			throw new DSSException("The byte range must contain pairs of offset and length.");
+		}
+		if (document instanceof MappedFileDocument) {
+
+			buffer = ((MappedFileDocument) document).getBuffer();
+		} else {
+
+			buffer = ByteBuffer.wrap(document.getBytes()).asReadOnlyBuffer();
+		}
+		this.byteRange = byteRange.clone();
+		for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+			// Checks the range
+			slice(ii);
+		}
+		this.name = document.getName();
+		this.absolutePath = document.getAbsolutePath();
+	}
+
+	private ByteBuffer slice(final int index) throws DSSException {
+
+		final int offset = byteRange[index];
+		final int length = byteRange[index + 1];
+		final ByteBuffer part = buffer.duplicate();
+		if (offset < 0 || length < 0 || offset > part.capacity() - length) {
+			throw new DSSException("Invalid range [" + offset + ", " + length + "] for a document of " + part.capacity() + " bytes.");
+		}
+		part.position(offset);
+		part.limit(offset + length);
+		return part.slice();
+	}
+
+	/**
+	 * @return the pairs of offset and length of the parts
+	 */
+	public int[] getByteRange() {
+		return byteRange.clone();
+	}
+
+	/**
+	 * @return the length of the document in bytes
+	 */
+	public int getLength() {
+
+		int length = 0;
+		for (int ii = 1; ii < byteRange.length; ii += 2) {
+
+			length += byteRange[ii];
+		}
+		return length;
+	}
+
+	@Override
+	public InputStream openStream() throws DSSException {
+
+		final List<InputStream> inputStreams = new ArrayList<InputStream>();
+		for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+			inputStreams.add(new MappedFileDocument.ByteBufferInputStream(slice(ii)));
+		}
+		return new SequenceInputStream(Collections.enumeration(inputStreams));
+	}
+
+	@Override
+	public byte[] getBytes() throws DSSException {
+
+		final byte[] bytes = new byte[getLength()];
+		int position = 0;
+		for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+			slice(ii).get(bytes, position, byteRange[ii + 1]);
+			position += byteRange[ii + 1];
+		}
+		return bytes;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getAbsolutePath() {
+		return absolutePath;
+	}
+
+	@Override
+	public void save(final String filePath) {
+
+		final InputStream inputStream = openStream();
+		DSSUtils.saveToFile(inputStream, filePath);
+		DSSUtils.closeQuietly(inputStream);
+	}
+
+	@Override
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+
+		try {
+
+			final MessageDigest messageDigest = DSSUtils.getMessageDigest(digestAlgorithm);
+			for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+				messageDigest.update(slice(ii));
+			}
+			final String base64Encode = DSSUtils.base64Encode(messageDigest.digest());
+			return base64Encode;
+		} catch (NoSuchAlgorithmException e) {
+			throw new DSSException("Digest algorithm error: " + e.getMessage(), e);
+		}
+	}
+}
@@ -21,10 +21,12 @@
 package eu.europa.ec.markt.dss.signature;
 
 import java.io.File;
+import java.io.InputStream;
 import java.util.HashMap;
 
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.exception.DSSUnsupportedOperationException;
 
 /**
@@ -57,6 +59,59 @@ public class DigestDocument extends FileDocument {
 		super(file);
 	}
 
+	/**
+	 * Creates dss document which is only known by its name and its digest. The content of such a document is not available: it can only be used when the signature does
+	 * not need it, as is the case of the detached CAdES and XAdES signatures.
+	 *
+	 * @param name               the name of the document
+	 * @param digestAlgorithm    {@code DigestAlgorithm} used to compute the digest
+	 * @param base64EncodeDigest the corresponding base 64 encoded digest value
+	 */
+	public DigestDocument(final String name, final DigestAlgorithm digestAlgorithm, final String base64EncodeDigest) {
+
+		if (digestAlgorithm == null) {
+
+			throw new DSSNullException(DigestAlgorithm.class);
+		}
+		if (base64EncodeDigest == null) {
+
+			throw new DSSNullException(String.class, "base64EncodeDigest");
+		}
+		this.name = name;
+		this.mimeType = name == null ? MimeType.BINARY : MimeType.fromFileName(name);
+		addDigest(digestAlgorithm, base64EncodeDigest);
+	}
+
+	@Override
+	public InputStream openStream() throws DSSException {
+
+		if (file == null) {
+
+			throw new DSSUnsupportedOperationException("The content of the document '" + name + "' is not available, only its digest is known!");
+		}
+		return super.openStream();
+	}
+
+	@Override
+	public boolean exists() {
+		return file != null && super.exists();
+	}
+
+	@Override
+	public File getParentFile() {
+		return file == null ? null : super.getParentFile();
+	}
+
+	@Override
+	public String getName() {
+		return file == null ? name : super.getName();
+	}
+
+	@Override
+	public String getAbsolutePath() {
+		return file == null ? name : super.getAbsolutePath();
+	}
+
 	@Override
 	public byte[] getBytes() throws DSSException {
 
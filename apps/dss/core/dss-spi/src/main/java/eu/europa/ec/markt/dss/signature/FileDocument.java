@@ -36,7 +36,7 @@ import eu.europa.ec.markt.dss.exception.DSSNullException;
 
 public class FileDocument extends CommonDocument {
 
-	private final File file;
+	protected final File file;
 
 	/**
 	 * Create a FileDocument
@@ -66,6 +66,14 @@ public class FileDocument extends CommonDocument {
 		this.mimeType = MimeType.fromFileName(file.getName());
 	}
 
+	/**
+	 * Create a FileDocument which is not backed by a file. It is reserved to the subclasses which do not hold the content of the document.
+	 */
+	protected FileDocument() {
+
+		this.file = null;
+	}
+
 	@Override
 	public InputStream openStream() throws DSSException {
 
@@ -0,0 +1,297 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+
+/**
+ * Document implementation stored on file-system and accessed through a read-only memory mapping of the file. The contents can be read at any offset without opening a
+ * stream, sliced without copy (PDF byte ranges, ZIP entries...) and digested straight from the mapped memory.
+ * <p/>
+ * The file is mapped on the first access and the mapping is kept until the document is garbage collected: the file cannot be modified (and on some systems deleted) in
+ * the meantime. The size of the file is limited to {@code Integer.MAX_VALUE} bytes.
+ *
+ * @version $Revision$ - $Date$
+ */
+
+public class MappedFileDocument extends FileDocument {
+
+	private volatile ByteBuffer mappedBuffer;
+
+	/**
+	 * Create a MappedFileDocument
+	 *
+	 * @param path the path to the file
+	 */
+	public MappedFileDocument(final String path) {
+		this(new File(path));
+	}
+
+	/**
+	 * Create a MappedFileDocument
+	 *
+	 * @param file {@code File}
+	 */
+	public MappedFileDocument(final File file) {
+
+		super(file);
+	}
+
+	/**
+	 * This method returns a read-only view of the whole mapped file. Each call returns a new view with its own position and limit.
+	 *
+	 * @return the contents of the file
+	 * @throws DSSException if the file cannot be mapped
+	 */
+	public ByteBuffer getBuffer() throws DSSException {
+
+		ByteBuffer buffer = mappedBuffer;
+		if (buffer == null) {
+
+			buffer = map();
+			mappedBuffer = buffer;
+		}
+		return buffer.duplicate();
+	}
+
+	private ByteBuffer map() throws DSSException {
+
+		RandomAccessFile randomAccessFile = null;
+		try {
+
+			randomAccessFile = new RandomAccessFile(file, "r");
+			final FileChannel channel = randomAccessFile.getChannel();
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new DSSException("The file is too large to be mapped: " + file.getAbsolutePath());
+			}
+			// The mapping stays valid after the channel is closed
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return buffer.asReadOnlyBuffer();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			if (randomAccessFile != null) {
+				try {
+					randomAccessFile.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the length of the document in bytes
+	 */
+	public int getLength() {
+
+		return getBuffer().capacity();
+	}
+
+	/**
+	 * This method returns a read-only view of a part of the document, the bytes are not copied.
+	 *
+	 * @param offset the offset of the first byte
+	 * @param length the number of bytes
+	 * @return the view of the part of the document
+	 * @throws DSSException if the range is outside the document
+	 */
+	public ByteBuffer slice(final int offset, final int length) throws DSSException {
+
+		final ByteBuffer buffer = getBuffer();
+		if (offset < 0 || length < 0 || offset > buffer.capacity() - length) {
+			throw new DSSException("Invalid range [" + offset + ", " + length + "] for a document of " + buffer.capacity() + " bytes.");
+		}
+		buffer.position(offset);
+		buffer.limit(offset + length);
+		return buffer.slice();
+	}
+
+	/**
+	 * This method reads a part of the document.
+	 *
+	 * @param offset the offset of the first byte
+	 * @param length the number of bytes
+	 * @return the bytes of the part of the document
+	 * @throws DSSException if the range is outside the document
+	 */
+	public byte[] read(final int offset, final int length) throws DSSException {
+
+		final byte[] bytes = new byte[length];
+		slice(offset, length).get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * This method computes the digest of the parts of the document described by a PDF like byte range: pairs of offset and length. The bytes are read from the mapped
+	 * memory.
+	 *
+	 * @param digestAlgorithm the digest algorithm to use
+	 * @param byteRange       the pairs of offset and length of the parts to digest
+	 * @return the digest value
+	 * @throws DSSException if a range is outside the document
+	 */
+	public byte[] digest(final DigestAlgorithm digestAlgorithm, final int... byteRange) throws DSSException {
+
+		if (byteRange.length % 2 != 0) {
+			throw new DSSException("The byte range must contain pairs of offset and length.");
+		}
+		try {
+
+			final MessageDigest messageDigest = DSSUtils.getMessageDigest(digestAlgorithm);
+			for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+				messageDigest.update(slice(byteRange[ii], byteRange[ii + 1]));
+			}
+			return messageDigest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new DSSException("Digest algorithm error: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public InputStream openStream() throws DSSException {
+
+		return new ByteBufferInputStream(getBuffer());
+	}
+
+	/**
+	 * This method opens a stream on the parts of the document described by a PDF like byte range: pairs of offset and length. The parts are read one after the other
+	 * from the mapped memory, they are not copied.
+	 *
+	 * @param byteRange the pairs of offset and length of the parts to read
+	 * @return the stream of the parts of the document
+	 * @throws DSSException if a range is outside the document
+	 */
+	public InputStream openStream(final int... byteRange) throws DSSException {
+
+		if (byteRange.length % 2 != 0) {
+			throw new DSSException("The byte range must contain pairs of offset and length.");
+		}
+		final List<InputStream> inputStreams = new ArrayList<InputStream>();
+		for (int ii = 0; ii < byteRange.length; ii += 2) {
+
+			inputStreams.add(new ByteBufferInputStream(slice(byteRange[ii], byteRange[ii + 1])));
+		}
+		return new SequenceInputStream(Collections.enumeration(inputStreams));
+	}
+
+	@Override
+	public byte[] getBytes() throws DSSException {
+
+		final ByteBuffer buffer = getBuffer();
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+
+		final byte[] digestBytes = digest(digestAlgorithm, 0, getLength());
+		final String base64Encode = DSSUtils.base64Encode(digestBytes);
+		return base64Encode;
+	}
+
+	/**
+	 * {@code InputStream} reading a {@code ByteBuffer}, the stream does not need to be closed.
+	 */
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		private int mark;
+
+		ByteBufferInputStream(final ByteBuffer buffer) {
+
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			final int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public long skip(final long count) {
+
+			final int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+
+			return buffer.remaining();
+		}
+
+		@Override
+		public boolean markSupported() {
+
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(final int readLimit) {
+
+			mark = buffer.position();
+		}
+
+		@Override
+		public synchronized void reset() {
+
+			buffer.position(mark);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.signature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+
+/**
+ * This class computes the digests of several documents at once, for example the contents of the references of a XAdES signature or the data objects of an ASiC-E
+ * container. The documents are read and hashed in parallel on a bounded pool of daemon threads shared by all signatures and validations.
+ * <p/>
+ * DISCLAIMER: Project owner DG-MARKT.
+ *
+ * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
+ * @version $Revision$ - $Date$
+ */
+public final class ParallelDigester {
+
+	/**
+	 * The default number of threads used to compute the digests: the number of available processors
+	 */
+	public static final int DEFAULT_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-digest";
+
+	private ParallelDigester() {
+	}
+
+	/**
+	 * This method returns the base 64 encoded digests of the given documents, see {@code DSSDocument#getDigest(DigestAlgorithm)}. When there is more than one document
+	 * the digests are computed in parallel.
+	 *
+	 * @param documents        the documents to digest
+	 * @param digestAlgorithms the digest algorithm to use for each document
+	 * @return the base 64 encoded digests in the same order as the documents
+	 * @throws DSSException if a digest cannot be computed
+	 */
+	public static List<String> digest(final List<DSSDocument> documents, final List<DigestAlgorithm> digestAlgorithms) throws DSSException {
+
+		if (documents.size() != digestAlgorithms.size()) {
+
+			throw new DSSException("Each document must have a digest algorithm!");
+		}
+		final List<String> digests = new ArrayList<String>(documents.size());
+		if (documents.size() < 2 || DEFAULT_THREAD_POOL_SIZE < 2) {
+
+			for (int ii = 0; ii < documents.size(); ii++) {
+
+				digests.add(documents.get(ii).getDigest(digestAlgorithms.get(ii)));
+			}
+			return digests;
+		}
+		final ExecutorService executorService = DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, DEFAULT_THREAD_POOL_SIZE);
+		final List<Future<String>> futures = new ArrayList<Future<String>>(documents.size());
+		for (int ii = 0; ii < documents.size(); ii++) {
+
+			final DSSDocument document = documents.get(ii);
+			final DigestAlgorithm digestAlgorithm = digestAlgorithms.get(ii);
+			futures.add(executorService.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+
+					return document.getDigest(digestAlgorithm);
+				}
+			}));
+		}
+		try {
+
+			for (final Future<String> future : futures) {
+
+				digests.add(future.get());
+			}
+			return digests;
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		} finally {
+
+			for (final Future<String> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+}
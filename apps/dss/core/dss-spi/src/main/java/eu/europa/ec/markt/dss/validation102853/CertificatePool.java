@@ -25,9 +25,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -45,6 +46,11 @@ import eu.europa.ec.markt.dss.validation102853.condition.ServiceInfo;
  * different sources: trusted list, signature, OCSP response... but each certificate is unambiguously identified by its
  * issuer DN and serial number. This class allows to keep only one occurrence of the certificate regardless its
  * provenance. Two pools of certificates can be merged using the {@link #merge(CertificatePool)} method.
+ * <p/>
+ * The pool is thread-safe and can be layered: a pool created with a parent pool (ex: the long-lived pool of the trusted
+ * certificates) behaves like the union of both pools but never modifies its parent. The certificates of the parent are
+ * copied into the overlay only when they are used, with their sources and services. Then the validation specific state
+ * of a {@link CertificateToken} (issuer, revocation data...) is never shared between two validations.
  *
  * @author bielecro
  */
@@ -53,15 +59,42 @@ public class CertificatePool {
 	private static final Logger LOG = LoggerFactory.getLogger(CertificatePool.class);
 
 	/**
-	 * Map of encapsulated certificates with unique DSS identifier as key (hash code calculated on issuer distinguished name and serial
-	 * number)
+	 * The parent pool or null. The parent pool is only read.
 	 */
-	private Map<Integer, CertificateToken> certById = new HashMap<Integer, CertificateToken>();
+	private final CertificatePool parent;
+
+	/**
+	 * Map of encapsulated certificates with the certificate's unique identifier as key (issuer distinguished name + "|" + serial number). The DSS identifier is only a label
+	 * computed from this key and is not used to index the certificates.
+	 */
+	private final ConcurrentMap<String, CertificateToken> certByKey = new ConcurrentHashMap<String, CertificateToken>();
 
 	/**
 	 * Map f encapsulated certificates with subject distinguished name as key.
 	 */
-	private Map<String, List<CertificateToken>> certBySubject = new HashMap<String, List<CertificateToken>>();
+	private final ConcurrentMap<String, List<CertificateToken>> certBySubject = new ConcurrentHashMap<String, List<CertificateToken>>();
+
+	/**
+	 * The default constructor creates an independent pool of certificates.
+	 */
+	public CertificatePool() {
+
+		this.parent = null;
+	}
+
+	/**
+	 * This constructor creates a pool of certificates layered over the given parent pool.
+	 *
+	 * @param parent the pool of certificates shared between different validations (ex: trusted certificates)
+	 */
+	public CertificatePool(final CertificatePool parent) {
+
+		if (parent == null) {
+
+			throw new DSSNullException(CertificatePool.class);
+		}
+		this.parent = parent;
+	}
 
 	/**
 	 * Returns the instance of a certificate token. If the certificate is not referenced yet a new instance of
@@ -123,56 +156,119 @@ public class CertificatePool {
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Certificate to add: " + certificateToAdd.getIssuerX500Principal().toString() + "|" + certificateToAdd.getSerialNumber());
 		}
-		final int id = CertificateIdentifier.getId(certificateToAdd);
-		synchronized (certById) {
+		final String key = CertificateIdentifier.getKey(certificateToAdd);
+		CertificateToken certToken = certByKey.get(key);
+		if (certToken == null) {
 
-			CertificateToken certToken = certById.get(id);
-			if (certToken == null) {
+			certToken = putIfAbsent(key, certificateToAdd);
+		} else {
 
-				certToken = CertificateToken.newInstance(certificateToAdd, id);
-				certById.put(id, certToken);
-				final String subjectName = certificateToAdd.getSubjectX500Principal().getName(X500Principal.CANONICAL);
-				List<CertificateToken> list = certBySubject.get(subjectName);
-				if (list == null) {
+			final X509Certificate foundCertificate = certToken.getCertificate();
+			final byte[] foundCertificateSignature = foundCertificate.getSignature();
+			final byte[] certificateToAddSignature = certificateToAdd.getSignature();
+			if (!Arrays.equals(foundCertificateSignature, certificateToAddSignature)) {
 
-					list = new ArrayList<CertificateToken>();
-					certBySubject.put(subjectName, list);
-				}
-				list.add(certToken);
-			} else {
+				LOG.warn(" Found certificate: " + certToken.getIssuerX500Principal().toString() + "|" + certToken.getSerialNumber());
+				LOG.warn("More than one certificate for the same issuer subject name and serial number! The standard is not met by the certificate issuer!");
+			}
+		}
+		for (final CertificateSourceType sourceType : sources) {
 
-				final X509Certificate foundCertificate = certToken.getCertificate();
-				final byte[] foundCertificateSignature = foundCertificate.getSignature();
-				final byte[] certificateToAddSignature = certificateToAdd.getSignature();
-				if (!Arrays.equals(foundCertificateSignature, certificateToAddSignature)) {
+			certToken.addSourceType(sourceType);
+		}
+		if (services != null) {
 
-					LOG.warn(" Found certificate: " + certToken.getIssuerX500Principal().toString() + "|" + certToken.getSerialNumber());
-					LOG.warn("More than one certificate for the same issuer subject name and serial number! The standard is not met by the certificate issuer!");
-				}
+			for (final ServiceInfo serviceInfo : services) {
+
+				certToken.addServiceInfo(serviceInfo);
 			}
-			for (final CertificateSourceType sourceType : sources) {
+		}
+		return certToken;
+	}
+
+	/**
+	 * Creates and registers the {@code CertificateToken} for the given identifier. If the certificate is known by the parent pool, its sources and services are copied. If
+	 * another thread registered the same certificate in the meantime, its instance is returned.
+	 *
+	 * @param key         the certificate's unique identifier
+	 * @param certificate the certificate to add
+	 * @return the registered instance of the {@code CertificateToken}
+	 */
+	private CertificateToken putIfAbsent(final String key, final X509Certificate certificate) {
+
+		final int id = CertificateIdentifier.getId(certificate);
+		final CertificateToken newCertToken = CertificateToken.newInstance(certificate, id);
+		final CertificateToken parentCertToken = parent == null ? null : parent.getCertificateToken(key);
+		if (parentCertToken != null) {
+
+			for (final CertificateSourceType sourceType : parentCertToken.getSources()) {
 
-				certToken.addSourceType(sourceType);
+				newCertToken.addSourceType(sourceType);
 			}
-			if (services != null) {
+			final List<ServiceInfo> parentServices = parentCertToken.getAssociatedTSPS();
+			if (parentServices != null) {
 
-				for (final ServiceInfo serviceInfo : services) {
+				for (final ServiceInfo serviceInfo : parentServices) {
 
-					certToken.addServiceInfo(serviceInfo);
+					newCertToken.addServiceInfo(serviceInfo);
 				}
 			}
+		}
+		final CertificateToken certToken = certByKey.putIfAbsent(key, newCertToken);
+		if (certToken != null) {
+
 			return certToken;
 		}
+		final String subjectName = certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL);
+		List<CertificateToken> list = certBySubject.get(subjectName);
+		if (list == null) {
+
+			list = new CopyOnWriteArrayList<CertificateToken>();
+			final List<CertificateToken> existingList = certBySubject.putIfAbsent(subjectName, list);
+			if (existingList != null) {
+
+				list = existingList;
+			}
+		}
+		list.add(newCertToken);
+		return newCertToken;
 	}
 
 	/**
-	 * This method returns an unmodifiable list containing all encapsulated certificate tokens {@link CertificateToken}.
+	 * This method returns the {@code CertificateToken} with the given key known by this pool or by its parent pools. The instance of the parent pool is returned as is.
+	 *
+	 * @param key the certificate's unique identifier (issuer distinguished name + "|" + serial number)
+	 * @return the {@code CertificateToken} or null
+	 */
+	CertificateToken getCertificateToken(final String key) {
+
+		final CertificateToken certToken = certByKey.get(key);
+		if (certToken == null && parent != null) {
+
+			return parent.getCertificateToken(key);
+		}
+		return certToken;
+	}
+
+	/**
+	 * This method returns an unmodifiable list containing all encapsulated certificate tokens {@link CertificateToken}. The certificates of the parent pool which are not yet
+	 * used are returned as is.
 	 *
 	 * @return
 	 */
 	public List<CertificateToken> getCertificateTokens() {
 
-		ArrayList<CertificateToken> certificateTokenArrayList = new ArrayList<CertificateToken>(certById.values());
+		final ArrayList<CertificateToken> certificateTokenArrayList = new ArrayList<CertificateToken>(certByKey.values());
+		if (parent != null) {
+
+			for (final CertificateToken parentCertToken : parent.getCertificateTokens()) {
+
+				if (!certByKey.containsKey(CertificateIdentifier.getKey(parentCertToken.getCertificate()))) {
+
+					certificateTokenArrayList.add(parentCertToken);
+				}
+			}
+		}
 		return Collections.unmodifiableList(certificateTokenArrayList);
 	}
 
@@ -183,7 +279,11 @@ public class CertificatePool {
 	 */
 	public int getNumberOfCertificates() {
 
-		return certById.size();
+		if (parent != null) {
+
+			return getCertificateTokens().size();
+		}
+		return certByKey.size();
 	}
 
 	/**
@@ -206,14 +306,14 @@ public class CertificatePool {
 	}
 
 	/**
-	 * This method returns the list of certificates with the same issuerDN.
+	 * This method returns the list of certificates with the same issuerDN. The matching certificates of the parent pool are copied into this pool.
 	 *
 	 * @param x500Principal subject distinguished name to match.
 	 * @return If no match is found then an empty list is returned.
 	 */
 	public List<CertificateToken> get(final X500Principal x500Principal) {
 
-		List<CertificateToken> certificateTokenList = null;
+		final List<CertificateToken> certificateTokenList = new ArrayList<CertificateToken>();
 		if (x500Principal != null) {
 
 			/**
@@ -222,11 +322,22 @@ public class CertificatePool {
 			 * The returned list can be maybe enriched by RFC2253 form?
 			 */
 			final String x500PrincipalCanonicalized = x500Principal.getName(X500Principal.CANONICAL);
-			certificateTokenList = certBySubject.get(x500PrincipalCanonicalized);
-		}
-		if (certificateTokenList == null) {
+			if (parent != null) {
+
+				for (final CertificateToken parentCertToken : parent.get(x500Principal)) {
 
-			certificateTokenList = new ArrayList<CertificateToken>();
+					final String key = CertificateIdentifier.getKey(parentCertToken.getCertificate());
+					if (!certByKey.containsKey(key)) {
+
+						putIfAbsent(key, parentCertToken.getCertificate());
+					}
+				}
+			}
+			final List<CertificateToken> list = certBySubject.get(x500PrincipalCanonicalized);
+			if (list != null) {
+
+				certificateTokenList.addAll(list);
+			}
 		}
 		return Collections.unmodifiableList(certificateTokenList);
 	}
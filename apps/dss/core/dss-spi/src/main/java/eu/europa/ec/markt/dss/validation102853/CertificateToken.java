@@ -108,7 +108,12 @@ public class CertificateToken extends Token {
 	/**
 	 * Base 64 encoded digest value of this certificate computed for a given digest algorithm.
 	 */
-	private Map<DigestAlgorithm, String> digests;
+	private Map<DigestAlgorithm, String> digests = new HashMap<DigestAlgorithm, String>();
+
+	/**
+	 * Base 64 encoded SHA-256 digest value of the encoded public key of this certificate.
+	 */
+	private String publicKeyDigest;
 
 	/**
 	 * OCSP or CRL revocation data for this token.
@@ -177,9 +182,12 @@ public class CertificateToken extends Token {
 
 		if (certSourceType != null) {
 
-			if (!sources.contains(certSourceType)) {
+			synchronized (sources) {
+
+				if (!sources.contains(certSourceType)) {
 
-				sources.add(certSourceType);
+					sources.add(certSourceType);
+				}
 			}
 		}
 	}
@@ -193,9 +201,12 @@ public class CertificateToken extends Token {
 
 		if (serviceInfo != null) {
 
-			if (!associatedTSPS.contains(serviceInfo)) {
+			synchronized (associatedTSPS) {
+
+				if (!associatedTSPS.contains(serviceInfo)) {
 
-				associatedTSPS.add(serviceInfo);
+					associatedTSPS.add(serviceInfo);
+				}
 			}
 		}
 	}
@@ -387,7 +398,8 @@ public class CertificateToken extends Token {
 		if (obj == null || this.getClass() != obj.getClass()) {
 			return false;
 		}
-		return dssId == ((CertificateToken) obj).dssId;
+		final CertificateToken other = (CertificateToken) obj;
+		return dssId == other.dssId && x509Certificate.equals(other.x509Certificate);
 	}
 
 	/**
@@ -462,9 +474,34 @@ public class CertificateToken extends Token {
 		return subjectX500PrincipalNormalized;
 	}
 
+	/**
+	 * The result of the verification of the signature is memorised by {@code SignatureVerificationCache}: the same subject certificate is checked only once with a given
+	 * public key.
+	 *
+	 * @param issuerToken the candidate issuer certificate token
+	 * @return true if the certificate is signed by the private key corresponding to the public key of the given issuer certificate
+	 */
 	@Override
 	public boolean isSignedBy(final CertificateToken issuerToken) {
 
+		final String cachedInvalidityReason = SignatureVerificationCache.get(this, issuerToken);
+		if (cachedInvalidityReason != null) {
+
+			signatureInvalidityReason = cachedInvalidityReason;
+			signatureValid = cachedInvalidityReason.isEmpty();
+		} else {
+
+			verifySignature(issuerToken);
+			SignatureVerificationCache.put(this, issuerToken, signatureInvalidityReason);
+		}
+		if (signatureValid && !isSelfSigned()) {
+			this.issuerToken = issuerToken;
+		}
+		return signatureValid;
+	}
+
+	private void verifySignature(final CertificateToken issuerToken) {
+
 		signatureValid = false;
 		signatureInvalidityReason = "";
 		try {
@@ -472,9 +509,6 @@ public class CertificateToken extends Token {
 			final PublicKey publicKey = issuerToken.getCertificate().getPublicKey();
 			x509Certificate.verify(publicKey);
 			signatureValid = true;
-			if (!isSelfSigned()) {
-				this.issuerToken = issuerToken;
-			}
 		} catch (InvalidKeyException e) {
 
 			signatureInvalidityReason = "InvalidKeyException - on incorrect key.";
@@ -493,7 +527,6 @@ public class CertificateToken extends Token {
 		} catch (NoSuchProviderException e) { // if there's no default provider.
 			throw new DSSException(e);
 		}
-		return signatureValid;
 	}
 
 	/**
@@ -600,11 +633,9 @@ public class CertificateToken extends Token {
 	 */
 	public String getDigestValue(final DigestAlgorithm digestAlgorithm) {
 
-		String encoded = null;
-		if (digests == null) {
+		synchronized (digests) {
 
-			digests = new HashMap<DigestAlgorithm, String>();
-			encoded = digests.get(digestAlgorithm);
+			String encoded = digests.get(digestAlgorithm);
 			if (encoded == null) {
 
 				try {
@@ -619,8 +650,23 @@ public class CertificateToken extends Token {
 					throw new DSSException("Error when computing the digest of the certificate.", e);
 				}
 			}
+			return encoded;
+		}
+	}
+
+	/**
+	 * Returns the encoded base 64 SHA-256 digest value of the encoded public key of the certificate.
+	 *
+	 * @return the digest of the public key
+	 */
+	public String getPublicKeyDigestValue() {
+
+		if (publicKeyDigest == null) {
+
+			final byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, x509Certificate.getPublicKey().getEncoded());
+			publicKeyDigest = DSSUtils.base64Encode(digest);
 		}
-		return encoded;
+		return publicKeyDigest;
 	}
 
 	/**
@@ -20,6 +20,8 @@
 
 package eu.europa.ec.markt.dss.validation102853;
 
+import java.util.concurrent.ExecutorService;
+
 import eu.europa.ec.markt.dss.validation102853.crl.CRLSource;
 import eu.europa.ec.markt.dss.validation102853.crl.ListCRLSource;
 import eu.europa.ec.markt.dss.validation102853.loader.DataLoader;
@@ -128,6 +130,21 @@ public interface CertificateVerifier {
 	 */
 	public void setSignatureOCSPSource(final ListOCSPSource signatureOCSPSource);
 
+	/**
+	 * Returns the {@code ExecutorService} used to retrieve in parallel the certificates (AIA) and the revocation data during the validation process.
+	 *
+	 * @return the executor or null if the shared default executor must be used
+	 */
+	public ExecutorService getExecutorService();
+
+	/**
+	 * Sets the {@code ExecutorService} used to retrieve in parallel the certificates (AIA) and the revocation data during the validation process. The same executor can be
+	 * shared between concurrent validations and is never shut down by the framework. If this property is not set a shared bounded pool is used.
+	 *
+	 * @param executorService the executor to use
+	 */
+	public void setExecutorService(final ExecutorService executorService);
+
 	/**
 	 * This method creates the validation pool of certificates which is used during the validation process.
 	 */
@@ -24,6 +24,7 @@ import java.util.Date;
 import org.w3c.dom.Document;
 
 import eu.europa.ec.markt.dss.validation102853.policy.ValidationPolicy;
+import eu.europa.ec.markt.dss.validation102853.report.DiagnosticData;
 import eu.europa.ec.markt.dss.validation102853.report.Reports;
 
 /**
@@ -50,6 +51,14 @@ public interface ProcessExecutor {
 	 */
 	void setDiagnosticDataDom(final Document diagnosticDataDom);
 
+	/**
+	 * This method allows to set the {@code eu.europa.ec.markt.dss.validation102853.report.DiagnosticData} that is used during the validation process execution. When
+	 * the diagnostic data is backed by its JAXB object model, the validation processes query the objects and no DOM is built.
+	 *
+	 * @param diagnosticData {@code DiagnosticData}
+	 */
+	void setDiagnosticData(final DiagnosticData diagnosticData);
+
 	/**
 	 * This method allows to set the validation policy that is used during the validation process execution.
 	 *
@@ -0,0 +1,93 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.validation102853;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+
+/**
+ * This class memorises, for the whole process, the results of the verification of the certificate signatures. The key is made of the digest of the encoded subject
+ * certificate and of the digest of the issuer's public key. The value is the reason of the invalidity of the signature or an empty string if the signature is valid.
+ * <p/>
+ * The cryptographic checks of the intermediate and root CA certificates are therefore executed only once even if the same chain is used by many documents. The cache is
+ * thread-safe and bounded to {@link #MAX_SIZE} entries.
+ */
+public final class SignatureVerificationCache {
+
+	/**
+	 * The maximum number of verification results kept in the cache.
+	 */
+	public static int MAX_SIZE = 20000;
+
+	private static final ConcurrentMap<String, String> verifications = new ConcurrentHashMap<String, String>();
+
+	private SignatureVerificationCache() {
+	}
+
+	/**
+	 * Returns the result of the previous verification of the signature of the subject certificate with the public key of the issuer certificate.
+	 *
+	 * @param subjectToken the certificate token which signature is checked
+	 * @param issuerToken  the candidate issuer certificate token
+	 * @return the empty string if the signature is valid, the reason of the invalidity if it is not, or null if the verification was not done yet
+	 */
+	public static String get(final CertificateToken subjectToken, final CertificateToken issuerToken) {
+
+		return verifications.get(getKey(subjectToken, issuerToken));
+	}
+
+	/**
+	 * Stores the result of the verification of the signature of the subject certificate with the public key of the issuer certificate.
+	 *
+	 * @param subjectToken              the certificate token which signature was checked
+	 * @param issuerToken               the candidate issuer certificate token
+	 * @param signatureInvalidityReason the empty string if the signature is valid, the reason of the invalidity otherwise
+	 */
+	public static void put(final CertificateToken subjectToken, final CertificateToken issuerToken, final String signatureInvalidityReason) {
+
+		if (verifications.size() >= MAX_SIZE) {
+
+			final Iterator<String> iterator = verifications.keySet().iterator();
+			if (iterator.hasNext()) {
+
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		verifications.put(getKey(subjectToken, issuerToken), signatureInvalidityReason);
+	}
+
+	/**
+	 * Removes all memorised verification results.
+	 */
+	public static void clear() {
+
+		verifications.clear();
+	}
+
+	private static String getKey(final CertificateToken subjectToken, final CertificateToken issuerToken) {
+
+		return subjectToken.getDigestValue(DigestAlgorithm.SHA256) + "|" + issuerToken.getPublicKeyDigestValue();
+	}
+}
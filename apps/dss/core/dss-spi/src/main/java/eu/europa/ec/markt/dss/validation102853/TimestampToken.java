@@ -207,31 +207,53 @@ public class TimestampToken extends Token {
 
 		try {
 
-			messageImprintData = data != null;
-			final ASN1ObjectIdentifier hashAlgorithm = timeStamp.getTimeStampInfo().getHashAlgorithm().getAlgorithm();
-			final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forOID(hashAlgorithm);
-
+			final DigestAlgorithm digestAlgorithm = getSignedDataDigestAlgo();
 			final byte[] computedDigest = DSSUtils.digest(digestAlgorithm, data);
-			final byte[] timestampDigest = timeStamp.getTimeStampInfo().getMessageImprintDigest();
-			messageImprintIntact = Arrays.equals(computedDigest, timestampDigest);
-			if (!messageImprintIntact) {
+			messageImprintData = data != null;
+			if (!matchDigest(computedDigest)) {
 
 				String encodedHexString = DSSUtils.encodeHexString(data);
 				int maxLength = encodedHexString.length() <= 200 ? encodedHexString.length() : 200;
 				// Produces very big output
 				LOG.error("Extracted data from the document: {} truncated", DSSUtils.encodeHexString(data).substring(0, maxLength));
-				LOG.error("Computed digest ({}) on the extracted data from the document : {}", new Object[]{digestAlgorithm, DSSUtils.encodeHexString(computedDigest)});
-				LOG.error("Digest present in TimestampToken: {}", DSSUtils.encodeHexString(timestampDigest));
-				LOG.error("Digest in TimestampToken matches digest of extracted data from document: {}", messageImprintIntact);
 			}
 		} catch (DSSException e) {
 
+			messageImprintData = data != null;
 			messageImprintIntact = false;
 			signedDataMessage = "Timestamp digest problem: " + e.getMessage();
 		}
 		return messageImprintIntact;
 	}
 
+	/**
+	 * Checks if the TimeStampToken matches the digest of the signed data. This allows the caller to compute the message imprint without building the
+	 * timestamped data in memory (by streaming it into a {@code MessageDigest}) or to share a digest between several timestamps using the same digest
+	 * algorithm over the same data. The digest must be computed with the algorithm returned by {@link #getSignedDataDigestAlgo()}.
+	 *
+	 * @param computedDigest the digest of the timestamped data or {@code null} if it could not be computed
+	 * @return true if the digest is the one present in the TimeStampToken
+	 */
+	public boolean matchDigest(final byte[] computedDigest) {
+
+		messageImprintData = computedDigest != null;
+		if (computedDigest == null) {
+
+			messageImprintIntact = false;
+			signedDataMessage = "Timestamp digest problem: the digest of the timestamped data could not be computed";
+			return messageImprintIntact;
+		}
+		final byte[] timestampDigest = timeStamp.getTimeStampInfo().getMessageImprintDigest();
+		messageImprintIntact = Arrays.equals(computedDigest, timestampDigest);
+		if (!messageImprintIntact) {
+
+			LOG.error("Computed digest ({}) on the extracted data from the document : {}", new Object[]{getSignedDataDigestAlgo(), DSSUtils.encodeHexString(computedDigest)});
+			LOG.error("Digest present in TimestampToken: {}", DSSUtils.encodeHexString(timestampDigest));
+			LOG.error("Digest in TimestampToken matches digest of extracted data from document: {}", messageImprintIntact);
+		}
+		return messageImprintIntact;
+	}
+
 	/**
 	 * Retrieves the type of the timestamp token.
 	 *
@@ -0,0 +1,346 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.crl;
+
+import java.security.cert.CRLException;
+import java.security.cert.X509CRL;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+
+/**
+ * This class keeps in memory the CRLs which were downloaded, parsed and verified. A CRL is identified by its distribution point URL and by the certificate of its issuer.
+ * It is loaded only once per {@code nextUpdate} period, whatever the number of the certificates checked against it and the number of the concurrent validations. The
+ * serial numbers of the revoked certificates are indexed when the CRL is loaded.
+ * <p/>
+ * The CRLs which are about to expire are reloaded in the background while the current version is still used. The memory use is bounded by the total size of the
+ * encoded CRLs: the least recently used ones are removed first.
+ * <p/>
+ * DISCLAIMER: Project owner DG-MARKT.
+ *
+ * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
+ * @version $Revision$ - $Date$
+ */
+public class CRLCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CRLCache.class);
+
+	/**
+	 * The default maximum size of all the encoded CRLs kept in the cache: 128 MB
+	 */
+	public static final long DEFAULT_MAX_SIZE = 128L * 1024 * 1024;
+
+	/**
+	 * The default delay before the {@code nextUpdate} of a CRL from which the CRL is reloaded in the background: 5 minutes
+	 */
+	public static final long DEFAULT_REFRESH_DELAY = 5L * 60 * 1000;
+
+	private static CRLCache defaultInstance;
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-crl-refresh";
+
+	/**
+	 * This interface is implemented by the CRL sources to download (or retrieve by any other means), parse and verify a CRL.
+	 */
+	public interface Loader {
+
+		/**
+		 * @param crlUrl      the URL of the CRL
+		 * @param issuerToken the {@code CertificateToken} of the CRL issuer
+		 * @return the {@code CRLValidity} of the CRL or {@code null} if the CRL cannot be retrieved
+		 */
+		CRLValidity load(final String crlUrl, final CertificateToken issuerToken);
+	}
+
+	private static class Entry {
+
+		final CRLValidity crlValidity;
+
+		final Date nextUpdate;
+
+		final long size;
+
+		final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Entry(final CRLValidity crlValidity, final Date nextUpdate, final long size) {
+
+			this.crlValidity = crlValidity;
+			this.nextUpdate = nextUpdate;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * The cached CRLs in the access order: the least recently used first. All accesses are synchronized on the map.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	/**
+	 * The CRLs being loaded: the concurrent requests for the same CRL wait for the same load.
+	 */
+	private final ConcurrentMap<String, FutureTask<Entry>> loads = new ConcurrentHashMap<String, FutureTask<Entry>>();
+
+	private long size;
+
+	private long maxSize = DEFAULT_MAX_SIZE;
+
+	private long refreshDelay = DEFAULT_REFRESH_DELAY;
+
+	private ExecutorService executorService;
+
+	/**
+	 * This method returns the {@code CRLCache} shared by all the CRL sources for which no specific cache is set.
+	 *
+	 * @return the shared {@code CRLCache}
+	 */
+	public static synchronized CRLCache getDefault() {
+
+		if (defaultInstance == null) {
+
+			defaultInstance = new CRLCache();
+		}
+		return defaultInstance;
+	}
+
+	/**
+	 * @param maxSize the maximum size in bytes of all the encoded CRLs kept in the cache
+	 */
+	public void setMaxSize(final long maxSize) {
+
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param refreshDelay the delay in milliseconds before the {@code nextUpdate} of a CRL from which the CRL is reloaded in the background, 0 disables the background
+	 *                     reload
+	 */
+	public void setRefreshDelay(final long refreshDelay) {
+
+		this.refreshDelay = refreshDelay;
+	}
+
+	/**
+	 * @param executorService the {@code ExecutorService} used to reload the CRLs in the background, if null a single shared daemon thread is used
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method returns the {@code CRLValidity} of the CRL published at the given URL by the given issuer. The CRL is loaded with the given {@code Loader} if it is not in
+	 * the cache or if it is expired.
+	 *
+	 * @param crlUrl      the URL of the CRL
+	 * @param issuerToken the {@code CertificateToken} of the CRL issuer
+	 * @param loader      the {@code Loader} to be used to retrieve the CRL
+	 * @return the {@code CRLValidity} bound to the given issuer token or {@code null} if the CRL cannot be retrieved
+	 */
+	public CRLValidity get(final String crlUrl, final CertificateToken issuerToken, final Loader loader) {
+
+		final String key = getKey(crlUrl, issuerToken);
+		final Date now = new Date();
+		Entry entry;
+		synchronized (entries) {
+
+			entry = entries.get(key);
+		}
+		if (entry == null || !now.before(entry.nextUpdate)) {
+
+			entry = load(key, crlUrl, issuerToken, loader);
+			if (entry == null) {
+
+				return null;
+			}
+		} else if (refreshDelay > 0 && entry.nextUpdate.getTime() - now.getTime() < refreshDelay) {
+
+			refresh(key, entry, crlUrl, issuerToken, loader);
+		}
+		return entry.crlValidity.copy(issuerToken);
+	}
+
+	/**
+	 * This method removes all the CRLs from the cache.
+	 */
+	public void clear() {
+
+		synchronized (entries) {
+
+			entries.clear();
+			size = 0;
+		}
+	}
+
+	private static String getKey(final String crlUrl, final CertificateToken issuerToken) {
+
+		return crlUrl + "|" + issuerToken.getDigestValue(DigestAlgorithm.SHA256);
+	}
+
+	private Entry load(final String key, final String crlUrl, final CertificateToken issuerToken, final Loader loader) {
+
+		FutureTask<Entry> task = new FutureTask<Entry>(new Callable<Entry>() {
+
+			@Override
+			public Entry call() throws Exception {
+
+				return loadEntry(key, crlUrl, issuerToken, loader);
+			}
+		});
+		final FutureTask<Entry> pendingTask = loads.putIfAbsent(key, task);
+		if (pendingTask == null) {
+
+			try {
+				task.run();
+			} finally {
+				loads.remove(key, task);
+			}
+		} else {
+
+			task = pendingTask;
+		}
+		try {
+
+			return task.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	private void refresh(final String key, final Entry entry, final String crlUrl, final CertificateToken issuerToken, final Loader loader) {
+
+		if (!entry.refreshing.compareAndSet(false, true)) {
+
+			return;
+		}
+		final ExecutorService executorService = this.executorService == null ? DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, 1) : this.executorService;
+		try {
+
+			executorService.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					try {
+						load(key, crlUrl, issuerToken, loader);
+					} catch (RuntimeException e) {
+						LOG.warn("The CRL '" + crlUrl + "' cannot be refreshed: " + e.getMessage());
+					} finally {
+						entry.refreshing.set(false);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+
+			entry.refreshing.set(false);
+			LOG.warn("The CRL '" + crlUrl + "' cannot be refreshed: " + e.getMessage());
+		}
+	}
+
+	private Entry loadEntry(final String key, final String crlUrl, final CertificateToken issuerToken, final Loader loader) {
+
+		final CRLValidity crlValidity = loader.load(crlUrl, issuerToken);
+		if (crlValidity == null || crlValidity.x509CRL == null) {
+
+			return null;
+		}
+		crlValidity.indexRevokedCertificates();
+		final X509CRL x509CRL = crlValidity.x509CRL;
+		final Date nextUpdate = x509CRL.getNextUpdate();
+		final Entry entry = new Entry(crlValidity, nextUpdate, getSize(x509CRL));
+		if (nextUpdate == null || !new Date().before(nextUpdate)) {
+
+			LOG.debug("The CRL '{}' is not cached: no valid nextUpdate.", crlUrl);
+			return entry;
+		}
+		put(key, entry);
+		return entry;
+	}
+
+	private void put(final String key, final Entry entry) {
+
+		if (entry.size > maxSize) {
+
+			LOG.info("The CRL is too big to be cached: {} bytes.", entry.size);
+			return;
+		}
+		synchronized (entries) {
+
+			final Entry previousEntry = entries.put(key, entry);
+			if (previousEntry != null) {
+
+				size -= previousEntry.size;
+			}
+			size += entry.size;
+			final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+			while (size > maxSize && iterator.hasNext()) {
+
+				final Map.Entry<String, Entry> eldest = iterator.next();
+				if (eldest.getValue() == entry) {
+
+					continue;
+				}
+				size -= eldest.getValue().size;
+				iterator.remove();
+			}
+		}
+	}
+
+	private static long getSize(final X509CRL x509CRL) {
+
+		try {
+
+			return x509CRL.getEncoded().length;
+		} catch (CRLException e) {
+
+			LOG.warn("CRL encoding error: " + e.getMessage());
+			return 0;
+		}
+	}
+}
@@ -123,8 +123,7 @@ public class CRLToken extends RevocationToken {
 		}
 
 		final BigInteger serialNumber = certificateToken.getSerialNumber();
-		final X509CRL x509crl = crlValidity.x509CRL;
-		final X509CRLEntry crlEntry = x509crl.getRevokedCertificate(serialNumber);
+		final X509CRLEntry crlEntry = crlValidity.getRevokedCertificate(serialNumber);
 		status = null == crlEntry;
 		if (!status) {
 
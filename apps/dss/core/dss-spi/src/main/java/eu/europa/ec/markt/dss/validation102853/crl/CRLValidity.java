@@ -19,7 +19,11 @@
  */
 package eu.europa.ec.markt.dss.validation102853.crl;
 
+import java.math.BigInteger;
 import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.Arrays;
+import java.util.Set;
 
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 
@@ -44,6 +48,69 @@ public class CRLValidity {
 
 	String signatureInvalidityReason = "";
 
+	/**
+	 * The sorted serial numbers of the revoked certificates or {@code null} if the CRL is not indexed (see {@code #indexRevokedCertificates}).
+	 */
+	BigInteger[] revokedSerialNumbers = null;
+
+	/**
+	 * This method builds the sorted index of the serial numbers of the revoked certificates. The index is worth building when the same CRL is used for many certificates:
+	 * the search of an entry in the {@code X509CRL} is linear while the index is searched in O(log n).
+	 */
+	void indexRevokedCertificates() {
+
+		final Set<? extends X509CRLEntry> revokedCertificates = x509CRL.getRevokedCertificates();
+		if (revokedCertificates == null) {
+
+			revokedSerialNumbers = new BigInteger[0];
+			return;
+		}
+		final BigInteger[] serialNumbers = new BigInteger[revokedCertificates.size()];
+		int index = 0;
+		for (final X509CRLEntry revokedCertificate : revokedCertificates) {
+
+			serialNumbers[index++] = revokedCertificate.getSerialNumber();
+		}
+		Arrays.sort(serialNumbers);
+		revokedSerialNumbers = serialNumbers;
+	}
+
+	/**
+	 * This method returns the CRL entry of the certificate with the given serial number. When the CRL is indexed the {@code X509CRL} is only searched if the serial number
+	 * is present in the index.
+	 *
+	 * @param serialNumber the serial number of the certificate
+	 * @return the {@code X509CRLEntry} or {@code null} if the certificate is not revoked
+	 */
+	X509CRLEntry getRevokedCertificate(final BigInteger serialNumber) {
+
+		if (revokedSerialNumbers != null && Arrays.binarySearch(revokedSerialNumbers, serialNumber) < 0) {
+
+			return null;
+		}
+		return x509CRL.getRevokedCertificate(serialNumber);
+	}
+
+	/**
+	 * This method returns a copy of this {@code CRLValidity} sharing the {@code X509CRL} and its index, with the given issuer token. It is used to provide a cached CRL to
+	 * a validation which does not share the same certificate pool.
+	 *
+	 * @param issuerToken the {@code CertificateToken} of the CRL issuer known by the caller
+	 * @return the copy of this {@code CRLValidity}
+	 */
+	CRLValidity copy(final CertificateToken issuerToken) {
+
+		final CRLValidity crlValidity = new CRLValidity();
+		crlValidity.x509CRL = x509CRL;
+		crlValidity.issuerX509PrincipalMatches = issuerX509PrincipalMatches;
+		crlValidity.signatureIntact = signatureIntact;
+		crlValidity.hasCRLSignKeyUsage = hasCRLSignKeyUsage;
+		crlValidity.issuerToken = this.issuerToken == null ? null : issuerToken;
+		crlValidity.signatureInvalidityReason = signatureInvalidityReason;
+		crlValidity.revokedSerialNumbers = revokedSerialNumbers;
+		return crlValidity;
+	}
+
 	/**
 	 * This method indicates if the CRL is valid. To be valid the CRL must full fill the following requirements:<p/>
 	 * - its signature must be valid,
@@ -21,15 +21,19 @@
 package eu.europa.ec.markt.dss.validation102853.crl;
 
 import java.security.cert.X509CRL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.security.auth.x500.X500Principal;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSNullException;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
 
@@ -56,6 +60,16 @@ public abstract class OfflineCRLSource extends CommonCRLSource {
 	 */
 	protected Map<X509CRL, CRLValidity> crlValidityMap = new HashMap<X509CRL, CRLValidity>();
 
+	/**
+	 * The contained {@code X509CRL}s indexed by their normalized issuer name. The index is built on first use and rebuilt when CRLs are added to the list.
+	 */
+	private Map<X500Principal, List<X509CRL>> crlIndex;
+
+	/**
+	 * The number of {@code X509CRL}s of the list when the index was built
+	 */
+	private int indexedCRLCount;
+
 	@Override
 	final public CRLToken findCrl(final CertificateToken certificateToken) {
 
@@ -93,7 +107,13 @@ public abstract class OfflineCRLSource extends CommonCRLSource {
 		CRLValidity bestCRLValidity = null;
 		Date bestX509UpdateDate = null;
 
-		for (final X509CRL x509CRL : x509CRLList) {
+		// Only the CRLs issued by the issuer name can be valid: the others are not checked
+		final X500Principal issuerX500Principal = DSSUtils.getX500Principal(issuerToken.getSubjectX500Principal());
+		final List<X509CRL> issuerX509CRLs = getCrlIndex().get(issuerX500Principal);
+		if (issuerX509CRLs == null) {
+			return null;
+		}
+		for (final X509CRL x509CRL : issuerX509CRLs) {
 
 			final CRLValidity crlValidity = getCrlValidity(issuerToken, x509CRL);
 			if (crlValidity == null) {
@@ -112,6 +132,34 @@ public abstract class OfflineCRLSource extends CommonCRLSource {
 		return bestCRLValidity;
 	}
 
+	/**
+	 * This method returns the index of the contained {@code X509CRL}s by issuer name. The CRLs are only added to the list, so the index is rebuilt when the size of the
+	 * list changes.
+	 *
+	 * @return the {@code X509CRL}s by normalized issuer name
+	 */
+	private synchronized Map<X500Principal, List<X509CRL>> getCrlIndex() {
+
+		if (crlIndex == null || indexedCRLCount != x509CRLList.size()) {
+
+			final Map<X500Principal, List<X509CRL>> index = new HashMap<X500Principal, List<X509CRL>>();
+			for (final X509CRL x509CRL : x509CRLList) {
+
+				final X500Principal x509CRLIssuerX500Principal = DSSUtils.getX500Principal(x509CRL.getIssuerX500Principal());
+				List<X509CRL> issuerX509CRLs = index.get(x509CRLIssuerX500Principal);
+				if (issuerX509CRLs == null) {
+
+					issuerX509CRLs = new ArrayList<X509CRL>();
+					index.put(x509CRLIssuerX500Principal, issuerX509CRLs);
+				}
+				issuerX509CRLs.add(x509CRL);
+			}
+			crlIndex = index;
+			indexedCRLCount = x509CRLList.size();
+		}
+		return crlIndex;
+	}
+
 	/**
 	 * This method returns {@code CRLValidity} object based on the given {@code X509CRL}. The check of the validity of the CRL is performed.
 	 *
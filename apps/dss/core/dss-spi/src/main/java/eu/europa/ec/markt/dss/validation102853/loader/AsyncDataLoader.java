@@ -0,0 +1,491 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.validation102853.loader;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.net.ssl.SSLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.exception.DSSCannotFetchDataException;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSHttpStatusException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * This {@code DataLoader} executes the requests of the underlying {@code DataLoader} in the background and returns them as {@code Future}s: see
+ * {@link #getAsync(String)} and {@link #postAsync(String, byte[])}. It allows the callers (revocation sources, AIA retrieval, TSP sources...) to keep many requests in
+ * flight instead of waiting for each of them in turn.
+ * <p/>
+ * The number of concurrent requests sent to the same host is limited by {@link #setMaxRequestsPerHost(int)}: the exceeding requests are queued without holding any
+ * thread. A request which failed because of a transient error (I/O error or HTTP 5xx, see {@link #isTransient(Throwable)}) is retried {@link #setMaxRetries(int)} times
+ * with an exponential backoff starting at {@link #setRetryDelay(long)} milliseconds; the other failures are reported at once. The requests are executed by the pool of
+ * threads shared under the name {@link #EXECUTOR_SERVICE_NAME}, see {@code DSSUtils#getSharedExecutorService(String, int)}. The
+ * synchronous {@link #get(String)} and {@link #post(String, byte[])} methods go through the same limits and wait at most {@link #setTimeout(long)} milliseconds, so the
+ * loader can be given to any component expecting a {@code DataLoader}.
+ * <p/>
+ * DISCLAIMER: Project owner DG-MARKT.
+ *
+ * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
+ * @version $Revision$ - $Date$
+ */
+public class AsyncDataLoader implements DataLoader {
+
+	private static final long serialVersionUID = -2571842295023456710L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncDataLoader.class);
+
+	/**
+	 * The default number of threads used to execute the requests
+	 */
+	public static final int DEFAULT_THREAD_POOL_SIZE = 32;
+
+	/**
+	 * The default maximum number of concurrent requests sent to the same host
+	 */
+	public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
+
+	/**
+	 * The default number of retries of a failed request
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 2;
+
+	/**
+	 * The default delay in milliseconds before the first retry, it is doubled for each following retry
+	 */
+	public static final long DEFAULT_RETRY_DELAY = 500L;
+
+	/**
+	 * The default maximum time in milliseconds the synchronous methods wait for a response: one minute
+	 */
+	public static final long DEFAULT_TIMEOUT = 60 * 1000L;
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-loader";
+
+	/**
+	 * The thread which hands the requests to retry back to the executor once their backoff delay is elapsed. It does not execute any request.
+	 */
+	private static ScheduledExecutorService retryScheduler;
+
+	private final DataLoader dataLoader;
+
+	private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+
+	private int maxRetries = DEFAULT_MAX_RETRIES;
+
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+
+	private long timeout = DEFAULT_TIMEOUT;
+
+	private transient ExecutorService executorService;
+
+	private final transient ConcurrentMap<String, HostQueue> hostQueues = new ConcurrentHashMap<String, HostQueue>();
+
+	/**
+	 * The requests of one host: the number of requests being executed and the requests waiting for a free slot.
+	 */
+	private static class HostQueue {
+
+		int running;
+
+		final Queue<Request> waiting = new LinkedList<Request>();
+	}
+
+	/**
+	 * The {@code Future} of one request. It is completed by the request itself, possibly after several attempts.
+	 */
+	private static class Request extends FutureTask<byte[]> {
+
+		final String url;
+
+		final String host;
+
+		final Callable<byte[]> call;
+
+		int attempt;
+
+		Request(final String url, final String host, final Callable<byte[]> call) {
+
+			super(call);
+			this.url = url;
+			this.host = host;
+			this.call = call;
+		}
+
+		void complete(final byte[] bytes) {
+
+			set(bytes);
+		}
+
+		void fail(final Throwable throwable) {
+
+			setException(throwable);
+		}
+	}
+
+	/**
+	 * @param dataLoader the {@code DataLoader} which executes the requests
+	 */
+	public AsyncDataLoader(final DataLoader dataLoader) {
+
+		if (dataLoader == null) {
+
+			throw new DSSNullException(DataLoader.class);
+		}
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * @return the {@code DataLoader} which executes the requests
+	 */
+	public DataLoader getDataLoader() {
+
+		return dataLoader;
+	}
+
+	/**
+	 * This setter allows to define the maximum number of concurrent requests sent to the same host. The default value is {@link #DEFAULT_MAX_REQUESTS_PER_HOST}.
+	 *
+	 * @param maxRequestsPerHost the maximum number of concurrent requests, at least 1
+	 */
+	public void setMaxRequestsPerHost(final int maxRequestsPerHost) {
+
+		if (maxRequestsPerHost < 1) {
+			throw new DSSException("The maximum number of requests per host must be at least 1: " + maxRequestsPerHost);
+		}
+		this.maxRequestsPerHost = maxRequestsPerHost;
+	}
+
+	/**
+	 * This setter allows to define how many times a failed request is retried. The default value is {@link #DEFAULT_MAX_RETRIES}.
+	 *
+	 * @param maxRetries the number of retries, 0 to disable them
+	 */
+	public void setMaxRetries(final int maxRetries) {
+
+		this.maxRetries = maxRetries;
+	}
+
+	/**
+	 * This setter allows to define the delay in milliseconds before the first retry of a failed request, the delay is doubled for each following retry. The default value
+	 * is {@link #DEFAULT_RETRY_DELAY}.
+	 *
+	 * @param retryDelay the delay in milliseconds
+	 */
+	public void setRetryDelay(final long retryDelay) {
+
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * This setter allows to define the maximum time in milliseconds {@link #get(String)} and {@link #post(String, byte[])} wait for the response. The default value is
+	 * {@link #DEFAULT_TIMEOUT}. The connection and socket timeouts are those of the underlying {@code DataLoader}.
+	 *
+	 * @param timeout the timeout in milliseconds
+	 */
+	public void setTimeout(final long timeout) {
+
+		this.timeout = timeout;
+	}
+
+	/**
+	 * This setter allows to define the {@code ExecutorService} used to execute the requests. By default the pool of {@link #DEFAULT_THREAD_POOL_SIZE} daemon threads
+	 * shared under the name {@link #EXECUTOR_SERVICE_NAME} is used.
+	 *
+	 * @param executorService the {@code ExecutorService} to use or null
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	private ExecutorService getExecutorService() {
+
+		return executorService == null ? DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, DEFAULT_THREAD_POOL_SIZE) : executorService;
+	}
+
+	private static synchronized ScheduledExecutorService getRetryScheduler() {
+
+		if (retryScheduler == null) {
+			retryScheduler = Executors.newSingleThreadScheduledExecutor(DSSUtils.newDaemonThreadFactory(EXECUTOR_SERVICE_NAME + "-retry"));
+		}
+		return retryScheduler;
+	}
+
+	/**
+	 * This method sends a GET request in the background.
+	 *
+	 * @param url the URL to fetch
+	 * @return the pending response, the {@code Future} raises an {@code ExecutionException} wrapping the exception of the last attempt when the request fails
+	 */
+	public Future<byte[]> getAsync(final String url) {
+
+		return submit(url, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+
+				return dataLoader.get(url);
+			}
+		});
+	}
+
+	/**
+	 * This method sends a POST request in the background.
+	 *
+	 * @param url     the URL to post to
+	 * @param content the content of the request
+	 * @return the pending response, the {@code Future} raises an {@code ExecutionException} wrapping the exception of the last attempt when the request fails
+	 */
+	public Future<byte[]> postAsync(final String url, final byte[] content) {
+
+		return submit(url, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+
+				return dataLoader.post(url, content);
+			}
+		});
+	}
+
+	@Override
+	public byte[] get(final String url) throws DSSCannotFetchDataException {
+
+		return getResult(url, getAsync(url));
+	}
+
+	@Override
+	public byte[] post(final String url, final byte[] content) throws DSSCannotFetchDataException {
+
+		return getResult(url, postAsync(url, content));
+	}
+
+	@Override
+	public void setContentType(final String contentType) {
+
+		dataLoader.setContentType(contentType);
+	}
+
+	private Future<byte[]> submit(final String url, final Callable<byte[]> call) {
+
+		final Request request = new Request(url, getHost(url), call);
+		final HostQueue hostQueue = getHostQueue(request.host);
+		synchronized (hostQueue) {
+
+			if (hostQueue.running >= maxRequestsPerHost) {
+
+				hostQueue.waiting.add(request);
+				return request;
+			}
+			hostQueue.running++;
+		}
+		schedule(request, 0);
+		return request;
+	}
+
+	private HostQueue getHostQueue(final String host) {
+
+		HostQueue hostQueue = hostQueues.get(host);
+		if (hostQueue == null) {
+
+			hostQueue = new HostQueue();
+			final HostQueue existingHostQueue = hostQueues.putIfAbsent(host, hostQueue);
+			if (existingHostQueue != null) {
+				hostQueue = existingHostQueue;
+			}
+		}
+		return hostQueue;
+	}
+
+	private static String getHost(final String url) {
+
+		try {
+
+			final String host = URI.create(url.trim()).getHost();
+			return host == null ? "" : host.toLowerCase();
+		} catch (IllegalArgumentException e) {
+			return "";
+		}
+	}
+
+	private void schedule(final Request request, final long delay) {
+
+		if (delay > 0) {
+
+			getRetryScheduler().schedule(new Runnable() {
+
+				@Override
+				public void run() {
+
+					schedule(request, 0);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+			return;
+		}
+		try {
+
+			getExecutorService().execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					execute(request);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+
+			request.fail(e);
+			release(request.host);
+		}
+	}
+
+	/**
+	 * One attempt of the request. When it fails with a transient error and retries are left, the next attempt is scheduled after the backoff delay and the slot of the
+	 * host is kept; otherwise the slot is given to the next waiting request of the same host.
+	 */
+	private void execute(final Request request) {
+
+		if (request.isCancelled()) {
+
+			release(request.host);
+			return;
+		}
+		try {
+
+			request.complete(request.call.call());
+		} catch (Exception e) {
+
+			if (request.attempt < maxRetries && isTransient(e)) {
+
+				final long delay = retryDelay << request.attempt;
+				request.attempt++;
+				LOG.warn("Request to " + request.url + " failed (" + e.getMessage() + "), retry #" + request.attempt + " in " + delay + " ms");
+				schedule(request, delay);
+				return;
+			}
+			request.fail(e);
+		}
+		release(request.host);
+	}
+
+	/**
+	 * This method indicates if a failure is transient, in which case the request is retried: an I/O error (connection refused or reset, timeout...) or an HTTP server
+	 * error (5xx). The unknown hosts, the malformed URLs, the TLS errors, the client errors and the invalid responses are permanent.
+	 *
+	 * @param throwable the failure of the request
+	 * @return true if the request can be retried
+	 */
+	public static boolean isTransient(final Throwable throwable) {
+
+		Throwable current = throwable;
+		while (current != null) {
+
+			if (current instanceof DSSHttpStatusException) {
+				return ((DSSHttpStatusException) current).isServerError();
+			}
+			if (current instanceof IOException) {
+				return !(current instanceof UnknownHostException || current instanceof MalformedURLException || current instanceof SSLException);
+			}
+			final Throwable cause = current.getCause();
+			current = cause == current ? null : cause;
+		}
+		return false;
+	}
+
+	private void release(final String host) {
+
+		final HostQueue hostQueue = getHostQueue(host);
+		final Request next;
+		synchronized (hostQueue) {
+
+			next = hostQueue.waiting.poll();
+			if (next == null) {
+
+				hostQueue.running--;
+				return;
+			}
+		}
+		schedule(next, 0);
+	}
+
+	private byte[] getResult(final String url, final Future<byte[]> future) {
+
+		try {
+
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for: " + url, e);
+		} catch (TimeoutException e) {
+
+			future.cancel(false);
+			throw new DSSException("No response within " + timeout + " ms from: " + url, e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	/**
+	 * After deserialization the transient fields are recreated with a new instance.
+	 *
+	 * @return the new instance
+	 */
+	private Object readResolve() {
+
+		final AsyncDataLoader asyncDataLoader = new AsyncDataLoader(dataLoader);
+		asyncDataLoader.maxRequestsPerHost = maxRequestsPerHost;
+		asyncDataLoader.maxRetries = maxRetries;
+		asyncDataLoader.retryDelay = retryDelay;
+		asyncDataLoader.timeout = timeout;
+		return asyncDataLoader;
+	}
+}
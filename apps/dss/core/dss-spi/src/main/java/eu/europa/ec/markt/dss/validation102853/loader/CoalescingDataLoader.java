@@ -0,0 +1,204 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.loader;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSCannotFetchDataException;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * This {@code DataLoader} coalesces the concurrent identical requests: when a request for the same URL (and the same content in case of POST) is already in flight, the
+ * caller waits for its result instead of sending a new request. It is placed in front of the data loaders used to retrieve the OCSP responses, the CRLs and the AIA
+ * certificates, which are requested at the same time by all the validations of the documents signed by the same CA.
+ * <p/>
+ * Nothing is kept once the request is completed: the caching of the data is left to the revocation sources. The counters of the requests can be used to monitor the
+ * loader.
+ *
+ * @version $Revision$ - $Date$
+ */
+public class CoalescingDataLoader implements DataLoader {
+
+	private static final long serialVersionUID = 4187361294529012740L;
+
+	private final DataLoader dataLoader;
+
+	private final transient ConcurrentMap<String, FutureTask<byte[]>> inFlight = new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+	private final transient AtomicLong requestCount = new AtomicLong();
+
+	private final transient AtomicLong coalescedCount = new AtomicLong();
+
+	private final transient AtomicLong fetchCount = new AtomicLong();
+
+	private final transient AtomicLong failureCount = new AtomicLong();
+
+	/**
+	 * @param dataLoader the {@code DataLoader} which executes the requests
+	 */
+	public CoalescingDataLoader(final DataLoader dataLoader) {
+
+		if (dataLoader == null) {
+
+			throw new DSSNullException(DataLoader.class);
+		}
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * @return the {@code DataLoader} which executes the requests
+	 */
+	public DataLoader getDataLoader() {
+
+		return dataLoader;
+	}
+
+	@Override
+	public byte[] get(final String url) throws DSSCannotFetchDataException {
+
+		return load(url, "GET " + url, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+
+				return dataLoader.get(url);
+			}
+		});
+	}
+
+	@Override
+	public byte[] post(final String url, final byte[] content) throws DSSCannotFetchDataException {
+
+		final String contentDigest = content == null ? "" : DSSUtils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, content));
+		return load(url, "POST " + url + " " + contentDigest, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+
+				return dataLoader.post(url, content);
+			}
+		});
+	}
+
+	@Override
+	public void setContentType(final String contentType) {
+
+		dataLoader.setContentType(contentType);
+	}
+
+	private byte[] load(final String url, final String key, final Callable<byte[]> request) {
+
+		requestCount.incrementAndGet();
+		final FutureTask<byte[]> task = new FutureTask<byte[]>(request);
+		final FutureTask<byte[]> pendingTask = inFlight.putIfAbsent(key, task);
+		if (pendingTask == null) {
+
+			fetchCount.incrementAndGet();
+			try {
+				task.run();
+			} finally {
+				inFlight.remove(key, task);
+			}
+			return getResult(url, task);
+		}
+		coalescedCount.incrementAndGet();
+		final byte[] bytes = getResult(url, pendingTask);
+		// Each waiting caller gets its own copy of the shared response
+		return bytes == null ? null : bytes.clone();
+	}
+
+	private byte[] getResult(final String url, final FutureTask<byte[]> task) {
+
+		try {
+
+			return task.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for: " + url, e);
+		} catch (ExecutionException e) {
+
+			failureCount.incrementAndGet();
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	/**
+	 * @return the number of the requests received by this loader
+	 */
+	public long getRequestCount() {
+
+		return requestCount.get();
+	}
+
+	/**
+	 * @return the number of the requests which were served by a request already in flight (the hits of this loader)
+	 */
+	public long getCoalescedCount() {
+
+		return coalescedCount.get();
+	}
+
+	/**
+	 * @return the number of the requests which were executed by the underlying {@code DataLoader}
+	 */
+	public long getFetchCount() {
+
+		return fetchCount.get();
+	}
+
+	/**
+	 * @return the number of the requests which ended with an exception, the coalesced requests are counted separately
+	 */
+	public long getFailureCount() {
+
+		return failureCount.get();
+	}
+
+	/**
+	 * After deserialization the transient fields are recreated with a new instance.
+	 *
+	 * @return the new instance
+	 */
+	private Object readResolve() {
+
+		return new CoalescingDataLoader(dataLoader);
+	}
+
+	@Override
+	public String toString() {
+
+		return "CoalescingDataLoader{requests=" + getRequestCount() + ", coalesced=" + getCoalescedCount() + ", fetches=" + getFetchCount() + ", failures=" +
+			  getFailureCount() + "}";
+	}
+}
@@ -0,0 +1,387 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.ocsp;
+
+import java.io.IOException;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.dss.DSSRevocationUtils;
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * This {@code OCSPSource} caches the responses of another {@code OCSPSource} (typically {@code OnlineOCSPSource}). The responses are identified by the {@code
+ * CertificateID} of the request and are kept until the {@code nextUpdate} of the response, or during {@link #setMaxAge maxAge} after its {@code thisUpdate} when the
+ * responder does not provide {@code nextUpdate}.
+ * <p/>
+ * The responses used often (hot entries) are fetched again in the background shortly before they expire. The responses are kept in memory (the least recently used ones
+ * are removed first) and can also be kept in a persistent {@code OCSPResponseStore}.
+ *
+ * @version $Revision$ - $Date$
+ */
+public class CachingOCSPSource implements OCSPSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CachingOCSPSource.class);
+
+	/**
+	 * The default maximum number of the responses kept in memory
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/**
+	 * The default time during which a response without {@code nextUpdate} is used: 10 minutes
+	 */
+	public static final long DEFAULT_MAX_AGE = 10L * 60 * 1000;
+
+	/**
+	 * The default delay before the expiration of a hot response from which the response is fetched again in the background: 2 minutes
+	 */
+	public static final long DEFAULT_REFRESH_DELAY = 2L * 60 * 1000;
+
+	/**
+	 * The default number of uses from which a response is considered as hot
+	 */
+	public static final int DEFAULT_HOT_THRESHOLD = 3;
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-ocsp-refresh";
+
+	private static class Entry {
+
+		final BasicOCSPResp basicOCSPResp;
+
+		final long expirationTime;
+
+		final AtomicInteger hits = new AtomicInteger();
+
+		final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Entry(final BasicOCSPResp basicOCSPResp, final long expirationTime) {
+
+			this.basicOCSPResp = basicOCSPResp;
+			this.expirationTime = expirationTime;
+		}
+	}
+
+	private final OCSPSource ocspSource;
+
+	private OCSPResponseStore store;
+
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private long maxAge = DEFAULT_MAX_AGE;
+
+	private long refreshDelay = DEFAULT_REFRESH_DELAY;
+
+	private int hotThreshold = DEFAULT_HOT_THRESHOLD;
+
+	private ExecutorService executorService;
+
+	/**
+	 * The cached responses in the access order: the least recently used first. All accesses are synchronized on the map.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+
+			return size() > maxEntries;
+		}
+	};
+
+	/**
+	 * The responses being fetched: the concurrent requests for the same certificate wait for the same response.
+	 */
+	private final ConcurrentMap<String, FutureTask<Entry>> loads = new ConcurrentHashMap<String, FutureTask<Entry>>();
+
+	/**
+	 * @param ocspSource the {@code OCSPSource} providing the responses to cache
+	 */
+	public CachingOCSPSource(final OCSPSource ocspSource) {
+
+		if (ocspSource == null) {
+
+			throw new DSSNullException(OCSPSource.class);
+		}
+		this.ocspSource = ocspSource;
+	}
+
+	/**
+	 * @param store the persistent {@code OCSPResponseStore} used in addition to the memory, null if the responses are only kept in memory
+	 */
+	public void setStore(final OCSPResponseStore store) {
+
+		this.store = store;
+	}
+
+	/**
+	 * @param maxEntries the maximum number of the responses kept in memory
+	 */
+	public void setMaxEntries(final int maxEntries) {
+
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @param maxAge the time in milliseconds, counted from its {@code thisUpdate}, during which a response without {@code nextUpdate} is used
+	 */
+	public void setMaxAge(final long maxAge) {
+
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * @param refreshDelay the delay in milliseconds before the expiration of a hot response from which the response is fetched again in the background, 0 disables the
+	 *                     background fetch
+	 */
+	public void setRefreshDelay(final long refreshDelay) {
+
+		this.refreshDelay = refreshDelay;
+	}
+
+	/**
+	 * @param hotThreshold the number of uses from which a response is fetched again in the background before it expires
+	 */
+	public void setHotThreshold(final int hotThreshold) {
+
+		this.hotThreshold = hotThreshold;
+	}
+
+	/**
+	 * @param executorService the {@code ExecutorService} used to fetch the hot responses in the background, if null a single shared daemon thread is used
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	@Override
+	public BasicOCSPResp getOCSPResponse(final X509Certificate x509Certificate, final X509Certificate issuerX509Certificate) {
+
+		final CertificateID certificateID = DSSRevocationUtils.getOCSPCertificateID(x509Certificate, issuerX509Certificate);
+		final String key = getKey(certificateID);
+		final long now = System.currentTimeMillis();
+		Entry entry;
+		synchronized (entries) {
+
+			entry = entries.get(key);
+		}
+		if (entry != null && now < entry.expirationTime) {
+
+			final int hits = entry.hits.incrementAndGet();
+			if (refreshDelay > 0 && hits >= hotThreshold && entry.expirationTime - now < refreshDelay) {
+
+				refresh(key, entry, certificateID, x509Certificate, issuerX509Certificate);
+			}
+			return entry.basicOCSPResp;
+		}
+		entry = load(key, certificateID, x509Certificate, issuerX509Certificate, true);
+		return entry == null ? null : entry.basicOCSPResp;
+	}
+
+	/**
+	 * This method removes all the responses kept in memory. The persistent store is not cleared.
+	 */
+	public void clear() {
+
+		synchronized (entries) {
+
+			entries.clear();
+		}
+	}
+
+	private static String getKey(final CertificateID certificateID) {
+
+		return certificateID.getHashAlgOID() + "|" + DSSUtils.toHex(certificateID.getIssuerNameHash()) + "|" + DSSUtils.toHex(certificateID.getIssuerKeyHash()) + "|" +
+			  certificateID.getSerialNumber().toString(16);
+	}
+
+	private Entry load(final String key, final CertificateID certificateID, final X509Certificate x509Certificate, final X509Certificate issuerX509Certificate,
+	                   final boolean useStore) {
+
+		FutureTask<Entry> task = new FutureTask<Entry>(new Callable<Entry>() {
+
+			@Override
+			public Entry call() throws Exception {
+
+				return loadEntry(key, certificateID, x509Certificate, issuerX509Certificate, useStore);
+			}
+		});
+		final FutureTask<Entry> pendingTask = loads.putIfAbsent(key, task);
+		if (pendingTask == null) {
+
+			try {
+				task.run();
+			} finally {
+				loads.remove(key, task);
+			}
+		} else {
+
+			task = pendingTask;
+		}
+		try {
+
+			return task.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	private void refresh(final String key, final Entry entry, final CertificateID certificateID, final X509Certificate x509Certificate,
+	                     final X509Certificate issuerX509Certificate) {
+
+		if (!entry.refreshing.compareAndSet(false, true)) {
+
+			return;
+		}
+		final ExecutorService executorService = this.executorService == null ? DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, 1) : this.executorService;
+		try {
+
+			executorService.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					try {
+						load(key, certificateID, x509Certificate, issuerX509Certificate, false);
+					} catch (RuntimeException e) {
+						LOG.warn("The OCSP response cannot be refreshed: " + e.getMessage());
+					} finally {
+						entry.refreshing.set(false);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+
+			entry.refreshing.set(false);
+			LOG.warn("The OCSP response cannot be refreshed: " + e.getMessage());
+		}
+	}
+
+	private Entry loadEntry(final String key, final CertificateID certificateID, final X509Certificate x509Certificate, final X509Certificate issuerX509Certificate,
+	                        final boolean useStore) {
+
+		if (useStore && store != null) {
+
+			final byte[] encoded = store.get(key);
+			if (encoded != null) {
+
+				final BasicOCSPResp basicOCSPResp = new BasicOCSPResp(BasicOCSPResponse.getInstance(encoded));
+				final Entry entry = new Entry(basicOCSPResp, getExpirationTime(basicOCSPResp, certificateID));
+				if (System.currentTimeMillis() < entry.expirationTime) {
+
+					LOG.debug("OCSP response found in the store.");
+					put(key, entry);
+					return entry;
+				}
+				store.remove(key);
+			}
+		}
+		final BasicOCSPResp basicOCSPResp = ocspSource.getOCSPResponse(x509Certificate, issuerX509Certificate);
+		if (basicOCSPResp == null) {
+
+			return null;
+		}
+		final Entry entry = new Entry(basicOCSPResp, getExpirationTime(basicOCSPResp, certificateID));
+		if (System.currentTimeMillis() < entry.expirationTime) {
+
+			put(key, entry);
+			if (store != null) {
+
+				store.put(key, getEncoded(basicOCSPResp));
+			}
+		}
+		return entry;
+	}
+
+	private void put(final String key, final Entry entry) {
+
+		synchronized (entries) {
+
+			entries.put(key, entry);
+		}
+	}
+
+	/**
+	 * @param basicOCSPResp the response
+	 * @param certificateID the identifier of the request
+	 * @return the time until which the response is used, 0 if the response does not concern the request
+	 */
+	private long getExpirationTime(final BasicOCSPResp basicOCSPResp, final CertificateID certificateID) {
+
+		for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
+
+			if (!DSSRevocationUtils.matches(certificateID, singleResp)) {
+
+				continue;
+			}
+			final Date nextUpdate = singleResp.getNextUpdate();
+			if (nextUpdate != null) {
+
+				return nextUpdate.getTime();
+			}
+			final Date thisUpdate = singleResp.getThisUpdate();
+			return (thisUpdate == null ? System.currentTimeMillis() : thisUpdate.getTime()) + maxAge;
+		}
+		return 0;
+	}
+
+	private static byte[] getEncoded(final BasicOCSPResp basicOCSPResp) {
+
+		try {
+
+			return basicOCSPResp.getEncoded();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+}
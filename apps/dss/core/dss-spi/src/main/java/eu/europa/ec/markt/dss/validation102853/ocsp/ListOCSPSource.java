@@ -55,5 +55,6 @@ public class ListOCSPSource extends OfflineOCSPSource {
 				basicOCSPRespList.add(basicOCSPResp);
 			}
 		}
+		resetIndex();
 	}
 }
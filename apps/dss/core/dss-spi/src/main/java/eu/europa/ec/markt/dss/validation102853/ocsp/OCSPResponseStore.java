@@ -0,0 +1,47 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.ocsp;
+
+/**
+ * This interface allows to keep the OCSP responses cached by the {@code CachingOCSPSource} in a persistent store (database, file system...) shared by several processes or
+ * kept between restarts. The responses are stored DER-encoded. The store does not need to handle the expiration: the freshness of the responses is checked by the
+ * {@code CachingOCSPSource}.
+ *
+ * @version $Revision$ - $Date$
+ */
+public interface OCSPResponseStore {
+
+	/**
+	 * @param key the identifier of the request, computed from the {@code CertificateID}
+	 * @return the DER-encoded {@code BasicOCSPResp} or {@code null} if there is no response in the store
+	 */
+	byte[] get(final String key);
+
+	/**
+	 * @param key     the identifier of the request, computed from the {@code CertificateID}
+	 * @param encoded the DER-encoded {@code BasicOCSPResp}
+	 */
+	void put(final String key, final byte[] encoded);
+
+	/**
+	 * @param key the identifier of the request whose response is expired
+	 */
+	void remove(final String key);
+}
@@ -21,8 +21,11 @@
 package eu.europa.ec.markt.dss.validation102853.ocsp;
 
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.CertificateID;
@@ -31,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.ec.markt.dss.DSSRevocationUtils;
+import eu.europa.ec.markt.dss.DSSUtils;
 
 /**
  * Abstract class that helps to implement an OCSPSource with an already loaded list of BasicOCSPResp
@@ -42,6 +46,28 @@ public abstract class OfflineOCSPSource implements OCSPSource {
 
 	private static final Logger LOG = LoggerFactory.getLogger(OfflineOCSPSource.class);
 
+	/**
+	 * The {@code SingleResp}s of the contained OCSP responses indexed by hash algorithm, issuer key hash and serial number, see {@link #getKey(CertificateID)}. The index
+	 * is built on first use.
+	 */
+	private Map<String, List<IndexEntry>> ocspIndex;
+
+	/**
+	 * One {@code SingleResp} with the response containing it.
+	 */
+	private static class IndexEntry {
+
+		final BasicOCSPResp basicOCSPResp;
+
+		final SingleResp singleResp;
+
+		IndexEntry(final BasicOCSPResp basicOCSPResp, final SingleResp singleResp) {
+
+			this.basicOCSPResp = basicOCSPResp;
+			this.singleResp = singleResp;
+		}
+	}
+
 	@Override
 	final public BasicOCSPResp getOCSPResponse(final X509Certificate x509Certificate, final X509Certificate issuerX509Certificate) {
 
@@ -60,22 +86,61 @@ public abstract class OfflineOCSPSource implements OCSPSource {
 		Date bestUpdate = null;
 		BasicOCSPResp bestBasicOCSPResp = null;
 		final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(x509Certificate, issuerX509Certificate);
-		for (final BasicOCSPResp basicOCSPResp : getContainedOCSPResponses()) {
+		final List<IndexEntry> indexEntries = getOcspIndex().get(getKey(certId));
+		if (indexEntries == null) {
+			return null;
+		}
+		for (final IndexEntry indexEntry : indexEntries) {
+
+			// The issuer name hash is not part of the key
+			if (DSSRevocationUtils.matches(certId, indexEntry.singleResp)) {
+
+				final Date thisUpdate = indexEntry.singleResp.getThisUpdate();
+				if (bestUpdate == null || thisUpdate.after(bestUpdate)) {
+
+					bestBasicOCSPResp = indexEntry.basicOCSPResp;
+					bestUpdate = thisUpdate;
+				}
+			}
+		}
+		return bestBasicOCSPResp;
+	}
+
+	private synchronized Map<String, List<IndexEntry>> getOcspIndex() {
 
-			for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
+		if (ocspIndex == null) {
 
-				if (DSSRevocationUtils.matches(certId, singleResp)) {
+			final Map<String, List<IndexEntry>> index = new HashMap<String, List<IndexEntry>>();
+			for (final BasicOCSPResp basicOCSPResp : getContainedOCSPResponses()) {
 
-					final Date thisUpdate = singleResp.getThisUpdate();
-					if (bestUpdate == null || thisUpdate.after(bestUpdate)) {
+				for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
 
-						bestBasicOCSPResp = basicOCSPResp;
-						bestUpdate = thisUpdate;
+					final String key = getKey(singleResp.getCertID());
+					List<IndexEntry> indexEntries = index.get(key);
+					if (indexEntries == null) {
+
+						indexEntries = new ArrayList<IndexEntry>();
+						index.put(key, indexEntries);
 					}
+					indexEntries.add(new IndexEntry(basicOCSPResp, singleResp));
 				}
 			}
+			ocspIndex = index;
 		}
-		return bestBasicOCSPResp;
+		return ocspIndex;
+	}
+
+	/**
+	 * This method must be called by the sub-classes when the list of contained OCSP responses changes: the index is rebuilt on the next use.
+	 */
+	protected synchronized void resetIndex() {
+
+		ocspIndex = null;
+	}
+
+	private static String getKey(final CertificateID certificateID) {
+
+		return certificateID.getHashAlgOID().getId() + ":" + DSSUtils.encodeHexString(certificateID.getIssuerKeyHash()) + ":" + certificateID.getSerialNumber();
 	}
 
 	/**
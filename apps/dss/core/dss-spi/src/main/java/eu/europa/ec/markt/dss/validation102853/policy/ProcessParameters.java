@@ -135,7 +135,7 @@ public class ProcessParameters implements ExceptionMessage {
 	 *
 	 * @return
 	 */
-	public XmlDom getDiagnosticData() {
+	public DiagnosticData getDiagnosticData() {
 		return diagnosticData;
 	}
 
@@ -424,6 +424,13 @@ public class ProcessParameters implements ExceptionMessage {
 
 	public XmlDom getCertificate(final String id) {
 
+		if (diagnosticData != null) {
+
+			final XmlDom certificate = diagnosticData.getUsedCertificate(id);
+			if (certificate != null) {
+				return certificate;
+			}
+		}
 		return certPool == null ? certPool : certPool.getElement("./Certificate[@Id='%s']", id);
 	}
 
@@ -21,22 +21,32 @@
 package eu.europa.ec.markt.dss.validation102853.report;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.Element;
 
+import eu.europa.ec.markt.dss.DSSXMLUtils;
 import eu.europa.ec.markt.dss.DigestAlgorithm;
 import eu.europa.ec.markt.dss.EncryptionAlgorithm;
 import eu.europa.ec.markt.dss.TSLConstant;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.validation102853.TimestampType;
+import eu.europa.ec.markt.dss.validation102853.xml.TypedXmlDom;
 import eu.europa.ec.markt.dss.validation102853.xml.XmlDom;
 
 /**
  * This class represents all static data extracted by the process analysing the signature. They are independent from the validation policy to be applied.
  * <p/>
+ * The signatures, the timestamps and the used certificates are indexed by their identifier (and the timestamps by their type). Then the queries related to a given
+ * signature, timestamp or certificate are evaluated on the corresponding element instead of the whole document.
+ * <p/>
+ * The diagnostic data can be backed by a DOM or directly by its JAXB object model (see {@code TypedXmlDom}). In the latter case, the DOM is only built on request.
+ * <p/>
  * <p> DISCLAIMER: Project owner DG-MARKT.
  *
  * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
@@ -46,8 +56,268 @@ public class DiagnosticData extends XmlDom {
 
 	private List<String> signatureIdList;
 
+	private List<XmlDom> signatures;
+
+	private Map<String, XmlDom> signatureById;
+
+	private Map<String, Map<String, List<XmlDom>>> timestampsBySignatureIdAndType;
+
+	private Map<String, XmlDom> timestampById;
+
+	private Map<String, XmlDom> usedCertificateById;
+
+	/**
+	 * This element is used when the sought signature, timestamp or certificate does not exist: any query returns an empty result.
+	 */
+	private XmlDom emptyElement;
+
+	/**
+	 * The JAXB object model of the diagnostic data, null when the diagnostic data is backed by a DOM.
+	 */
+	private final TypedXmlDom typedDiagnosticData;
+
 	public DiagnosticData(final Document document) {
+
 		super(document);
+		typedDiagnosticData = null;
+	}
+
+	/**
+	 * This constructor creates the diagnostic data backed by its JAXB object model: the queries are evaluated directly on the objects and the DOM is only built when
+	 * it is requested ({@code getRootElement}, {@code toString}...).
+	 *
+	 * @param jaxbDiagnosticData the JAXB {@code DiagnosticData} object
+	 */
+	public DiagnosticData(final Object jaxbDiagnosticData) {
+
+		super();
+		typedDiagnosticData = new TypedXmlDom(jaxbDiagnosticData);
+	}
+
+	@Override
+	public List<XmlDom> getElements(final String xPath, final Object... params) {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getElements(xPath, params);
+		}
+		return super.getElements(xPath, params);
+	}
+
+	@Override
+	public XmlDom getElement(final String xPath, final Object... params) {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getElement(xPath, params);
+		}
+		return super.getElement(xPath, params);
+	}
+
+	@Override
+	public String getValue(final String xPath, final Object... params) {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getValue(xPath, params);
+		}
+		return super.getValue(xPath, params);
+	}
+
+	@Override
+	public long getCountValue(final String xPath, final Object... params) {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getCountValue(xPath, params);
+		}
+		return super.getCountValue(xPath, params);
+	}
+
+	@Override
+	public String getText() {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getText();
+		}
+		return super.getText();
+	}
+
+	@Override
+	public String getName() {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getName();
+		}
+		return super.getName();
+	}
+
+	@Override
+	public String getAttribute(final String attributeName) {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getAttribute(attributeName);
+		}
+		return super.getAttribute(attributeName);
+	}
+
+	@Override
+	public Element getRootElement() {
+
+		if (typedDiagnosticData != null) {
+			return typedDiagnosticData.getRootElement();
+		}
+		return super.getRootElement();
+	}
+
+	/**
+	 * This method builds the index of the signatures, timestamps and used certificates.
+	 */
+	private void index() {
+
+		if (signatures != null) {
+			return;
+		}
+		signatures = new ArrayList<XmlDom>();
+		signatureById = new HashMap<String, XmlDom>();
+		timestampsBySignatureIdAndType = new HashMap<String, Map<String, List<XmlDom>>>();
+		timestampById = new HashMap<String, XmlDom>();
+		usedCertificateById = new HashMap<String, XmlDom>();
+		for (final XmlDom signature : getElements("/DiagnosticData/Signature")) {
+
+			indexSignature(signature);
+		}
+		for (final XmlDom certificate : getElements("/DiagnosticData/UsedCertificates/Certificate")) {
+
+			putIfAbsent(usedCertificateById, certificate.getAttribute("Id"), certificate);
+		}
+		final Document document = typedDiagnosticData != null ? DSSXMLUtils.buildDOM() : getRootElement().getOwnerDocument();
+		emptyElement = new XmlDom(document.createElementNS(NAMESPACE, "Empty"));
+	}
+
+	private void indexSignature(final XmlDom signature) {
+
+		signatures.add(signature);
+		final String signatureId = signature.getAttribute("Id");
+		putIfAbsent(signatureById, signatureId, signature);
+		Map<String, List<XmlDom>> timestampsByType = timestampsBySignatureIdAndType.get(signatureId);
+		if (timestampsByType == null) {
+
+			timestampsByType = new HashMap<String, List<XmlDom>>();
+			timestampsBySignatureIdAndType.put(signatureId, timestampsByType);
+		}
+		for (final XmlDom timestamp : signature.getElements("./Timestamps/Timestamp")) {
+
+			putIfAbsent(timestampById, timestamp.getAttribute("Id"), timestamp);
+			final String type = timestamp.getAttribute("Type");
+			List<XmlDom> timestampList = timestampsByType.get(type);
+			if (timestampList == null) {
+
+				timestampList = new ArrayList<XmlDom>();
+				timestampsByType.put(type, timestampList);
+			}
+			timestampList.add(timestamp);
+		}
+	}
+
+	private static void putIfAbsent(final Map<String, XmlDom> map, final String id, final XmlDom xmlDom) {
+
+		if (!map.containsKey(id)) {
+			map.put(id, xmlDom);
+		}
+	}
+
+	/**
+	 * This method returns the list of all signatures (/DiagnosticData/Signature).
+	 *
+	 * @return the list of {@code XmlDom} representing the signatures, never null
+	 */
+	public List<XmlDom> getSignatures() {
+
+		index();
+		return Collections.unmodifiableList(signatures);
+	}
+
+	/**
+	 * This method returns the signature with the given identifier.
+	 *
+	 * @param signatureId the identifier of the signature
+	 * @return the {@code XmlDom} representing the signature or null
+	 */
+	public XmlDom getSignature(final String signatureId) {
+
+		index();
+		return signatureById.get(signatureId);
+	}
+
+	/**
+	 * This method returns the list of the timestamps of the given type related to the given signature.
+	 *
+	 * @param signatureId   the identifier of the signature
+	 * @param timestampType the type of the timestamps
+	 * @return the list of {@code XmlDom} representing the timestamps, never null
+	 */
+	public List<XmlDom> getTimestamps(final String signatureId, final TimestampType timestampType) {
+
+		index();
+		final Map<String, List<XmlDom>> timestampsByType = timestampsBySignatureIdAndType.get(signatureId);
+		if (timestampsByType != null) {
+
+			final List<XmlDom> timestamps = timestampsByType.get(timestampType.name());
+			if (timestamps != null) {
+				return Collections.unmodifiableList(timestamps);
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * This method returns the timestamp with the given identifier.
+	 *
+	 * @param timestampId the identifier of the timestamp
+	 * @return the {@code XmlDom} representing the timestamp or null
+	 */
+	public XmlDom getTimestamp(final String timestampId) {
+
+		index();
+		return timestampById.get(timestampId);
+	}
+
+	/**
+	 * This method returns the used certificate with the given DSS identifier.
+	 *
+	 * @param dssCertificateId the DSS identifier of the certificate
+	 * @return the {@code XmlDom} representing the certificate or null
+	 */
+	public XmlDom getUsedCertificate(final String dssCertificateId) {
+
+		index();
+		return usedCertificateById.get(dssCertificateId);
+	}
+
+	/**
+	 * This method returns the used certificate with the given DSS identifier.
+	 *
+	 * @param dssCertificateId the DSS identifier of the certificate
+	 * @return the {@code XmlDom} representing the certificate or null
+	 */
+	public XmlDom getUsedCertificate(final int dssCertificateId) {
+
+		return getUsedCertificate(String.valueOf(dssCertificateId));
+	}
+
+	private XmlDom getSignatureOrEmpty(final String signatureId) {
+
+		final XmlDom signature = getSignature(signatureId);
+		return signature == null ? emptyElement : signature;
+	}
+
+	private XmlDom getTimestampOrEmpty(final String timestampId) {
+
+		final XmlDom timestamp = getTimestamp(timestampId);
+		return timestamp == null ? emptyElement : timestamp;
+	}
+
+	private XmlDom getUsedCertificateOrEmpty(final int dssCertificateId) {
+
+		final XmlDom certificate = getUsedCertificate(dssCertificateId);
+		return certificate == null ? emptyElement : certificate;
 	}
 
 	/**
@@ -61,8 +331,7 @@ public class DiagnosticData extends XmlDom {
 
 			signatureIdList = new ArrayList<String>();
 
-			final List<XmlDom> signatures = getElements("/DiagnosticData/Signature");
-			for (final XmlDom signature : signatures) {
+			for (final XmlDom signature : getSignatures()) {
 
 				final String signatureId = signature.getAttribute("Id");
 				signatureIdList.add(signatureId);
@@ -89,7 +358,7 @@ public class DiagnosticData extends XmlDom {
 
 		Date signatureDate = null;
 		try {
-			signatureDate = getTimeValue("/DiagnosticData/Signature[@Id='%s']/DateTime/text()", signatureId);
+			signatureDate = getSignatureOrEmpty(signatureId).getTimeValue("./DateTime/text()");
 		} catch (DSSException e) {
 
 			// returns null if not found
@@ -105,7 +374,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getSignatureFormat(final String signatureId) {
 
-		String signatureFormat = getValue("/DiagnosticData/Signature[@Id='%s']/SignatureFormat/text()", signatureId);
+		String signatureFormat = getSignatureOrEmpty(signatureId).getValue("./SignatureFormat/text()");
 		return signatureFormat;
 	}
 
@@ -129,7 +398,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public DigestAlgorithm getSignatureDigestAlgorithm(final String signatureId) {
 
-		final String signatureDigestAlgorithmName = getValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/DigestAlgoUsedToSignThisToken/text()", signatureId);
+		final String signatureDigestAlgorithmName = getSignatureOrEmpty(signatureId).getValue("./BasicSignature/DigestAlgoUsedToSignThisToken/text()");
 		final DigestAlgorithm signatureDigestAlgorithm = DigestAlgorithm.forName(signatureDigestAlgorithmName);
 		return signatureDigestAlgorithm;
 	}
@@ -154,7 +423,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public EncryptionAlgorithm getSignatureEncryptionAlgorithm(final String signatureId) {
 
-		final String signatureEncryptionAlgorithmName = getValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/EncryptionAlgoUsedToSignThisToken/text()", signatureId);
+		final String signatureEncryptionAlgorithmName = getSignatureOrEmpty(signatureId).getValue("./BasicSignature/EncryptionAlgoUsedToSignThisToken/text()");
 		final EncryptionAlgorithm signatureEncryptionAlgorithm = EncryptionAlgorithm.forName(signatureEncryptionAlgorithmName);
 		return signatureEncryptionAlgorithm;
 	}
@@ -178,7 +447,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public int getSigningCertificateId(final String signatureId) {
 
-		final int signingCertificateId = getIntValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/@Id", signatureId);
+		final int signingCertificateId = getSignatureOrEmpty(signatureId).getIntValue("./SigningCertificate/@Id");
 		return signingCertificateId;
 	}
 
@@ -190,8 +459,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isSigningCertificateIdentified(final String signatureId) {
 
-		final boolean digestValueMatch = getBoolValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/DigestValueMatch/text()", signatureId);
-		final boolean issuerSerialMatch = getBoolValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/IssuerSerialMatch/text()", signatureId);
+		final boolean digestValueMatch = getSignatureOrEmpty(signatureId).getBoolValue("./SigningCertificate/DigestValueMatch/text()");
+		final boolean issuerSerialMatch = getSignatureOrEmpty(signatureId).getBoolValue("./SigningCertificate/IssuerSerialMatch/text()");
 		return digestValueMatch && issuerSerialMatch;
 	}
 
@@ -204,7 +473,7 @@ public class DiagnosticData extends XmlDom {
 	public List<Integer> getSignatureCertificateChain(final String signatureId) {
 
 		final ArrayList<Integer> certificateChain = new ArrayList<Integer>();
-		final List<XmlDom> certificateId = getElements("/DiagnosticData/Signature[@Id='%s']/CertificateChain/ChainCertificate/@Id", signatureId);
+		final List<XmlDom> certificateId = getSignatureOrEmpty(signatureId).getElements("./CertificateChain/ChainCertificate/@Id");
 		for (XmlDom xmlDom : certificateId) {
 			final String text = xmlDom.getText();
 			certificateChain.add(Integer.valueOf(text));
@@ -226,7 +495,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getPolicyId(final String signatureId) {
 
-		final String policyId = getValue("/DiagnosticData/Signature[@Id='%s']/Policy/Id/text()", signatureId);
+		final String policyId = getSignatureOrEmpty(signatureId).getValue("./Policy/Id/text()");
 		return policyId;
 	}
 
@@ -240,7 +509,7 @@ public class DiagnosticData extends XmlDom {
 
 		final List<String> timestampIdList = new ArrayList<String>();
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp", signatureId);
+		final List<XmlDom> timestamps = getSignatureOrEmpty(signatureId).getElements("./Timestamps/Timestamp");
 		for (final XmlDom timestamp : timestamps) {
 
 			final String timestampId = timestamp.getAttribute("Id");
@@ -260,7 +529,7 @@ public class DiagnosticData extends XmlDom {
 
 		final List<String> timestampIdList = new ArrayList<String>();
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, timestampType.name());
+		final List<XmlDom> timestamps = getTimestamps(signatureId, timestampType);
 		for (final XmlDom timestamp : timestamps) {
 
 			final String timestampId = timestamp.getAttribute("Id");
@@ -277,7 +546,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isBLevelTechnicallyValid(final String signatureId) {
 
-		final boolean signatureValueValid = getBoolValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/SignatureValid/text()", signatureId);
+		final boolean signatureValueValid = getSignatureOrEmpty(signatureId).getBoolValue("./BasicSignature/SignatureValid/text()");
 		return signatureValueValid;
 	}
 
@@ -289,7 +558,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereTLevel(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.SIGNATURE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getTimestamps(signatureId, TimestampType.SIGNATURE_TIMESTAMP);
 		return timestamps.size() > 0;
 	}
 
@@ -301,7 +570,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTLevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.SIGNATURE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getTimestamps(signatureId, TimestampType.SIGNATURE_TIMESTAMP);
 		for (final XmlDom timestamp : timestamps) {
 
 			final boolean signatureValid = timestamp.getBoolValue("./BasicSignature/SignatureValid/text()");
@@ -321,10 +590,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereXLevel(final String signatureId) {
 
-		final List<XmlDom> vdroTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-			  TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
-		final List<XmlDom> vdTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-			  TimestampType.VALIDATION_DATA_TIMESTAMP.name());
+		final List<XmlDom> vdroTimestamps = getTimestamps(signatureId, TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP);
+		final List<XmlDom> vdTimestamps = getTimestamps(signatureId, TimestampType.VALIDATION_DATA_TIMESTAMP);
 		return vdroTimestamps.size() > 0 || vdTimestamps.size() > 0;
 	}
 
@@ -336,10 +603,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isXLevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> vdroTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-			  TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
-		final List<XmlDom> vdTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-			  TimestampType.VALIDATION_DATA_TIMESTAMP.name());
+		final List<XmlDom> vdroTimestamps = getTimestamps(signatureId, TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP);
+		final List<XmlDom> vdTimestamps = getTimestamps(signatureId, TimestampType.VALIDATION_DATA_TIMESTAMP);
 		final List<XmlDom> timestamps = new ArrayList<XmlDom>(vdroTimestamps);
 		timestamps.addAll(vdroTimestamps);
 		for (final XmlDom timestamp : timestamps) {
@@ -361,7 +626,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereALevel(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.ARCHIVE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getTimestamps(signatureId, TimestampType.ARCHIVE_TIMESTAMP);
 		return timestamps.size() > 0;
 	}
 
@@ -373,7 +638,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isALevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.ARCHIVE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getTimestamps(signatureId, TimestampType.ARCHIVE_TIMESTAMP);
 		for (final XmlDom timestamp : timestamps) {
 
 			final boolean signatureValid = timestamp.getBoolValue("./BasicSignature/SignatureValid/text()");
@@ -393,7 +658,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public int getTimestampSigningCertificateId(final String timestampId) {
 
-		final int signingCertificateId = getIntValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/SigningCertificate/@Id", timestampId);
+		final int signingCertificateId = getTimestampOrEmpty(timestampId).getIntValue("./SigningCertificate/@Id");
 		return signingCertificateId;
 	}
 
@@ -405,7 +670,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public Date getTimestampProductionTime(final String timestampId) {
 
-		final Date productionTime = getTimeValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/ProductionTime/text()", timestampId);
+		final Date productionTime = getTimestampOrEmpty(timestampId).getTimeValue("./ProductionTime/text()");
 		return productionTime;
 	}
 
@@ -417,7 +682,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getTimestampDigestAlgorithm(final String timestampId) {
 
-		final String digestAlgorithm = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/SignedDataDigestAlgo/text()", timestampId);
+		final String digestAlgorithm = getTimestampOrEmpty(timestampId).getValue("./SignedDataDigestAlgo/text()");
 		return digestAlgorithm;
 	}
 
@@ -429,7 +694,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTimestampMessageImprintIntact(final String timestampId) {
 
-		final boolean messageImprintIntact = getBoolValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/MessageImprintDataIntact/text()", timestampId);
+		final boolean messageImprintIntact = getTimestampOrEmpty(timestampId).getBoolValue("./MessageImprintDataIntact/text()");
 		return messageImprintIntact;
 	}
 
@@ -441,7 +706,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTimestampSignatureValid(final String timestampId) {
 
-		final boolean signatureValid = getBoolValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/BasicSignature/SignatureValid/text()", timestampId);
+		final boolean signatureValid = getTimestampOrEmpty(timestampId).getBoolValue("./BasicSignature/SignatureValid/text()");
 		return signatureValid;
 	}
 
@@ -453,13 +718,13 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getTimestampType(final String timestampId) {
 
-		final String timestampType = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/@Type", timestampId);
+		final String timestampType = getTimestampOrEmpty(timestampId).getValue("./@Type");
 		return timestampType;
 	}
 
 	public String getTimestampCanonicalizationMethod(final String timestampId) {
 
-		final String canonicalizationMethod = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/CanonicalizationMethod/text()", timestampId);
+		final String canonicalizationMethod = getTimestampOrEmpty(timestampId).getValue("./CanonicalizationMethod/text()");
 		return canonicalizationMethod;
 	}
 
@@ -471,7 +736,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isValidCertificate(final int dssCertificateId) {
 
-		final XmlDom certificate = getElement("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']", dssCertificateId);
+		final XmlDom certificate = getUsedCertificate(dssCertificateId);
 		final boolean signatureValid = certificate.getBoolValue("./BasicSignature/SignatureValid/text()");
 		final boolean revocationValid = certificate.getBoolValue("./Revocation/Status/text()");
 		final boolean trusted = certificate.getBoolValue("./Trusted/text()");
@@ -488,8 +753,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateDN(final int dssCertificateId) {
 
-		final String subjectDistinguishedName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/SubjectDistinguishedName[@Format='RFC2253']/text()",
-			  dssCertificateId);
+		final String subjectDistinguishedName = getUsedCertificateOrEmpty(dssCertificateId).getValue("./SubjectDistinguishedName[@Format='RFC2253']/text()");
 		return subjectDistinguishedName;
 	}
 
@@ -501,8 +765,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateIssuerDN(final int dssCertificateId) {
 
-		final String issuerDistinguishedName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/IssuerDistinguishedName[@Format='RFC2253']/text()",
-			  dssCertificateId);
+		final String issuerDistinguishedName = getUsedCertificateOrEmpty(dssCertificateId).getValue("./IssuerDistinguishedName[@Format='RFC2253']/text()");
 		return issuerDistinguishedName;
 	}
 
@@ -514,7 +777,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateSerialNumber(final int dssCertificateId) {
 
-		final String serialNumber = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/SerialNumber/text()", dssCertificateId);
+		final String serialNumber = getUsedCertificateOrEmpty(dssCertificateId).getValue("./SerialNumber/text()");
 		return serialNumber;
 	}
 
@@ -526,7 +789,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateValidAtValidationTime(final int dssCertificateId) {
 
-		final boolean validityAtValidationTime = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/ValidityAtValidationTime/text()", dssCertificateId);
+		final boolean validityAtValidationTime = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./ValidityAtValidationTime/text()");
 		return validityAtValidationTime;
 	}
 
@@ -538,7 +801,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCP(final int dssCertificateId) {
 
-		final boolean qcp = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCP/text()", dssCertificateId);
+		final boolean qcp = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./QCStatement/QCP/text()");
 		return qcp;
 	}
 
@@ -550,7 +813,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCPPlus(final int dssCertificateId) {
 
-		final boolean qcpPlus = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCPPlus/text()", dssCertificateId);
+		final boolean qcpPlus = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./QCStatement/QCPPlus/text()");
 		return qcpPlus;
 	}
 
@@ -562,7 +825,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCC(final int dssCertificateId) {
 
-		final boolean qcc = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCC/text()", dssCertificateId);
+		final boolean qcc = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./QCStatement/QCC/text()");
 		return qcc;
 	}
 
@@ -574,7 +837,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCSSCD(final int dssCertificateId) {
 
-		final boolean qcsscd = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCSSCD/text()", dssCertificateId);
+		final boolean qcsscd = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./QCStatement/QCSSCD/text()");
 		return qcsscd;
 	}
 
@@ -588,8 +851,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCWithSSCDQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_WITH_SSCD + "', '" + TSLConstant.QC_WITH_SSCD_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-			  dssCertificateId);
+		final String qualification = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -602,8 +864,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCNoSSCDQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_NO_SSCD + "', '" + TSLConstant.QC_NO_SSCD_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-			  dssCertificateId);
+		final String qualification = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -616,8 +877,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCSSCDStatusAsInCertQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QCSSCD_STATUS_AS_IN_CERT + "', '" + TSLConstant.QCSSCD_STATUS_AS_IN_CERT_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-			  dssCertificateId);
+		final String qualification = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -630,8 +890,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCForLegalPersonQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_FOR_LEGAL_PERSON + "', '" + TSLConstant.QC_FOR_LEGAL_PERSON_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-			  dssCertificateId);
+		final String qualification = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -643,27 +902,26 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateTSPServiceName(final int dssCertificateId) {
 
-		final String tspServiceName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/TSPServiceName/text()", dssCertificateId);
+		final String tspServiceName = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/TSPServiceName/text()");
 		return tspServiceName;
 	}
 
 	public String getCertificateTSPServiceStatus(final int dssCertificateId) {
 
-		final String TSPServiceStatus = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Status/text()", dssCertificateId);
+		final String TSPServiceStatus = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/Status/text()");
 		return TSPServiceStatus;
 	}
 
 	public String getCertificateTSPServiceStartDate(final int dssCertificateId) {
 
-		final String TSPServiceStartDate = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/StartDate/text()", dssCertificateId);
+		final String TSPServiceStartDate = getUsedCertificateOrEmpty(dssCertificateId).getValue("./TrustedServiceProvider/StartDate/text()");
 		return TSPServiceStartDate;
 	}
 
 	public List<String> getCertificateTSPServiceQualifiers(final int dssCertificateId) {
 
 		List<String> tspServiceQualifiers = new ArrayList<String>();
-		final List<XmlDom> TSPServiceQualifiers = getElements("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier",
-			  dssCertificateId);
+		final List<XmlDom> TSPServiceQualifiers = getUsedCertificateOrEmpty(dssCertificateId).getElements("./TrustedServiceProvider/Qualifiers/Qualifier");
 
 		for (XmlDom tspServiceQualifier : TSPServiceQualifiers) {
 			tspServiceQualifiers.add(tspServiceQualifier.getText());
@@ -679,7 +937,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateRelatedTSLWellSigned(final int dssCertificateId) {
 
-		final boolean wellSigned = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/WellSigned/text()", dssCertificateId);
+		final boolean wellSigned = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./TrustedServiceProvider/WellSigned/text()");
 		return wellSigned;
 	}
 
@@ -691,7 +949,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateRevocationSource(final int dssCertificateId) {
 
-		final String certificateRevocationSource = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Source/text()", dssCertificateId);
+		final String certificateRevocationSource = getUsedCertificateOrEmpty(dssCertificateId).getValue("./Revocation/Source/text()");
 		return certificateRevocationSource;
 	}
 
@@ -703,7 +961,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean getCertificateRevocationStatus(final int dssCertificateId) {
 
-		final boolean certificateRevocationStatus = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Status/text()", dssCertificateId);
+		final boolean certificateRevocationStatus = getUsedCertificateOrEmpty(dssCertificateId).getBoolValue("./Revocation/Status/text()");
 		return certificateRevocationStatus;
 	}
 
@@ -715,13 +973,13 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateRevocationReason(int dssCertificateId) {
 
-		final String revocationReason = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Reason/text()", dssCertificateId);
+		final String revocationReason = getUsedCertificateOrEmpty(dssCertificateId).getValue("./Revocation/Reason/text()");
 		return revocationReason;
 	}
 
 	public String getErrorMessage(final String signatureId) {
 
-		final String errorMessage = getValue("/DiagnosticData/Signature[@Id='%s']/ErrorMessage/text()", signatureId);
+		final String errorMessage = getSignatureOrEmpty(signatureId).getValue("./ErrorMessage/text()");
 		return errorMessage;
 	}
 
@@ -730,10 +988,9 @@ public class DiagnosticData extends XmlDom {
 		List<String> trueQcStatements = new ArrayList<String>();
 		final List<XmlDom> qcStatements = getElements("/DiagnosticData/UsedCertificates/Certificate/QCStatement");
 		for (XmlDom qcStatement : qcStatements) {
-			NodeList qcNodes = qcStatement.getRootElement().getChildNodes();
-			for (int i = 0; i < qcNodes.getLength(); ++i) {
-				if (qcNodes.item(i).getTextContent().toLowerCase().equals("true")) {
-					trueQcStatements.add(qcNodes.item(i).getNodeName());
+			for (final XmlDom qcNode : qcStatement.getElements("./*")) {
+				if (qcNode.getText().toLowerCase().equals("true")) {
+					trueQcStatements.add(qcNode.getName());
 				}
 			}
 		}
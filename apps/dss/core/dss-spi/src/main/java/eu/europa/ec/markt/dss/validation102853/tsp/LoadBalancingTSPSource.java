@@ -0,0 +1,276 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.europa.ec.markt.dss.validation102853.tsp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DigestAlgorithm;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * This {@code TSPSource} distributes the timestamp requests over several TSA endpoints (typically {@code OnlineTSPSource}s). The requests are spread in a round-robin
+ * manner; when an endpoint fails the request is sent to the next one and the failing endpoint is skipped during {@link #setRetryDelay(long)} milliseconds.
+ * <p/>
+ * The timestamps can also be requested asynchronously with {@link #getTimeStampResponseAsync(DigestAlgorithm, byte[])} to overlap the round trips to the TSAs with
+ * other work. The class is thread-safe as long as the underlying sources are.
+ * <p/>
+ * DISCLAIMER: Project owner DG-MARKT.
+ *
+ * @author <a href="mailto:dgmarkt.Project-DSS@arhs-developments.com">ARHS Developments</a>
+ * @version $Revision$ - $Date$
+ */
+public class LoadBalancingTSPSource implements TSPSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LoadBalancingTSPSource.class);
+
+	/**
+	 * The default number of threads used to send the asynchronous timestamp requests
+	 */
+	public static final int DEFAULT_THREAD_POOL_SIZE = 8;
+
+	/**
+	 * The default delay in milliseconds during which a failing endpoint is not used: one minute
+	 */
+	public static final long DEFAULT_RETRY_DELAY = 60 * 1000L;
+
+	/**
+	 * The name of the shared pool of threads used by default, see {@code DSSUtils#setSharedExecutorService(String, ExecutorService)}
+	 */
+	public static final String EXECUTOR_SERVICE_NAME = "dss-tsp";
+
+	private final List<Endpoint> endpoints;
+
+	private final AtomicInteger nextEndpoint = new AtomicInteger();
+
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+
+	private ExecutorService executorService;
+
+	/**
+	 * One TSA endpoint with the time until which it is considered as unavailable.
+	 */
+	private static class Endpoint {
+
+		final TSPSource tspSource;
+
+		volatile long unavailableUntil;
+
+		Endpoint(final TSPSource tspSource) {
+
+			this.tspSource = tspSource;
+		}
+	}
+
+	/**
+	 * The constructor for LoadBalancingTSPSource.
+	 *
+	 * @param tspSources the TSA endpoints to use, at least one
+	 */
+	public LoadBalancingTSPSource(final TSPSource... tspSources) {
+
+		this(tspSources == null ? null : Arrays.asList(tspSources));
+	}
+
+	/**
+	 * The constructor for LoadBalancingTSPSource.
+	 *
+	 * @param tspSources the TSA endpoints to use, at least one
+	 */
+	public LoadBalancingTSPSource(final List<TSPSource> tspSources) {
+
+		if (tspSources == null || tspSources.isEmpty()) {
+			throw new DSSNullException(TSPSource.class, "tspSources");
+		}
+		endpoints = new ArrayList<Endpoint>(tspSources.size());
+		for (final TSPSource tspSource : tspSources) {
+
+			if (tspSource == null) {
+				throw new DSSNullException(TSPSource.class);
+			}
+			endpoints.add(new Endpoint(tspSource));
+		}
+	}
+
+	/**
+	 * This setter allows to define the delay in milliseconds during which a failing endpoint is skipped. The default value is {@link #DEFAULT_RETRY_DELAY}.
+	 *
+	 * @param retryDelay the delay in milliseconds
+	 */
+	public void setRetryDelay(final long retryDelay) {
+
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * This setter allows to define the {@code ExecutorService} used to send the asynchronous requests. By default a pool of {@link #DEFAULT_THREAD_POOL_SIZE} daemon threads
+	 * shared by all the instances is used.
+	 *
+	 * @param executorService the {@code ExecutorService} to use or null
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	/**
+	 * The request is sent to the next available endpoint. If it fails the other endpoints are tried one after the other, the endpoints marked as unavailable being tried
+	 * last.
+	 *
+	 * @param digestAlgorithm the algorithm used to compute the digest
+	 * @param digest          the digest to timestamp
+	 * @return the timestamp token
+	 * @throws DSSException when no endpoint is able to deliver a timestamp token
+	 */
+	@Override
+	public TimeStampToken getTimeStampResponse(final DigestAlgorithm digestAlgorithm, final byte[] digest) throws DSSException {
+
+		final int size = endpoints.size();
+		final int first = (nextEndpoint.getAndIncrement() & Integer.MAX_VALUE) % size;
+		final boolean[] tried = new boolean[size];
+		DSSException lastException = null;
+		for (int pass = 0; pass < 2; pass++) {
+
+			for (int ii = 0; ii < size; ii++) {
+
+				final int index = (first + ii) % size;
+				final Endpoint endpoint = endpoints.get(index);
+				if (tried[index] || (pass == 0 && endpoint.unavailableUntil > System.currentTimeMillis())) {
+					continue;
+				}
+				tried[index] = true;
+				try {
+
+					final TimeStampToken timeStampToken = endpoint.tspSource.getTimeStampResponse(digestAlgorithm, digest);
+					if (timeStampToken != null) {
+
+						endpoint.unavailableUntil = 0;
+						return timeStampToken;
+					}
+					lastException = new DSSException("No timestamp token was delivered by the TSA!");
+				} catch (RuntimeException e) {
+
+					// Any failure of an endpoint (connection, parsing of the response...) leads to the next one
+					lastException = e instanceof DSSException ? (DSSException) e : new DSSException(e);
+				}
+				LOG.warn("TSA endpoint #" + index + " failed: " + lastException.getMessage());
+				endpoint.unavailableUntil = System.currentTimeMillis() + retryDelay;
+			}
+		}
+		throw lastException;
+	}
+
+	/**
+	 * This method sends the timestamp request in the background, see {@link #getTimeStampResponse(DigestAlgorithm, byte[])}. The {@code Future} raises an
+	 * {@code ExecutionException} wrapping the {@code DSSException} when no timestamp token can be obtained, see {@link #getTimeStampToken(Future)}.
+	 *
+	 * @param digestAlgorithm the algorithm used to compute the digest
+	 * @param digest          the digest to timestamp
+	 * @return the pending timestamp token
+	 */
+	public Future<TimeStampToken> getTimeStampResponseAsync(final DigestAlgorithm digestAlgorithm, final byte[] digest) {
+
+		return submit(executorService, this, digestAlgorithm, digest);
+	}
+
+	/**
+	 * This method sends the timestamp request to any {@code TSPSource} in the background. A {@code LoadBalancingTSPSource} uses its own {@code ExecutorService}, the other
+	 * sources the shared pool {@link #EXECUTOR_SERVICE_NAME}.
+	 *
+	 * @param tspSource       the source to which the request is sent
+	 * @param digestAlgorithm the algorithm used to compute the digest
+	 * @param digest          the digest to timestamp
+	 * @return the pending timestamp token
+	 */
+	public static Future<TimeStampToken> getTimeStampResponseAsync(final TSPSource tspSource, final DigestAlgorithm digestAlgorithm, final byte[] digest) {
+
+		if (tspSource instanceof LoadBalancingTSPSource) {
+			return ((LoadBalancingTSPSource) tspSource).getTimeStampResponseAsync(digestAlgorithm, digest);
+		}
+		return submit(null, tspSource, digestAlgorithm, digest);
+	}
+
+	/**
+	 * This method waits for a timestamp token requested with {@link #getTimeStampResponseAsync(DigestAlgorithm, byte[])}.
+	 *
+	 * @param pendingTimeStampToken the pending timestamp token
+	 * @return the timestamp token
+	 * @throws DSSException when no timestamp token was obtained or the current thread is interrupted
+	 */
+	public static TimeStampToken getTimeStampToken(final Future<TimeStampToken> pendingTimeStampToken) throws DSSException {
+
+		try {
+			return pendingTimeStampToken.get();
+		} catch (InterruptedException e) {
+
+			pendingTimeStampToken.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for the timestamp token!", e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	private static Future<TimeStampToken> submit(final ExecutorService executorService, final TSPSource tspSource, final DigestAlgorithm digestAlgorithm,
+	                                             final byte[] digest) {
+
+		final ExecutorService executor = executorService == null ? DSSUtils.getSharedExecutorService(EXECUTOR_SERVICE_NAME, DEFAULT_THREAD_POOL_SIZE) : executorService;
+		return executor.submit(new Callable<TimeStampToken>() {
+
+			@Override
+			public TimeStampToken call() throws Exception {
+
+				return tspSource.getTimeStampResponse(digestAlgorithm, digest);
+			}
+		});
+	}
+
+	/**
+	 * The policy is set on all the endpoints.
+	 *
+	 * @param policyOid the policy OID
+	 */
+	@Override
+	public void setPolicyOid(final String policyOid) {
+
+		for (final Endpoint endpoint : endpoints) {
+
+			endpoint.tspSource.setPolicyOid(policyOid);
+		}
+	}
+}
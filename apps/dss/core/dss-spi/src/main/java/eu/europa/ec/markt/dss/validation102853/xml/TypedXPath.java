@@ -0,0 +1,461 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is the compiled form of the XPath queries which can be evaluated directly on a {@code TypedXmlDom}. The supported subset covers the queries of the
+ * validation processes: absolute and relative location paths made of child ({@code Name} or {@code *}), self ({@code .}), parent ({@code ..}), attribute
+ * ({@code @Name}) and {@code text()} steps. The child steps accept the positional predicates ({@code [1]}, {@code [last()]}) and the equality predicates on an
+ * attribute or on a prefixed child element ({@code [@Id='%s']}, {@code [dss:DigestValue='%s']}). The namespace prefixes are ignored.
+ * <p/>
+ * The {@code '%s'} literals are kept as parameters: a query template is compiled only once whatever the values of its parameters.
+ */
+final class TypedXPath {
+
+	private static final String QUOTED_PARAMETER = "'%s'";
+
+	private final boolean absolute;
+
+	private final List<Step> steps;
+
+	private TypedXPath(final boolean absolute, final List<Step> steps) {
+
+		this.absolute = absolute;
+		this.steps = steps;
+	}
+
+	private enum Axis {
+		SELF, PARENT, CHILD, ATTRIBUTE, TEXT
+	}
+
+	private static final class Step {
+
+		final Axis axis;
+
+		/**
+		 * The local name of the element or of the attribute, null for any element ({@code *}).
+		 */
+		final String name;
+
+		final List<Predicate> predicates = new ArrayList<Predicate>();
+
+		Step(final Axis axis, final String name) {
+
+			this.axis = axis;
+			this.name = name;
+		}
+	}
+
+	private static final class Predicate {
+
+		/**
+		 * The position (starting at 1) of the selected element, -1 for {@code last()} and 0 for an equality predicate.
+		 */
+		final int position;
+
+		final boolean attribute;
+
+		/**
+		 * The name of the compared attribute or child element, null for the current element ({@code .}).
+		 */
+		final String name;
+
+		/**
+		 * The compared literal, null when the value is given by the parameter {@code parameterIndex}.
+		 */
+		final String literal;
+
+		final int parameterIndex;
+
+		Predicate(final int position, final boolean attribute, final String name, final String literal, final int parameterIndex) {
+
+			this.position = position;
+			this.attribute = attribute;
+			this.name = name;
+			this.literal = literal;
+			this.parameterIndex = parameterIndex;
+		}
+	}
+
+	/**
+	 * This method compiles the given XPath query.
+	 *
+	 * @param xPath          the XPath query, its {@code '%s'} literals are parameters when {@code parameterized} is true
+	 * @param parameterized  true if the {@code '%s'} literals are parameters
+	 * @return the compiled query or null if the query is outside of the supported subset
+	 */
+	static TypedXPath compile(final String xPath, final boolean parameterized) {
+
+		String path = xPath.trim();
+		if (path.isEmpty() || path.contains("//")) {
+			return null;
+		}
+		final boolean absolute = path.charAt(0) == '/';
+		if (absolute) {
+
+			path = path.substring(1);
+			if (path.isEmpty()) {
+				return null;
+			}
+		}
+		final List<String> tokens = split(path);
+		if (tokens == null) {
+			return null;
+		}
+		final List<Step> steps = new ArrayList<Step>();
+		final int[] parameterCounter = new int[1];
+		for (final String token : tokens) {
+
+			final Step step = compileStep(token, parameterized, parameterCounter);
+			if (step == null || (absolute && steps.isEmpty() && step.axis != Axis.CHILD)) {
+				return null;
+			}
+			steps.add(step);
+		}
+		return new TypedXPath(absolute, steps);
+	}
+
+	/**
+	 * Splits the location path on the slashes which are not within a predicate.
+	 *
+	 * @param path the location path without the leading slash
+	 * @return the list of steps or null if the path is not well-formed
+	 */
+	private static List<String> split(final String path) {
+
+		final List<String> tokens = new ArrayList<String>();
+		int depth = 0;
+		char quote = 0;
+		int start = 0;
+		for (int ii = 0; ii < path.length(); ii++) {
+
+			final char c = path.charAt(ii);
+			if (quote != 0) {
+
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if (c == '/' && depth == 0) {
+
+				tokens.add(path.substring(start, ii).trim());
+				start = ii + 1;
+			}
+		}
+		if (quote != 0 || depth != 0) {
+			return null;
+		}
+		tokens.add(path.substring(start).trim());
+		for (final String token : tokens) {
+
+			if (token.isEmpty()) {
+				return null;
+			}
+		}
+		return tokens;
+	}
+
+	private static Step compileStep(final String token, final boolean parameterized, final int[] parameterCounter) {
+
+		if (".".equals(token)) {
+			return new Step(Axis.SELF, null);
+		}
+		if ("..".equals(token)) {
+			return new Step(Axis.PARENT, null);
+		}
+		if ("text()".equals(token)) {
+			return new Step(Axis.TEXT, null);
+		}
+		if (token.charAt(0) == '@') {
+
+			final String name = toLocalName(token.substring(1));
+			return isName(name) ? new Step(Axis.ATTRIBUTE, name) : null;
+		}
+		final int bracket = token.indexOf('[');
+		final String nameTest = toLocalName(bracket == -1 ? token : token.substring(0, bracket).trim());
+		final boolean anyName = "*".equals(nameTest);
+		if (!anyName && !isName(nameTest)) {
+			return null;
+		}
+		final Step step = new Step(Axis.CHILD, anyName ? null : nameTest);
+		int index = bracket;
+		while (index != -1 && index < token.length()) {
+
+			if (token.charAt(index) != '[') {
+				return null;
+			}
+			final int end = findPredicateEnd(token, index);
+			if (end == -1) {
+				return null;
+			}
+			final Predicate predicate = compilePredicate(token.substring(index + 1, end).trim(), parameterized, parameterCounter);
+			if (predicate == null) {
+				return null;
+			}
+			step.predicates.add(predicate);
+			index = end + 1;
+			while (index < token.length() && Character.isWhitespace(token.charAt(index))) {
+				index++;
+			}
+		}
+		return step;
+	}
+
+	private static int findPredicateEnd(final String token, final int start) {
+
+		char quote = 0;
+		for (int ii = start + 1; ii < token.length(); ii++) {
+
+			final char c = token.charAt(ii);
+			if (quote != 0) {
+
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				return -1;
+			} else if (c == ']') {
+				return ii;
+			}
+		}
+		return -1;
+	}
+
+	private static Predicate compilePredicate(final String expression, final boolean parameterized, final int[] parameterCounter) {
+
+		if ("last()".equals(expression)) {
+			return new Predicate(-1, false, null, null, -1);
+		}
+		if (isPositiveInteger(expression)) {
+			return new Predicate(Integer.parseInt(expression), false, null, null, -1);
+		}
+		final int equals = expression.indexOf('=');
+		if (equals <= 0 || expression.charAt(equals - 1) == '!') {
+			return null;
+		}
+		String operand = expression.substring(0, equals).trim();
+		final String value = expression.substring(equals + 1).trim();
+		if (value.length() < 2 || (value.charAt(0) != '\'' && value.charAt(0) != '"') || value.charAt(value.length() - 1) != value.charAt(0)) {
+			return null;
+		}
+		final boolean attribute = operand.startsWith("@");
+		if (attribute) {
+			operand = operand.substring(1);
+		} else if (!".".equals(operand) && !operand.startsWith("dss:")) {
+			// the namespace prefix is not added inside the predicates: such a child element never matches in the DOM
+			return null;
+		}
+		final String name = ".".equals(operand) && !attribute ? null : toLocalName(operand);
+		if (name != null && !isName(name)) {
+			return null;
+		}
+		if (parameterized && QUOTED_PARAMETER.equals(value)) {
+			return new Predicate(0, attribute, name, null, parameterCounter[0]++);
+		}
+		final String literal = value.substring(1, value.length() - 1);
+		if (literal.indexOf(value.charAt(0)) != -1) {
+			return null;
+		}
+		return new Predicate(0, attribute, name, literal, -1);
+	}
+
+	private static String toLocalName(final String qualifiedName) {
+
+		final String name = qualifiedName.trim();
+		return name.substring(name.indexOf(':') + 1);
+	}
+
+	private static boolean isName(final String name) {
+
+		if (name.isEmpty() || !Character.isLetter(name.charAt(0)) && name.charAt(0) != '_') {
+			return false;
+		}
+		for (int ii = 1; ii < name.length(); ii++) {
+
+			final char c = name.charAt(ii);
+			if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPositiveInteger(final String expression) {
+
+		if (expression.isEmpty() || expression.length() > 9) {
+			return false;
+		}
+		for (int ii = 0; ii < expression.length(); ii++) {
+
+			if (!Character.isDigit(expression.charAt(ii))) {
+				return false;
+			}
+		}
+		return Integer.parseInt(expression) > 0;
+	}
+
+	/**
+	 * This method evaluates the query.
+	 *
+	 * @param context the context node
+	 * @param params  the values of the parameters
+	 * @return the list of the selected nodes in document order: {@code TypedXmlDom} for the elements and {@code String} for the attributes and the text nodes
+	 */
+	List<Object> evaluate(final TypedXmlDom context, final Object[] params) {
+
+		List<Object> nodes = new ArrayList<Object>();
+		if (absolute) {
+
+			final TypedXmlDom root = context.getDocumentRoot();
+			final Step first = steps.get(0);
+			if (first.name == null || first.name.equals(root.getName())) {
+
+				final List<TypedXmlDom> selected = filter(Collections.singletonList(root), first, params);
+				nodes.addAll(selected);
+			}
+		} else {
+			nodes.add(context);
+		}
+		for (int ii = absolute ? 1 : 0; ii < steps.size() && !nodes.isEmpty(); ii++) {
+
+			nodes = evaluate(nodes, steps.get(ii), params);
+		}
+		return nodes;
+	}
+
+	private static List<Object> evaluate(final List<Object> nodes, final Step step, final Object[] params) {
+
+		final List<Object> result = new ArrayList<Object>();
+		for (final Object node : nodes) {
+
+			if (!(node instanceof TypedXmlDom)) {
+				continue;
+			}
+			final TypedXmlDom element = (TypedXmlDom) node;
+			switch (step.axis) {
+				case SELF:
+					result.add(element);
+					break;
+				case PARENT:
+					final TypedXmlDom parent = element.getParent();
+					if (parent != null) {
+						result.add(parent);
+					}
+					break;
+				case ATTRIBUTE:
+					final String attributeValue = element.getAttributeValue(step.name);
+					if (attributeValue != null) {
+						result.add(attributeValue);
+					}
+					break;
+				case TEXT:
+					final String text = element.getOwnText();
+					if (text != null && !text.isEmpty()) {
+						result.add(text);
+					}
+					break;
+				default:
+					final List<TypedXmlDom> children = new ArrayList<TypedXmlDom>();
+					for (final TypedXmlDom child : element.getChildren()) {
+
+						if (step.name == null || step.name.equals(child.getName())) {
+							children.add(child);
+						}
+					}
+					result.addAll(filter(children, step, params));
+			}
+		}
+		if (step.axis == Axis.PARENT && result.size() > 1) {
+			return removeDuplicates(result);
+		}
+		return result;
+	}
+
+	private static List<TypedXmlDom> filter(final List<TypedXmlDom> elements, final Step step, final Object[] params) {
+
+		List<TypedXmlDom> selected = elements;
+		for (final Predicate predicate : step.predicates) {
+
+			if (selected.isEmpty()) {
+				break;
+			}
+			if (predicate.position == -1) {
+				selected = Collections.singletonList(selected.get(selected.size() - 1));
+			} else if (predicate.position > 0) {
+				selected = predicate.position <= selected.size() ? Collections.singletonList(selected.get(predicate.position - 1)) : Collections.<TypedXmlDom>emptyList();
+			} else {
+
+				final String expected = predicate.literal == null ? String.valueOf(params[predicate.parameterIndex]) : predicate.literal;
+				final List<TypedXmlDom> matching = new ArrayList<TypedXmlDom>();
+				for (final TypedXmlDom element : selected) {
+
+					if (matches(element, predicate, expected)) {
+						matching.add(element);
+					}
+				}
+				selected = matching;
+			}
+		}
+		return selected;
+	}
+
+	private static boolean matches(final TypedXmlDom element, final Predicate predicate, final String expected) {
+
+		if (predicate.attribute) {
+			return expected.equals(element.getAttributeValue(predicate.name));
+		}
+		if (predicate.name == null) {
+			return expected.equals(element.getTextContent());
+		}
+		for (final TypedXmlDom child : element.getChildren()) {
+
+			if (predicate.name.equals(child.getName()) && expected.equals(child.getTextContent())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Object> removeDuplicates(final List<Object> nodes) {
+
+		final Map<Object, Boolean> seen = new IdentityHashMap<Object, Boolean>();
+		final List<Object> result = new ArrayList<Object>();
+		for (final Object node : nodes) {
+
+			if (seen.put(node, Boolean.TRUE) == null) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+}
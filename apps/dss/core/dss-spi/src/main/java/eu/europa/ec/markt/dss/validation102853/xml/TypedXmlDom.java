@@ -0,0 +1,596 @@
+/*
+ * DSS - Digital Signature Services
+ *
+ * Copyright (C) 2013 European Commission, Directorate-General Internal Market and Services (DG MARKT), B-1049 Bruxelles/Brussel
+ *
+ * Developed by: 2013 ARHS Developments S.A. (rue Nicolas Bové 2B, L-1253 Luxembourg) http://www.arhs-developments.com
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * "DSS - Digital Signature Services" is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Lesser General Public License as published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * DSS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * "DSS - Digital Signature Services".  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.europa.ec.markt.dss.validation102853.xml;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlNsForm;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.DSSXMLUtils;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.exception.DSSNullException;
+
+/**
+ * This class gives the {@code XmlDom} view of a JAXB object model (the classes generated from an XML schema). The queries are evaluated directly on the objects:
+ * the elements are the JAXB objects (or the values of the simple elements), the attributes and the text nodes are read from their fields. The supported queries are
+ * described in {@code TypedXPath}.
+ * <p/>
+ * The DOM representation is only built, by marshalling the objects, when it is requested ({@code getRootElement}, {@code getAttributes}, {@code toString}...) or
+ * when a query is outside of the supported subset.
+ *
+ * @version $Revision$ - $Date$
+ */
+public class TypedXmlDom extends XmlDom {
+
+	/**
+	 * The maximum number of compiled queries kept in the cache.
+	 */
+	private static final int MAX_CACHED_XPATHS = 1000;
+
+	/**
+	 * This object marks the queries which cannot be compiled.
+	 */
+	private static final Object UNSUPPORTED_XPATH = new Object();
+
+	private static final Map<String, Object> xPaths = new ConcurrentHashMap<String, Object>();
+
+	private static final Map<Class<?>, TypeModel> typeModels = new ConcurrentHashMap<Class<?>, TypeModel>();
+
+	private static final Map<Class<?>, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+	private final TypedXmlDom parent;
+
+	private final String namespace;
+
+	private final String name;
+
+	/**
+	 * The JAXB object or the value of a simple element.
+	 */
+	private final Object object;
+
+	private List<TypedXmlDom> children;
+
+	private Element element;
+
+	/**
+	 * The default constructor for TypedXmlDom.
+	 *
+	 * @param jaxbObject the JAXB object annotated with {@code XmlRootElement}
+	 */
+	public TypedXmlDom(final Object jaxbObject) {
+
+		if (jaxbObject == null) {
+			throw new DSSNullException(Object.class, "jaxbObject");
+		}
+		final Class<?> rootClass = jaxbObject.getClass();
+		final XmlRootElement xmlRootElement = rootClass.getAnnotation(XmlRootElement.class);
+		if (xmlRootElement == null) {
+			throw new DSSException("The class " + rootClass.getName() + " is not annotated with XmlRootElement!");
+		}
+		this.parent = null;
+		this.object = jaxbObject;
+		this.name = "##default".equals(xmlRootElement.name()) ? rootClass.getSimpleName() : xmlRootElement.name();
+		this.namespace = "##default".equals(xmlRootElement.namespace()) ? getSchemaNamespace(rootClass) : xmlRootElement.namespace();
+	}
+
+	private TypedXmlDom(final TypedXmlDom parent, final String namespace, final String name, final Object object) {
+
+		this.parent = parent;
+		this.namespace = namespace;
+		this.name = name;
+		this.object = object;
+	}
+
+	/**
+	 * The properties of a JAXB class: the child elements in the order of the schema, the attributes and the simple content.
+	 */
+	private static final class TypeModel {
+
+		final List<ElementProperty> elements = new ArrayList<ElementProperty>();
+
+		final Map<String, Field> attributes = new LinkedHashMap<String, Field>();
+
+		Field value;
+	}
+
+	private static final class ElementProperty {
+
+		final Field field;
+
+		final String namespace;
+
+		final String name;
+
+		ElementProperty(final Field field, final String namespace, final String name) {
+
+			this.field = field;
+			this.namespace = namespace;
+			this.name = name;
+		}
+	}
+
+	private static TypeModel getTypeModel(final Class<?> javaClass) {
+
+		TypeModel typeModel = typeModels.get(javaClass);
+		if (typeModel == null) {
+
+			typeModel = new TypeModel();
+			final List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+			for (Class<?> current = javaClass; current != null && current != Object.class; current = current.getSuperclass()) {
+				hierarchy.add(0, current);
+			}
+			for (final Class<?> current : hierarchy) {
+				addProperties(typeModel, current);
+			}
+			typeModels.put(javaClass, typeModel);
+		}
+		return typeModel;
+	}
+
+	private static void addProperties(final TypeModel typeModel, final Class<?> javaClass) {
+
+		final Map<String, Field> fields = new LinkedHashMap<String, Field>();
+		for (final Field field : javaClass.getDeclaredFields()) {
+
+			final int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic() || field.isAnnotationPresent(XmlTransient.class)) {
+				continue;
+			}
+			field.setAccessible(true);
+			fields.put(field.getName(), field);
+		}
+		final List<Field> orderedFields = new ArrayList<Field>();
+		final XmlType xmlType = javaClass.getAnnotation(XmlType.class);
+		if (xmlType != null) {
+
+			for (final String propertyName : xmlType.propOrder()) {
+
+				final Field field = fields.remove(propertyName);
+				if (field != null) {
+					orderedFields.add(field);
+				}
+			}
+		}
+		orderedFields.addAll(fields.values());
+		for (final Field field : orderedFields) {
+
+			final XmlAttribute xmlAttribute = field.getAnnotation(XmlAttribute.class);
+			if (xmlAttribute != null) {
+
+				typeModel.attributes.put("##default".equals(xmlAttribute.name()) ? field.getName() : xmlAttribute.name(), field);
+			} else if (field.isAnnotationPresent(XmlValue.class)) {
+
+				typeModel.value = field;
+			} else {
+
+				final XmlElement xmlElement = field.getAnnotation(XmlElement.class);
+				final String elementName = xmlElement == null || "##default".equals(xmlElement.name()) ? field.getName() : xmlElement.name();
+				final String elementNamespace;
+				if (xmlElement != null && !"##default".equals(xmlElement.namespace())) {
+					elementNamespace = xmlElement.namespace();
+				} else {
+					elementNamespace = isQualified(javaClass) ? getSchemaNamespace(javaClass) : "";
+				}
+				typeModel.elements.add(new ElementProperty(field, elementNamespace, elementName));
+			}
+		}
+	}
+
+	private static String getSchemaNamespace(final Class<?> javaClass) {
+
+		final Package javaPackage = javaClass.getPackage();
+		final XmlSchema xmlSchema = javaPackage == null ? null : javaPackage.getAnnotation(XmlSchema.class);
+		return xmlSchema == null ? "" : xmlSchema.namespace();
+	}
+
+	private static boolean isQualified(final Class<?> javaClass) {
+
+		final Package javaPackage = javaClass.getPackage();
+		final XmlSchema xmlSchema = javaPackage == null ? null : javaPackage.getAnnotation(XmlSchema.class);
+		return xmlSchema != null && xmlSchema.elementFormDefault() == XmlNsForm.QUALIFIED;
+	}
+
+	private static Object getFieldValue(final Field field, final Object object) {
+
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * Indicates if the given object is the value of a simple element: it is not an instance of a JAXB complex type.
+	 *
+	 * @param object the object to check
+	 * @return true if the object is a simple value
+	 */
+	private static boolean isSimpleValue(final Object object) {
+
+		final Class<?> javaClass = object.getClass();
+		return javaClass.isEnum() || !javaClass.isAnnotationPresent(XmlType.class);
+	}
+
+	/**
+	 * Returns the lexical representation of the given simple value, as written by the JAXB marshaller.
+	 *
+	 * @param value the simple value
+	 * @return the lexical representation
+	 */
+	private static String toText(final Object value) {
+
+		if (value instanceof String) {
+			return (String) value;
+		}
+		if (value instanceof XMLGregorianCalendar) {
+			return ((XMLGregorianCalendar) value).toXMLFormat();
+		}
+		if (value instanceof byte[]) {
+			return DSSUtils.base64Encode((byte[]) value);
+		}
+		if (value instanceof Enum) {
+
+			final Enum<?> constant = (Enum<?>) value;
+			try {
+
+				final XmlEnumValue xmlEnumValue = constant.getDeclaringClass().getField(constant.name()).getAnnotation(XmlEnumValue.class);
+				if (xmlEnumValue != null) {
+					return xmlEnumValue.value();
+				}
+			} catch (NoSuchFieldException e) {
+				// the name of the constant is used
+			}
+			return constant.name();
+		}
+		return String.valueOf(value);
+	}
+
+	TypedXmlDom getParent() {
+		return parent;
+	}
+
+	TypedXmlDom getDocumentRoot() {
+
+		TypedXmlDom root = this;
+		while (root.parent != null) {
+			root = root.parent;
+		}
+		return root;
+	}
+
+	/**
+	 * Returns the child elements in document order. The list is built once: the same {@code TypedXmlDom} instances are returned for each query.
+	 *
+	 * @return the list of the child elements, never null
+	 */
+	synchronized List<TypedXmlDom> getChildren() {
+
+		if (children == null) {
+
+			if (isSimpleValue(object)) {
+
+				children = Collections.emptyList();
+				return children;
+			}
+			final List<TypedXmlDom> list = new ArrayList<TypedXmlDom>();
+			for (final ElementProperty property : getTypeModel(object.getClass()).elements) {
+
+				final Object value = getFieldValue(property.field, object);
+				if (value instanceof Collection) {
+
+					for (final Object item : (Collection<?>) value) {
+
+						if (item != null) {
+							list.add(new TypedXmlDom(this, property.namespace, property.name, item));
+						}
+					}
+				} else if (value != null) {
+					list.add(new TypedXmlDom(this, property.namespace, property.name, value));
+				}
+			}
+			children = Collections.unmodifiableList(list);
+		}
+		return children;
+	}
+
+	/**
+	 * Returns the value of the given attribute.
+	 *
+	 * @param attributeName the name of the attribute
+	 * @return the value or null if the attribute is absent
+	 */
+	String getAttributeValue(final String attributeName) {
+
+		if (isSimpleValue(object)) {
+			return null;
+		}
+		final Field field = getTypeModel(object.getClass()).attributes.get(attributeName);
+		if (field == null) {
+			return null;
+		}
+		final Object value = getFieldValue(field, object);
+		return value == null ? null : toText(value);
+	}
+
+	/**
+	 * Returns the text directly contained by this element: the value of a simple element or the simple content of a complex element.
+	 *
+	 * @return the text or null if the element has no text
+	 */
+	String getOwnText() {
+
+		if (isSimpleValue(object)) {
+			return toText(object);
+		}
+		final Field field = getTypeModel(object.getClass()).value;
+		if (field == null) {
+			return null;
+		}
+		final Object value = getFieldValue(field, object);
+		return value == null ? null : toText(value);
+	}
+
+	/**
+	 * Returns the concatenation of all the text nodes of this element and of its descendants (the XPath string-value).
+	 *
+	 * @return the text content, never null
+	 */
+	String getTextContent() {
+
+		final String ownText = getOwnText();
+		final List<TypedXmlDom> childList = getChildren();
+		if (childList.isEmpty()) {
+			return ownText == null ? "" : ownText;
+		}
+		final StringBuilder stringBuilder = new StringBuilder();
+		if (ownText != null) {
+			stringBuilder.append(ownText);
+		}
+		for (final TypedXmlDom child : childList) {
+			stringBuilder.append(child.getTextContent());
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Returns the compiled form of the given query.
+	 *
+	 * @param xPath  the XPath query template
+	 * @param params the parameters of the template
+	 * @return the compiled query or null if the query is not supported
+	 */
+	private static TypedXPath getXPath(final String xPath, final Object[] params) {
+
+		final boolean parameterized = params.length > 0 && isParameterizable(xPath, params.length);
+		if (params.length > 0 && !parameterized) {
+
+			final TypedXPath typedXPath = TypedXPath.compile(String.format(xPath, params), false);
+			return typedXPath;
+		}
+		Object compiled = xPaths.get(xPath);
+		if (compiled == null) {
+
+			final TypedXPath typedXPath = TypedXPath.compile(xPath, parameterized);
+			compiled = typedXPath == null ? UNSUPPORTED_XPATH : typedXPath;
+			if (xPaths.size() < MAX_CACHED_XPATHS) {
+				xPaths.put(xPath, compiled);
+			}
+		}
+		return compiled == UNSUPPORTED_XPATH ? null : (TypedXPath) compiled;
+	}
+
+	/**
+	 * Returns the DOM view on which the queries outside of the supported subset are evaluated: the whole document for the absolute queries, this element otherwise.
+	 *
+	 * @param xPath the XPath query
+	 * @return the {@code XmlDom} encapsulating the DOM
+	 */
+	private XmlDom getDomView(final String xPath) {
+
+		final boolean absolute = xPath.trim().startsWith("/");
+		return new XmlDom(absolute ? getDocumentRoot().getRootElement() : getRootElement());
+	}
+
+	@Override
+	public List<XmlDom> getElements(final String xPath, final Object... params) {
+
+		final TypedXPath typedXPath = getXPath(xPath, params);
+		if (typedXPath == null) {
+			return getDomView(xPath).getElements(xPath, params);
+		}
+		final List<XmlDom> list = new ArrayList<XmlDom>();
+		for (final Object node : typedXPath.evaluate(this, params)) {
+
+			if (node instanceof TypedXmlDom) {
+				list.add((TypedXmlDom) node);
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public XmlDom getElement(final String xPath, final Object... params) {
+
+		final TypedXPath typedXPath = getXPath(xPath, params);
+		if (typedXPath == null) {
+			return getDomView(xPath).getElement(xPath, params);
+		}
+		for (final Object node : typedXPath.evaluate(this, params)) {
+
+			if (node instanceof TypedXmlDom) {
+				return (TypedXmlDom) node;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String getValue(final String xPath, final Object... params) {
+
+		final TypedXPath typedXPath = getXPath(xPath, params);
+		if (typedXPath == null) {
+			return getDomView(xPath).getValue(xPath, params);
+		}
+		final List<Object> nodes = typedXPath.evaluate(this, params);
+		if (nodes.size() == 1 && nodes.get(0) instanceof String) {
+			return ((String) nodes.get(0)).trim();
+		}
+		return "";
+	}
+
+	@Override
+	public long getCountValue(final String xPath, final Object... params) {
+
+		final String trimmedXPath = xPath.trim();
+		if (trimmedXPath.startsWith("count(") && trimmedXPath.endsWith(")")) {
+
+			final String locationPath = trimmedXPath.substring("count(".length(), trimmedXPath.length() - 1);
+			final TypedXPath typedXPath = getXPath(locationPath, params);
+			if (typedXPath != null) {
+				return typedXPath.evaluate(this, params).size();
+			}
+		}
+		return getDomView(xPath).getCountValue(xPath, params);
+	}
+
+	@Override
+	public String getText() {
+		return getTextContent().trim();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getAttribute(final String attributeName) {
+
+		final String value = getAttributeValue(attributeName);
+		return value == null ? "" : value;
+	}
+
+	/**
+	 * Returns the DOM representation of this element. It is built by marshalling the underlying object the first time it is requested.
+	 *
+	 * @return the DOM {@code Element}
+	 */
+	@Override
+	public synchronized Element getRootElement() {
+
+		if (element == null) {
+
+			final Object rootObject = getDocumentRoot().object;
+			try {
+
+				final Marshaller marshaller = getJAXBContext(rootObject.getClass()).createMarshaller();
+				final Document document = DSSXMLUtils.buildDOM();
+				if (parent == null) {
+					marshaller.marshal(object, document);
+				} else {
+					marshaller.marshal(toJAXBElement(), document);
+				}
+				element = document.getDocumentElement();
+			} catch (JAXBException e) {
+				throw new DSSException(e);
+			}
+		}
+		return element;
+	}
+
+	@SuppressWarnings("unchecked")
+	private JAXBElement<Object> toJAXBElement() {
+
+		final QName qName = new QName(namespace, name);
+		return new JAXBElement<Object>(qName, (Class<Object>) object.getClass(), object);
+	}
+
+	private static JAXBContext getJAXBContext(final Class<?> rootClass) throws JAXBException {
+
+		JAXBContext jaxbContext = jaxbContexts.get(rootClass);
+		if (jaxbContext == null) {
+
+			jaxbContext = JAXBContext.newInstance(rootClass);
+			jaxbContexts.put(rootClass, jaxbContext);
+		}
+		return jaxbContext;
+	}
+
+	@Override
+	void copyTo(final XmlNode xmlNode) {
+
+		final XmlNode copy = new XmlNode(name);
+		if (!isSimpleValue(object)) {
+
+			for (final Map.Entry<String, Field> entry : getTypeModel(object.getClass()).attributes.entrySet()) {
+
+				final Object value = getFieldValue(entry.getValue(), object);
+				if (value != null) {
+					copy.setAttribute(entry.getKey(), toText(value));
+				}
+			}
+		}
+		final List<TypedXmlDom> childList = getChildren();
+		if (childList.isEmpty()) {
+			copy.setValue(getTextContent());
+		} else {
+
+			for (final TypedXmlDom child : childList) {
+				child.copyTo(copy);
+			}
+		}
+		copy.setParent(xmlNode);
+	}
+
+	@Override
+	void copyChildrenTo(final XmlNode xmlNode) {
+
+		for (final TypedXmlDom child : getChildren()) {
+			child.copyTo(xmlNode);
+		}
+	}
+}
@@ -24,16 +24,19 @@ import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 
 import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathVariableResolver;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +55,10 @@ import eu.europa.ec.markt.dss.validation102853.RuleUtils;
 /**
  * This class encapsulates an org.w3c.dom.Document. Its integrates the ability to execute XPath queries on XML
  * documents.
+ * <p/>
+ * The XPath queries are compiled only once per thread: the namespace prefixes are added to the query template and each
+ * {@code '%s'} parameter is replaced by an XPath variable bound at evaluation time through an {@code XPathVariableResolver}.
+ * The templates using other kinds of parameters are formatted and the resulting queries are cached.
  *
  * @author bielecro
  */
@@ -61,7 +68,24 @@ public class XmlDom {
 
 	public static final String NAMESPACE = "http://dss.markt.ec.europa.eu/validation/diagnostic";
 
-	private static final XPathFactory factory = XPathFactory.newInstance();
+	/**
+	 * The maximum number of compiled XPath expressions kept by each thread.
+	 */
+	private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+	/**
+	 * The quoted parameter which is replaced by a variable in the compiled XPath expression.
+	 */
+	private static final String QUOTED_PARAMETER = "'%s'";
+
+	private static final ThreadLocal<XPathCache> xPathCache = new ThreadLocal<XPathCache>() {
+
+		@Override
+		protected XPathCache initialValue() {
+
+			return new XPathCache();
+		}
+	};
 
 	private static final NamespaceContext nsContext;
 
@@ -89,30 +113,134 @@ public class XmlDom {
 		this.rootElement = element;
 	}
 
-	private static XPathExpression createXPathExpression(final String xpathString) {
+	/**
+	 * This constructor is used by the subclasses which are not backed by a DOM {@code Element}: they must override the methods which read the DOM.
+	 */
+	protected XmlDom() {
+
+		this.rootElement = null;
+	}
+
+	/**
+	 * This class holds the compiled XPath expressions of one thread ({@code XPath} and {@code XPathExpression} are not thread-safe) and the values of the parameters of the
+	 * expression being evaluated.
+	 */
+	private static class XPathCache implements XPathVariableResolver {
+
+		private final XPath xpath;
 
-		final XPath xpath = factory.newXPath();
-		xpath.setNamespaceContext(nsContext);
-		try {
+		private final Map<String, XPathExpression> expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, XPathExpression> eldest) {
+
+				return size() > MAX_CACHED_EXPRESSIONS;
+			}
+		};
+
+		private Object[] params;
+
+		XPathCache() {
+
+			xpath = XPathFactory.newInstance().newXPath();
+			xpath.setNamespaceContext(nsContext);
+			xpath.setXPathVariableResolver(this);
+		}
 
-			final XPathExpression expr = xpath.compile(xpathString);
-			return expr;
-		} catch (XPathExpressionException ex) {
+		@Override
+		public Object resolveVariable(final QName variableName) {
 
-			throw new RuntimeException(ex);
+			final int index = Integer.parseInt(variableName.getLocalPart().substring(1)) - 1;
+			return String.valueOf(params[index]);
+		}
+
+		/**
+		 * Evaluates the given XPath query template with the given parameters.
+		 *
+		 * @param xmlNode    the context node
+		 * @param xPath      the XPath query template
+		 * @param params     the parameters of the template
+		 * @param returnType the expected return type
+		 * @return the result of the evaluation
+		 */
+		Object evaluate(final Node xmlNode, final String xPath, final Object[] params, final QName returnType) {
+
+			final boolean parameterized = params.length > 0 && isParameterizable(xPath, params.length);
+			final String key = parameterized || params.length == 0 ? xPath : String.format(xPath, params);
+			XPathExpression expr = expressions.get(key);
+			if (expr == null) {
+
+				final String xpathString = parameterized ? addNamespacePrefix(toParameterizedXPath(xPath)) : addNamespacePrefix(key);
+				try {
+					expr = xpath.compile(xpathString);
+				} catch (XPathExpressionException e) {
+					throw new RuntimeException(e);
+				}
+				expressions.put(key, expr);
+			}
+			this.params = params;
+			try {
+				return expr.evaluate(xmlNode, returnType);
+			} catch (XPathExpressionException e) {
+				throw new RuntimeException(e);
+			} finally {
+				this.params = null;
+			}
 		}
 	}
 
-	private static NodeList getNodeList(final Node xmlNode, final String xpathString) {
+	/**
+	 * Indicates if all the parameters of the template are quoted strings ({@code '%s'}) which can be replaced by XPath variables.
+	 *
+	 * @param xPath          the XPath query template
+	 * @param numberOfParams the number of parameters
+	 * @return true if the template can be compiled with variables
+	 */
+	static boolean isParameterizable(final String xPath, final int numberOfParams) {
 
-		try {
+		int numberOfQuotedParams = 0;
+		int index = xPath.indexOf(QUOTED_PARAMETER);
+		while (index != -1) {
 
-			final XPathExpression expr = createXPathExpression(xpathString);
-			return (NodeList) expr.evaluate(xmlNode, XPathConstants.NODESET);
-		} catch (XPathExpressionException e) {
+			numberOfQuotedParams++;
+			index = xPath.indexOf(QUOTED_PARAMETER, index + QUOTED_PARAMETER.length());
+		}
+		int numberOfPercents = 0;
+		for (int ii = 0; ii < xPath.length(); ii++) {
+
+			if (xPath.charAt(ii) == '%') {
+				numberOfPercents++;
+			}
+		}
+		return numberOfQuotedParams == numberOfParams && numberOfPercents == numberOfParams;
+	}
 
-			throw new RuntimeException(e);
+	/**
+	 * Replaces each {@code '%s'} parameter by the XPath variable {@code $pN} where N is the position of the parameter.
+	 *
+	 * @param xPath the XPath query template
+	 * @return the XPath query with variables
+	 */
+	private static String toParameterizedXPath(final String xPath) {
+
+		final StringBuilder stringBuilder = new StringBuilder();
+		int position = 0;
+		int start = 0;
+		int index = xPath.indexOf(QUOTED_PARAMETER);
+		while (index != -1) {
+
+			position++;
+			stringBuilder.append(xPath, start, index).append("$p").append(position);
+			start = index + QUOTED_PARAMETER.length();
+			index = xPath.indexOf(QUOTED_PARAMETER, start);
 		}
+		stringBuilder.append(xPath, start, xPath.length());
+		return stringBuilder.toString();
+	}
+
+	private static NodeList getNodeList(final Node xmlNode, final String xPath, final Object... params) {
+
+		return (NodeList) xPathCache.get().evaluate(xmlNode, xPath, params, XPathConstants.NODESET);
 	}
 
 	/**
@@ -126,9 +254,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			List<XmlDom> list = new ArrayList<XmlDom>();
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
@@ -150,9 +276,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
 				Node node = nodeList.item(ii);
@@ -169,25 +293,6 @@ public class XmlDom {
 		}
 	}
 
-	/**
-	 * @param xPath
-	 * @param params
-	 * @return
-	 */
-	private static String format(final String xPath, final Object... params) {
-
-		String formattedXPath;
-		if (params.length > 0) {
-
-			formattedXPath = String.format(xPath, params);
-		} else {
-
-			formattedXPath = xPath;
-		}
-		formattedXPath = addNamespacePrefix(formattedXPath);
-		return formattedXPath;
-	}
-
 	private static String addNamespacePrefix(final String formatedXPath) {
 
 		if (formatedXPath.startsWith("/dss:") || formatedXPath.startsWith("./dss:")) {
@@ -243,9 +348,7 @@ public class XmlDom {
 	 */
 	public String getValue(final String xPath, final Object... params) {
 
-		String xPath_ = format(xPath, params);
-
-		NodeList nodeList = getNodeList(rootElement, xPath_);
+		NodeList nodeList = getNodeList(rootElement, xPath, params);
 		if (nodeList.getLength() == 1) {
 
 			Node node = nodeList.item(0);
@@ -296,16 +399,8 @@ public class XmlDom {
 
 	public long getCountValue(final String xPath, final Object... params) {
 
-		String xpathString = format(xPath, params);
-		try {
-
-			XPathExpression xPathExpression = createXPathExpression(xpathString);
-			Double number = (Double) xPathExpression.evaluate(rootElement, XPathConstants.NUMBER);
-			return number.intValue();
-		} catch (XPathExpressionException e) {
-
-			throw new RuntimeException(e);
-		}
+		Double number = (Double) xPathCache.get().evaluate(rootElement, xPath, params, XPathConstants.NUMBER);
+		return number.intValue();
 	}
 
 	public boolean exists(final String xPath, final Object... params) {
@@ -369,7 +464,7 @@ public class XmlDom {
 	 */
 	public NamedNodeMap getAttributes() {
 
-		return rootElement.getAttributes();
+		return getRootElement().getAttributes();
 	}
 
 	/**
@@ -448,10 +543,11 @@ public class XmlDom {
 
 	public byte[] toByteArray() {
 
-		if (rootElement != null) {
+		final Element element = getRootElement();
+		if (element != null) {
 
 			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-			DSSXMLUtils.printDocument(rootElement, byteArrayOutputStream);
+			DSSXMLUtils.printDocument(element, byteArrayOutputStream);
 			return byteArrayOutputStream.toByteArray();
 		}
 		return DSSUtils.EMPTY_BYTE_ARRAY;
@@ -460,10 +556,11 @@ public class XmlDom {
 	@Override
 	public String toString() {
 
-		if (rootElement != null) {
+		final Element element = getRootElement();
+		if (element != null) {
 
 			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-			DSSXMLUtils.printDocument(rootElement, byteArrayOutputStream);
+			DSSXMLUtils.printDocument(element, byteArrayOutputStream);
 			return DSSUtils.getUtf8String(byteArrayOutputStream.toByteArray());
 		}
 		return super.toString();
@@ -472,4 +569,32 @@ public class XmlDom {
 	public Element getRootElement() {
 		return rootElement;
 	}
+
+	/**
+	 * This method adds a copy of this element to the given {@code XmlNode}.
+	 *
+	 * @param xmlNode the parent of the copy
+	 */
+	void copyTo(final XmlNode xmlNode) {
+
+		XmlNode.recursiveCopy(xmlNode, getRootElement());
+	}
+
+	/**
+	 * This method adds a copy of each child element of this element to the given {@code XmlNode}.
+	 *
+	 * @param xmlNode the parent of the copies
+	 */
+	void copyChildrenTo(final XmlNode xmlNode) {
+
+		final NodeList nodes = getRootElement().getChildNodes();
+		for (int ii = 0; ii < nodes.getLength(); ii++) {
+
+			final Node node = nodes.item(ii);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+
+				XmlNode.recursiveCopy(xmlNode, node);
+			}
+		}
+	}
 }
@@ -30,7 +30,6 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -109,29 +108,19 @@ public class XmlNode {
 
 	public void addChild(final XmlDom child) {
 
-		final Element element = child.rootElement;
-		recursiveCopy(this, element);
+		child.copyTo(this);
 	}
 
 	public void addChildrenOf(final XmlDom parent) {
 
-		final Element element = parent.rootElement;
-		final NodeList nodes = element.getChildNodes();
-		for (int ii = 0; ii < nodes.getLength(); ii++) {
-
-			final Node node = nodes.item(ii);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-
-				recursiveCopy(this, node);
-			}
-		}
+		parent.copyChildrenTo(this);
 	}
 
 	/**
 	 * @param xmlNode the {@code XmlNode} to which the element is added
 	 * @param element the {@code Node} to be copied
 	 */
-	private static void recursiveCopy(final XmlNode xmlNode, final Node element) {
+	static void recursiveCopy(final XmlNode xmlNode, final Node element) {
 
 		final String name = element.getNodeName();
 		final XmlNode _xmlNode = new XmlNode(name);
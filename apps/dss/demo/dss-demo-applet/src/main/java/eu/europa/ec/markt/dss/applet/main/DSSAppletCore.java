@@ -65,6 +65,8 @@ public class DSSAppletCore extends AppletCore {
 
 	private static final String PARAM_STRICT_RFC3370 = "strict_rfc3370";
 
+	private static final String PARAM_DIGEST_ONLY = "digest_only";
+
 	private static final String PARAM_TOKEN_TYPE = "token_type";
 
 	private static final String PARAM_SIGNATURE_PACKAGING = "signature_packaging";
@@ -163,6 +165,12 @@ public class DSSAppletCore extends AppletCore {
 			}
 		}
 
+		// Digest only
+		final String digestOnlyParam = parameterProvider.getParameter(PARAM_DIGEST_ONLY);
+		if (DSSUtils.isNotEmpty(digestOnlyParam)) {
+			parameters.setDigestOnly(Boolean.parseBoolean(digestOnlyParam));
+		}
+
 		// File path PKCS11
 		final String pkcs11Param = parameterProvider.getParameter(PARAM_PKCS11_FILE);
 		if (DSSUtils.isNotEmpty(pkcs11Param)) {
@@ -60,6 +60,10 @@ public class Parameters {
      *
      */
     private boolean strictRFC3370;
+    /**
+     *
+     */
+    private boolean digestOnly;
     /**
      *
      */
@@ -239,6 +243,13 @@ public class Parameters {
         return strictRFC3370;
     }
 
+    /**
+     * @return true if only the digest of a detached CAdES or XAdES document is sent to the signature service
+     */
+    public boolean isDigestOnly() {
+        return digestOnly;
+    }
+
     public void setAppletUsage(AppletUsage appletUsage) {
         this.appletUsage = appletUsage;
     }
@@ -314,6 +325,13 @@ public class Parameters {
         this.strictRFC3370 = strictRFC3370;
     }
 
+    /**
+     * @param digestOnly the digestOnly to set
+     */
+    public void setDigestOnly(final boolean digestOnly) {
+        this.digestOnly = digestOnly;
+    }
+
     /**
      * Set the default policy URL for validation. Can be null.
      * @param defaultPolicyUrl
@@ -21,13 +21,19 @@
 package eu.europa.ec.markt.dss.applet.util;
 
 import java.io.File;
-import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.security.cert.X509Certificate;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.ws.soap.MTOMFeature;
 
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.DSSXMLUtils;
@@ -42,6 +48,7 @@ import eu.europa.ec.markt.dss.signature.InMemoryDocument;
 import eu.europa.ec.markt.dss.signature.MimeType;
 import eu.europa.ec.markt.dss.signature.token.DSSPrivateKeyEntry;
 import eu.europa.ec.markt.dss.signature.token.SignatureTokenConnection;
+import eu.europa.ec.markt.dss.validation102853.SignatureForm;
 import eu.europa.ec.markt.dss.ws.signature.DSSException_Exception;
 import eu.europa.ec.markt.dss.ws.signature.DigestAlgorithm;
 import eu.europa.ec.markt.dss.ws.signature.DssTransform;
@@ -69,6 +76,25 @@ public final class SigningUtils {
 
 	private static ObjectFactory FACTORY;
 
+	private static final QName SIGNATURE_SERVICE_NAME = new QName("http://impl.ws.dss.markt.ec.europa.eu/", "SignatureService");
+
+	/**
+	 * The creation of a {@code SignatureService_Service} fetches the WSDL: one instance is kept per service URL.
+	 */
+	private static final ConcurrentHashMap<String, SignatureService_Service> SIGNATURE_SERVICES = new ConcurrentHashMap<String, SignatureService_Service>();
+
+	/**
+	 * JAX-WS ports are not guaranteed to be thread-safe: each thread keeps its own port per service URL.
+	 */
+	private static final ThreadLocal<Map<String, SignatureService>> SIGNATURE_SERVICE_PORTS = new ThreadLocal<Map<String, SignatureService>>() {
+
+		@Override
+		protected Map<String, SignatureService> initialValue() {
+
+			return new HashMap<String, SignatureService>();
+		}
+	};
+
 	static {
 
 		System.setProperty("javax.xml.bind.JAXBContext", "com.sun.xml.internal.bind.v2.ContextFactory");
@@ -108,9 +134,7 @@ public final class SigningUtils {
 			SignaturePackaging signaturePackaging = SignaturePackaging.valueOf(signaturePackagingString);
 			wsParameters.setSignaturePackaging(signaturePackaging);
 
-			SignatureService_Service.setROOT_SERVICE_URL(serviceURL);
-			final SignatureService_Service signatureService_service = new SignatureService_Service();
-			final SignatureService signatureServiceImplPort = signatureService_service.getSignatureServiceImplPort();
+			final SignatureService signatureServiceImplPort = getSignatureServicePort(serviceURL);
 
 			final WsDocument wsExtendedDocument = signatureServiceImplPort.extendSignature(wsSignedDocument, wsParameters);
 
@@ -125,18 +149,22 @@ public final class SigningUtils {
 	}
 
 	/**
-	 * @param file
-	 * @param parameters
-	 * @return
-	 * @throws IOException
-	 * @throws NoSuchAlgorithmException
+	 * This method signs the file through the signature service. When {@code digestOnly} is true and the signature is a detached CAdES or XAdES signature, only the
+	 * digest of the file is sent: the signature service must handle the digest documents.
+	 *
+	 * @param serviceURL the root URL of the web services
+	 * @param file       the file to sign
+	 * @param parameters the signature parameters
+	 * @param digestOnly true to send only the digest of the file when it is sufficient
+	 * @return the signed document
 	 * @throws DSSException
 	 */
-	public static DSSDocument signDocument(final String serviceURL, final File file, final SignatureParameters parameters) throws DSSException {
+	public static DSSDocument signDocument(final String serviceURL, final File file, final SignatureParameters parameters, final boolean digestOnly) throws DSSException {
 
 		try {
 
-			final WsDocument wsDocument = toWsDocument(file);
+			// Detached CAdES and XAdES signatures only need the digest of the document: its content is not sent twice to the server.
+			final WsDocument wsDocument = isDigestSufficient(parameters, digestOnly) ? toWsDigestDocument(file, parameters.getDigestAlgorithm()) : toWsDocument(file);
 
 			final WsParameters wsParameters = new WsParameters();
 
@@ -154,9 +182,7 @@ public final class SigningUtils {
 			wsParameters.setDeterministicId(parameters.getDeterministicId());
 
 			// System.out.println("#@@@@@@@@: " + serviceURL);
-			SignatureService_Service.setROOT_SERVICE_URL(serviceURL);
-			final SignatureService_Service signatureService_service = new SignatureService_Service();
-			final SignatureService signatureServiceImplPort = signatureService_service.getSignatureServiceImplPort();
+			final SignatureService signatureServiceImplPort = getSignatureServicePort(serviceURL);
 
 			final byte[] toBeSignedBytes = signatureServiceImplPort.getDataToSign(wsDocument, wsParameters);
 
@@ -176,6 +202,49 @@ public final class SigningUtils {
 		}
 	}
 
+	/**
+	 * This method returns the port of the signature web service for the given URL. The port is created once per thread with MTOM enabled: the documents
+	 * are transferred as binary attachments.
+	 *
+	 * @param serviceURL the root URL of the web services
+	 * @return {@code SignatureService}
+	 * @throws MalformedURLException
+	 */
+	private static SignatureService getSignatureServicePort(final String serviceURL) throws MalformedURLException {
+
+		final Map<String, SignatureService> ports = SIGNATURE_SERVICE_PORTS.get();
+		SignatureService port = ports.get(serviceURL);
+		if (port == null) {
+
+			SignatureService_Service signatureService_service = SIGNATURE_SERVICES.get(serviceURL);
+			if (signatureService_service == null) {
+
+				final URL wsdlLocation = new URL(serviceURL + "/signatureService?wsdl");
+				signatureService_service = new SignatureService_Service(wsdlLocation, SIGNATURE_SERVICE_NAME);
+				final SignatureService_Service existingService = SIGNATURE_SERVICES.putIfAbsent(serviceURL, signatureService_service);
+				if (existingService != null) {
+
+					signatureService_service = existingService;
+				}
+			}
+			port = signatureService_service.getSignatureServiceImplPort(new MTOMFeature());
+			ports.put(serviceURL, port);
+		}
+		return port;
+	}
+
+	private static boolean isDigestSufficient(final SignatureParameters parameters, final boolean digestOnly) {
+
+		if (!digestOnly) {
+			return false;
+		}
+		if (eu.europa.ec.markt.dss.signature.SignaturePackaging.DETACHED != parameters.getSignaturePackaging()) {
+			return false;
+		}
+		final SignatureForm signatureForm = parameters.getSignatureLevel().getSignatureForm();
+		return SignatureForm.CAdES == signatureForm || SignatureForm.XAdES == signatureForm;
+	}
+
 	private static void prepareKeyParameters(SignatureParameters parameters, WsParameters wsParameters) {
 
 		final String signatureLevelString = parameters.getSignatureLevel().name();
@@ -289,6 +358,35 @@ public final class SigningUtils {
 		return wsDocument;
 	}
 
+	/**
+	 * This method creates a {@code WsDocument} which only carries the digest of the file: the file is streamed into the digest and its content is not
+	 * transferred.
+	 *
+	 * @param file            the file to sign
+	 * @param digestAlgorithm the digest algorithm of the signature
+	 * @return {@code WsDocument}
+	 */
+	public static WsDocument toWsDigestDocument(final File file, final eu.europa.ec.markt.dss.DigestAlgorithm digestAlgorithm) {
+
+		final DSSDocument dssDocument = new FileDocument(file);
+		final WsDocument wsDocument = new WsDocument();
+		final InputStream inputStream = dssDocument.openStream();
+		try {
+
+			wsDocument.setDigestValue(DSSUtils.digest(digestAlgorithm, inputStream));
+		} finally {
+
+			DSSUtils.closeQuietly(inputStream);
+		}
+		wsDocument.setDigestAlgorithm(DigestAlgorithm.fromValue(digestAlgorithm.name()));
+		wsDocument.setName(dssDocument.getName());
+		wsDocument.setAbsolutePath(dssDocument.getAbsolutePath());
+		final eu.europa.ec.markt.dss.ws.signature.MimeType wsMimeType = FACTORY.createMimeType();
+		wsMimeType.setMimeTypeString(dssDocument.getMimeType().getMimeTypeString());
+		wsDocument.setMimeType(wsMimeType);
+		return wsDocument;
+	}
+
 	public static InMemoryDocument toInMemoryDocument(final WsDocument wsSignedDocument) {
 
 		final InMemoryDocument inMemoryDocument = new InMemoryDocument(wsSignedDocument.getBytes());
@@ -206,7 +206,7 @@ public class SignatureWizardController extends DSSWizardController<SignatureMode
 
 			prepareCommonSignature(model, parameters);
 		}
-		final DSSDocument signedDocument = SigningUtils.signDocument(serviceURL, fileToSign, parameters);
+		final DSSDocument signedDocument = SigningUtils.signDocument(serviceURL, fileToSign, parameters, getParameter().isDigestOnly());
 		final FileOutputStream fileOutputStream = new FileOutputStream(model.getTargetFile());
 		final InputStream inputStream = signedDocument.openStream();
 		DSSUtils.copy(inputStream, fileOutputStream);
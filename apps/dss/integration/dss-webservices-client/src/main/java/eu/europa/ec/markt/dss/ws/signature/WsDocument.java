@@ -21,13 +21,14 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;element name="mimeType" type="{http://ws.dss.markt.ec.europa.eu/}mimeType" minOccurs="0"/>
  *         &lt;element name="name" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
  *         &lt;element name="nextDocument" type="{http://ws.dss.markt.ec.europa.eu/}wsDocument" minOccurs="0"/>
+ *         &lt;element name="digestAlgorithm" type="{http://ws.dss.markt.ec.europa.eu/}digestAlgorithm" minOccurs="0"/>
+ *         &lt;element name="digestValue" type="{http://www.w3.org/2001/XMLSchema}base64Binary" minOccurs="0"/>
  *       &lt;/sequence>
  *     &lt;/restriction>
  *   &lt;/complexContent>
  * &lt;/complexType>
  * </pre>
  * 
- * 
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "wsDocument", propOrder = {
@@ -35,7 +36,9 @@ import javax.xml.bind.annotation.XmlType;
     "bytes",
     "mimeType",
     "name",
-    "nextDocument"
+    "nextDocument",
+    "digestAlgorithm",
+    "digestValue"
 })
 public class WsDocument {
 
@@ -44,6 +47,8 @@ public class WsDocument {
     protected MimeType mimeType;
     protected String name;
     protected WsDocument nextDocument;
+    protected DigestAlgorithm digestAlgorithm;
+    protected byte[] digestValue;
 
     /**
      * Gets the value of the absolutePath property.
@@ -163,4 +168,50 @@ public class WsDocument {
         this.nextDocument = value;
     }
 
+    /**
+     * Gets the value of the digestAlgorithm property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link DigestAlgorithm }
+     *     
+     */
+    public DigestAlgorithm getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Sets the value of the digestAlgorithm property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link DigestAlgorithm }
+     *     
+     */
+    public void setDigestAlgorithm(DigestAlgorithm value) {
+        this.digestAlgorithm = value;
+    }
+
+    /**
+     * Gets the value of the digestValue property.
+     * 
+     * @return
+     *     possible object is
+     *     byte[]
+     */
+    public byte[] getDigestValue() {
+        return digestValue;
+    }
+
+    /**
+     * Sets the value of the digestValue property.
+     * 
+     * @param value
+     *     allowed object is
+     *     byte[]
+     */
+    public void setDigestValue(byte[] value) {
+        this.digestValue = ((byte[]) value);
+    }
+
 }